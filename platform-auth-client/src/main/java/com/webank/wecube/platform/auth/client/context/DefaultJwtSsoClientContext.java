@@ -21,13 +21,15 @@ public class DefaultJwtSsoClientContext implements JwtSsoClientContext {
     private String subSystemPrivateKey = DEFAULT_VALUE_STRING;
     private String authServerPublicKey = DEFAULT_VALUE_STRING;
 
-    private JwtSsoRefreshToken refreshToken;
-    private JwtSsoAccessToken accessToken;
+    private volatile JwtSsoRefreshToken refreshToken;
+    private volatile JwtSsoAccessToken accessToken;
 
     private RestTemplate restTemplate;
 
     private AuthenticationManager authenticationManager;
 
+    private JwtSsoTokenLifecycleManager tokenLifecycleManager;
+
     public DefaultJwtSsoClientContext(JwtSsoClientProperties jwtSsoClientProperties, RestTemplate restTemplate) {
         super();
         if (jwtSsoClientProperties == null) {
@@ -46,6 +48,10 @@ public class DefaultJwtSsoClientContext implements JwtSsoClientContext {
         this.authServerPublicKey = jwtSsoClientProperties.getAuthServerPublicKey();
 
         authenticationManager = new SubSystemAuthenticationManager(this.restTemplate);
+        tokenLifecycleManager = new JwtSsoTokenLifecycleManager(this::refreshTokenInBackground,
+                jwtSsoClientProperties.getTokenRefreshFraction(),
+                jwtSsoClientProperties.getTokenRefreshMinBackoffMillis(),
+                jwtSsoClientProperties.getTokenRefreshMaxBackoffMillis());
     }
 
     @Override
@@ -81,16 +87,25 @@ public class DefaultJwtSsoClientContext implements JwtSsoClientContext {
         return refreshToken;
     }
 
+    /**
+     * Returns the current access token without locking, the token is refreshed
+     * in the background before it expires and only acquired by the caller if
+     * there is no valid one.
+     */
     @Override
     public JwtSsoAccessToken getAccessToken() {
-        if (accessToken == null || accessToken.isExpired()) {
-            acquireAccessToken(false);
+        JwtSsoAccessToken currentAccessToken = accessToken;
+        if (currentAccessToken != null && !currentAccessToken.isExpired()) {
+            return currentAccessToken;
         }
 
-        if (accessToken == null || accessToken.isExpired()) {
+        acquireAccessToken(false);
+
+        currentAccessToken = accessToken;
+        if (currentAccessToken == null || currentAccessToken.isExpired()) {
             throw new RuntimeException("cannot get access token.");
         }
-        return accessToken;
+        return currentAccessToken;
     }
 
     @Override
@@ -101,7 +116,7 @@ public class DefaultJwtSsoClientContext implements JwtSsoClientContext {
     @Override
     public void setAcccessToken(JwtSsoAccessToken accessToken) {
         this.accessToken = accessToken;
-
+        tokenLifecycleManager.onAccessTokenAcquired(accessToken);
     }
 
     protected final synchronized void acquireAccessToken(boolean refreshAnyWay) {
@@ -130,4 +145,23 @@ public class DefaultJwtSsoClientContext implements JwtSsoClientContext {
         acquireAccessToken(true);
     }
 
+    /**
+     * Gets a new access token ahead of the expiry of the current one, and
+     * authenticates again if the refresh token would expire before the next
+     * refresh.
+     */
+    protected final synchronized void refreshTokenInBackground() {
+        JwtSsoAccessToken currentAccessToken = accessToken;
+        if (refreshToken == null || refreshToken.isExpired() || (currentAccessToken != null
+                && refreshToken.getExpireTime().before(currentAccessToken.getExpireTime()))) {
+            authenticationManager.authenticate(this);
+        } else {
+            authenticationManager.refreshToken(this);
+        }
+    }
+
+    public void shutdown() {
+        tokenLifecycleManager.shutdown();
+    }
+
 }
@@ -0,0 +1,94 @@
+package com.webank.wecube.platform.auth.client.context;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.wecube.platform.auth.client.model.JwtSsoAccessToken;
+
+/**
+ * Refreshes the access token in the background before it expires.
+ * <p>
+ * Each time a new access token is acquired, its refresh is scheduled at the
+ * configured fraction of its lifetime. A failed refresh is retried with an
+ * exponential backoff while the current token is still used, so that callers
+ * only wait for a token when there is no valid one at all.
+ */
+public class JwtSsoTokenLifecycleManager {
+    private static final Logger log = LoggerFactory.getLogger(JwtSsoTokenLifecycleManager.class);
+
+    private final Runnable tokenRefresher;
+    private final double refreshFraction;
+    private final long minBackoffMillis;
+    private final long maxBackoffMillis;
+
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "jwt-sso-token-refresh");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private ScheduledFuture<?> scheduledRefresh;
+    private long backoffMillis;
+
+    /**
+     * @param tokenRefresher
+     *            acquires a new access token, throws an exception if it fails
+     * @param refreshFraction
+     *            fraction of the lifetime of a token after which it is
+     *            refreshed
+     */
+    public JwtSsoTokenLifecycleManager(Runnable tokenRefresher, double refreshFraction, long minBackoffMillis,
+            long maxBackoffMillis) {
+        this.tokenRefresher = tokenRefresher;
+        this.refreshFraction = Math.min(1.0, Math.max(0.0, refreshFraction));
+        this.minBackoffMillis = Math.max(1L, minBackoffMillis);
+        this.maxBackoffMillis = Math.max(this.minBackoffMillis, maxBackoffMillis);
+        this.backoffMillis = this.minBackoffMillis;
+    }
+
+    public synchronized void onAccessTokenAcquired(JwtSsoAccessToken accessToken) {
+        if (accessToken == null || accessToken.getExpireTime() == null) {
+            return;
+        }
+
+        backoffMillis = minBackoffMillis;
+        long lifetimeMillis = accessToken.getExpireTime().getTime() - System.currentTimeMillis();
+        long delayMillis = Math.max(minBackoffMillis, (long) (lifetimeMillis * refreshFraction));
+        schedule(delayMillis);
+
+        if (log.isDebugEnabled()) {
+            log.debug("access token refresh scheduled in {} ms", delayMillis);
+        }
+    }
+
+    public synchronized void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    private void schedule(long delayMillis) {
+        if (scheduler.isShutdown()) {
+            return;
+        }
+        if (scheduledRefresh != null) {
+            scheduledRefresh.cancel(false);
+        }
+        scheduledRefresh = scheduler.schedule(this::refresh, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void refresh() {
+        try {
+            tokenRefresher.run();
+        } catch (Exception e) {
+            synchronized (this) {
+                log.warn("failed to refresh access token, retry in {} ms", backoffMillis, e);
+                schedule(backoffMillis);
+                backoffMillis = Math.min(maxBackoffMillis, backoffMillis * 2);
+            }
+        }
+    }
+}
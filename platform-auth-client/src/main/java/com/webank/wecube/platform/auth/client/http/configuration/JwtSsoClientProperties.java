@@ -14,6 +14,13 @@ public class JwtSsoClientProperties {
     private String subSystemCode;
     private String subSystemPrivateKey;
     private String authServerPublicKey;
+    /**
+     * fraction of the lifetime of an access token after which it is refreshed
+     * in the background
+     */
+    private double tokenRefreshFraction = 0.75;
+    private long tokenRefreshMinBackoffMillis = 1000;
+    private long tokenRefreshMaxBackoffMillis = 60000;
 
     public String getJwtSsoAuthenticationUri() {
         return jwtSsoAuthenticationUri;
@@ -55,4 +62,28 @@ public class JwtSsoClientProperties {
         this.authServerPublicKey = authServerPublicKey;
     }
 
+    public double getTokenRefreshFraction() {
+        return tokenRefreshFraction;
+    }
+
+    public void setTokenRefreshFraction(double tokenRefreshFraction) {
+        this.tokenRefreshFraction = tokenRefreshFraction;
+    }
+
+    public long getTokenRefreshMinBackoffMillis() {
+        return tokenRefreshMinBackoffMillis;
+    }
+
+    public void setTokenRefreshMinBackoffMillis(long tokenRefreshMinBackoffMillis) {
+        this.tokenRefreshMinBackoffMillis = tokenRefreshMinBackoffMillis;
+    }
+
+    public long getTokenRefreshMaxBackoffMillis() {
+        return tokenRefreshMaxBackoffMillis;
+    }
+
+    public void setTokenRefreshMaxBackoffMillis(long tokenRefreshMaxBackoffMillis) {
+        this.tokenRefreshMaxBackoffMillis = tokenRefreshMaxBackoffMillis;
+    }
+
 }
@@ -0,0 +1,102 @@
+package com.webank.wecube.platform.auth.client.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+import com.webank.wecube.platform.auth.client.context.authentication.AuthenticationManager;
+import com.webank.wecube.platform.auth.client.http.configuration.JwtSsoClientProperties;
+import com.webank.wecube.platform.auth.client.model.JwtSsoAccessTokenImpl;
+import com.webank.wecube.platform.auth.client.model.JwtSsoRefreshTokenImpl;
+
+public class DefaultJwtSsoClientContextTest {
+    private static final long ACCESS_TOKEN_LIFETIME_MILLIS = 400;
+
+    private DefaultJwtSsoClientContext clientContext;
+    private FakeAuthenticationManager authenticationManager;
+
+    @Before
+    public void setup() {
+        JwtSsoClientProperties properties = new JwtSsoClientProperties();
+        properties.setTokenRefreshFraction(0.5);
+        properties.setTokenRefreshMinBackoffMillis(10);
+        properties.setTokenRefreshMaxBackoffMillis(100);
+        clientContext = new DefaultJwtSsoClientContext(properties, new RestTemplate());
+    }
+
+    @After
+    public void tearDown() {
+        clientContext.shutdown();
+    }
+
+    @Test
+    public void givenRefreshTokenOutlivingAccessTokenWhenRefreshedInBackgroundThenShouldUseRefreshToken()
+            throws Exception {
+        useAuthenticationManager(60000);
+
+        String firstAccessToken = clientContext.getAccessToken().getToken();
+
+        assertThat(authenticationManager.refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(authenticationManager.authentications.get()).isEqualTo(1);
+        assertThat(clientContext.getAccessToken().getToken()).isNotEqualTo(firstAccessToken);
+    }
+
+    @Test
+    public void givenRefreshTokenExpiringBeforeAccessTokenWhenRefreshedInBackgroundThenShouldAuthenticateAgain()
+            throws Exception {
+        // still valid at the refresh, but expires before the access token does
+        useAuthenticationManager(ACCESS_TOKEN_LIFETIME_MILLIS - 100);
+
+        clientContext.getAccessToken();
+
+        assertThat(authenticationManager.reauthenticated.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(authenticationManager.refreshes.get()).isEqualTo(0);
+        assertThat(clientContext.getAccessToken().isExpired()).isFalse();
+    }
+
+    private void useAuthenticationManager(long refreshTokenLifetimeMillis) {
+        authenticationManager = new FakeAuthenticationManager(refreshTokenLifetimeMillis);
+        ReflectionTestUtils.setField(clientContext, "authenticationManager", authenticationManager);
+    }
+
+    private static class FakeAuthenticationManager implements AuthenticationManager {
+        private final long refreshTokenLifetimeMillis;
+        private final AtomicInteger authentications = new AtomicInteger();
+        private final AtomicInteger refreshes = new AtomicInteger();
+        private final CountDownLatch reauthenticated = new CountDownLatch(1);
+        private final CountDownLatch refreshed = new CountDownLatch(1);
+
+        FakeAuthenticationManager(long refreshTokenLifetimeMillis) {
+            this.refreshTokenLifetimeMillis = refreshTokenLifetimeMillis;
+        }
+
+        @Override
+        public void authenticate(JwtSsoClientContext clientContext) {
+            int authentication = authentications.incrementAndGet();
+            long now = System.currentTimeMillis();
+            clientContext.setRefreshToken(
+                    new JwtSsoRefreshTokenImpl("refresh-" + authentication, now + refreshTokenLifetimeMillis));
+            clientContext.setAcccessToken(
+                    new JwtSsoAccessTokenImpl("access-" + authentication, now + ACCESS_TOKEN_LIFETIME_MILLIS));
+            if (authentication > 1) {
+                reauthenticated.countDown();
+            }
+        }
+
+        @Override
+        public void refreshToken(JwtSsoClientContext clientContext) {
+            int refresh = refreshes.incrementAndGet();
+            clientContext.setAcccessToken(new JwtSsoAccessTokenImpl("refreshed-" + refresh,
+                    System.currentTimeMillis() + ACCESS_TOKEN_LIFETIME_MILLIS));
+            refreshed.countDown();
+        }
+    }
+}
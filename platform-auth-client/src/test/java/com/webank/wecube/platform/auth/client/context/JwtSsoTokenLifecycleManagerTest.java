@@ -0,0 +1,115 @@
+package com.webank.wecube.platform.auth.client.context;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+import com.webank.wecube.platform.auth.client.model.JwtSsoAccessTokenImpl;
+
+public class JwtSsoTokenLifecycleManagerTest {
+    private final List<Long> refreshNanoTimes = new CopyOnWriteArrayList<>();
+
+    private JwtSsoTokenLifecycleManager tokenLifecycleManager;
+
+    @After
+    public void tearDown() {
+        if (tokenLifecycleManager != null) {
+            tokenLifecycleManager.shutdown();
+        }
+    }
+
+    @Test
+    public void givenAccessTokenAcquiredWhenFractionOfLifetimeElapsedThenShouldRefreshIt() throws Exception {
+        CountDownLatch refreshed = new CountDownLatch(1);
+        tokenLifecycleManager = new JwtSsoTokenLifecycleManager(() -> {
+            refreshNanoTimes.add(System.nanoTime());
+            refreshed.countDown();
+        }, 0.5, 10, 1000);
+
+        long acquiredNanoTime = System.nanoTime();
+        tokenLifecycleManager.onAccessTokenAcquired(accessTokenExpiringIn(1000));
+
+        assertThat(refreshed.await(5, TimeUnit.SECONDS)).isTrue();
+        long delayMillis = TimeUnit.NANOSECONDS.toMillis(refreshNanoTimes.get(0) - acquiredNanoTime);
+        // half of the lifetime, not at expiry
+        assertThat(delayMillis).isBetween(450L, 900L);
+    }
+
+    @Test
+    public void givenRefreshFailingWhenRetriedThenShouldBackOffExponentiallyUpToMax() throws Exception {
+        CountDownLatch attempts = new CountDownLatch(5);
+        tokenLifecycleManager = new JwtSsoTokenLifecycleManager(() -> {
+            refreshNanoTimes.add(System.nanoTime());
+            attempts.countDown();
+            throw new RuntimeException("auth server unavailable");
+        }, 0.0, 100, 400);
+
+        tokenLifecycleManager.onAccessTokenAcquired(accessTokenExpiringIn(60000));
+
+        assertThat(attempts.await(5, TimeUnit.SECONDS)).isTrue();
+        long[] expectedBackoffMillis = { 100, 200, 400, 400 };
+        for (int i = 0; i < expectedBackoffMillis.length; i++) {
+            long backoffMillis = TimeUnit.NANOSECONDS.toMillis(refreshNanoTimes.get(i + 1) - refreshNanoTimes.get(i));
+            assertThat(backoffMillis).as("backoff %s", i).isBetween(expectedBackoffMillis[i] - 10,
+                    expectedBackoffMillis[i] + 300);
+        }
+    }
+
+    @Test
+    public void givenRefreshSucceededAfterFailuresWhenRefreshFailsAgainThenShouldRestartFromMinBackoff()
+            throws Exception {
+        CountDownLatch attempts = new CountDownLatch(5);
+        tokenLifecycleManager = new JwtSsoTokenLifecycleManager(() -> {
+            refreshNanoTimes.add(System.nanoTime());
+            attempts.countDown();
+            if (refreshNanoTimes.size() == 3) {
+                // the third attempt acquires a new token
+                tokenLifecycleManager.onAccessTokenAcquired(accessTokenExpiringIn(0));
+                return;
+            }
+            throw new RuntimeException("auth server unavailable");
+        }, 0.0, 100, 1000);
+
+        tokenLifecycleManager.onAccessTokenAcquired(accessTokenExpiringIn(60000));
+
+        assertThat(attempts.await(5, TimeUnit.SECONDS)).isTrue();
+        // 100 and 200 ms before the success, 400 ms next without the reset
+        long backoffMillis = TimeUnit.NANOSECONDS.toMillis(refreshNanoTimes.get(4) - refreshNanoTimes.get(3));
+        assertThat(backoffMillis).isBetween(90L, 390L);
+    }
+
+    @Test
+    public void givenShutdownWhenRefreshWasScheduledThenShouldNotRefresh() throws Exception {
+        tokenLifecycleManager = new JwtSsoTokenLifecycleManager(() -> refreshNanoTimes.add(System.nanoTime()), 0.5,
+                10, 1000);
+
+        tokenLifecycleManager.onAccessTokenAcquired(accessTokenExpiringIn(200));
+        tokenLifecycleManager.shutdown();
+        tokenLifecycleManager.onAccessTokenAcquired(accessTokenExpiringIn(200));
+        Thread.sleep(400);
+
+        assertThat(refreshNanoTimes).isEmpty();
+    }
+
+    @Test
+    public void givenTokenWithoutExpireTimeWhenAcquiredThenShouldNotScheduleRefresh() throws Exception {
+        tokenLifecycleManager = new JwtSsoTokenLifecycleManager(() -> refreshNanoTimes.add(System.nanoTime()), 0.5,
+                10, 1000);
+
+        tokenLifecycleManager.onAccessTokenAcquired(null);
+        tokenLifecycleManager.onAccessTokenAcquired(new JwtSsoAccessTokenImpl("token", null));
+        Thread.sleep(200);
+
+        assertThat(refreshNanoTimes).isEmpty();
+    }
+
+    private JwtSsoAccessTokenImpl accessTokenExpiringIn(long millis) {
+        return new JwtSsoAccessTokenImpl("token", System.currentTimeMillis() + millis);
+    }
+}
@@ -1,5 +1,7 @@
 package com.webank.wecube.platform.auth.server.authentication;
 
+import java.security.PublicKey;
+
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -29,6 +31,9 @@ public class SubSystemAuthenticationProvider implements AuthenticationProvider {
     @Autowired
     private SubSystemInfoDataService subSystemDataService;
 
+    @Autowired
+    private SubSystemPublicKeyCache subSystemPublicKeyCache;
+
     @Override
     public Authentication authenticate(Authentication authentication) throws AuthenticationException {
         if (!(authentication instanceof SubSystemAuthenticationToken)) {
@@ -60,8 +65,9 @@ public class SubSystemAuthenticationProvider implements AuthenticationProvider {
             throw new BadCredentialsException("Bad credential and failed to decrypt password.");
         }
 
+        PublicKey publicKey = subSystemPublicKeyCache.getPublicKey(systemCode, subSystemPublicKey);
         String decryptedPassword = new String(
-                EncryptionUtils.decryptByPublicKeyAsString(StringUtilsEx.decodeBase64(password), subSystemPublicKey),
+                EncryptionUtils.decryptByPublicKey(StringUtilsEx.decodeBase64(password), publicKey),
                 EncryptionUtils.UTF8);
 
         String[] decryptedPasswordParts = decryptedPassword.split(DELIMITER_SYSTEM_CODE_AND_NONCE);
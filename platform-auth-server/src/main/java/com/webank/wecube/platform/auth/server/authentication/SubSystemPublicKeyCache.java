@@ -0,0 +1,47 @@
+package com.webank.wecube.platform.auth.server.authentication;
+
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import com.webank.wecube.platform.auth.server.encryption.EncryptionUtils;
+
+/**
+ * Parsed public keys of sub-systems keyed by system code, so that the key of a
+ * sub-system is parsed once rather than on each authentication.
+ * <p>
+ * An entry is only used while the encoded key it was parsed from is still the
+ * key of the sub-system, and it is evicted when the sub-system is registered.
+ */
+@Component("subSystemPublicKeyCache")
+public class SubSystemPublicKeyCache {
+
+    private final Map<String, ParsedPublicKey> publicKeys = new ConcurrentHashMap<>();
+
+    public PublicKey getPublicKey(String systemCode, String encodedPublicKey) {
+        ParsedPublicKey parsedPublicKey = publicKeys.get(systemCode);
+        if (parsedPublicKey != null && parsedPublicKey.encodedPublicKey.equals(encodedPublicKey)) {
+            return parsedPublicKey.publicKey;
+        }
+
+        PublicKey publicKey = EncryptionUtils.parsePublicKey(encodedPublicKey);
+        publicKeys.put(systemCode, new ParsedPublicKey(encodedPublicKey, publicKey));
+        return publicKey;
+    }
+
+    public void invalidate(String systemCode) {
+        publicKeys.remove(systemCode);
+    }
+
+    private static class ParsedPublicKey {
+        private final String encodedPublicKey;
+        private final PublicKey publicKey;
+
+        ParsedPublicKey(String encodedPublicKey, PublicKey publicKey) {
+            this.encodedPublicKey = encodedPublicKey;
+            this.publicKey = publicKey;
+        }
+    }
+}
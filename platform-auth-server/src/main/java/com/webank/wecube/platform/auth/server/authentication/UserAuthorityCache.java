@@ -0,0 +1,140 @@
+package com.webank.wecube.platform.auth.server.authentication;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webank.wecube.platform.auth.server.config.AuthServerProperties;
+import com.webank.wecube.platform.auth.server.config.AuthServerProperties.AuthorityCacheProperties;
+
+/**
+ * Snapshots of the authorities granted to users keyed by username, so that
+ * refreshing a token does not load the user with all of its roles and
+ * authorities each time.
+ * <p>
+ * Each change of users, roles or authorities bumps the version of the cache
+ * and evicts the affected snapshots. A snapshot loaded under an older version
+ * is never kept, so a load racing with a change cannot bring back the
+ * authorities from before the change.
+ * <p>
+ * Changes made in a transaction evict again once it completes, since loads
+ * started before the commit still read the authorities from before the change.
+ */
+@Component("userAuthorityCache")
+public class UserAuthorityCache {
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final Map<String, Snapshot> snapshots = new ConcurrentHashMap<>();
+
+    @Autowired
+    private AuthServerProperties authServerProperties;
+
+    /**
+     * @param loader
+     *            loads the authorities of a user missing in the cache, a null
+     *            value is returned but not cached
+     */
+    public Collection<GrantedAuthority> getAuthorities(String username,
+            Function<String, Collection<? extends GrantedAuthority>> loader) {
+        long now = System.currentTimeMillis();
+        Snapshot snapshot = snapshots.get(username);
+        if (snapshot != null && snapshot.expireTime > now) {
+            return snapshot.authorities;
+        }
+
+        long loadVersion = version.get();
+        Collection<? extends GrantedAuthority> loadedAuthorities = loader.apply(username);
+        if (loadedAuthorities == null) {
+            snapshots.remove(username);
+            return null;
+        }
+
+        Collection<GrantedAuthority> authorities = Collections
+                .unmodifiableList(new ArrayList<GrantedAuthority>(loadedAuthorities));
+        AuthorityCacheProperties cacheProperties = authServerProperties.getAuthorityCache();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(cacheProperties.getUserTtlSeconds());
+        if (ttlMillis <= 0 || version.get() != loadVersion) {
+            return authorities;
+        }
+
+        if (snapshots.size() >= Math.max(1, cacheProperties.getUserMaxSize())) {
+            snapshots.values().removeIf(s -> s.expireTime <= now);
+            if (snapshots.size() >= Math.max(1, cacheProperties.getUserMaxSize())) {
+                snapshots.clear();
+            }
+        }
+
+        Snapshot newSnapshot = new Snapshot(authorities, now + ttlMillis);
+        snapshots.put(username, newSnapshot);
+        if (version.get() != loadVersion) {
+            // changed while storing, the eviction might have run before the put
+            snapshots.remove(username, newSnapshot);
+        }
+        return authorities;
+    }
+
+    public void evict(String username) {
+        version.incrementAndGet();
+        if (username != null) {
+            snapshots.remove(username);
+        }
+    }
+
+    public void evictAll() {
+        version.incrementAndGet();
+        snapshots.clear();
+    }
+
+    /**
+     * Evicts the snapshot of the user now and again after the current
+     * transaction completes, or only now if there is no transaction.
+     */
+    public void evictAfterCommit(String username) {
+        evict(username);
+        runAfterCompletion(() -> evict(username));
+    }
+
+    /**
+     * Evicts all the snapshots now and again after the current transaction
+     * completes, or only now if there is no transaction.
+     */
+    public void evictAllAfterCommit() {
+        evictAll();
+        runAfterCompletion(this::evictAll);
+    }
+
+    private void runAfterCompletion(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                action.run();
+            }
+        });
+    }
+
+    private static class Snapshot {
+        private final Collection<GrantedAuthority> authorities;
+        private final long expireTime;
+
+        Snapshot(Collection<GrantedAuthority> authorities, long expireTime) {
+            this.authorities = authorities;
+            this.expireTime = expireTime;
+        }
+    }
+}
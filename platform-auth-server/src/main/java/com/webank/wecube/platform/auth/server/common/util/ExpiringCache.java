@@ -0,0 +1,71 @@
+package com.webank.wecube.platform.auth.server.common.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * A small in-memory cache whose entries expire after a fixed time to live, so
+ * that changes made outside of the application show up eventually even if no
+ * one evicts them.
+ * <p>
+ * Once the cache is full, the expired entries are dropped, and all of them if
+ * it is still full.
+ */
+public class ExpiringCache<K, V> {
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+    public ExpiringCache(long ttlMillis, int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = Math.max(1, maxSize);
+    }
+
+    /**
+     * @param loader
+     *            loads the value of a key missing in the cache, a null value
+     *            is returned but not cached
+     */
+    public V get(K key, Function<K, V> loader) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = entries.get(key);
+        if (entry != null && entry.expireTime > now) {
+            return entry.value;
+        }
+
+        V value = loader.apply(key);
+        if (value == null || ttlMillis <= 0) {
+            entries.remove(key);
+            return value;
+        }
+
+        if (entries.size() >= maxSize) {
+            entries.values().removeIf(e -> e.expireTime <= now);
+            if (entries.size() >= maxSize) {
+                entries.clear();
+            }
+        }
+        entries.put(key, new Entry<>(value, now + ttlMillis));
+        return value;
+    }
+
+    public void evict(K key) {
+        entries.remove(key);
+    }
+
+    public void evictAll() {
+        entries.clear();
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long expireTime;
+
+        Entry(V value, long expireTime) {
+            this.value = value;
+            this.expireTime = expireTime;
+        }
+    }
+}
@@ -17,6 +17,7 @@ import org.springframework.security.web.context.SecurityContextPersistenceFilter
 import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
+import com.webank.wecube.platform.auth.server.authentication.UserAuthorityCache;
 import com.webank.wecube.platform.auth.server.http.AuthenticationRequestContextInterceptor;
 import com.webank.wecube.platform.auth.server.http.filter.JwtSsoBasedAuthenticationFilter;
 import com.webank.wecube.platform.auth.server.http.filter.JwtSsoBasedLoginFilter;
@@ -26,6 +27,7 @@ import com.webank.wecube.platform.auth.server.http.handler.Http401Authentication
 import com.webank.wecube.platform.auth.server.http.handler.Http403AccessDeniedHandler;
 import com.webank.wecube.platform.auth.server.http.handler.JwtSsoBasedAuthenticationFailureHandler;
 import com.webank.wecube.platform.auth.server.service.LocalUserDetailsService;
+import com.webank.wecube.platform.auth.server.service.SubSystemInfoDataService;
 
 /**
  * 
@@ -46,6 +48,12 @@ public class AuthSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter
     @Autowired
     protected AuthenticationRequestContextInterceptor authenticationRequestContextInterceptor;
 
+    @Autowired
+    protected SubSystemInfoDataService subSystemInfoDataService;
+
+    @Autowired
+    protected UserAuthorityCache userAuthorityCache;
+
     protected String[] getAuthWhiteList() {
         return new String[]{};
     }
@@ -68,7 +76,8 @@ public class AuthSecurityConfigurerAdapter extends WebSecurityConfigurerAdapter
                 .securityContextRepository(new JwtSsoBasedSecurityContextRepository()) //
                 .and() //
                 .addFilterBefore(jwtSsoBasedLoginFilter(), SecurityContextPersistenceFilter.class) //
-                .addFilterBefore(new JwtSsoBasedRefreshTokenFilter(authenticationManager(), authServerProperties),
+                .addFilterBefore(new JwtSsoBasedRefreshTokenFilter(authenticationManager(), authServerProperties,
+                        userDetailsService, subSystemInfoDataService, userAuthorityCache),
                         SecurityContextPersistenceFilter.class) //
                 .addFilter(new JwtSsoBasedAuthenticationFilter(authenticationManager(), authServerProperties))//
                 .authorizeRequests() //
@@ -16,6 +16,9 @@ public class AuthServerProperties {
     @NestedConfigurationProperty
     private JwtTokenProperties jwtToken = new JwtTokenProperties();
 
+    @NestedConfigurationProperty
+    private AuthorityCacheProperties authorityCache = new AuthorityCacheProperties();
+
     public JwtTokenProperties getJwtToken() {
         return jwtToken;
     }
@@ -24,6 +27,14 @@ public class AuthServerProperties {
         this.jwtToken = jwtToken;
     }
     
+    public AuthorityCacheProperties getAuthorityCache() {
+        return authorityCache;
+    }
+
+    public void setAuthorityCache(AuthorityCacheProperties authorityCache) {
+        this.authorityCache = authorityCache;
+    }
+
     public String getPrivateKey() {
         return privateKey;
     }
@@ -101,4 +112,47 @@ public class AuthServerProperties {
 
     }
 
+    /**
+     * Snapshots of the authorities resolved at authentication, kept for the
+     * time to live unless the authorities are changed before.
+     */
+    public static class AuthorityCacheProperties {
+        private int subSystemTtlSeconds = 60;
+        private int subSystemMaxSize = 1000;
+        private int userTtlSeconds = 60;
+        private int userMaxSize = 10000;
+
+        public int getSubSystemTtlSeconds() {
+            return subSystemTtlSeconds;
+        }
+
+        public void setSubSystemTtlSeconds(int subSystemTtlSeconds) {
+            this.subSystemTtlSeconds = subSystemTtlSeconds;
+        }
+
+        public int getSubSystemMaxSize() {
+            return subSystemMaxSize;
+        }
+
+        public void setSubSystemMaxSize(int subSystemMaxSize) {
+            this.subSystemMaxSize = subSystemMaxSize;
+        }
+
+        public int getUserTtlSeconds() {
+            return userTtlSeconds;
+        }
+
+        public void setUserTtlSeconds(int userTtlSeconds) {
+            this.userTtlSeconds = userTtlSeconds;
+        }
+
+        public int getUserMaxSize() {
+            return userMaxSize;
+        }
+
+        public void setUserMaxSize(int userMaxSize) {
+            this.userMaxSize = userMaxSize;
+        }
+    }
+
 }
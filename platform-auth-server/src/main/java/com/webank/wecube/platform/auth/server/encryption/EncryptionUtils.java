@@ -1,6 +1,7 @@
 package com.webank.wecube.platform.auth.server.encryption;
 
 import java.nio.charset.Charset;
+import java.security.PublicKey;
 
 import com.webank.wecube.platform.auth.server.common.util.StringUtilsEx;
 
@@ -59,6 +60,19 @@ public final class EncryptionUtils {
         byte[] key = StringUtilsEx.decodeBase64(sKey);
         return decryptByPublicKey(data, key);
     }
+
+    public static byte[] decryptByPublicKey(byte[] data, PublicKey publicKey) {
+        return RSACoder.decryptByPublicKey(data, publicKey);
+    }
+
+    /**
+     * @param sKey base64 encoded X.509 public key
+     * @return the parsed key, which can be kept to decrypt without parsing it
+     *         again
+     */
+    public static PublicKey parsePublicKey(String sKey) {
+        return RSACoder.toPublicKey(StringUtilsEx.decodeBase64(sKey));
+    }
     
     /* --------------- Asymmetric end ----------------------------- */
 
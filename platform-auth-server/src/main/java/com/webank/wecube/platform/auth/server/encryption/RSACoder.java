@@ -80,6 +80,23 @@ final class RSACoder {
         }
     }
 
+    public static PublicKey toPublicKey(byte[] key) {
+        try {
+            return _INSTANCE.doToPublicKey(key);
+        } catch (NoSuchAlgorithmException | InvalidKeySpecException e) {
+            throw new EncryptionRuntimeException(e.getMessage());
+        }
+    }
+
+    public static byte[] decryptByPublicKey(byte[] data, PublicKey publicKey) {
+        try {
+            return _INSTANCE.doDecrypt(data, publicKey);
+        } catch (InvalidKeyException | NoSuchAlgorithmException | NoSuchPaddingException | IllegalBlockSizeException
+                | BadPaddingException e) {
+            throw new EncryptionRuntimeException(e.getMessage());
+        }
+    }
+
     public static byte[] encryptByPublicKey(byte[] data, byte[] key) {
         try {
             return _INSTANCE.doEncryptByPublicKey(data, key);
@@ -123,6 +140,25 @@ final class RSACoder {
         return cipher.doFinal(data);
     }
 
+    private PublicKey doToPublicKey(byte[] key) throws NoSuchAlgorithmException, InvalidKeySpecException {
+        initProvider();
+        X509EncodedKeySpec x509KeySpec = new X509EncodedKeySpec(key);
+
+        KeyFactory keyFactory = KeyFactory.getInstance(KEY_ALGORITHM);
+
+        return keyFactory.generatePublic(x509KeySpec);
+    }
+
+    private byte[] doDecrypt(byte[] data, PublicKey publicKey) throws NoSuchAlgorithmException,
+            NoSuchPaddingException, InvalidKeyException, IllegalBlockSizeException, BadPaddingException {
+        initProvider();
+        Cipher cipher = Cipher.getInstance(KEY_ALGORITHM);
+
+        cipher.init(Cipher.DECRYPT_MODE, publicKey);
+
+        return cipher.doFinal(data);
+    }
+
     private byte[] doEncryptByPrivateKey(byte[] data, byte[] key)
             throws NoSuchAlgorithmException, InvalidKeySpecException, NoSuchPaddingException, InvalidKeyException,
             IllegalBlockSizeException, BadPaddingException {
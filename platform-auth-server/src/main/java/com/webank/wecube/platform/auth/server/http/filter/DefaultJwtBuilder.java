@@ -1,9 +1,12 @@
 package com.webank.wecube.platform.auth.server.http.filter;
 
+import java.security.Key;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Date;
 
+import javax.crypto.spec.SecretKeySpec;
+
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,12 +37,17 @@ public class DefaultJwtBuilder implements JwtBuilder {
 
     private AuthServerProperties.JwtTokenProperties jwtTokenProperties;
 
-    private final String sigingKey;
+    /**
+     * decoded once, rather than for each token signed or parsed
+     */
+    private final Key sigingKey;
 
     public DefaultJwtBuilder(AuthServerProperties.JwtTokenProperties jwtTokenProperties) {
         this.jwtTokenProperties = jwtTokenProperties;
-        this.sigingKey = StringUtils.isBlank(jwtTokenProperties.getSigningKey()) ? SIGNING_KEY
+        String encodedSigningKey = StringUtils.isBlank(jwtTokenProperties.getSigningKey()) ? SIGNING_KEY
                 : jwtTokenProperties.getSigningKey();
+        this.sigingKey = new SecretKeySpec(StringUtilsEx.decodeBase64(encodedSigningKey),
+                SignatureAlgorithm.HS512.getJcaName());
 
         log.info("jwtTokenSettings:{}", jwtTokenProperties);
     }
@@ -57,7 +65,7 @@ public class DefaultJwtBuilder implements JwtBuilder {
                 .setIssuedAt(now) //
                 .claim(ApplicationConstants.JwtInfo.CLAIM_KEY_TYPE, ApplicationConstants.JwtInfo.TOKEN_TYPE_REFRESH) //
                 .claim(ApplicationConstants.JwtInfo.CLAIM_KEY_CLIENT_TYPE, clientType).setExpiration(expireTime) //
-                .signWith(SignatureAlgorithm.HS512, StringUtilsEx.decodeBase64(sigingKey)) //
+                .signWith(SignatureAlgorithm.HS512, sigingKey) //
                 .compact(); //
 
         return new JwtToken(refreshToken, ApplicationConstants.JwtInfo.TOKEN_TYPE_REFRESH, expireTime.getTime());
@@ -80,7 +88,7 @@ public class DefaultJwtBuilder implements JwtBuilder {
                 .claim(ApplicationConstants.JwtInfo.CLAIM_KEY_CLIENT_TYPE, clientType) //
                 .setExpiration(expireTime) //
                 .claim(ApplicationConstants.JwtInfo.CLAIM_KEY_AUTHORITIES, sAuthorities) //
-                .signWith(SignatureAlgorithm.HS512, StringUtilsEx.decodeBase64(sigingKey)) //
+                .signWith(SignatureAlgorithm.HS512, sigingKey) //
                 .compact(); //
         return new JwtToken(accessToken, ApplicationConstants.JwtInfo.TOKEN_TYPE_ACCESS, expireTime.getTime());
     }
@@ -138,7 +146,7 @@ public class DefaultJwtBuilder implements JwtBuilder {
 
     @Override
     public Jws<Claims> parseJwt(String token) {
-        return Jwts.parser().setSigningKey(StringUtilsEx.decodeBase64(sigingKey)).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(sigingKey).parseClaimsJws(token);
     }
 
 }
@@ -2,6 +2,7 @@ package com.webank.wecube.platform.auth.server.http.filter;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.servlet.FilterChain;
@@ -15,10 +16,10 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -28,9 +29,9 @@ import org.springframework.util.Assert;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webank.wecube.platform.auth.server.authentication.SubSystemAuthenticationToken;
+import com.webank.wecube.platform.auth.server.authentication.UserAuthorityCache;
 import com.webank.wecube.platform.auth.server.common.ApplicationConstants;
 import com.webank.wecube.platform.auth.server.config.AuthServerProperties;
-import com.webank.wecube.platform.auth.server.config.SpringApplicationContextUtil;
 import com.webank.wecube.platform.auth.server.dto.CommonResponseDto;
 import com.webank.wecube.platform.auth.server.dto.JwtTokenDto;
 import com.webank.wecube.platform.auth.server.model.JwtToken;
@@ -60,13 +61,27 @@ public class JwtSsoBasedRefreshTokenFilter extends AbstractAuthenticationProcess
 
     private final JwtBuilder jwtBuilder;
 
-    public JwtSsoBasedRefreshTokenFilter(AuthenticationManager authenticationManager, AuthServerProperties authServerProperties) {
+    private final UserDetailsService userDetailsService;
+
+    private final SubSystemInfoDataService subSystemInfoDataService;
+
+    private final UserAuthorityCache userAuthorityCache;
+
+    public JwtSsoBasedRefreshTokenFilter(AuthenticationManager authenticationManager,
+            AuthServerProperties authServerProperties, UserDetailsService userDetailsService,
+            SubSystemInfoDataService subSystemInfoDataService, UserAuthorityCache userAuthorityCache) {
         super(new AntPathRequestMatcher(URI_REFRESH_TOKEN, "GET"));
 
         this.authenticationManager = authenticationManager;
         this.authServerProperties = authServerProperties;
+        this.userDetailsService = userDetailsService;
+        this.subSystemInfoDataService = subSystemInfoDataService;
+        this.userAuthorityCache = userAuthorityCache;
 
         Assert.notNull(this.authenticationManager, "authentication manager must provide.");
+        Assert.notNull(this.userDetailsService, "user details service must provide.");
+        Assert.notNull(this.subSystemInfoDataService, "sub system info data service must provide.");
+        Assert.notNull(this.userAuthorityCache, "user authority cache must provide.");
 
         if (log.isInfoEnabled()) {
             log.info("Filter: {} applied", JwtSsoBasedRefreshTokenFilter.class.getSimpleName());
@@ -127,25 +142,28 @@ public class JwtSsoBasedRefreshTokenFilter extends AbstractAuthenticationProcess
             log.error("username is blank");
             throw new BadCredentialsException("username is blank.");
         }
-        UserDetailsService userService = SpringApplicationContextUtil.getBean(UserDetailsService.class);
 
-        if (userService == null) {
-            log.error("user details service is not configured");
-            throw new InternalAuthenticationServiceException("user details service is not configured");
-        }
-
-        UserDetails userDetails = userService.loadUserByUsername(username);
+        Collection<GrantedAuthority> authorities = userAuthorityCache.getAuthorities(username,
+                this::loadUserAuthorities);
 
-        if (userDetails == null) {
+        if (authorities == null) {
             log.error("such user {} doesnt exist", username);
             throw new UsernameNotFoundException("such user doesnt exist");
         }
 
         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(username, null,
-                userDetails.getAuthorities());
+                authorities);
         return authToken;
     }
 
+    private Collection<? extends GrantedAuthority> loadUserAuthorities(String username) {
+        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        if (userDetails == null) {
+            return null;
+        }
+        return userDetails.getAuthorities();
+    }
+
     protected Authentication attemptSubSystemAuthentication(HttpServletRequest request, HttpServletResponse response,
             Claims claims) {
         
@@ -156,9 +174,7 @@ public class JwtSsoBasedRefreshTokenFilter extends AbstractAuthenticationProcess
             throw new BadCredentialsException("system code is blank.");
         }
         
-        SubSystemInfoDataService subSystemInfoDateService = SpringApplicationContextUtil.getBean(SubSystemInfoDataService.class);
-        
-        SysSubSystemInfo systemInfo = subSystemInfoDateService.retrieveSysSubSystemInfoWithSystemCode(systemCode);
+        SysSubSystemInfo systemInfo = subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(systemCode);
         
         if(systemInfo == null){
             log.error("such sub system {} is not available.", systemCode);
@@ -15,4 +15,9 @@ public interface AuthorityRepository extends JpaRepository<SysAuthorityEntity, S
     
     @Query("select t from SysAuthorityEntity t where t.deleted = false ")
     List<SysAuthorityEntity> findAllNotDeletedAuthorities();
+
+    @Query("select a from SubSystemAuthorityRsEntity t, SysAuthorityEntity a where t.authorityId = a.id "
+            + " and t.subSystemId = :subSystemId and t.active = true and t.deleted = false "
+            + " and a.active = true and a.deleted = false ")
+    List<SysAuthorityEntity> findAllActiveAuthoritiesBySubSystemId(@Param("subSystemId") String subSystemId);
 }
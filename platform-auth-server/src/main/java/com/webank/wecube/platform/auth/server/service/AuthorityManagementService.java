@@ -23,6 +23,9 @@ public class AuthorityManagementService {
     @Autowired
     private AuthorityRepository authorityRepository;
 
+    @Autowired
+    private SubSystemInfoDataService subSystemInfoDataService;
+
     public SimpleAuthorityDto registerLocalAuthority(SimpleAuthorityDto authDto) {
         if (StringUtils.isBlank(authDto.getCode())) {
             throw new AuthServerException("Authority code to register cannot be blank.");
@@ -47,6 +50,7 @@ public class AuthorityManagementService {
                 StringUtils.isBlank(authDto.getScope()) ? SysAuthorityEntity.SCOPE_GLOBAL : authDto.getScope());
 
         SysAuthorityEntity saveAuthority = authorityRepository.saveAndFlush(authority);
+        subSystemInfoDataService.evictAllSysSubSystemInfos();
 
         return convertToSimpleAuthorityDto(saveAuthority);
     }
@@ -12,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.webank.wecube.platform.auth.server.authentication.UserAuthorityCache;
 import com.webank.wecube.platform.auth.server.common.AuthServerException;
 import com.webank.wecube.platform.auth.server.common.util.StringUtilsEx;
 import com.webank.wecube.platform.auth.server.dto.RoleAuthoritiesDto;
@@ -43,6 +44,12 @@ public class RoleManagementService {
 	@Autowired
 	private AuthorityRepository authorityRepository;
 
+	@Autowired
+	private SubSystemInfoDataService subSystemInfoDataService;
+
+	@Autowired
+	private UserAuthorityCache userAuthorityCache;
+
 	public SimpleLocalRoleDto registerLocalRole(SimpleLocalRoleDto roleDto) {
 		validateSimpleLocalRoleDto(roleDto);
 
@@ -125,6 +132,7 @@ public class RoleManagementService {
 				userRoleRsRepository.save(userRole);
 			}
 		}
+		userAuthorityCache.evictAllAfterCommit();
 	}
 
 	public SimpleLocalRoleDto retriveLocalRoleByRoleId(String roleId) {
@@ -247,6 +255,7 @@ public class RoleManagementService {
 							: authorityDto.getDisplayName());
 
 					authorityRepository.save(authority);
+					subSystemInfoDataService.evictAllSysSubSystemInfos();
 				}
 			}
 
@@ -268,6 +277,7 @@ public class RoleManagementService {
 
 			roleAuthorityRsRepository.save(roleAuthority);
 		}
+		userAuthorityCache.evictAllAfterCommit();
 	}
 
 	@Transactional
@@ -315,6 +325,7 @@ public class RoleManagementService {
 							: authorityDto.getDisplayName());
 
 					authorityRepository.save(authority);
+					subSystemInfoDataService.evictAllSysSubSystemInfos();
 				}
 			}
 
@@ -336,6 +347,7 @@ public class RoleManagementService {
 
 			roleAuthorityRsRepository.save(roleAuthority);
 		}
+		userAuthorityCache.evictAllAfterCommit();
 	}
 	
 	@Transactional
@@ -386,6 +398,7 @@ public class RoleManagementService {
 
 			roleAuthorityRsRepository.save(roleAuthority);
 		}
+		userAuthorityCache.evictAllAfterCommit();
 	}
 
 	@Transactional
@@ -423,5 +436,6 @@ public class RoleManagementService {
 
 			roleAuthorityRsRepository.save(roleAuthority);
 		}
+		userAuthorityCache.evictAllAfterCommit();
 	}
 }
@@ -4,4 +4,8 @@ import com.webank.wecube.platform.auth.server.model.SysSubSystemInfo;
 
 public interface SubSystemInfoDataService {
     SysSubSystemInfo retrieveSysSubSystemInfoWithSystemCode(String systemCode);
+
+    void evictSysSubSystemInfo(String systemCode);
+
+    void evictAllSysSubSystemInfos();
 }
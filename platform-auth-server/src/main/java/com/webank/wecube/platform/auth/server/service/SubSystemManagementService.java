@@ -9,6 +9,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import com.webank.wecube.platform.auth.server.authentication.SubSystemPublicKeyCache;
 import com.webank.wecube.platform.auth.server.common.AuthServerException;
 import com.webank.wecube.platform.auth.server.dto.SimpleSubSystemDto;
 import com.webank.wecube.platform.auth.server.encryption.AsymmetricKeyPair;
@@ -25,6 +26,12 @@ public class SubSystemManagementService {
 	@Autowired
 	private SubSystemRepository subSystemRepository;
 
+	@Autowired
+	private SubSystemPublicKeyCache subSystemPublicKeyCache;
+
+	@Autowired
+	private SubSystemInfoDataService subSystemInfoDataService;
+
 	public SimpleSubSystemDto registerSubSystem(SimpleSubSystemDto subSystemDto){
 	    
 	    if(StringUtils.isBlank(subSystemDto.getSystemCode())){
@@ -52,6 +59,8 @@ public class SubSystemManagementService {
 		subSystem.setBlocked(false);
 		
 		SysSubSystemEntity savedSubSystem = subSystemRepository.saveAndFlush(subSystem);
+		subSystemPublicKeyCache.invalidate(savedSubSystem.getSystemCode());
+		subSystemInfoDataService.evictSysSubSystemInfo(savedSubSystem.getSystemCode());
 
 		return convertToSimpleSubSystemDto(savedSubSystem);
 	}
@@ -13,6 +13,7 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.webank.wecube.platform.auth.server.authentication.UserAuthorityCache;
 import com.webank.wecube.platform.auth.server.common.AuthServerException;
 import com.webank.wecube.platform.auth.server.dto.SimpleLocalRoleDto;
 import com.webank.wecube.platform.auth.server.dto.SimpleLocalUserDto;
@@ -41,6 +42,9 @@ public class UserManagementService {
     @Autowired
     private RoleRepository roleRepository;
 
+    @Autowired
+    private UserAuthorityCache userAuthorityCache;
+
     @Transactional
     public void revokeUserRolesById(String roleId, List<SimpleLocalUserDto> userDtos) {
         Optional<SysRoleEntity> roleOpt = roleRepository.findById(roleId);
@@ -65,6 +69,7 @@ public class UserManagementService {
             userRole.setUpdatedBy(AuthenticationContextHolder.getCurrentUsername());
             userRole.setUpdatedTime(new Date());
             userRoleRsRepository.save(userRole);
+            userAuthorityCache.evictAfterCommit(userRole.getUsername());
         }
     }
 
@@ -100,6 +105,7 @@ public class UserManagementService {
                 userRole.setRoleName(role.getName());
 
                 userRoleRsRepository.save(userRole);
+                userAuthorityCache.evictAfterCommit(user.getUsername());
             }
         }
 
@@ -267,6 +273,7 @@ public class UserManagementService {
         user.setUpdatedBy(AuthenticationContextHolder.getCurrentUsername());
         user.setUpdatedTime(new Date());
         userRepository.save(user);
+        userAuthorityCache.evictAfterCommit(user.getUsername());
 
         List<UserRoleRsEntity> userRoles = userRoleRsRepository.findAllByUserId(user.getId());
 
@@ -2,7 +2,9 @@ package com.webank.wecube.platform.auth.server.service.impl;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
 
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -13,15 +15,20 @@ import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.stereotype.Service;
 
 import com.webank.wecube.platform.auth.server.common.ApplicationConstants;
-import com.webank.wecube.platform.auth.server.entity.SubSystemAuthorityRsEntity;
+import com.webank.wecube.platform.auth.server.common.util.ExpiringCache;
+import com.webank.wecube.platform.auth.server.config.AuthServerProperties;
 import com.webank.wecube.platform.auth.server.entity.SysAuthorityEntity;
 import com.webank.wecube.platform.auth.server.entity.SysSubSystemEntity;
 import com.webank.wecube.platform.auth.server.model.SysSubSystemInfo;
 import com.webank.wecube.platform.auth.server.repository.AuthorityRepository;
-import com.webank.wecube.platform.auth.server.repository.SubSystemAuthorityRsRepository;
 import com.webank.wecube.platform.auth.server.repository.SubSystemRepository;
 import com.webank.wecube.platform.auth.server.service.SubSystemInfoDataService;
 
+/**
+ * Resolves sub-systems with their authorities, which are fetched with one join
+ * query and kept as snapshots per system code until they expire or the
+ * sub-systems or authorities are changed.
+ */
 @Service("subSystemInfoDataService")
 public class SubSystemInfoDataServiceImpl implements SubSystemInfoDataService {
     private static final Logger log = LoggerFactory.getLogger(SubSystemInfoDataServiceImpl.class);
@@ -33,7 +40,18 @@ public class SubSystemInfoDataServiceImpl implements SubSystemInfoDataService {
     private AuthorityRepository authorityRepository;
 
     @Autowired
-    private SubSystemAuthorityRsRepository subSystemAuthorityRsRepository;
+    private AuthServerProperties authServerProperties;
+
+    private ExpiringCache<String, SysSubSystemInfo> subSystemInfoCache;
+
+    @PostConstruct
+    public void init() {
+        AuthServerProperties.AuthorityCacheProperties authorityCacheProperties = authServerProperties
+                .getAuthorityCache();
+        subSystemInfoCache = new ExpiringCache<>(
+                TimeUnit.SECONDS.toMillis(authorityCacheProperties.getSubSystemTtlSeconds()),
+                authorityCacheProperties.getSubSystemMaxSize());
+    }
 
     @Override
     public SysSubSystemInfo retrieveSysSubSystemInfoWithSystemCode(String systemCode) {
@@ -42,6 +60,26 @@ public class SubSystemInfoDataServiceImpl implements SubSystemInfoDataService {
             throw new IllegalArgumentException("system code cannot be blank.");
         }
 
+        SysSubSystemInfo subSystemInfo = subSystemInfoCache.get(systemCode, this::loadSysSubSystemInfo);
+        if (subSystemInfo == null) {
+            return null;
+        }
+
+        // callers may add authorities, the cached snapshot is never handed out
+        return copySysSubSystemInfo(subSystemInfo);
+    }
+
+    @Override
+    public void evictSysSubSystemInfo(String systemCode) {
+        subSystemInfoCache.evict(systemCode);
+    }
+
+    @Override
+    public void evictAllSysSubSystemInfos() {
+        subSystemInfoCache.evictAll();
+    }
+
+    protected SysSubSystemInfo loadSysSubSystemInfo(String systemCode) {
         SysSubSystemEntity subSystem = subSystemRepository.findOneBySystemCode(systemCode);
 
         if (subSystem == null) {
@@ -54,26 +92,11 @@ public class SubSystemInfoDataServiceImpl implements SubSystemInfoDataService {
         List<GrantedAuthority> grantedAuthorities = new ArrayList<GrantedAuthority>();
         grantedAuthorities.add(new SimpleGrantedAuthority(ApplicationConstants.Authority.SUBSYSTEM));
 
-        List<SubSystemAuthorityRsEntity> subSystemAuthorities = subSystemAuthorityRsRepository
-                .findAllBySubSystemId(subSystem.getId());
-
-        if (subSystemAuthorities != null) {
-            for (SubSystemAuthorityRsEntity subSystemAuthority : subSystemAuthorities) {
-                if (!subSystemAuthority.isActive() || subSystemAuthority.isDeleted()) {
-                    continue;
-                }
-
-                Optional<SysAuthorityEntity> authorityOpt = authorityRepository
-                        .findById(subSystemAuthority.getAuthorityId());
-                if (!authorityOpt.isPresent()) {
-                    continue;
-                }
-
-                SysAuthorityEntity authority = authorityOpt.get();
-                if (!authority.isActive() || authority.isDeleted()) {
-                    continue;
-                }
+        List<SysAuthorityEntity> authorities = authorityRepository
+                .findAllActiveAuthoritiesBySubSystemId(subSystem.getId());
 
+        if (authorities != null) {
+            for (SysAuthorityEntity authority : authorities) {
                 grantedAuthorities.add(new SimpleGrantedAuthority(authority.getCode()));
             }
         }
@@ -97,4 +120,18 @@ public class SubSystemInfoDataServiceImpl implements SubSystemInfoDataService {
         return m;
     }
 
+    private SysSubSystemInfo copySysSubSystemInfo(SysSubSystemInfo subSystemInfo) {
+        SysSubSystemInfo m = new SysSubSystemInfo();
+        m.setId(subSystemInfo.getId());
+        m.setName(subSystemInfo.getName());
+        m.setPubApiKey(subSystemInfo.getPubApiKey());
+        m.setSystemCode(subSystemInfo.getSystemCode());
+        m.setActive(subSystemInfo.getActive());
+        m.setBlocked(subSystemInfo.getBlocked());
+        m.setApiKey(subSystemInfo.getApiKey());
+        m.addAuthorities(new ArrayList<GrantedAuthority>(subSystemInfo.getAuthorities()));
+
+        return m;
+    }
+
 }
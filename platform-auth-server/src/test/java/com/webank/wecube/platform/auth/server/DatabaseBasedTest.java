@@ -0,0 +1,18 @@
+package com.webank.wecube.platform.auth.server;
+
+import org.junit.runner.RunWith;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit4.SpringRunner;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Runs against an embedded H2 database whose schema is created from the
+ * entities, each test is rolled back.
+ */
+@SpringBootTest
+@RunWith(SpringRunner.class)
+@ActiveProfiles("test")
+@Transactional
+public abstract class DatabaseBasedTest {
+}
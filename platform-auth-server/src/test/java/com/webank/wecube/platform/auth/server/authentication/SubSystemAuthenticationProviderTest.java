@@ -0,0 +1,111 @@
+package com.webank.wecube.platform.auth.server.authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.security.PublicKey;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.webank.wecube.platform.auth.server.encryption.AsymmetricKeyPair;
+import com.webank.wecube.platform.auth.server.encryption.EncryptionUtils;
+import com.webank.wecube.platform.auth.server.model.SysSubSystemInfo;
+import com.webank.wecube.platform.auth.server.service.SubSystemInfoDataService;
+
+public class SubSystemAuthenticationProviderTest {
+    private static final String SYSTEM_CODE = "SYS_PLATFORM";
+    private static final String NONCE = "123";
+
+    private Logger log = LoggerFactory.getLogger(getClass());
+
+    private AsymmetricKeyPair keyPair;
+    private SubSystemInfoDataService subSystemInfoDataService;
+
+    @Before
+    public void setup() {
+        keyPair = EncryptionUtils.initAsymmetricKeyPair();
+
+        SysSubSystemInfo subSystemInfo = new SysSubSystemInfo();
+        subSystemInfo.setSystemCode(SYSTEM_CODE);
+        subSystemInfo.setPubApiKey(keyPair.getPublicKey());
+        subSystemInfo.setAuthorities(Collections.singletonList(new SimpleGrantedAuthority("SUB_SYSTEM")));
+        subSystemInfoDataService = mock(SubSystemInfoDataService.class);
+        when(subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE)).thenReturn(subSystemInfo);
+    }
+
+    @Test
+    public void givenPasswordEncryptedWithPrivateKeyWhenAuthenticateThenShouldGrantTheSubSystemAuthorities() {
+        Authentication authentication = provider(new SubSystemPublicKeyCache())
+                .authenticate(token(SYSTEM_CODE + ":" + NONCE));
+
+        assertThat(authentication.getPrincipal()).isEqualTo(SYSTEM_CODE);
+        assertThat(authentication.getAuthorities()).extracting(GrantedAuthority::getAuthority)
+                .containsExactly("SUB_SYSTEM");
+    }
+
+    @Test
+    public void givenPasswordOfAnotherNonceWhenAuthenticateThenShouldReject() {
+        SubSystemAuthenticationProvider provider = provider(new SubSystemPublicKeyCache());
+
+        assertThatThrownBy(() -> provider.authenticate(token(SYSTEM_CODE + ":456")))
+                .isInstanceOf(BadCredentialsException.class);
+    }
+
+    @Test
+    public void givenSameLoadWhenAuthenticateWithCachedKeyThenShouldCostLessThanParsingTheKeyEachTime() {
+        int authentications = 2000;
+        SubSystemAuthenticationProvider cachingProvider = provider(new SubSystemPublicKeyCache());
+        // the previous path, parsing the stored key for every authentication
+        SubSystemAuthenticationProvider parsingProvider = provider(new SubSystemPublicKeyCache() {
+            @Override
+            public PublicKey getPublicKey(String systemCode, String encodedPublicKey) {
+                return EncryptionUtils.parsePublicKey(encodedPublicKey);
+            }
+        });
+        SubSystemAuthenticationToken token = token(SYSTEM_CODE + ":" + NONCE);
+
+        // warms the JIT up before measuring
+        nanosPerAuthentication(parsingProvider, token, 500);
+        nanosPerAuthentication(cachingProvider, token, 500);
+        long parsingNanos = nanosPerAuthentication(parsingProvider, token, authentications);
+        long cachingNanos = nanosPerAuthentication(cachingProvider, token, authentications);
+
+        log.info("{} authentications: {} ns each parsing the key, {} ns each with the cached key", authentications,
+                parsingNanos, cachingNanos);
+        assertThat(cachingNanos).as("parsing %s ns, cached %s ns per authentication", parsingNanos, cachingNanos)
+                .isLessThan(parsingNanos);
+    }
+
+    private long nanosPerAuthentication(SubSystemAuthenticationProvider provider, SubSystemAuthenticationToken token,
+            int authentications) {
+        long startTime = System.nanoTime();
+        for (int i = 0; i < authentications; i++) {
+            assertThat(provider.authenticate(token).getAuthorities()).isNotEmpty();
+        }
+        return (System.nanoTime() - startTime) / authentications;
+    }
+
+    private SubSystemAuthenticationProvider provider(SubSystemPublicKeyCache subSystemPublicKeyCache) {
+        SubSystemAuthenticationProvider provider = new SubSystemAuthenticationProvider();
+        ReflectionTestUtils.setField(provider, "subSystemDataService", subSystemInfoDataService);
+        ReflectionTestUtils.setField(provider, "subSystemPublicKeyCache", subSystemPublicKeyCache);
+        return provider;
+    }
+
+    private SubSystemAuthenticationToken token(String password) {
+        String encryptedPassword = EncryptionUtils.encryptByPrivateKeyAsString(password.getBytes(EncryptionUtils.UTF8),
+                keyPair.getPrivateKey());
+        return new SubSystemAuthenticationToken(SYSTEM_CODE, encryptedPassword, NONCE);
+    }
+}
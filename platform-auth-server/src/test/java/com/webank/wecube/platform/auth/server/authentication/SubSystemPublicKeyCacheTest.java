@@ -0,0 +1,51 @@
+package com.webank.wecube.platform.auth.server.authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.PublicKey;
+
+import org.junit.Test;
+
+import com.webank.wecube.platform.auth.server.common.util.StringUtilsEx;
+import com.webank.wecube.platform.auth.server.encryption.EncryptionUtils;
+
+public class SubSystemPublicKeyCacheTest {
+    private static final String SYSTEM_CODE = "SYS_PLATFORM";
+
+    private final SubSystemPublicKeyCache subSystemPublicKeyCache = new SubSystemPublicKeyCache();
+
+    @Test
+    public void givenSameEncodedKeyWhenGetAgainThenShouldReuseTheParsedKey() {
+        String encodedPublicKey = EncryptionUtils.initAsymmetricKeyPair().getPublicKey();
+
+        PublicKey publicKey = subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, encodedPublicKey);
+
+        assertThat(subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, encodedPublicKey)).isSameAs(publicKey);
+        assertThat(publicKey.getEncoded()).isEqualTo(StringUtilsEx.decodeBase64(encodedPublicKey));
+    }
+
+    @Test
+    public void givenStoredKeyChangedWhenGetThenShouldParseTheNewKey() {
+        String oldEncodedPublicKey = EncryptionUtils.initAsymmetricKeyPair().getPublicKey();
+        String newEncodedPublicKey = EncryptionUtils.initAsymmetricKeyPair().getPublicKey();
+        PublicKey oldPublicKey = subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, oldEncodedPublicKey);
+
+        PublicKey newPublicKey = subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, newEncodedPublicKey);
+
+        assertThat(newPublicKey).isNotSameAs(oldPublicKey);
+        assertThat(newPublicKey.getEncoded()).isEqualTo(StringUtilsEx.decodeBase64(newEncodedPublicKey));
+        assertThat(subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, newEncodedPublicKey)).isSameAs(newPublicKey);
+    }
+
+    @Test
+    public void givenKeyInvalidatedWhenGetThenShouldParseItAgain() {
+        String encodedPublicKey = EncryptionUtils.initAsymmetricKeyPair().getPublicKey();
+        PublicKey publicKey = subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, encodedPublicKey);
+        PublicKey otherPublicKey = subSystemPublicKeyCache.getPublicKey("SYS_OTHER", encodedPublicKey);
+
+        subSystemPublicKeyCache.invalidate(SYSTEM_CODE);
+
+        assertThat(subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, encodedPublicKey)).isNotSameAs(publicKey);
+        assertThat(subSystemPublicKeyCache.getPublicKey("SYS_OTHER", encodedPublicKey)).isSameAs(otherPublicKey);
+    }
+}
@@ -0,0 +1,156 @@
+package com.webank.wecube.platform.auth.server.authentication;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webank.wecube.platform.auth.server.config.AuthServerProperties;
+
+public class UserAuthorityCacheTest {
+    private static final String USERNAME = "admin";
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, Collection<? extends GrantedAuthority>> loader = username -> Collections
+            .singletonList(new SimpleGrantedAuthority("ROLE_" + loads.incrementAndGet()));
+
+    private AuthServerProperties authServerProperties;
+    private UserAuthorityCache userAuthorityCache;
+
+    @Before
+    public void setup() {
+        authServerProperties = new AuthServerProperties();
+        authServerProperties.getAuthorityCache().setUserTtlSeconds(60);
+        authServerProperties.getAuthorityCache().setUserMaxSize(10);
+        userAuthorityCache = new UserAuthorityCache();
+        ReflectionTestUtils.setField(userAuthorityCache, "authServerProperties", authServerProperties);
+    }
+
+    @After
+    public void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void givenCachedAuthoritiesWhenGetAgainThenShouldNotLoadAgain() {
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_1");
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCachedAuthoritiesWhenEvictedThenShouldLoadAgain() {
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+        userAuthorityCache.getAuthorities("guest", loader);
+
+        userAuthorityCache.evict(USERNAME);
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_3");
+        assertThat(authorityOf(userAuthorityCache.getAuthorities("guest", loader))).isEqualTo("ROLE_2");
+
+        userAuthorityCache.evictAll();
+        assertThat(authorityOf(userAuthorityCache.getAuthorities("guest", loader))).isEqualTo("ROLE_4");
+    }
+
+    @Test
+    public void givenChangeWhileLoadingWhenLoadedThenShouldNotKeepIt() {
+        Function<String, Collection<? extends GrantedAuthority>> racingLoader = username -> {
+            Collection<? extends GrantedAuthority> authorities = loader.apply(username);
+            // roles changed after the authorities were read
+            userAuthorityCache.evict(username);
+            return authorities;
+        };
+
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, racingLoader))).isEqualTo("ROLE_1");
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_2");
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenChangeOfAnotherUserWhileLoadingWhenLoadedThenShouldNotKeepIt() {
+        Function<String, Collection<? extends GrantedAuthority>> racingLoader = username -> {
+            Collection<? extends GrantedAuthority> authorities = loader.apply(username);
+            // the version is shared, so any change drops the loads in flight
+            userAuthorityCache.evictAll();
+            return authorities;
+        };
+
+        userAuthorityCache.getAuthorities(USERNAME, racingLoader);
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenEvictedInTransactionWhenLoadedBeforeCommitThenShouldEvictAgainAfterCommit() {
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+        TransactionSynchronizationManager.initSynchronization();
+
+        userAuthorityCache.evictAfterCommit(USERNAME);
+        // loaded before commit, still with the authorities from before the change
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_2");
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_2");
+
+        completeTransaction();
+
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_3");
+    }
+
+    @Test
+    public void givenAllEvictedInTransactionWhenCommittedThenShouldEvictAllAgain() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        userAuthorityCache.evictAllAfterCommit();
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+        userAuthorityCache.getAuthorities("guest", loader);
+        completeTransaction();
+
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+        userAuthorityCache.getAuthorities("guest", loader);
+        assertThat(loads.get()).isEqualTo(4);
+    }
+
+    @Test
+    public void givenNoTransactionWhenEvictAfterCommitThenShouldEvictRightAway() {
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+
+        userAuthorityCache.evictAfterCommit(USERNAME);
+
+        assertThat(authorityOf(userAuthorityCache.getAuthorities(USERNAME, loader))).isEqualTo("ROLE_2");
+    }
+
+    @Test
+    public void givenNullAuthoritiesOrNoTtlWhenGetAgainThenShouldNotBeCached() {
+        assertThat(userAuthorityCache.getAuthorities(USERNAME, username -> null)).isNull();
+
+        authServerProperties.getAuthorityCache().setUserTtlSeconds(0);
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+        userAuthorityCache.getAuthorities(USERNAME, loader);
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    private void completeTransaction() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private String authorityOf(Collection<GrantedAuthority> authorities) {
+        return authorities.iterator().next().getAuthority();
+    }
+}
@@ -0,0 +1,85 @@
+package com.webank.wecube.platform.auth.server.common.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.Test;
+
+public class ExpiringCacheTest {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final Function<String, String> loader = key -> key + "-" + loads.incrementAndGet();
+
+    @Test
+    public void givenCachedValueWhenGetBeforeTtlThenShouldNotLoadAgain() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60000, 10);
+
+        assertThat(cache.get("a", loader)).isEqualTo("a-1");
+        assertThat(cache.get("a", loader)).isEqualTo("a-1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCachedValueWhenTtlElapsedThenShouldLoadAgain() throws InterruptedException {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(100, 10);
+        cache.get("a", loader);
+
+        Thread.sleep(200);
+
+        assertThat(cache.get("a", loader)).isEqualTo("a-2");
+    }
+
+    @Test
+    public void givenCachedValuesWhenEvictedThenShouldLoadThemAgain() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60000, 10);
+        cache.get("a", loader);
+        cache.get("b", loader);
+
+        cache.evict("a");
+        assertThat(cache.get("a", loader)).isEqualTo("a-3");
+        assertThat(cache.get("b", loader)).isEqualTo("b-2");
+
+        cache.evictAll();
+        assertThat(cache.get("a", loader)).isEqualTo("a-4");
+        assertThat(cache.get("b", loader)).isEqualTo("b-5");
+    }
+
+    @Test
+    public void givenNullValueWhenGetAgainThenShouldNotBeCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60000, 10);
+        Function<String, String> nullLoader = key -> {
+            loads.incrementAndGet();
+            return null;
+        };
+
+        assertThat(cache.get("missing", nullLoader)).isNull();
+        assertThat(cache.get("missing", nullLoader)).isNull();
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenNonPositiveTtlWhenGetAgainThenShouldNotBeCached() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(0, 10);
+
+        cache.get("a", loader);
+        cache.get("a", loader);
+
+        assertThat(loads.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenFullCacheWhenAddingThenShouldStayBounded() {
+        ExpiringCache<String, String> cache = new ExpiringCache<>(60000, 2);
+        cache.get("a", loader);
+        cache.get("b", loader);
+
+        // none expired, so all are dropped to make room
+        cache.get("c", loader);
+        assertThat(cache.get("c", loader)).isEqualTo("c-3");
+        assertThat(cache.get("a", loader)).isEqualTo("a-4");
+        assertThat(cache.get("b", loader)).isEqualTo("b-5");
+        assertThat(loads.get()).isEqualTo(5);
+    }
+}
@@ -1,5 +1,7 @@
 package com.webank.wecube.platform.auth.server.encryption;
 
+import java.security.PublicKey;
+
 import org.junit.Assert;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -52,6 +54,21 @@ public class EncryptionUtilsTest {
         
     }
     
+    @Test
+    public void testDecryptByParsedPublicKey() {
+        String password = "HTTP-MOCK:456";
+        String cipherPassword = EncryptionUtils.encryptByPrivateKeyAsString(password.getBytes(EncryptionUtils.UTF8),
+                privateKey);
+
+        PublicKey parsedPublicKey = EncryptionUtils.parsePublicKey(publicKey);
+        for (int i = 0; i < 2; i++) {
+            String plainPassword = new String(
+                    EncryptionUtils.decryptByPublicKey(StringUtilsEx.decodeBase64(cipherPassword), parsedPublicKey),
+                    EncryptionUtils.UTF8);
+            Assert.assertEquals(password, plainPassword);
+        }
+    }
+
     @Ignore
     @Test
     public void testLoginWithSubSystemCode() {
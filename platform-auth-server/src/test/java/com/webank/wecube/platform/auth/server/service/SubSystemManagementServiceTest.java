@@ -0,0 +1,36 @@
+package com.webank.wecube.platform.auth.server.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.security.PublicKey;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import com.webank.wecube.platform.auth.server.DatabaseBasedTest;
+import com.webank.wecube.platform.auth.server.authentication.SubSystemPublicKeyCache;
+import com.webank.wecube.platform.auth.server.dto.SimpleSubSystemDto;
+import com.webank.wecube.platform.auth.server.encryption.EncryptionUtils;
+
+public class SubSystemManagementServiceTest extends DatabaseBasedTest {
+    private static final String SYSTEM_CODE = "SYS_NEW";
+
+    @Autowired
+    private SubSystemManagementService subSystemManagementService;
+
+    @Autowired
+    private SubSystemPublicKeyCache subSystemPublicKeyCache;
+
+    @Test
+    public void givenPublicKeyCachedWhenRegisterSubSystemThenShouldInvalidateIt() {
+        String encodedPublicKey = EncryptionUtils.initAsymmetricKeyPair().getPublicKey();
+        PublicKey cachedPublicKey = subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, encodedPublicKey);
+
+        SimpleSubSystemDto subSystemDto = new SimpleSubSystemDto();
+        subSystemDto.setSystemCode(SYSTEM_CODE);
+        subSystemDto.setName("new sub-system");
+        subSystemManagementService.registerSubSystem(subSystemDto);
+
+        assertThat(subSystemPublicKeyCache.getPublicKey(SYSTEM_CODE, encodedPublicKey)).isNotSameAs(cachedPublicKey);
+    }
+}
@@ -0,0 +1,152 @@
+package com.webank.wecube.platform.auth.server.service.impl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.GrantedAuthority;
+
+import com.webank.wecube.platform.auth.server.DatabaseBasedTest;
+import com.webank.wecube.platform.auth.server.common.ApplicationConstants;
+import com.webank.wecube.platform.auth.server.entity.SubSystemAuthorityRsEntity;
+import com.webank.wecube.platform.auth.server.entity.SysAuthorityEntity;
+import com.webank.wecube.platform.auth.server.entity.SysSubSystemEntity;
+import com.webank.wecube.platform.auth.server.model.SysSubSystemInfo;
+import com.webank.wecube.platform.auth.server.repository.AuthorityRepository;
+import com.webank.wecube.platform.auth.server.repository.SubSystemAuthorityRsRepository;
+import com.webank.wecube.platform.auth.server.repository.SubSystemRepository;
+import com.webank.wecube.platform.auth.server.service.SubSystemInfoDataService;
+
+public class SubSystemInfoDataServiceImplTest extends DatabaseBasedTest {
+    private static final String SYSTEM_CODE = "SYS_PLATFORM";
+
+    @Autowired
+    private SubSystemInfoDataService subSystemInfoDataService;
+
+    @Autowired
+    private SubSystemRepository subSystemRepository;
+
+    @Autowired
+    private AuthorityRepository authorityRepository;
+
+    @Autowired
+    private SubSystemAuthorityRsRepository subSystemAuthorityRsRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @Before
+    public void setup() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        subSystemInfoDataService.evictAllSysSubSystemInfos();
+    }
+
+    @Test
+    public void givenSubSystemWithManyAuthoritiesWhenRetrieveThenShouldLoadThemWithTwoStatements() {
+        SysSubSystemEntity subSystem = saveSubSystem();
+        for (int i = 0; i < 10; i++) {
+            grant(subSystem, saveAuthority("AUTHORITY_" + i, true), true);
+        }
+        clearPersistenceContext();
+
+        SysSubSystemInfo subSystemInfo = subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE);
+
+        // the sub-system and one join query for all of its authorities
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(subSystemInfo.getAuthorities()).hasSize(11);
+    }
+
+    @Test
+    public void givenSubSystemRetrievedWhenRetrieveAgainThenShouldServeFromCache() {
+        SysSubSystemEntity subSystem = saveSubSystem();
+        grant(subSystem, saveAuthority("AUTHORITY_0", true), true);
+        clearPersistenceContext();
+
+        SysSubSystemInfo first = subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE);
+        statistics.clear();
+        SysSubSystemInfo second = subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE);
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(0);
+        // every caller gets its own copy of the snapshot
+        assertThat(second).isNotSameAs(first);
+        assertThat(authorityCodes(second)).isEqualTo(authorityCodes(first));
+    }
+
+    @Test
+    public void givenInactiveGrantOrAuthorityWhenRetrieveThenShouldLeaveItOut() {
+        SysSubSystemEntity subSystem = saveSubSystem();
+        grant(subSystem, saveAuthority("ACTIVE", true), true);
+        grant(subSystem, saveAuthority("INACTIVE_AUTHORITY", false), true);
+        grant(subSystem, saveAuthority("INACTIVE_GRANT", true), false);
+        clearPersistenceContext();
+
+        SysSubSystemInfo subSystemInfo = subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE);
+
+        assertThat(authorityCodes(subSystemInfo)).containsExactlyInAnyOrder(ApplicationConstants.Authority.SUBSYSTEM,
+                "ACTIVE");
+    }
+
+    @Test
+    public void givenSubSystemEvictedWhenRetrieveThenShouldLoadItAgain() {
+        SysSubSystemEntity subSystem = saveSubSystem();
+        clearPersistenceContext();
+        subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE);
+
+        grant(subSystem, saveAuthority("GRANTED_LATER", true), true);
+        clearPersistenceContext();
+        subSystemInfoDataService.evictSysSubSystemInfo(SYSTEM_CODE);
+
+        assertThat(authorityCodes(subSystemInfoDataService.retrieveSysSubSystemInfoWithSystemCode(SYSTEM_CODE)))
+                .contains("GRANTED_LATER");
+    }
+
+    private SysSubSystemEntity saveSubSystem() {
+        SysSubSystemEntity subSystem = new SysSubSystemEntity();
+        subSystem.setName("platform");
+        subSystem.setSystemCode(SYSTEM_CODE);
+        return subSystemRepository.save(subSystem);
+    }
+
+    private SysAuthorityEntity saveAuthority(String code, boolean active) {
+        SysAuthorityEntity authority = new SysAuthorityEntity();
+        authority.setCode(code);
+        authority.setScope(SysAuthorityEntity.SCOPE_GLOBAL);
+        authority.setActive(active);
+        return authorityRepository.save(authority);
+    }
+
+    private void grant(SysSubSystemEntity subSystem, SysAuthorityEntity authority, boolean active) {
+        SubSystemAuthorityRsEntity grant = new SubSystemAuthorityRsEntity();
+        grant.setSubSystemId(subSystem.getId());
+        grant.setSubSystemCode(subSystem.getSystemCode());
+        grant.setAuthorityId(authority.getId());
+        grant.setAuthorityCode(authority.getCode());
+        grant.setActive(active);
+        subSystemAuthorityRsRepository.save(grant);
+    }
+
+    private void clearPersistenceContext() {
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    private List<String> authorityCodes(SysSubSystemInfo subSystemInfo) {
+        return subSystemInfo.getAuthorities().stream().map(GrantedAuthority::getAuthority)
+                .collect(Collectors.toList());
+    }
+}
@@ -1,5 +1,8 @@
 package com.webank.wecube.platform.core.commons;
 
+import java.util.HashMap;
+import java.util.Map;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties(prefix = "wecube.core")
@@ -90,6 +93,10 @@ public class ApplicationProperties {
         private Integer staticResourceServerPort;
         private String staticResourceServerPath;
         private String baseMountPath;
+        private int dataModelRefreshParallelism = 4;
+        private int dataModelRefreshJobHistorySize = 20;
+        private int routeItemChangeLogSize = 1000;
+        private long routeItemChangesPollIntervalMillis = 1000;
 
         public String getPluginDeployPath() {
             return pluginDeployPath;
@@ -203,6 +210,38 @@ public class ApplicationProperties {
             this.baseMountPath = baseMountPath;
         }
 
+        public int getDataModelRefreshParallelism() {
+            return dataModelRefreshParallelism;
+        }
+
+        public void setDataModelRefreshParallelism(int dataModelRefreshParallelism) {
+            this.dataModelRefreshParallelism = dataModelRefreshParallelism;
+        }
+
+        public int getDataModelRefreshJobHistorySize() {
+            return dataModelRefreshJobHistorySize;
+        }
+
+        public void setDataModelRefreshJobHistorySize(int dataModelRefreshJobHistorySize) {
+            this.dataModelRefreshJobHistorySize = dataModelRefreshJobHistorySize;
+        }
+
+        public int getRouteItemChangeLogSize() {
+            return routeItemChangeLogSize;
+        }
+
+        public void setRouteItemChangeLogSize(int routeItemChangeLogSize) {
+            this.routeItemChangeLogSize = routeItemChangeLogSize;
+        }
+
+        public long getRouteItemChangesPollIntervalMillis() {
+            return routeItemChangesPollIntervalMillis;
+        }
+
+        public void setRouteItemChangesPollIntervalMillis(long routeItemChangesPollIntervalMillis) {
+            this.routeItemChangesPollIntervalMillis = routeItemChangesPollIntervalMillis;
+        }
+
     }
 
     @ConfigurationProperties(prefix = "wecube.core.s3")
@@ -291,6 +330,145 @@ public class ApplicationProperties {
         }
     }
 
+    @ConfigurationProperties(prefix = "wecube.core.dme")
+    public class DmeProperties {
+        private int expressionPlanCacheSize = 512;
+        private int expressionParseCacheSize = 512;
+        private int chainRequestParallelism = 8;
+        private long entityResponseMaxBytes = 64L * 1024 * 1024;
+        private boolean entityResponseGzipEnabled = true;
+        private boolean entityDataCacheEnabled = false;
+        private int entityDataCacheDefaultTtlSeconds = 10;
+        private long entityDataCacheMaxRecords = 20000;
+        private Map<String, Integer> entityDataCacheEntityTtlSeconds = new HashMap<>();
+        private String entityDataRouteMode = "gateway";
+        private Map<String, String> entityDataRouteModes = new HashMap<>();
+        private int entityDataDirectRouteRetryIntervalSeconds = 30;
+        private boolean entityDataProjectionEnabled = true;
+        private double profilingSampleRate = 0.0D;
+        private long slowOperationThresholdMillis = 3000L;
+
+        public int getExpressionPlanCacheSize() {
+            return expressionPlanCacheSize;
+        }
+
+        public void setExpressionPlanCacheSize(int expressionPlanCacheSize) {
+            this.expressionPlanCacheSize = expressionPlanCacheSize;
+        }
+
+        public int getExpressionParseCacheSize() {
+            return expressionParseCacheSize;
+        }
+
+        public void setExpressionParseCacheSize(int expressionParseCacheSize) {
+            this.expressionParseCacheSize = expressionParseCacheSize;
+        }
+
+        public int getChainRequestParallelism() {
+            return chainRequestParallelism;
+        }
+
+        public void setChainRequestParallelism(int chainRequestParallelism) {
+            this.chainRequestParallelism = chainRequestParallelism;
+        }
+
+        public long getEntityResponseMaxBytes() {
+            return entityResponseMaxBytes;
+        }
+
+        public void setEntityResponseMaxBytes(long entityResponseMaxBytes) {
+            this.entityResponseMaxBytes = entityResponseMaxBytes;
+        }
+
+        public boolean isEntityResponseGzipEnabled() {
+            return entityResponseGzipEnabled;
+        }
+
+        public void setEntityResponseGzipEnabled(boolean entityResponseGzipEnabled) {
+            this.entityResponseGzipEnabled = entityResponseGzipEnabled;
+        }
+
+        public boolean isEntityDataCacheEnabled() {
+            return entityDataCacheEnabled;
+        }
+
+        public void setEntityDataCacheEnabled(boolean entityDataCacheEnabled) {
+            this.entityDataCacheEnabled = entityDataCacheEnabled;
+        }
+
+        public int getEntityDataCacheDefaultTtlSeconds() {
+            return entityDataCacheDefaultTtlSeconds;
+        }
+
+        public void setEntityDataCacheDefaultTtlSeconds(int entityDataCacheDefaultTtlSeconds) {
+            this.entityDataCacheDefaultTtlSeconds = entityDataCacheDefaultTtlSeconds;
+        }
+
+        public long getEntityDataCacheMaxRecords() {
+            return entityDataCacheMaxRecords;
+        }
+
+        public void setEntityDataCacheMaxRecords(long entityDataCacheMaxRecords) {
+            this.entityDataCacheMaxRecords = entityDataCacheMaxRecords;
+        }
+
+        public Map<String, Integer> getEntityDataCacheEntityTtlSeconds() {
+            return entityDataCacheEntityTtlSeconds;
+        }
+
+        public void setEntityDataCacheEntityTtlSeconds(Map<String, Integer> entityDataCacheEntityTtlSeconds) {
+            this.entityDataCacheEntityTtlSeconds = entityDataCacheEntityTtlSeconds;
+        }
+
+        public String getEntityDataRouteMode() {
+            return entityDataRouteMode;
+        }
+
+        public void setEntityDataRouteMode(String entityDataRouteMode) {
+            this.entityDataRouteMode = entityDataRouteMode;
+        }
+
+        public Map<String, String> getEntityDataRouteModes() {
+            return entityDataRouteModes;
+        }
+
+        public void setEntityDataRouteModes(Map<String, String> entityDataRouteModes) {
+            this.entityDataRouteModes = entityDataRouteModes;
+        }
+
+        public int getEntityDataDirectRouteRetryIntervalSeconds() {
+            return entityDataDirectRouteRetryIntervalSeconds;
+        }
+
+        public void setEntityDataDirectRouteRetryIntervalSeconds(int entityDataDirectRouteRetryIntervalSeconds) {
+            this.entityDataDirectRouteRetryIntervalSeconds = entityDataDirectRouteRetryIntervalSeconds;
+        }
+
+        public boolean isEntityDataProjectionEnabled() {
+            return entityDataProjectionEnabled;
+        }
+
+        public void setEntityDataProjectionEnabled(boolean entityDataProjectionEnabled) {
+            this.entityDataProjectionEnabled = entityDataProjectionEnabled;
+        }
+
+        public double getProfilingSampleRate() {
+            return profilingSampleRate;
+        }
+
+        public void setProfilingSampleRate(double profilingSampleRate) {
+            this.profilingSampleRate = profilingSampleRate;
+        }
+
+        public long getSlowOperationThresholdMillis() {
+            return slowOperationThresholdMillis;
+        }
+
+        public void setSlowOperationThresholdMillis(long slowOperationThresholdMillis) {
+            this.slowOperationThresholdMillis = slowOperationThresholdMillis;
+        }
+    }
+
     public String getGatewayUrl() {
         return gatewayUrl;
     }
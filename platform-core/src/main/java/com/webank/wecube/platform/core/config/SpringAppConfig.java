@@ -2,6 +2,7 @@ package com.webank.wecube.platform.core.config;
 
 import com.webank.wecube.platform.core.parser.PluginPackageDataModelDtoValidator;
 import com.webank.wecube.platform.core.parser.PluginPackageValidator;
+import com.webank.wecube.platform.core.parser.datamodel.DataModelExpressionParser;
 import com.webank.wecube.platform.core.support.RealS3Client;
 import com.webank.wecube.platform.core.support.S3Client;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -18,6 +19,7 @@ import com.webank.wecube.platform.core.commons.ApplicationProperties.PluginPrope
 import com.webank.wecube.platform.core.commons.ApplicationProperties.ResourceProperties;
 import com.webank.wecube.platform.core.commons.ApplicationProperties.S3Properties;
 import com.webank.wecube.platform.core.commons.ApplicationProperties.DockerRemoteProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
 import com.webank.wecube.platform.workflow.EnablePlatformWorkflowApplication;
 
 @Configuration
@@ -27,7 +29,8 @@ import com.webank.wecube.platform.workflow.EnablePlatformWorkflowApplication;
         PluginProperties.class,
         S3Properties.class,
         ResourceProperties.class,
-        DockerRemoteProperties.class
+        DockerRemoteProperties.class,
+        DmeProperties.class
 })
 @ComponentScan({ "com.webank.wecube.platform.core.service" })
 @EntityScan(basePackages = { "com.webank.wecube.platform.core" })
@@ -38,6 +41,9 @@ public class SpringAppConfig {
     @Autowired
     private S3Properties s3Properties;
 
+    @Autowired
+    private DmeProperties dmeProperties;
+
     @Bean
     public S3Client configS3Client() {
         return new RealS3Client(s3Properties.getEndpoint(), s3Properties.getAccessKey(), s3Properties.getSecretKey());
@@ -52,4 +58,11 @@ public class SpringAppConfig {
     public PluginPackageDataModelDtoValidator dataModelDtoValidator() {
         return new PluginPackageDataModelDtoValidator();
     }
+
+    @Bean
+    public DataModelExpressionParser dataModelExpressionParser() {
+        DataModelExpressionParser parser = new DataModelExpressionParser(dmeProperties.getExpressionParseCacheSize());
+        parser.warmUp();
+        return parser;
+    }
 }
@@ -6,6 +6,8 @@ import com.webank.wecube.platform.core.dto.DmeDto;
 import com.webank.wecube.platform.core.dto.DmeFilterDto;
 import com.webank.wecube.platform.core.service.datamodel.ExpressionServiceImpl;
 import com.webank.wecube.platform.core.service.datamodel.RootlessExpressionServiceImpl;
+import com.webank.wecube.platform.core.service.dme.EntityOperationRootCondition;
+import com.webank.wecube.platform.core.service.dme.StandardEntityOperationService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -22,6 +24,8 @@ public class DataModelController {
     private ExpressionServiceImpl expressionServiceImpl;
     @Autowired
     private RootlessExpressionServiceImpl rootlessExpressionService;
+    @Autowired
+    private StandardEntityOperationService standardEntityOperationService;
 
     @PostMapping("/data-model/dme/all-entities")
     @ResponseBody
@@ -41,4 +45,16 @@ public class DataModelController {
         return okayWithData(result);
     }
 
+    @GetMapping("/data-model/dme/entity-data-cache/statistics")
+    @ResponseBody
+    public CommonResponseDto getEntityDataCacheStatistics() {
+        return okayWithData(standardEntityOperationService.getEntityDataCacheStatistics());
+    }
+
+    @PostMapping("/data-model/dme/explain")
+    @ResponseBody
+    public CommonResponseDto explainEntityOperation(@RequestBody EntityOperationRootCondition condition) {
+        return okayWithData(standardEntityOperationService.explain(condition));
+    }
+
 }
@@ -6,6 +6,7 @@ import com.webank.wecube.platform.core.dto.DataModelEntityDto;
 import com.webank.wecube.platform.core.dto.PluginPackageAttributeDto;
 import com.webank.wecube.platform.core.dto.PluginPackageDataModelDto;
 import com.webank.wecube.platform.core.service.PluginPackageDataModelServiceImpl;
+import com.webank.wecube.platform.core.service.datamodel.DataModelRefreshService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -19,6 +20,9 @@ public class PluginPackageDataModelController {
     @Autowired
     private PluginPackageDataModelServiceImpl pluginPackageDataModelService;
 
+    @Autowired
+    private DataModelRefreshService dataModelRefreshService;
+
     @GetMapping("/models")
     @ResponseBody
     public JsonResponse allDataModels() {
@@ -37,6 +41,18 @@ public class PluginPackageDataModelController {
         return JsonResponse.okayWithData(pluginPackageDataModelService.pullDynamicDataModel(packageName));
     }
 
+    @PostMapping("/models/refresh")
+    @ResponseBody
+    public JsonResponse refreshDynamicDataModels(@RequestBody(required = false) List<String> packageNames) {
+        return JsonResponse.okayWithData(dataModelRefreshService.startRefresh(packageNames));
+    }
+
+    @GetMapping("/models/refresh/{job-id}")
+    @ResponseBody
+    public JsonResponse getDataModelRefreshJob(@PathVariable(value = "job-id") String jobId) {
+        return JsonResponse.okayWithData(dataModelRefreshService.getJob(jobId));
+    }
+
     @GetMapping("/models/package/{plugin-package-name}/entity/{entity-name}/refById")
     @ResponseBody
     public JsonResponse getRefByIdInfoByPackageNameAndEntityName(
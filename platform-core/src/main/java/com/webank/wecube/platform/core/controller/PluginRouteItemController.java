@@ -8,30 +8,63 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import com.webank.wecube.platform.core.dto.CommonResponseDto;
 import com.webank.wecube.platform.core.dto.PluginRouteItemDto;
 import com.webank.wecube.platform.core.service.PluginRouteItemService;
+import com.webank.wecube.platform.core.service.PluginRouteItemService.RouteItemChangesWatcher;
 
 @RestController
 @RequestMapping("/v1")
 public class PluginRouteItemController {
     private static final Logger log = LoggerFactory.getLogger(PluginRouteItemController.class);
+    private static final long MAX_CHANGES_TIMEOUT_MILLIS = 60000L;
             
     @Autowired
     private PluginRouteItemService pluginRouteItemService;
 
     @GetMapping("/route-items")
-    public CommonResponseDto getAllPluginRouteItems() {
+    public CommonResponseDto getAllPluginRouteItems(WebRequest webRequest) {
         if(log.isDebugEnabled()){
             log.debug("fetching all route item");
         }
         List<PluginRouteItemDto> routeItems = pluginRouteItemService.getAllPluginRouteItems();
+        if (webRequest.checkNotModified(pluginRouteItemService.calculateRouteItemsEtag(routeItems))) {
+            return null;
+        }
 
         return CommonResponseDto.okayWithData(routeItems);
     }
 
+    /**
+     * Long-polls the route item changes since the version, responding as soon
+     * as there is any or with no change when the timeout elapses.
+     */
+    @GetMapping("/route-items/changes")
+    public DeferredResult<CommonResponseDto> getPluginRouteItemChanges(
+            @RequestParam(value = "epoch", required = false) String epoch,
+            @RequestParam(value = "version", required = false) Long version,
+            @RequestParam(value = "timeoutMillis", required = false, defaultValue = "30000") long timeoutMillis) {
+        if(log.isDebugEnabled()){
+            log.debug("fetching route item changes since {} {}", epoch, version);
+        }
+        DeferredResult<CommonResponseDto> result = new DeferredResult<>(
+                Math.max(1000L, Math.min(timeoutMillis, MAX_CHANGES_TIMEOUT_MILLIS)));
+        RouteItemChangesWatcher watcher = pluginRouteItemService.watchRouteItemChanges(epoch, version,
+                changes -> result.setResult(CommonResponseDto.okayWithData(changes)));
+        if (watcher != null) {
+            result.onTimeout(() -> result.setResult(
+                    CommonResponseDto.okayWithData(pluginRouteItemService.getRouteItemChanges(epoch, version))));
+            result.onCompletion(() -> pluginRouteItemService.unwatchRouteItemChanges(watcher));
+        }
+
+        return result;
+    }
+
     @GetMapping("/route-items/{name}")
     public CommonResponseDto getPluginRouteItemsByName(@PathVariable("name") String name) {
         if(log.isDebugEnabled()){
@@ -0,0 +1,44 @@
+package com.webank.wecube.platform.core.domain.plugin;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Entry of the route item change log, the route items of the name changed in
+ * this version of the route table.
+ */
+@Entity
+@Table(name = "plugin_route_item_changes")
+public class PluginRouteItemChange {
+    @Id
+    private Long version;
+
+    @Column
+    private String name;
+
+    public PluginRouteItemChange() {
+    }
+
+    public PluginRouteItemChange(Long version, String name) {
+        this.version = version;
+        this.name = name;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}
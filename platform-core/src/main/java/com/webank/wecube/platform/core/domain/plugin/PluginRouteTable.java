@@ -0,0 +1,60 @@
+package com.webank.wecube.platform.core.domain.plugin;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+/**
+ * Latest version of the route table shared by all the core instances, locked
+ * while a change is recorded so that versions are committed in order. The
+ * epoch is generated at random when the row is created, so that versions of a
+ * recreated table are never taken for the ones of the previous table.
+ */
+@Entity
+@Table(name = "plugin_route_table")
+public class PluginRouteTable {
+    public static final String DEFAULT_ID = "default";
+
+    @Id
+    private String id;
+
+    @Column
+    private String epoch;
+
+    @Column
+    private Long version;
+
+    public PluginRouteTable() {
+    }
+
+    public PluginRouteTable(String id, String epoch, Long version) {
+        this.id = id;
+        this.epoch = epoch;
+        this.version = version;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public Long getVersion() {
+        return version;
+    }
+
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
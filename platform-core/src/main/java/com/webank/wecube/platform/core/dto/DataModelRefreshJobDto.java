@@ -0,0 +1,187 @@
+package com.webank.wecube.platform.core.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class DataModelRefreshJobDto {
+    private String jobId;
+    private String status;
+    private Long startTime;
+    private Long endTime;
+    private int totalPackages;
+    private int finishedPackages;
+    private int updatedPackages;
+    private int failedPackages;
+    private List<PackageRefreshDto> packages = new ArrayList<>();
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public Long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(Long startTime) {
+        this.startTime = startTime;
+    }
+
+    public Long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(Long endTime) {
+        this.endTime = endTime;
+    }
+
+    public int getTotalPackages() {
+        return totalPackages;
+    }
+
+    public void setTotalPackages(int totalPackages) {
+        this.totalPackages = totalPackages;
+    }
+
+    public int getFinishedPackages() {
+        return finishedPackages;
+    }
+
+    public void setFinishedPackages(int finishedPackages) {
+        this.finishedPackages = finishedPackages;
+    }
+
+    public int getUpdatedPackages() {
+        return updatedPackages;
+    }
+
+    public void setUpdatedPackages(int updatedPackages) {
+        this.updatedPackages = updatedPackages;
+    }
+
+    public int getFailedPackages() {
+        return failedPackages;
+    }
+
+    public void setFailedPackages(int failedPackages) {
+        this.failedPackages = failedPackages;
+    }
+
+    public List<PackageRefreshDto> getPackages() {
+        return packages;
+    }
+
+    public void setPackages(List<PackageRefreshDto> packages) {
+        this.packages = packages;
+    }
+
+    public static class PackageRefreshDto {
+        private String packageName;
+        private String status;
+        private String contentHash;
+        private Integer previousDataModelVersion;
+        private Integer dataModelVersion;
+        private List<String> addedEntities = new ArrayList<>();
+        private List<String> removedEntities = new ArrayList<>();
+        private List<String> changedEntities = new ArrayList<>();
+        private String message;
+
+        public PackageRefreshDto() {
+        }
+
+        public PackageRefreshDto(PackageRefreshDto packageRefreshDto) {
+            this.packageName = packageRefreshDto.packageName;
+            this.status = packageRefreshDto.status;
+            this.contentHash = packageRefreshDto.contentHash;
+            this.previousDataModelVersion = packageRefreshDto.previousDataModelVersion;
+            this.dataModelVersion = packageRefreshDto.dataModelVersion;
+            this.addedEntities = new ArrayList<>(packageRefreshDto.addedEntities);
+            this.removedEntities = new ArrayList<>(packageRefreshDto.removedEntities);
+            this.changedEntities = new ArrayList<>(packageRefreshDto.changedEntities);
+            this.message = packageRefreshDto.message;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public void setPackageName(String packageName) {
+            this.packageName = packageName;
+        }
+
+        public String getStatus() {
+            return status;
+        }
+
+        public void setStatus(String status) {
+            this.status = status;
+        }
+
+        public String getContentHash() {
+            return contentHash;
+        }
+
+        public void setContentHash(String contentHash) {
+            this.contentHash = contentHash;
+        }
+
+        public Integer getPreviousDataModelVersion() {
+            return previousDataModelVersion;
+        }
+
+        public void setPreviousDataModelVersion(Integer previousDataModelVersion) {
+            this.previousDataModelVersion = previousDataModelVersion;
+        }
+
+        public Integer getDataModelVersion() {
+            return dataModelVersion;
+        }
+
+        public void setDataModelVersion(Integer dataModelVersion) {
+            this.dataModelVersion = dataModelVersion;
+        }
+
+        public List<String> getAddedEntities() {
+            return addedEntities;
+        }
+
+        public void setAddedEntities(List<String> addedEntities) {
+            this.addedEntities = addedEntities;
+        }
+
+        public List<String> getRemovedEntities() {
+            return removedEntities;
+        }
+
+        public void setRemovedEntities(List<String> removedEntities) {
+            this.removedEntities = removedEntities;
+        }
+
+        public List<String> getChangedEntities() {
+            return changedEntities;
+        }
+
+        public void setChangedEntities(List<String> changedEntities) {
+            this.changedEntities = changedEntities;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public void setMessage(String message) {
+            this.message = message;
+        }
+    }
+}
@@ -37,6 +37,18 @@ public class PluginPackageAttributeDto {
     public PluginPackageAttributeDto() {
     }
 
+    public PluginPackageAttributeDto(PluginPackageAttributeDto attributeDto) {
+        this.id = attributeDto.id;
+        this.packageName = attributeDto.packageName;
+        this.entityName = attributeDto.entityName;
+        this.name = attributeDto.name;
+        this.description = attributeDto.description;
+        this.dataType = attributeDto.dataType;
+        this.refPackageName = attributeDto.refPackageName;
+        this.refEntityName = attributeDto.refEntityName;
+        this.refAttributeName = attributeDto.refAttributeName;
+    }
+
 
     /**
      * @param pluginPackageAttribute input attribute domain object
@@ -0,0 +1,76 @@
+package com.webank.wecube.platform.core.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PluginRouteItemChangesDto {
+    private String epoch;
+    private long version;
+    /**
+     * true if the changes are all the route items, names not in them have no
+     * running instance
+     */
+    private boolean fullSync;
+    private List<RouteItemsChangeDto> changes = new ArrayList<>();
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isFullSync() {
+        return fullSync;
+    }
+
+    public void setFullSync(boolean fullSync) {
+        this.fullSync = fullSync;
+    }
+
+    public List<RouteItemsChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<RouteItemsChangeDto> changes) {
+        this.changes = changes;
+    }
+
+    public static class RouteItemsChangeDto {
+        private String name;
+        private List<PluginRouteItemDto> routeItems = new ArrayList<>();
+
+        public RouteItemsChangeDto() {
+        }
+
+        public RouteItemsChangeDto(String name, List<PluginRouteItemDto> routeItems) {
+            this.name = name;
+            this.routeItems = routeItems;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<PluginRouteItemDto> getRouteItems() {
+            return routeItems;
+        }
+
+        public void setRouteItems(List<PluginRouteItemDto> routeItems) {
+            this.routeItems = routeItems;
+        }
+    }
+}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.query.Param;
 
+import java.util.List;
 import java.util.Optional;
 
 public interface PluginPackageDataModelRepository extends CrudRepository<PluginPackageDataModel, String> {
@@ -14,4 +15,9 @@ public interface PluginPackageDataModelRepository extends CrudRepository<PluginP
             "WHERE  dataModel.version = (SELECT max(dataModel.version ) from PluginPackageDataModel dataModel WHERE dataModel.packageName=:packageName GROUP BY dataModel.packageName) AND dataModel.packageName=:packageName")
     Optional<PluginPackageDataModel> findLatestDataModelByPackageName(@Param("packageName") String packageName);
 
+    @Query(value = "SELECT dataModel.id " +
+            "FROM PluginPackageDataModel dataModel " +
+            "WHERE dataModel.version = (SELECT max(latestDataModel.version) from PluginPackageDataModel latestDataModel WHERE latestDataModel.packageName=dataModel.packageName)")
+    List<String> findAllLatestDataModelIds();
+
 }
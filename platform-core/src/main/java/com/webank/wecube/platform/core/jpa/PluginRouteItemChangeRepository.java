@@ -0,0 +1,22 @@
+package com.webank.wecube.platform.core.jpa;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import com.webank.wecube.platform.core.domain.plugin.PluginRouteItemChange;
+
+public interface PluginRouteItemChangeRepository extends CrudRepository<PluginRouteItemChange, Long> {
+
+    List<PluginRouteItemChange> findByVersionGreaterThanOrderByVersionAsc(Long version);
+
+    @Query("SELECT min(change.version) FROM PluginRouteItemChange change")
+    Long findMinVersion();
+
+    @Modifying
+    @Query("DELETE FROM PluginRouteItemChange change WHERE change.version <= :version")
+    int deleteUpToVersion(@Param("version") Long version);
+}
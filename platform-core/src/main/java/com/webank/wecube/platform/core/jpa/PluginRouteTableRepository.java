@@ -0,0 +1,29 @@
+package com.webank.wecube.platform.core.jpa;
+
+import javax.persistence.LockModeType;
+
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.webank.wecube.platform.core.domain.plugin.PluginRouteTable;
+
+public interface PluginRouteTableRepository extends CrudRepository<PluginRouteTable, String> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT routeTable FROM PluginRouteTable routeTable WHERE routeTable.id = :id")
+    PluginRouteTable findByIdForUpdate(@Param("id") String id);
+
+    /**
+     * Creates the row unless it exists. A concurrent insert of the same id
+     * waits for the first one to commit and then leaves its row unchanged.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = "INSERT INTO plugin_route_table (id, epoch, version) VALUES (:id, :epoch, 0) "
+            + "ON DUPLICATE KEY UPDATE version = version", nativeQuery = true)
+    int insertIfAbsent(@Param("id") String id, @Param("epoch") String epoch);
+}
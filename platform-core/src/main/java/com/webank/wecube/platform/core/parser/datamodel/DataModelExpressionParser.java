@@ -1,17 +1,24 @@
 package com.webank.wecube.platform.core.parser.datamodel;
 
 import com.google.common.base.Splitter;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.Iterables;
 import com.webank.wecube.platform.core.commons.WecubeCoreException;
 import com.webank.wecube.platform.core.parser.datamodel.antlr4.DataModelLexer;
 import com.webank.wecube.platform.core.parser.datamodel.antlr4.DataModelParser;
 import com.webank.wecube.platform.core.support.datamodel.dto.DataModelExpressionDto;
 import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
 import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 import org.apache.commons.lang3.StringUtils;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Queue;
 
@@ -19,7 +26,43 @@ public class DataModelExpressionParser {
     public final static String FETCH_ALL = "ALL";
     public final static String FETCH_NONE = "NONE";
 
+    /**
+     * Expressions covering every rule of the grammar, parsed at startup to
+     * fill the DFA shared by all lexer and parser instances.
+     */
+    private final static List<String> WARM_UP_EXPRESSIONS = Arrays.asList(
+            "wecmdb:system_design.ALL",
+            "wecmdb:subsys_design.system_design>wecmdb:system_design.code",
+            "wecmdb:subsys~(subsys)wecmdb:unit.key_name",
+            "wecmdb:subsys~(subsys)wecmdb:unit.unit_design>wecmdb:unit_design.subsys_design>wecmdb:subsys_design.ALL",
+            "wecmdb:zone_design~(zone_design2)wecmdb:zone_link_design~(zone_link_design)wecmdb:zone_link.zone1>wecmdb:zone.NONE");
+
+    private final Cache<String, List<DataModelExpressionDto>> parsedExpressions;
+
     public DataModelExpressionParser() {
+        this(0);
+    }
+
+    /**
+     * @param parseCacheSize max count of parsed expressions to keep, 0 to parse
+     *                       every time.
+     */
+    public DataModelExpressionParser(int parseCacheSize) {
+        if (parseCacheSize > 0) {
+            this.parsedExpressions = CacheBuilder.newBuilder().maximumSize(parseCacheSize).build();
+        } else {
+            this.parsedExpressions = null;
+        }
+    }
+
+    public void warmUp() {
+        for (String expression : WARM_UP_EXPRESSIONS) {
+            doCheckExpressionSyntax(expression);
+        }
+    }
+
+    public long getParseCacheSize() {
+        return parsedExpressions == null ? 0L : parsedExpressions.size();
     }
 
     public Queue<DataModelExpressionDto> parse(String expression) {
@@ -52,17 +95,51 @@ public class DataModelExpressionParser {
     }
 
     private Queue<DataModelExpressionDto> checkExpressionSyntax(String expression) {
+        if (parsedExpressions == null) {
+            return doCheckExpressionSyntax(expression);
+        }
+
+        List<DataModelExpressionDto> parsedDtos = parsedExpressions.getIfPresent(expression);
+        if (parsedDtos == null) {
+            parsedDtos = Collections.unmodifiableList(new ArrayList<>(doCheckExpressionSyntax(expression)));
+            parsedExpressions.put(expression, parsedDtos);
+        }
+
+        // the parsed dtos also carry the request state, give each caller its own copies
+        Queue<DataModelExpressionDto> expressionQueue = new LinkedList<>();
+        for (DataModelExpressionDto parsedDto : parsedDtos) {
+            expressionQueue.add(new DataModelExpressionDto(parsedDto));
+        }
+        return expressionQueue;
+    }
+
+    private Queue<DataModelExpressionDto> doCheckExpressionSyntax(String expression) {
         CharStream inputStream = CharStreams.fromString(expression);
         DataModelLexer dataModelLexer = new DataModelLexer(inputStream);
         CommonTokenStream tokens = new CommonTokenStream(dataModelLexer);
         DataModelParser parser = new DataModelParser(tokens);
-        parser.addErrorListener(new BaseErrorListener() {
-            @Override
-            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) throws WecubeCoreException {
-                throw new WecubeCoreException(String.format("Expression syntax error: line %d:%d %s", line, charPositionInLine, msg));
-            }
-        });
-        ParseTree tree = parser.route();
+
+        // try the faster SLL prediction first, which is enough for all valid expressions of this grammar
+        parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+        parser.removeErrorListeners();
+        parser.setErrorHandler(new BailErrorStrategy());
+        ParseTree tree;
+        try {
+            tree = parser.route();
+        } catch (ParseCancellationException e) {
+            // fall back to full LL prediction to report the syntax error precisely
+            tokens.seek(0);
+            parser.reset();
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.setErrorHandler(new DefaultErrorStrategy());
+            parser.addErrorListener(new BaseErrorListener() {
+                @Override
+                public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) throws WecubeCoreException {
+                    throw new WecubeCoreException(String.format("Expression syntax error: line %d:%d %s", line, charPositionInLine, msg));
+                }
+            });
+            tree = parser.route();
+        }
         ParseTreeWalker walker = new ParseTreeWalker();
         DataModelExpressionListener evalByListener = new DataModelExpressionListener();
         walker.walk(evalByListener, tree);
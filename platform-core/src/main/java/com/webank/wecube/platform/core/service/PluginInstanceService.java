@@ -45,6 +45,7 @@ import com.webank.wecube.platform.core.domain.plugin.PluginPackageRuntimeResourc
 import com.webank.wecube.platform.core.domain.plugin.PluginPackageRuntimeResourcesS3;
 import com.webank.wecube.platform.core.dto.CreateInstanceDto;
 import com.webank.wecube.platform.core.dto.QueryRequest;
+import com.webank.wecube.platform.core.dto.PluginRouteItemDto;
 import com.webank.wecube.platform.core.dto.ResourceItemDto;
 import com.webank.wecube.platform.core.dto.ResourceServerDto;
 import com.webank.wecube.platform.core.jpa.PluginConfigRepository;
@@ -53,6 +54,7 @@ import com.webank.wecube.platform.core.jpa.PluginMysqlInstanceRepository;
 import com.webank.wecube.platform.core.jpa.PluginPackageRepository;
 import com.webank.wecube.platform.core.jpa.ResourceItemRepository;
 import com.webank.wecube.platform.core.jpa.ResourceServerRepository;
+import com.webank.wecube.platform.core.service.dme.EntityQueryExpressionPlanCache;
 import com.webank.wecube.platform.core.service.resource.ResourceItemType;
 import com.webank.wecube.platform.core.service.resource.ResourceManagementService;
 import com.webank.wecube.platform.core.service.resource.ResourceServerType;
@@ -91,11 +93,15 @@ public class PluginInstanceService {
     GatewayServiceStub gatewayServiceStub;
     @Autowired
     SystemVariableService systemVariableService;
+    @Autowired
+    PluginRouteItemService pluginRouteItemService;
 
     @Autowired
     private ResourceManagementService resourceManagementService;
     @Autowired
     private ResourceItemRepository resourceItemRepository;
+    @Autowired
+    private EntityQueryExpressionPlanCache entityQueryExpressionPlanCache;
 
     private static final int PLUGIN_DEFAULT_START_PORT = 20000;
     private static final int PLUGIN_DEFAULT_END_PORT = 30000;
@@ -325,12 +331,10 @@ public class PluginInstanceService {
         // 4. insert to DB
         instance.setContainerStatus(PluginInstance.CONTAINER_STATUS_RUNNING);
         pluginInstanceRepository.save(instance);
+        entityQueryExpressionPlanCache.invalidateAllAfterCompletion();
 
         // 6. register route
-        GatewayResponse response = registerRoute(pluginPackage.getName(), hostIp, String.valueOf(port));
-        if (!response.getStatus().equals(GatewayResponse.getStatusCodeOk())) {
-            logger.error("Launch instance has done, but register routing information is failed, please check");
-        }
+        registerRoute(pluginPackage.getName());
     }
 
     private DatabaseInfo initMysqlDatabaseSchema(Set<PluginPackageRuntimeResourcesMysql> mysqlSet,
@@ -522,6 +526,9 @@ public class PluginInstanceService {
         removeDockerInstanceDto.setId(instance.getDockerInstanceResourceId());
         resourceManagementService.deleteItems(Lists.newArrayList(removeDockerInstanceDto));
         pluginInstanceRepository.deleteById(instanceId);
+        entityQueryExpressionPlanCache.invalidateAllAfterCompletion();
+
+        registerRoute(instance.getInstanceName());
     }
 
     private boolean isHostIpAvailable(String hostIp) {
@@ -597,8 +604,23 @@ public class PluginInstanceService {
         }
     }
 
-    private GatewayResponse registerRoute(String name, String host, String port) {
-        return gatewayServiceStub.registerRoute(
-                new RegisterRouteItemsDto(name, Lists.newArrayList(new RouteItem(name, "http", host, port))));
+    private void registerRoute(String name) {
+        // pushed after commit, so that gateways never route to instances rolled back
+        pluginRouteItemService.publishRouteItemsChange(name, routeItems -> pushRouteItems(name, routeItems));
+    }
+
+    private void pushRouteItems(String name, List<PluginRouteItemDto> pluginRouteItems) {
+        // gateway replaces the route items of the name, so push all running instances of it
+        List<RouteItem> routeItems = Lists.newArrayList();
+        pluginRouteItems.forEach(item -> routeItems
+                .add(new RouteItem(item.getName(), item.getSchema(), item.getHost(), item.getPort())));
+        try {
+            GatewayResponse response = gatewayServiceStub.registerRoute(new RegisterRouteItemsDto(name, routeItems));
+            if (!response.getStatus().equals(GatewayResponse.getStatusCodeOk())) {
+                logger.error("Route items of {} are changed, but register routing information is failed, please check", name);
+            }
+        } catch (Exception e) {
+            logger.warn("Route items of {} are changed, but pushing routing information to gateway is failed, gateway will refresh it later", name, e);
+        }
     }
 }
@@ -15,10 +15,10 @@ import com.webank.wecube.platform.core.domain.plugin.PluginPackageEntity;
 import com.webank.wecube.platform.core.dto.*;
 import com.webank.wecube.platform.core.dto.PluginPackageEntityDto.TrimmedPluginPackageEntityDto;
 import com.webank.wecube.platform.core.jpa.PluginConfigRepository;
-import com.webank.wecube.platform.core.jpa.PluginPackageAttributeRepository;
 import com.webank.wecube.platform.core.jpa.PluginPackageDataModelRepository;
-import com.webank.wecube.platform.core.jpa.PluginPackageEntityRepository;
 import com.webank.wecube.platform.core.jpa.PluginPackageRepository;
+import com.webank.wecube.platform.core.service.datamodel.DataModelGraph;
+import com.webank.wecube.platform.core.service.datamodel.DataModelGraphIndex;
 import com.webank.wecube.platform.core.support.PluginPackageDataModelHelper;
 import com.webank.wecube.platform.core.utils.JsonUtils;
 import org.apache.commons.lang3.StringUtils;
@@ -49,8 +49,6 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
     @Autowired
     private PluginPackageDataModelRepository dataModelRepository;
     @Autowired
-    private PluginPackageAttributeRepository pluginPackageAttributeRepository;
-    @Autowired
     private PluginPackageRepository pluginPackageRepository;
     @Autowired
     private ApplicationProperties applicationProperties;
@@ -58,9 +56,9 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
     @Qualifier("userJwtSsoTokenRestTemplate")
     private RestTemplate restTemplate;
     @Autowired
-    private PluginPackageEntityRepository pluginPackageEntityRepository;
-    @Autowired
     private PluginConfigRepository pluginConfigRepository;
+    @Autowired
+    private DataModelGraphIndex dataModelGraphIndex;
 
     private static final Logger logger = LoggerFactory.getLogger(PluginPackageDataModelServiceImpl.class);
 
@@ -101,7 +99,9 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
             updateAttributeReference(pluginPackageDataModel, attributeReferenceNameMap, referenceAttributeMap);
         }
 
-        return convertDataModelDomainToDto(dataModelRepository.save(pluginPackageDataModel));
+        PluginPackageDataModel savedDataModel = dataModelRepository.save(pluginPackageDataModel);
+        DataModelGraph graph = dataModelGraphIndex.refresh(savedDataModel);
+        return convertPackageNodeToDto(graph, graph.getPackageNode(savedDataModel.getPackageName()));
     }
 
     private Map<String, PluginPackageAttribute> buildReferenceAttributeMap(PluginPackageDataModel transferredPluginPackageDataModel) {
@@ -137,10 +137,11 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
         Set<PluginPackageDataModelDto> pluginPackageDataModelDtos = newLinkedHashSet();
         Optional<List<String>> allPackageNamesOptional = pluginPackageRepository.findAllDistinctPackage();
         allPackageNamesOptional.ifPresent(allPackageNames -> {
+            DataModelGraph graph = dataModelGraphIndex.getGraph();
             for (String packageName : allPackageNames) {
-                Optional<PluginPackageDataModel> pluginPackageDataModelOptional = dataModelRepository.findLatestDataModelByPackageName(packageName);
-                if (pluginPackageDataModelOptional.isPresent()) {
-                    pluginPackageDataModelDtos.add(convertDataModelDomainToDto(pluginPackageDataModelOptional.get()));
+                DataModelGraph.PackageNode packageNode = graph.getPackageNode(packageName);
+                if (packageNode != null) {
+                    pluginPackageDataModelDtos.add(convertPackageNodeToDto(graph, packageNode));
                 }
             }
         });
@@ -148,28 +149,16 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
         return pluginPackageDataModelDtos;
     }
 
-    private PluginPackageDataModelDto convertDataModelDomainToDto(PluginPackageDataModel dataModel) {
-        Set<PluginPackageEntity> entities = newLinkedHashSet();
+    private PluginPackageDataModelDto convertPackageNodeToDto(DataModelGraph graph, DataModelGraph.PackageNode packageNode) {
+        PluginPackageDataModelDto dataModelDto = packageNode.toDataModelDto();
 
-        PluginPackageDataModelDto dataModelDto = new PluginPackageDataModelDto();
-        dataModelDto.setId(dataModel.getId());
-        dataModelDto.setVersion(dataModel.getVersion());
-        dataModelDto.setPackageName(dataModel.getPackageName());
-        dataModelDto.setUpdateSource(dataModel.getUpdateSource());
-        dataModelDto.setUpdateTime(dataModel.getUpdateTime());
-        dataModelDto.setDynamic(dataModel.isDynamic());
-        if (dataModel.isDynamic()) {
-            dataModelDto.setUpdatePath(dataModel.getUpdatePath());
-            dataModelDto.setUpdateMethod(dataModel.getUpdateMethod());
-        }
-        if (null != dataModel.getPluginPackageEntities() && dataModel.getPluginPackageEntities().size() > 0) {
-            Set<PluginPackageEntityDto> pluginPackageEntities = newLinkedHashSet();
-            dataModel.getPluginPackageEntities().forEach(entity -> pluginPackageEntities.add(PluginPackageEntityDto.fromDomain(entity)));
-            dataModelDto.setPluginPackageEntities(pluginPackageEntities);
+        Set<PluginPackageEntityDto> pluginPackageEntities = newLinkedHashSet();
+        for (DataModelGraph.EntityNode entityNode : packageNode.getEntityNodes()) {
+            PluginPackageEntityDto entityDto = entityNode.toEntityDto();
+            updateReferenceInfo(graph, entityDto, false);
+            pluginPackageEntities.add(entityDto);
         }
-        dataModel.getPluginPackageEntities().forEach(entity -> entities.add(entity));
-
-        dataModelDto.setPluginPackageEntities(Sets.newLinkedHashSet(convertEntityDomainToDto(entities, true)));
+        dataModelDto.setPluginPackageEntities(pluginPackageEntities);
 
         return dataModelDto;
     }
@@ -188,14 +177,15 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
             logger.info(msg);
             return null;
         }
-        Optional<PluginPackageDataModel> latestDataModelByPackageName = dataModelRepository.findLatestDataModelByPackageName(packageName);
-        if (!latestDataModelByPackageName.isPresent()) {
+        DataModelGraph graph = dataModelGraphIndex.getGraph();
+        DataModelGraph.PackageNode packageNode = graph.getPackageNode(packageName);
+        if (packageNode == null) {
             String errorMessage = String.format("Data model not found for package name=[%s]", packageName);
             logger.error(errorMessage);
             throw new WecubeCoreException(errorMessage);
         }
 
-        return convertDataModelDomainToDto(latestDataModelByPackageName.get());
+        return convertPackageNodeToDto(graph, packageNode);
     }
 
     /**
@@ -277,118 +267,48 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
      * Update the reference info for both reference by and reference to
      * This feature is for entity to known whom it refers to and whom it is referred by
      *
-     * @param inputEntityDtoList entity dto list as input
+     * @param graph                graph of the latest data models
+     * @param inputEntityDto       entity dto as input
+     * @param includeSelfReference whether the attributes of the entity referring to itself are kept in the reference by info
      */
-    private void updateReferenceInfo(List<PluginPackageEntityDto> inputEntityDtoList) {
-        for (PluginPackageEntityDto inputEntityDto : inputEntityDtoList) {
-            updateReferenceInfo(inputEntityDto);
-        }
-    }
-    
-    private void updateReferenceInfo(PluginPackageEntityDto inputEntityDto) {
-        // query for the referenceBy info
+    private void updateReferenceInfo(DataModelGraph graph, PluginPackageEntityDto inputEntityDto, boolean includeSelfReference) {
         String packageName = inputEntityDto.getPackageName();
         String entityName = inputEntityDto.getName();
-        int dataModelVersion = 0;
 
-        Optional<PluginPackageDataModel> latestDataModelByPackageName = dataModelRepository.findLatestDataModelByPackageName(packageName);
-        if (latestDataModelByPackageName.isPresent()) {
-            dataModelVersion = latestDataModelByPackageName.get().getVersion();
-        }
         // find "reference by" info by latest data model version
-        Optional<List<PluginPackageAttribute>> allAttributeReferenceByList = pluginPackageAttributeRepository.findAllChildrenAttributes(packageName, entityName, dataModelVersion);
-
-        allAttributeReferenceByList.ifPresent(attributeList -> attributeList.forEach(attribute -> {
-            // the process of found reference by info
-            PluginPackageEntity referenceByEntity = attribute.getPluginPackageEntity();
-            if (!packageName.equals(referenceByEntity.getPackageName()) ||
+        for (DataModelGraph.ReferenceEdge edge : graph.getReferenceByEdges(packageName, entityName)) {
+            DataModelGraph.EntityNode referenceByEntity = edge.getSourceEntity();
+            if (includeSelfReference || !packageName.equals(referenceByEntity.getPackageName()) ||
                     !entityName.equals(referenceByEntity.getName())) {
-                // only add the dto to set when the attribute doesn't belong to this input entity
                 inputEntityDto.updateReferenceBy(
                         referenceByEntity.getId(),
                         referenceByEntity.getPackageName(),
                         referenceByEntity.getDataModelVersion(),
                         referenceByEntity.getName(),
-                        referenceByEntity.getDisplayName(), 
-                        PluginPackageAttributeDto.fromDomain(attribute));
+                        referenceByEntity.getDisplayName(),
+                        edge.copySourceAttribute());
             }
-        }));
-
-        // query for the referenceTo info
-        List<PluginPackageAttributeDto> attributes = inputEntityDto.getAttributes();
-        if (!CollectionUtils.isEmpty(attributes)) {
-            attributes.forEach(attributeDto -> {
-                        dataModelRepository.findLatestDataModelByPackageName(attributeDto.getRefPackageName()).ifPresent(dataModel ->
-                                dataModel.getPluginPackageEntities().stream().filter(entity -> attributeDto.getRefEntityName().equals(entity.getName())).findAny().ifPresent(entity -> {
-                                    PluginPackageEntityDto entityReferenceToDto = PluginPackageEntityDto.fromDomain(entity);
-                                    inputEntityDto.updateReferenceTo(
-                                            entityReferenceToDto.getId(),
-                                            entityReferenceToDto.getPackageName(),
-                                            entityReferenceToDto.getDataModelVersion(),
-                                            entityReferenceToDto.getName(),
-                                            entityReferenceToDto.getDisplayName(),
-                                            attributeDto
-                                    );
-                                }));
-                    }
-            );
-        }
-    }
-
-    private void updateReferenceInfoIncludeSelfReference(PluginPackageEntityDto inputEntityDto) {
-        String packageName = inputEntityDto.getPackageName();
-        String entityName = inputEntityDto.getName();
-        int dataModelVersion = 0;
-
-        Optional<PluginPackageDataModel> latestDataModelByPackageName = dataModelRepository
-                .findLatestDataModelByPackageName(packageName);
-        if (latestDataModelByPackageName.isPresent()) {
-            dataModelVersion = latestDataModelByPackageName.get().getVersion();
         }
-        Optional<List<PluginPackageAttribute>> allAttributeReferenceByList = pluginPackageAttributeRepository
-                .findAllChildrenAttributes(packageName, entityName, dataModelVersion);
-
-        allAttributeReferenceByList.ifPresent(attributeList -> attributeList.forEach(attribute -> {
-            PluginPackageEntity referenceByEntity = attribute.getPluginPackageEntity();
-            inputEntityDto.updateReferenceBy(referenceByEntity.getId(), referenceByEntity.getPackageName(),
-                    referenceByEntity.getDataModelVersion(), referenceByEntity.getName(),
-                    referenceByEntity.getDisplayName(), PluginPackageAttributeDto.fromDomain(attribute));
-
-        }));
 
+        // find "reference to" info by the latest data model of the referenced package
         List<PluginPackageAttributeDto> attributes = inputEntityDto.getAttributes();
         if (!CollectionUtils.isEmpty(attributes)) {
             attributes.forEach(attributeDto -> {
-                dataModelRepository.findLatestDataModelByPackageName(attributeDto.getRefPackageName())
-                        .ifPresent(dataModel -> dataModel.getPluginPackageEntities().stream()
-                                .filter(entity -> attributeDto.getRefEntityName().equals(entity.getName())).findAny()
-                                .ifPresent(entity -> {
-                                    PluginPackageEntityDto entityReferenceToDto = PluginPackageEntityDto
-                                            .fromDomain(entity);
-                                    inputEntityDto.updateReferenceTo(entityReferenceToDto.getId(),
-                                            entityReferenceToDto.getPackageName(),
-                                            entityReferenceToDto.getDataModelVersion(), entityReferenceToDto.getName(),
-                                            entityReferenceToDto.getDisplayName(), attributeDto);
-                                }));
+                DataModelGraph.EntityNode referenceToEntity = graph.getEntityNode(attributeDto.getRefPackageName(), attributeDto.getRefEntityName());
+                if (referenceToEntity != null) {
+                    inputEntityDto.updateReferenceTo(
+                            referenceToEntity.getId(),
+                            referenceToEntity.getPackageName(),
+                            referenceToEntity.getDataModelVersion(),
+                            referenceToEntity.getName(),
+                            referenceToEntity.getDisplayName(),
+                            attributeDto
+                    );
+                }
             });
         }
     }
 
-    /**
-     * Convert the plugin model entities from domains to dtos
-     *
-     * @param savedPluginPackageEntity an Iterable pluginPackageEntity
-     * @return converted dtos
-     */
-    private List<PluginPackageEntityDto> convertEntityDomainToDto(Iterable<PluginPackageEntity> savedPluginPackageEntity, boolean ifUpdateReferenceInfo) {
-        List<PluginPackageEntityDto> pluginPackageEntityDtos = new ArrayList<>();
-        savedPluginPackageEntity
-                .forEach(domain -> pluginPackageEntityDtos.add(PluginPackageEntityDto.fromDomain(domain)));
-        if (ifUpdateReferenceInfo) updateReferenceInfo(pluginPackageEntityDtos);
-
-        return pluginPackageEntityDtos;
-    }
-
     @Override
     public PluginPackageDataModelDto pullDynamicDataModel(String packageName) {
         Optional<PluginPackage> latestPluginPackageByName = pluginPackageRepository.findLatestVersionByName(packageName);
@@ -398,14 +318,13 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
             throw new WecubeCoreException(errorMessage);
         }
 
-        Optional<PluginPackageDataModel> latestDataModelByPackageName = dataModelRepository.findLatestDataModelByPackageName(packageName);
-        if (!latestDataModelByPackageName.isPresent()) {
+        DataModelGraph.PackageNode dataModel = dataModelGraphIndex.getGraph().getPackageNode(packageName);
+        if (dataModel == null) {
             String errorMessage = String.format("Data model not found for package name=[%s]", packageName);
             logger.error(errorMessage);
             throw new WecubeCoreException(errorMessage);
         }
 
-        PluginPackageDataModel dataModel = latestDataModelByPackageName.get();
         if (!dataModel.isDynamic()) {
             String message = String.format("DataMode does not support dynamic update for package: [%s]", packageName);
             logger.error(message);
@@ -463,7 +382,7 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
         }
     }
 
-    private Set<PluginPackageEntityDto> pullDynamicDataModelFromPlugin(PluginPackageDataModel dataModel) {
+    private Set<PluginPackageEntityDto> pullDynamicDataModelFromPlugin(DataModelGraph.PackageNode dataModel) {
         Map<String, Object> parametersMap = new HashMap<>();
         String gatewayUrl = applicationProperties.getGatewayUrl();
         parametersMap.put("gatewayUrl", gatewayUrl);
@@ -507,70 +426,46 @@ public class PluginPackageDataModelServiceImpl implements PluginPackageDataModel
      */
     @Override
     public List<PluginPackageAttributeDto> getRefByInfo(String packageName, String entityName) throws WecubeCoreException {
-        Integer version = findLatestDataModelVersion(packageName, entityName);
-
-        // find all children attributes
-        Optional<List<PluginPackageAttribute>> allChildrenAttributesOpt = pluginPackageAttributeRepository.findAllChildrenAttributes(packageName, entityName, version);
-        List<PluginPackageAttributeDto> resultList = new ArrayList<>();
+        DataModelGraph graph = dataModelGraphIndex.getGraph();
+        checkLatestDataModelExists(graph, packageName, entityName);
 
         // select attribute from all children where ref attribute is id
-        if (allChildrenAttributesOpt.isPresent()) {
-            List<PluginPackageAttribute> allChildrenAttribute = allChildrenAttributesOpt.get();
-            for (PluginPackageAttribute pluginPackageAttribute : allChildrenAttribute) {
-                String refPackageName = pluginPackageAttribute.getPluginPackageAttribute().getPluginPackageEntity().getPackageName();
-                String refEntityName = pluginPackageAttribute.getPluginPackageAttribute().getPluginPackageEntity().getName();
-                String refAttrName = pluginPackageAttribute.getPluginPackageAttribute().getName();
-                if (packageName.equals(refPackageName) && entityName.equals(refEntityName) && "id".equals(refAttrName)) {
-                    PluginPackageAttributeDto returnedAttributeDto = PluginPackageAttributeDto.fromDomain(pluginPackageAttribute);
-                    resultList.add(returnedAttributeDto);
-                }
+        List<PluginPackageAttributeDto> resultList = new ArrayList<>();
+        for (DataModelGraph.ReferenceEdge edge : graph.getReferenceByEdges(packageName, entityName)) {
+            if ("id".equals(edge.getTargetAttributeName())) {
+                resultList.add(edge.copySourceAttribute());
             }
         }
         return resultList;
-
-
     }
 
     @Override
     public List<PluginPackageAttributeDto> entityView(String packageName, String entityName) {
-        Integer version = findLatestDataModelVersion(packageName, entityName);
-        Optional<PluginPackageEntity> foundEntity = this.pluginPackageEntityRepository.findByPackageNameAndNameAndDataModelVersion(packageName, entityName, version);
-        List<PluginPackageAttributeDto> result = new ArrayList<>();
-        foundEntity.ifPresent(entity -> {
-            entity.getPluginPackageAttributeList().forEach(pluginPackageAttribute -> result.add(PluginPackageAttributeDto.fromDomain(pluginPackageAttribute)));
-        });
-        return result;
+        DataModelGraph graph = dataModelGraphIndex.getGraph();
+        checkLatestDataModelExists(graph, packageName, entityName);
+
+        DataModelGraph.EntityNode entityNode = graph.getEntityNode(packageName, entityName);
+        return entityNode == null ? new ArrayList<>() : entityNode.copyAttributes();
     }
 
-    private Integer findLatestDataModelVersion(String packageName, String entityName) {
-        // get latest data model by package name
-        Optional<PluginPackageDataModel> latestDataModelByPackageNameOpt = dataModelRepository.findLatestDataModelByPackageName(packageName);
-        if (!latestDataModelByPackageNameOpt.isPresent()) {
+    private void checkLatestDataModelExists(DataModelGraph graph, String packageName, String entityName) {
+        if (graph.getPackageNode(packageName) == null) {
             String msg = String.format("Cannot find data model by package name: [%s] and entity name: [%s]", packageName, entityName);
             logger.error(msg);
             throw new WecubeCoreException(msg);
         }
-
-        // get data model version
-        return latestDataModelByPackageNameOpt.get().getVersion();
     }
 
     public DataModelEntityDto getEntityByPackageNameAndName(String packageName, String entityName) {
         DataModelEntityDto dataModelEntityDto = new DataModelEntityDto();
 
-        Optional<PluginPackageDataModel> dataModelOptional = dataModelRepository
-                .findLatestDataModelByPackageName(packageName);
-        if (!dataModelOptional.isPresent()) {
-            return dataModelEntityDto;
-        }
-        Optional<PluginPackageEntity> entityOptional = pluginPackageEntityRepository
-                .findByPackageNameAndNameAndDataModelVersion(packageName, entityName,
-                        dataModelOptional.get().getVersion());
-        if (!entityOptional.isPresent()) {
+        DataModelGraph graph = dataModelGraphIndex.getGraph();
+        DataModelGraph.EntityNode entityNode = graph.getEntityNode(packageName, entityName);
+        if (entityNode == null) {
             return dataModelEntityDto;
         }
-        dataModelEntityDto = DataModelEntityDto.fromDomain(entityOptional.get());
-        updateReferenceInfoIncludeSelfReference(dataModelEntityDto);
+        entityNode.fillEntityDto(dataModelEntityDto);
+        updateReferenceInfo(graph, dataModelEntityDto, true);
 
         List<BindedInterfaceEntityDto> referenceToEntityList = new ArrayList<BindedInterfaceEntityDto>();
         List<BindedInterfaceEntityDto> referenceByEntityList = new ArrayList<BindedInterfaceEntityDto>();
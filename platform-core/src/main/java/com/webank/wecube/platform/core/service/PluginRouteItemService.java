@@ -1,21 +1,66 @@
 package com.webank.wecube.platform.core.service;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
 
+import org.apache.commons.codec.digest.DigestUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.webank.wecube.platform.core.commons.ApplicationProperties.PluginProperties;
 import com.webank.wecube.platform.core.domain.plugin.PluginInstance;
+import com.webank.wecube.platform.core.domain.plugin.PluginRouteItemChange;
+import com.webank.wecube.platform.core.domain.plugin.PluginRouteTable;
+import com.webank.wecube.platform.core.dto.PluginRouteItemChangesDto;
+import com.webank.wecube.platform.core.dto.PluginRouteItemChangesDto.RouteItemsChangeDto;
 import com.webank.wecube.platform.core.dto.PluginRouteItemDto;
 import com.webank.wecube.platform.core.jpa.PluginInstanceRepository;
+import com.webank.wecube.platform.core.jpa.PluginRouteItemChangeRepository;
+import com.webank.wecube.platform.core.jpa.PluginRouteTableRepository;
 
+/**
+ * Provides the route items of running plugin instances to the gateway.
+ * <p>
+ * Besides the full list, the names whose route items changed are kept in a
+ * bounded change log in the database under a monotonically increasing route
+ * table version shared by all the core instances, so that gateways fetch only
+ * the changes since the version they have, waiting for the next change if
+ * there is none. A gateway with another epoch, or with a version not in the
+ * log, as after the database is recreated, gets all the route items instead.
+ */
 @Service
 public class PluginRouteItemService {
+    private static final Logger log = LoggerFactory.getLogger(PluginRouteItemService.class);
 
     @Autowired
     private PluginInstanceRepository pluginInstanceRepository;
 
+    @Autowired
+    private PluginRouteTableRepository pluginRouteTableRepository;
+
+    @Autowired
+    private PluginRouteItemChangeRepository pluginRouteItemChangeRepository;
+
+    @Autowired
+    private PluginProperties pluginProperties;
+
+    private final List<RouteItemChangesWatcher> routeItemChangesWatchers = new ArrayList<>();
+
     public List<PluginRouteItemDto> getAllPluginRouteItems() {
 
         List<PluginRouteItemDto> dtos = new ArrayList<>();
@@ -37,6 +82,20 @@ public class PluginRouteItemService {
         return dtos;
     }
 
+    /**
+     * @param routeItems route items
+     * @return a tag which changes only if the route items change, regardless of
+     *         their order
+     */
+    public String calculateRouteItemsEtag(List<PluginRouteItemDto> routeItems) {
+        List<String> routeItemLines = new ArrayList<>();
+        routeItems.forEach(d -> routeItemLines.add(
+                String.join(" ", d.getName(), d.getSchema(), d.getHost(), d.getPort())));
+        Collections.sort(routeItemLines);
+
+        return DigestUtils.md5Hex(String.join("\n", routeItemLines));
+    }
+
     public List<PluginRouteItemDto> getPluginRouteItemsByName(String name) {
 
         List<PluginRouteItemDto> dtos = new ArrayList<>();
@@ -59,4 +118,187 @@ public class PluginRouteItemService {
         return dtos;
     }
 
+    /**
+     * Records a change of the route items of the name as a new version of the
+     * route table. Once the transaction commits, the waiting gateways are
+     * notified and the listener is called with the route items of the running
+     * instances of the name.
+     *
+     * @param name plugin name
+     * @param publishedListener called after commit, null if none
+     */
+    @Transactional
+    public void publishRouteItemsChange(String name, Consumer<List<PluginRouteItemDto>> publishedListener) {
+        // locked until commit, so that versions are committed in order
+        PluginRouteTable routeTable = pluginRouteTableRepository.findByIdForUpdate(PluginRouteTable.DEFAULT_ID);
+        if (routeTable == null) {
+            createRouteTableIfAbsent();
+            routeTable = pluginRouteTableRepository.findByIdForUpdate(PluginRouteTable.DEFAULT_ID);
+        }
+        long version = routeTable.getVersion() + 1;
+        routeTable.setVersion(version);
+        pluginRouteTableRepository.save(routeTable);
+        pluginRouteItemChangeRepository.save(new PluginRouteItemChange(version, name));
+        pluginRouteItemChangeRepository
+                .deleteUpToVersion(version - Math.max(1, pluginProperties.getRouteItemChangeLogSize()));
+        log.info("route table version {} recorded for {}", version, name);
+
+        runAfterCommit(() -> {
+            List<PluginRouteItemDto> routeItems = getPluginRouteItemsByName(name);
+            notifyRouteItemChangesWatchers();
+            if (publishedListener != null) {
+                publishedListener.accept(routeItems);
+            }
+        });
+    }
+
+    /**
+     * @param epoch   epoch of the route table the caller has, null if none
+     * @param version version of the route table the caller has
+     * @return changes since the version, or all the route items if they cannot be
+     *         told from the change log
+     */
+    public PluginRouteItemChangesDto getRouteItemChanges(String epoch, Long version) {
+        PluginRouteTable routeTable = getRouteTable();
+        PluginRouteItemChangesDto changesDto = new PluginRouteItemChangesDto();
+        changesDto.setEpoch(routeTable.getEpoch());
+        changesDto.setVersion(routeTable.getVersion());
+        if (isInChangeLog(epoch, version, routeTable)) {
+            Set<String> changedNames = new LinkedHashSet<>();
+            for (PluginRouteItemChange change : pluginRouteItemChangeRepository
+                    .findByVersionGreaterThanOrderByVersionAsc(version)) {
+                changedNames.add(change.getName());
+                changesDto.setVersion(Math.max(changesDto.getVersion(), change.getVersion()));
+            }
+            changedNames.forEach(
+                    name -> changesDto.getChanges().add(new RouteItemsChangeDto(name, getPluginRouteItemsByName(name))));
+            return changesDto;
+        }
+
+        // changes published from now on have a greater version and are fetched next time
+        Map<String, List<PluginRouteItemDto>> allRouteItems = new LinkedHashMap<>();
+        getAllPluginRouteItems().forEach(d -> allRouteItems.computeIfAbsent(d.getName(), name -> new ArrayList<>()).add(d));
+        allRouteItems.forEach((name, routeItems) -> changesDto.getChanges().add(new RouteItemsChangeDto(name, routeItems)));
+        changesDto.setFullSync(true);
+        return changesDto;
+    }
+
+    /**
+     * Hands the changes since the version to the listener, right now if there
+     * is any or else on the next change, recorded by this core instance or by
+     * another one.
+     *
+     * @return the watcher waiting for the next change, null if the listener
+     *         has been called
+     */
+    public RouteItemChangesWatcher watchRouteItemChanges(String epoch, Long version,
+            Consumer<PluginRouteItemChangesDto> listener) {
+        PluginRouteTable routeTable = getRouteTable();
+        if (isInChangeLog(epoch, version, routeTable) && version.equals(routeTable.getVersion())) {
+            RouteItemChangesWatcher watcher = new RouteItemChangesWatcher(epoch, version, listener);
+            synchronized (routeItemChangesWatchers) {
+                routeItemChangesWatchers.add(watcher);
+            }
+            return watcher;
+        }
+
+        listener.accept(getRouteItemChanges(epoch, version));
+        return null;
+    }
+
+    public void unwatchRouteItemChanges(RouteItemChangesWatcher watcher) {
+        synchronized (routeItemChangesWatchers) {
+            routeItemChangesWatchers.remove(watcher);
+        }
+    }
+
+    /**
+     * Notifies the waiting gateways of the changes recorded by the other core
+     * instances.
+     */
+    @Scheduled(fixedDelayString = "${wecube.core.plugin.route-item-changes-poll-interval-millis:1000}")
+    public void pollRouteItemChanges() {
+        notifyRouteItemChangesWatchers();
+    }
+
+    private void notifyRouteItemChangesWatchers() {
+        synchronized (routeItemChangesWatchers) {
+            if (routeItemChangesWatchers.isEmpty()) {
+                return;
+            }
+        }
+
+        long routeTableVersion = getRouteTable().getVersion();
+        List<RouteItemChangesWatcher> watchers = new ArrayList<>();
+        synchronized (routeItemChangesWatchers) {
+            Iterator<RouteItemChangesWatcher> iterator = routeItemChangesWatchers.iterator();
+            while (iterator.hasNext()) {
+                RouteItemChangesWatcher watcher = iterator.next();
+                if (watcher.version < routeTableVersion) {
+                    watchers.add(watcher);
+                    iterator.remove();
+                }
+            }
+        }
+
+        for (RouteItemChangesWatcher watcher : watchers) {
+            try {
+                watcher.listener.accept(getRouteItemChanges(watcher.epoch, watcher.version));
+            } catch (Exception e) {
+                log.warn("failed to notify route item changes since {}", watcher.version, e);
+            }
+        }
+    }
+
+    private PluginRouteTable getRouteTable() {
+        Optional<PluginRouteTable> routeTable = pluginRouteTableRepository.findById(PluginRouteTable.DEFAULT_ID);
+        if (routeTable.isPresent()) {
+            return routeTable.get();
+        }
+        createRouteTableIfAbsent();
+        return pluginRouteTableRepository.findById(PluginRouteTable.DEFAULT_ID).get();
+    }
+
+    private void createRouteTableIfAbsent() {
+        // the epoch of a concurrent insert is kept if it commits first
+        pluginRouteTableRepository.insertIfAbsent(PluginRouteTable.DEFAULT_ID, UUID.randomUUID().toString());
+    }
+
+    private boolean isInChangeLog(String epoch, Long version, PluginRouteTable routeTable) {
+        long routeTableVersion = routeTable.getVersion();
+        if (!routeTable.getEpoch().equals(epoch) || version == null || version > routeTableVersion) {
+            return false;
+        }
+        if (version == routeTableVersion) {
+            return true;
+        }
+        Long oldestVersion = pluginRouteItemChangeRepository.findMinVersion();
+        return oldestVersion != null && version >= oldestVersion - 1;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    public static class RouteItemChangesWatcher {
+        private final String epoch;
+        private final long version;
+        private final Consumer<PluginRouteItemChangesDto> listener;
+
+        RouteItemChangesWatcher(String epoch, long version, Consumer<PluginRouteItemChangesDto> listener) {
+            this.epoch = epoch;
+            this.version = version;
+            this.listener = listener;
+        }
+    }
 }
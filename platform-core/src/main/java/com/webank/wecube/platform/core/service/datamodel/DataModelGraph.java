@@ -0,0 +1,355 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageAttribute;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageDataModel;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageEntity;
+import com.webank.wecube.platform.core.dto.PluginPackageAttributeDto;
+import com.webank.wecube.platform.core.dto.PluginPackageDataModelDto;
+import com.webank.wecube.platform.core.dto.PluginPackageEntityDto;
+
+import java.util.*;
+
+/**
+ * Immutable snapshot of the latest data models of all plugin packages, with the reference edges between
+ * their attributes.
+ * <p>
+ * Reference edges are indexed backwards by the referenced entity and the data model version it belongs to,
+ * so the "referenced by" edges of an entity are found with one map lookup, the same edges
+ * {@link com.webank.wecube.platform.core.jpa.PluginPackageAttributeRepository#findAllChildrenAttributes} returns
+ * for the latest data models.
+ * <p>
+ * A new snapshot is derived by replacing the data models of some packages, the nodes and edges of the other
+ * packages are shared with the previous snapshot.
+ */
+public class DataModelGraph {
+    public static final DataModelGraph EMPTY = new DataModelGraph(0L, Collections.emptyMap(), Collections.emptyMap());
+
+    private static final String KEY_SEPARATOR = "`";
+
+    private final long version;
+    private final Map<String, PackageNode> packageNodes;
+    private final Map<String, List<ReferenceEdge>> referenceByEdges;
+
+    private DataModelGraph(long version, Map<String, PackageNode> packageNodes, Map<String, List<ReferenceEdge>> referenceByEdges) {
+        this.version = version;
+        this.packageNodes = packageNodes;
+        this.referenceByEdges = referenceByEdges;
+    }
+
+    /**
+     * @param dataModels          latest data models to put into the graph, replacing the ones of the same packages
+     * @param removedPackageNames packages whose data model should be removed from the graph
+     * @return a new snapshot with the next version
+     */
+    public DataModelGraph withDataModels(Collection<PluginPackageDataModel> dataModels, Collection<String> removedPackageNames) {
+        Map<String, PackageNode> newPackageNodes = new LinkedHashMap<>(packageNodes);
+        List<PackageNode> replacedPackageNodes = new ArrayList<>();
+        Set<String> replacedPackageNames = new HashSet<>(removedPackageNames);
+        dataModels.forEach(dataModel -> replacedPackageNames.add(dataModel.getPackageName()));
+        for (String packageName : replacedPackageNames) {
+            PackageNode replacedPackageNode = newPackageNodes.remove(packageName);
+            if (replacedPackageNode != null) {
+                replacedPackageNodes.add(replacedPackageNode);
+            }
+        }
+
+        List<PackageNode> addedPackageNodes = new ArrayList<>();
+        for (PluginPackageDataModel dataModel : dataModels) {
+            PackageNode packageNode = PackageNode.fromDomain(dataModel);
+            newPackageNodes.put(packageNode.getPackageName(), packageNode);
+            addedPackageNodes.add(packageNode);
+        }
+
+        Map<String, List<ReferenceEdge>> newReferenceByEdges = new HashMap<>(referenceByEdges);
+        Set<String> affectedEdgeKeys = new HashSet<>();
+        replacedPackageNodes.forEach(packageNode -> packageNode.getReferenceToEdges().forEach(edge -> affectedEdgeKeys.add(edge.getTargetKey())));
+        for (String edgeKey : affectedEdgeKeys) {
+            List<ReferenceEdge> remainingEdges = new ArrayList<>();
+            for (ReferenceEdge edge : newReferenceByEdges.get(edgeKey)) {
+                if (!replacedPackageNames.contains(edge.getSourceEntity().getPackageName())) {
+                    remainingEdges.add(edge);
+                }
+            }
+            if (remainingEdges.isEmpty()) {
+                newReferenceByEdges.remove(edgeKey);
+            } else {
+                newReferenceByEdges.put(edgeKey, Collections.unmodifiableList(remainingEdges));
+            }
+        }
+
+        Map<String, List<ReferenceEdge>> addedEdges = new HashMap<>();
+        addedPackageNodes.forEach(packageNode -> packageNode.getReferenceToEdges().forEach(edge ->
+                addedEdges.computeIfAbsent(edge.getTargetKey(), key -> new ArrayList<>()).add(edge)));
+        addedEdges.forEach((edgeKey, edges) -> {
+            List<ReferenceEdge> mergedEdges = new ArrayList<>(newReferenceByEdges.getOrDefault(edgeKey, Collections.emptyList()));
+            mergedEdges.addAll(edges);
+            newReferenceByEdges.put(edgeKey, Collections.unmodifiableList(mergedEdges));
+        });
+
+        return new DataModelGraph(version + 1, Collections.unmodifiableMap(newPackageNodes), Collections.unmodifiableMap(newReferenceByEdges));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Collection<PackageNode> getPackageNodes() {
+        return packageNodes.values();
+    }
+
+    public PackageNode getPackageNode(String packageName) {
+        return packageName == null ? null : packageNodes.get(packageName);
+    }
+
+    public EntityNode getEntityNode(String packageName, String entityName) {
+        PackageNode packageNode = getPackageNode(packageName);
+        return packageNode == null ? null : packageNode.getEntityNode(entityName);
+    }
+
+    /**
+     * @return ids of the data models in this snapshot
+     */
+    public Set<String> getDataModelIds() {
+        Set<String> dataModelIds = new HashSet<>();
+        packageNodes.values().forEach(packageNode -> dataModelIds.add(packageNode.getDataModelId()));
+        return dataModelIds;
+    }
+
+    /**
+     * @return edges of the attributes referring to the entity in the latest data model of its package
+     */
+    public List<ReferenceEdge> getReferenceByEdges(String packageName, String entityName) {
+        PackageNode packageNode = getPackageNode(packageName);
+        if (packageNode == null) {
+            return Collections.emptyList();
+        }
+        return referenceByEdges.getOrDefault(buildEdgeKey(packageName, entityName, packageNode.getVersion()), Collections.emptyList());
+    }
+
+    private static String buildEdgeKey(String packageName, String entityName, Integer dataModelVersion) {
+        return packageName + KEY_SEPARATOR + entityName + KEY_SEPARATOR + dataModelVersion;
+    }
+
+    public static class PackageNode {
+        private final String dataModelId;
+        private final String packageName;
+        private final Integer version;
+        private final boolean dynamic;
+        private final String updatePath;
+        private final String updateMethod;
+        private final String updateSource;
+        private final Long updateTime;
+        private final Map<String, EntityNode> entityNodes;
+        private final List<ReferenceEdge> referenceToEdges;
+
+        private PackageNode(PluginPackageDataModel dataModel, Map<String, EntityNode> entityNodes, List<ReferenceEdge> referenceToEdges) {
+            this.dataModelId = dataModel.getId();
+            this.packageName = dataModel.getPackageName();
+            this.version = dataModel.getVersion();
+            this.dynamic = dataModel.isDynamic();
+            this.updatePath = dataModel.getUpdatePath();
+            this.updateMethod = dataModel.getUpdateMethod();
+            this.updateSource = dataModel.getUpdateSource();
+            this.updateTime = dataModel.getUpdateTime();
+            this.entityNodes = entityNodes;
+            this.referenceToEdges = referenceToEdges;
+        }
+
+        static PackageNode fromDomain(PluginPackageDataModel dataModel) {
+            Map<String, EntityNode> entityNodes = new LinkedHashMap<>();
+            List<ReferenceEdge> referenceToEdges = new ArrayList<>();
+            if (dataModel.getPluginPackageEntities() != null) {
+                for (PluginPackageEntity entity : dataModel.getPluginPackageEntities()) {
+                    EntityNode entityNode = EntityNode.fromDomain(entity);
+                    entityNodes.put(entityNode.getName(), entityNode);
+                    if (entity.getPluginPackageAttributeList() == null) {
+                        continue;
+                    }
+                    for (int i = 0; i < entity.getPluginPackageAttributeList().size(); i++) {
+                        PluginPackageAttribute referenceAttribute = entity.getPluginPackageAttributeList().get(i).getPluginPackageAttribute();
+                        if (referenceAttribute != null) {
+                            referenceToEdges.add(new ReferenceEdge(entityNode, entityNode.attributes.get(i), referenceAttribute));
+                        }
+                    }
+                }
+            }
+            return new PackageNode(dataModel, Collections.unmodifiableMap(entityNodes), Collections.unmodifiableList(referenceToEdges));
+        }
+
+        /**
+         * @return a new data model dto without entities
+         */
+        public PluginPackageDataModelDto toDataModelDto() {
+            PluginPackageDataModelDto dataModelDto = new PluginPackageDataModelDto();
+            dataModelDto.setId(dataModelId);
+            dataModelDto.setVersion(version);
+            dataModelDto.setPackageName(packageName);
+            dataModelDto.setUpdateSource(updateSource);
+            dataModelDto.setUpdateTime(updateTime);
+            dataModelDto.setDynamic(dynamic);
+            if (dynamic) {
+                dataModelDto.setUpdatePath(updatePath);
+                dataModelDto.setUpdateMethod(updateMethod);
+            }
+            return dataModelDto;
+        }
+
+        public String getDataModelId() {
+            return dataModelId;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public Integer getVersion() {
+            return version;
+        }
+
+        public boolean isDynamic() {
+            return dynamic;
+        }
+
+        public String getUpdatePath() {
+            return updatePath;
+        }
+
+        public String getUpdateMethod() {
+            return updateMethod;
+        }
+
+        public Collection<EntityNode> getEntityNodes() {
+            return entityNodes.values();
+        }
+
+        public EntityNode getEntityNode(String entityName) {
+            return entityName == null ? null : entityNodes.get(entityName);
+        }
+
+        public List<ReferenceEdge> getReferenceToEdges() {
+            return referenceToEdges;
+        }
+    }
+
+    public static class EntityNode {
+        private final String id;
+        private final String packageName;
+        private final String name;
+        private final String displayName;
+        private final String description;
+        private final Integer dataModelVersion;
+        private final List<PluginPackageAttributeDto> attributes;
+
+        private EntityNode(PluginPackageEntity entity, List<PluginPackageAttributeDto> attributes) {
+            this.id = entity.getId();
+            this.packageName = entity.getPluginPackageDataModel().getPackageName();
+            this.name = entity.getName();
+            this.displayName = entity.getDisplayName();
+            this.description = entity.getDescription();
+            this.dataModelVersion = entity.getPluginPackageDataModel().getVersion();
+            this.attributes = attributes;
+        }
+
+        static EntityNode fromDomain(PluginPackageEntity entity) {
+            List<PluginPackageAttributeDto> attributes = new ArrayList<>();
+            if (entity.getPluginPackageAttributeList() != null) {
+                entity.getPluginPackageAttributeList().forEach(attribute -> attributes.add(PluginPackageAttributeDto.fromDomain(attribute)));
+            }
+            return new EntityNode(entity, Collections.unmodifiableList(attributes));
+        }
+
+        /**
+         * @return a new entity dto without reference info, the same as {@link PluginPackageEntityDto#fromDomain} returns
+         */
+        public PluginPackageEntityDto toEntityDto() {
+            return fillEntityDto(new PluginPackageEntityDto());
+        }
+
+        public <T extends PluginPackageEntityDto> T fillEntityDto(T entityDto) {
+            entityDto.setId(id);
+            entityDto.setPackageName(packageName);
+            entityDto.setName(name);
+            entityDto.setDisplayName(displayName);
+            entityDto.setDescription(description);
+            entityDto.setDataModelVersion(dataModelVersion);
+            entityDto.setAttributes(copyAttributes());
+            return entityDto;
+        }
+
+        public List<PluginPackageAttributeDto> copyAttributes() {
+            List<PluginPackageAttributeDto> attributeDtos = new ArrayList<>();
+            attributes.forEach(attribute -> attributeDtos.add(new PluginPackageAttributeDto(attribute)));
+            return attributeDtos;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getPackageName() {
+            return packageName;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public Integer getDataModelVersion() {
+            return dataModelVersion;
+        }
+    }
+
+    /**
+     * Reference from an attribute to the attribute of another entity in the data model version it was registered against.
+     */
+    public static class ReferenceEdge {
+        private final EntityNode sourceEntity;
+        private final PluginPackageAttributeDto sourceAttribute;
+        private final String targetPackageName;
+        private final String targetEntityName;
+        private final String targetAttributeName;
+        private final Integer targetDataModelVersion;
+
+        private ReferenceEdge(EntityNode sourceEntity, PluginPackageAttributeDto sourceAttribute, PluginPackageAttribute targetAttribute) {
+            this.sourceEntity = sourceEntity;
+            this.sourceAttribute = sourceAttribute;
+            PluginPackageEntity targetEntity = targetAttribute.getPluginPackageEntity();
+            this.targetPackageName = targetEntity.getPluginPackageDataModel().getPackageName();
+            this.targetEntityName = targetEntity.getName();
+            this.targetAttributeName = targetAttribute.getName();
+            this.targetDataModelVersion = targetEntity.getPluginPackageDataModel().getVersion();
+        }
+
+        String getTargetKey() {
+            return buildEdgeKey(targetPackageName, targetEntityName, targetDataModelVersion);
+        }
+
+        public EntityNode getSourceEntity() {
+            return sourceEntity;
+        }
+
+        public PluginPackageAttributeDto copySourceAttribute() {
+            return new PluginPackageAttributeDto(sourceAttribute);
+        }
+
+        public String getTargetPackageName() {
+            return targetPackageName;
+        }
+
+        public String getTargetEntityName() {
+            return targetEntityName;
+        }
+
+        public String getTargetAttributeName() {
+            return targetAttributeName;
+        }
+
+        public Integer getTargetDataModelVersion() {
+            return targetDataModelVersion;
+        }
+    }
+}
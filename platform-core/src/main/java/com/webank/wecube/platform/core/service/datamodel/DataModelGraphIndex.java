@@ -0,0 +1,87 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageDataModel;
+import com.webank.wecube.platform.core.jpa.PluginPackageDataModelRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+/**
+ * Keeps the {@link DataModelGraph} of the latest data models in memory.
+ * <p>
+ * Registering a data model puts it into the graph straight away. Every read checks the ids of the latest data
+ * models with one query, so data models registered by other core instances or written without this service
+ * are picked up, and only the packages whose latest data model changed are loaded again.
+ */
+@Service
+public class DataModelGraphIndex {
+    private static final Logger logger = LoggerFactory.getLogger(DataModelGraphIndex.class);
+
+    @Autowired
+    private PluginPackageDataModelRepository dataModelRepository;
+
+    private volatile DataModelGraph graph = DataModelGraph.EMPTY;
+
+    /**
+     * @return the graph of the latest data models in the database
+     */
+    public DataModelGraph getGraph() {
+        Set<String> latestDataModelIds = new HashSet<>(dataModelRepository.findAllLatestDataModelIds());
+        DataModelGraph currentGraph = graph;
+        if (latestDataModelIds.equals(currentGraph.getDataModelIds())) {
+            return currentGraph;
+        }
+        return synchronizeGraph(latestDataModelIds);
+    }
+
+    /**
+     * Puts the just saved latest data model of a package into the graph.
+     */
+    public synchronized DataModelGraph refresh(PluginPackageDataModel dataModel) {
+        graph = graph.withDataModels(Collections.singletonList(dataModel), Collections.emptySet());
+        logger.info("Data model graph updated to version {} with data model [{}] of package [{}]", graph.getVersion(),
+                dataModel.getVersion(), dataModel.getPackageName());
+        return graph;
+    }
+
+    /**
+     * Drops all data models from the graph, the next read loads them again.
+     */
+    public synchronized void invalidate() {
+        List<String> packageNames = new ArrayList<>();
+        graph.getPackageNodes().forEach(packageNode -> packageNames.add(packageNode.getPackageName()));
+        graph = graph.withDataModels(Collections.emptyList(), packageNames);
+    }
+
+    private synchronized DataModelGraph synchronizeGraph(Set<String> latestDataModelIds) {
+        DataModelGraph currentGraph = graph;
+        if (latestDataModelIds.equals(currentGraph.getDataModelIds())) {
+            return currentGraph;
+        }
+
+        List<String> removedPackageNames = new ArrayList<>();
+        Set<String> loadedDataModelIds = new HashSet<>();
+        for (DataModelGraph.PackageNode packageNode : currentGraph.getPackageNodes()) {
+            if (latestDataModelIds.contains(packageNode.getDataModelId())) {
+                loadedDataModelIds.add(packageNode.getDataModelId());
+            } else {
+                removedPackageNames.add(packageNode.getPackageName());
+            }
+        }
+
+        Set<String> missingDataModelIds = new HashSet<>(latestDataModelIds);
+        missingDataModelIds.removeAll(loadedDataModelIds);
+        List<PluginPackageDataModel> missingDataModels = new ArrayList<>();
+        if (!missingDataModelIds.isEmpty()) {
+            dataModelRepository.findAllById(missingDataModelIds).forEach(missingDataModels::add);
+        }
+
+        graph = currentGraph.withDataModels(missingDataModels, removedPackageNames);
+        logger.info("Data model graph synchronized to version {}, {} data models loaded and {} packages outdated", graph.getVersion(),
+                missingDataModels.size(), removedPackageNames.size());
+        return graph;
+    }
+}
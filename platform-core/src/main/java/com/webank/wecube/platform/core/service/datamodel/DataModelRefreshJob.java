@@ -0,0 +1,127 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.webank.wecube.platform.core.dto.DataModelRefreshJobDto;
+import com.webank.wecube.platform.core.dto.DataModelRefreshJobDto.PackageRefreshDto;
+import com.webank.wecube.platform.core.support.PluginPackageDataModelHelper.DataModelDiff;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Progress of one refresh of dynamic data models, updated by the pulling and persisting threads
+ * and read by the job API.
+ */
+public class DataModelRefreshJob {
+    public static final String STATUS_PENDING = "PENDING";
+    public static final String STATUS_RUNNING = "RUNNING";
+    public static final String STATUS_COMPLETED = "COMPLETED";
+
+    public static final String PACKAGE_STATUS_PENDING = "PENDING";
+    public static final String PACKAGE_STATUS_PULLING = "PULLING";
+    public static final String PACKAGE_STATUS_PULLED = "PULLED";
+    public static final String PACKAGE_STATUS_UNCHANGED = "UNCHANGED";
+    public static final String PACKAGE_STATUS_UPDATED = "UPDATED";
+    public static final String PACKAGE_STATUS_FAILED = "FAILED";
+
+    private final String jobId;
+    private final Map<String, PackageRefreshDto> packages = new LinkedHashMap<>();
+    private String status = STATUS_PENDING;
+    private Long startTime;
+    private Long endTime;
+
+    public DataModelRefreshJob(String jobId, List<String> packageNames) {
+        this.jobId = jobId;
+        for (String packageName : packageNames) {
+            PackageRefreshDto packageRefreshDto = new PackageRefreshDto();
+            packageRefreshDto.setPackageName(packageName);
+            packageRefreshDto.setStatus(PACKAGE_STATUS_PENDING);
+            packages.put(packageName, packageRefreshDto);
+        }
+    }
+
+    public String getJobId() {
+        return jobId;
+    }
+
+    public synchronized List<String> getPackageNames() {
+        return new ArrayList<>(packages.keySet());
+    }
+
+    public synchronized boolean isFinished() {
+        return STATUS_COMPLETED.equals(status);
+    }
+
+    public synchronized void start() {
+        status = STATUS_RUNNING;
+        startTime = System.currentTimeMillis();
+    }
+
+    public synchronized void complete() {
+        status = STATUS_COMPLETED;
+        endTime = System.currentTimeMillis();
+    }
+
+    public synchronized void markPulling(String packageName) {
+        packages.get(packageName).setStatus(PACKAGE_STATUS_PULLING);
+    }
+
+    public synchronized void markPulled(String packageName) {
+        packages.get(packageName).setStatus(PACKAGE_STATUS_PULLED);
+    }
+
+    public synchronized void markUnchanged(String packageName, String contentHash, Integer dataModelVersion) {
+        PackageRefreshDto packageRefreshDto = packages.get(packageName);
+        packageRefreshDto.setStatus(PACKAGE_STATUS_UNCHANGED);
+        packageRefreshDto.setContentHash(contentHash);
+        packageRefreshDto.setPreviousDataModelVersion(dataModelVersion);
+        packageRefreshDto.setDataModelVersion(dataModelVersion);
+    }
+
+    public synchronized void markUpdated(String packageName, String contentHash, Integer previousDataModelVersion,
+                                         Integer dataModelVersion, DataModelDiff diff) {
+        PackageRefreshDto packageRefreshDto = packages.get(packageName);
+        packageRefreshDto.setStatus(PACKAGE_STATUS_UPDATED);
+        packageRefreshDto.setContentHash(contentHash);
+        packageRefreshDto.setPreviousDataModelVersion(previousDataModelVersion);
+        packageRefreshDto.setDataModelVersion(dataModelVersion);
+        packageRefreshDto.setAddedEntities(new ArrayList<>(diff.getAddedEntities()));
+        packageRefreshDto.setRemovedEntities(new ArrayList<>(diff.getRemovedEntities()));
+        packageRefreshDto.setChangedEntities(new ArrayList<>(diff.getChangedEntities()));
+    }
+
+    public synchronized void markFailed(String packageName, String message) {
+        PackageRefreshDto packageRefreshDto = packages.get(packageName);
+        packageRefreshDto.setStatus(PACKAGE_STATUS_FAILED);
+        packageRefreshDto.setMessage(message);
+    }
+
+    public synchronized DataModelRefreshJobDto toDto() {
+        DataModelRefreshJobDto jobDto = new DataModelRefreshJobDto();
+        jobDto.setJobId(jobId);
+        jobDto.setStatus(status);
+        jobDto.setStartTime(startTime);
+        jobDto.setEndTime(endTime);
+        jobDto.setTotalPackages(packages.size());
+        for (PackageRefreshDto packageRefreshDto : packages.values()) {
+            switch (packageRefreshDto.getStatus()) {
+                case PACKAGE_STATUS_UPDATED:
+                    jobDto.setUpdatedPackages(jobDto.getUpdatedPackages() + 1);
+                    jobDto.setFinishedPackages(jobDto.getFinishedPackages() + 1);
+                    break;
+                case PACKAGE_STATUS_FAILED:
+                    jobDto.setFailedPackages(jobDto.getFailedPackages() + 1);
+                    jobDto.setFinishedPackages(jobDto.getFinishedPackages() + 1);
+                    break;
+                case PACKAGE_STATUS_UNCHANGED:
+                    jobDto.setFinishedPackages(jobDto.getFinishedPackages() + 1);
+                    break;
+                default:
+                    break;
+            }
+            jobDto.getPackages().add(new PackageRefreshDto(packageRefreshDto));
+        }
+        return jobDto;
+    }
+}
@@ -0,0 +1,206 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.PluginProperties;
+import com.webank.wecube.platform.core.commons.AuthenticationContextHolder;
+import com.webank.wecube.platform.core.commons.AuthenticationContextHolder.AuthenticatedUser;
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
+import com.webank.wecube.platform.core.dto.DataModelRefreshJobDto;
+import com.webank.wecube.platform.core.dto.PluginPackageDataModelDto;
+import com.webank.wecube.platform.core.dto.PluginPackageEntityDto;
+import com.webank.wecube.platform.core.service.PluginPackageDataModelService;
+import com.webank.wecube.platform.core.support.PluginPackageDataModelHelper;
+import com.webank.wecube.platform.core.support.PluginPackageDataModelHelper.DataModelDiff;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Refreshes dynamic data models in the background.
+ * <p>
+ * The data models of the packages are pulled from the plugins in parallel. Each pulled data model is compared
+ * with the latest stored one by content hash, unchanged ones are skipped and changed ones are registered as a
+ * new data model version one after another, so references between refreshed packages resolve against the
+ * versions registered before. Refresh jobs run one at a time and their progress is kept for querying.
+ */
+@Service
+public class DataModelRefreshService {
+    private static final Logger logger = LoggerFactory.getLogger(DataModelRefreshService.class);
+
+    @Autowired
+    private PluginPackageDataModelService pluginPackageDataModelService;
+    @Autowired
+    private DataModelGraphIndex dataModelGraphIndex;
+    @Autowired
+    private PluginProperties pluginProperties;
+
+    private final Map<String, DataModelRefreshJob> jobs = new LinkedHashMap<>();
+    private ExecutorService pullExecutor;
+    private ExecutorService jobExecutor;
+
+    @PostConstruct
+    public void init() {
+        this.pullExecutor = Executors.newFixedThreadPool(Math.max(1, pluginProperties.getDataModelRefreshParallelism()),
+                new ThreadFactoryBuilder().setNameFormat("data-model-pull-%d").setDaemon(true).build());
+        this.jobExecutor = Executors.newSingleThreadExecutor(
+                new ThreadFactoryBuilder().setNameFormat("data-model-refresh-%d").setDaemon(true).build());
+    }
+
+    @PreDestroy
+    public void destroy() {
+        this.jobExecutor.shutdownNow();
+        this.pullExecutor.shutdownNow();
+    }
+
+    /**
+     * @param packageNames packages to refresh, all packages with dynamic data model if it is empty
+     * @return the job just submitted
+     */
+    public DataModelRefreshJobDto startRefresh(List<String> packageNames) {
+        List<String> refreshPackageNames = new ArrayList<>();
+        if (packageNames == null || packageNames.isEmpty()) {
+            for (DataModelGraph.PackageNode packageNode : dataModelGraphIndex.getGraph().getPackageNodes()) {
+                if (packageNode.isDynamic()) {
+                    refreshPackageNames.add(packageNode.getPackageName());
+                }
+            }
+        } else {
+            refreshPackageNames.addAll(new LinkedHashSet<>(packageNames));
+        }
+        if (refreshPackageNames.isEmpty()) {
+            throw new WecubeCoreException("There is no dynamic data model to refresh.");
+        }
+
+        DataModelRefreshJob job = new DataModelRefreshJob(UUID.randomUUID().toString(), refreshPackageNames);
+        addJob(job);
+
+        AuthenticatedUser currentUser = AuthenticationContextHolder.getCurrentUser();
+        jobExecutor.execute(() -> runJob(job, currentUser));
+        logger.info("Data model refresh job [{}] submitted for packages {}", job.getJobId(), refreshPackageNames);
+        return job.toDto();
+    }
+
+    public DataModelRefreshJobDto getJob(String jobId) {
+        DataModelRefreshJob job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        if (job == null) {
+            throw new WecubeCoreException(String.format("Data model refresh job [%s] is not found.", jobId));
+        }
+        return job.toDto();
+    }
+
+    void runJob(DataModelRefreshJob job, AuthenticatedUser user) {
+        job.start();
+        List<String> packageNames = job.getPackageNames();
+        CompletionService<PulledDataModel> completionService = new ExecutorCompletionService<>(pullExecutor);
+        for (String packageName : packageNames) {
+            completionService.submit(() -> pull(job, packageName, user));
+        }
+
+        try {
+            for (int i = 0; i < packageNames.size(); i++) {
+                apply(job, completionService.take().get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Data model refresh job [{}] is interrupted", job.getJobId());
+        } catch (ExecutionException e) {
+            logger.error("Data model refresh job [{}] failed", job.getJobId(), e);
+        } finally {
+            job.complete();
+        }
+        logger.info("Data model refresh job [{}] completed", job.getJobId());
+    }
+
+    private PulledDataModel pull(DataModelRefreshJob job, String packageName, AuthenticatedUser user) {
+        job.markPulling(packageName);
+        try {
+            PluginPackageDataModelDto dataModelDto = runAs(user, () -> pluginPackageDataModelService.pullDynamicDataModel(packageName));
+            job.markPulled(packageName);
+            return new PulledDataModel(packageName, dataModelDto, null);
+        } catch (Exception e) {
+            logger.error("Failed to pull data model of package [{}]", packageName, e);
+            return new PulledDataModel(packageName, null, e.getMessage());
+        }
+    }
+
+    private void apply(DataModelRefreshJob job, PulledDataModel pulledDataModel) {
+        String packageName = pulledDataModel.packageName;
+        if (pulledDataModel.dataModelDto == null) {
+            job.markFailed(packageName, pulledDataModel.errorMessage);
+            return;
+        }
+
+        try {
+            List<PluginPackageEntityDto> existingEntities = new ArrayList<>();
+            Integer previousVersion = null;
+            DataModelGraph.PackageNode packageNode = dataModelGraphIndex.getGraph().getPackageNode(packageName);
+            if (packageNode != null) {
+                packageNode.getEntityNodes().forEach(entityNode -> existingEntities.add(entityNode.toEntityDto()));
+                previousVersion = packageNode.getVersion();
+            }
+
+            Set<PluginPackageEntityDto> pulledEntities = pulledDataModel.dataModelDto.getPluginPackageEntities();
+            String contentHash = PluginPackageDataModelHelper.calculateContentHash(pulledEntities);
+            if (packageNode != null && contentHash.equals(PluginPackageDataModelHelper.calculateContentHash(existingEntities))) {
+                job.markUnchanged(packageName, contentHash, previousVersion);
+                return;
+            }
+
+            DataModelDiff diff = PluginPackageDataModelHelper.diff(existingEntities, pulledEntities);
+            PluginPackageDataModelDto registeredDataModelDto = pluginPackageDataModelService.register(pulledDataModel.dataModelDto, true);
+            job.markUpdated(packageName, contentHash, previousVersion, registeredDataModelDto.getVersion(), diff);
+            logger.info("Data model of package [{}] updated to version {}, added entities {}, removed entities {}, changed entities {}",
+                    packageName, registeredDataModelDto.getVersion(), diff.getAddedEntities(), diff.getRemovedEntities(), diff.getChangedEntities());
+        } catch (Exception e) {
+            logger.error("Failed to update data model of package [{}]", packageName, e);
+            job.markFailed(packageName, e.getMessage());
+        }
+    }
+
+    private <T> T runAs(AuthenticatedUser user, Supplier<T> supplier) {
+        // pool threads inherit the user of whoever created them, replace it with the user starting the job
+        AuthenticationContextHolder.clearCurrentUser();
+        AuthenticationContextHolder.setAuthenticatedUser(user);
+        try {
+            return supplier.get();
+        } finally {
+            AuthenticationContextHolder.clearCurrentUser();
+        }
+    }
+
+    private void addJob(DataModelRefreshJob job) {
+        synchronized (jobs) {
+            jobs.put(job.getJobId(), job);
+            int removableJobs = jobs.size() - Math.max(1, pluginProperties.getDataModelRefreshJobHistorySize());
+            Iterator<DataModelRefreshJob> iterator = jobs.values().iterator();
+            while (removableJobs > 0 && iterator.hasNext()) {
+                if (iterator.next().isFinished()) {
+                    iterator.remove();
+                    removableJobs--;
+                }
+            }
+        }
+    }
+
+    private static class PulledDataModel {
+        private final String packageName;
+        private final PluginPackageDataModelDto dataModelDto;
+        private final String errorMessage;
+
+        PulledDataModel(String packageName, PluginPackageDataModelDto dataModelDto, String errorMessage) {
+            this.packageName = packageName;
+            this.dataModelDto = dataModelDto;
+            this.errorMessage = errorMessage;
+        }
+    }
+}
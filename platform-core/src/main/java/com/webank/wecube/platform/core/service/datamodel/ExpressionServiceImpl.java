@@ -37,6 +37,8 @@ public class ExpressionServiceImpl implements ExpressionService {
     private ApplicationProperties applicationProperties;
     private static final Logger logger = LoggerFactory.getLogger(ExpressionServiceImpl.class);
     private DataModelServiceStub dataModelServiceStub;
+    @Autowired
+    private DataModelExpressionParser dataModelExpressionParser;
 
 
     @Autowired
@@ -88,7 +90,7 @@ public class ExpressionServiceImpl implements ExpressionService {
         logger.info(String.format("Setting up chain request process, the DME is [%s] and the root id data is [%s].", dataModelExpression, rootIdData));
         Stack<DataModelExpressionDto> resultDtoStack = new Stack<>();
 
-        Queue<DataModelExpressionDto> expressionDtoQueue = new DataModelExpressionParser().parse(dataModelExpression);
+        Queue<DataModelExpressionDto> expressionDtoQueue = dataModelExpressionParser.parse(dataModelExpression);
 
         boolean isStart = true;
         DataModelExpressionDto lastExpressionDto = null;
@@ -491,8 +493,7 @@ public class ExpressionServiceImpl implements ExpressionService {
             throw new WecubeCoreException(String.format("Illegal data model expression[%s]", dataModelExpression));
         }
 
-        Queue<DataModelExpressionDto> expressionDtoQueue = new DataModelExpressionParser()
-                .parseAll(dataModelExpression);
+        Queue<DataModelExpressionDto> expressionDtoQueue = dataModelExpressionParser.parseAll(dataModelExpression);
 
         List<EntityDto> entityDtos = new ArrayList<EntityDto>();
         DataModelExpressionDto dataModelExpressionDtoFirst = expressionDtoQueue.poll();
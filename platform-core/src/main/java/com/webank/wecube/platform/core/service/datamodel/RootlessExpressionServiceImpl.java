@@ -28,6 +28,8 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
     private static final Logger logger = LoggerFactory.getLogger(RootlessExpressionServiceImpl.class);
     private ApplicationProperties applicationProperties;
     private DataModelServiceStub dataModelServiceStub;
+    @Autowired
+    private DataModelExpressionParser dataModelExpressionParser;
 
     @Autowired
     public RootlessExpressionServiceImpl(ApplicationProperties applicationProperties, DataModelServiceStub dataModelServiceStub) {
@@ -57,7 +59,7 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
         logger.info(String.format("Setting up chain request process, the DME is [%s].", dataModelExpression));
         Stack<DataModelExpressionDto> resultDtoStack = new Stack<>();
 
-        Queue<DataModelExpressionDto> expressionDtoQueue = new DataModelExpressionParser().parse(dataModelExpression);
+        Queue<DataModelExpressionDto> expressionDtoQueue = dataModelExpressionParser.parse(dataModelExpression);
         int expressionDtoQueueSize = expressionDtoQueue.size();
         checkLinkFilter(dataModelExpression, linkFilterDtoList, expressionDtoQueueSize);
         Queue<DmeLinkFilterDto> linkFilterDtoQueue = extendLinkFilter(linkFilterDtoList, expressionDtoQueueSize);
@@ -97,7 +99,6 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
         UrlToResponseDto urlToResponseDto;
         String requestPackageName;
         String requestEntityName;
-        Map<String, Object> requestParamMap;
         DmeLinkFilterDto firstFilter;
         DmeLinkFilterDto secondFilter;
         List<CommonResponseDto> responseDtoList;
@@ -139,18 +140,8 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
                 List<Object> secondRequestIdDataList = dataModelServiceStub.extractValueFromResponse(urlToResponseDto.getResponseDto(), secondRequestAttrName);
                 responseDtoList = new ArrayList<>();
                 requestUrlSet = new LinkedHashSet<>();
-                for (Object secondRequestIdData : secondRequestIdDataList) {
-                    Map<String, Object> secondRequestParamMap = dataModelServiceStub.generateGetUrlParamMap(
-                            this.applicationProperties.getGatewayUrl(),
-                            secondRequestPackageName,
-                            secondRequestEntityName,
-                            UNIQUE_IDENTIFIER,
-                            secondRequestIdData);
-                    UrlToResponseDto secondRequestUrlToResponseDto = dataModelServiceStub.initiateGetRequest(DataModelServiceStub.CHAIN_REQUEST_URL, secondRequestParamMap);
-                    filterJsonResponse(secondRequestUrlToResponseDto, secondFilter, secondRequestPackageName, secondRequestEntityName);
-                    requestUrlSet.add(secondRequestUrlToResponseDto.getRequestUrl());
-                    responseDtoList.add(secondRequestUrlToResponseDto.getResponseDto());
-                }
+                fetchLevel(secondRequestPackageName, secondRequestEntityName, UNIQUE_IDENTIFIER, secondRequestIdDataList,
+                        secondFilter, requestUrlSet, responseDtoList);
                 expressionDto.getRequestUrlStack().add(requestUrlSet);
                 expressionDto.getJsonResponseStack().add(responseDtoList);
 
@@ -174,22 +165,11 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
                 requestEntityName = bwdNode.entity().ety().getText();
                 String requestAttributeName = bwdNode.attr().getText();
 
+                // the responses may have data with one or multiple lines.
                 responseDtoList = new ArrayList<>();
                 requestUrlSet = new LinkedHashSet<>();
-                for (Object rootIdData : firstRequestIdDataList) {
-                    requestParamMap = dataModelServiceStub.generateGetUrlParamMap(
-                            this.applicationProperties.getGatewayUrl(),
-                            requestPackageName,
-                            requestEntityName,
-                            requestAttributeName,
-                            rootIdData);
-
-                    // the response may have data with one or multiple lines.
-                    urlToResponseDto = dataModelServiceStub.initiateGetRequest(DataModelServiceStub.CHAIN_REQUEST_URL, requestParamMap);
-                    filterJsonResponse(urlToResponseDto, secondFilter, requestPackageName, requestEntityName);
-                    requestUrlSet.add(urlToResponseDto.getRequestUrl());
-                    responseDtoList.add(urlToResponseDto.getResponseDto());
-                }
+                fetchLevel(requestPackageName, requestEntityName, requestAttributeName, firstRequestIdDataList,
+                        secondFilter, requestUrlSet, responseDtoList);
                 expressionDto.getRequestUrlStack().add(requestUrlSet);
                 expressionDto.getJsonResponseStack().add(responseDtoList);
                 break;
@@ -220,23 +200,13 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
                 String requestId = expressionDto.getOpFetch().attr().getText();
                 requestPackageName = expressionDto.getEntity().pkg().getText();
                 requestEntityName = expressionDto.getEntity().ety().getText();
+                // collect the ids of the whole level before fetching them
+                List<Object> refToIdDataList = new ArrayList<>();
                 for (CommonResponseDto lastRequestResponseDto : lastRequestResultList) {
-                    List<Object> requestIdDataList = dataModelServiceStub.extractValueFromResponse(lastRequestResponseDto, requestId);
-                    for (Object requestIdData : requestIdDataList) {
-
-                        Map<String, Object> requestParamMap = dataModelServiceStub.generateGetUrlParamMap(
-                                this.applicationProperties.getGatewayUrl(),
-                                requestPackageName,
-                                requestEntityName,
-                                UNIQUE_IDENTIFIER,
-                                requestIdData);
-                        UrlToResponseDto urlToResponseDto = dataModelServiceStub.initiateGetRequest(DataModelServiceStub.CHAIN_REQUEST_URL, requestParamMap);
-                        filterJsonResponse(urlToResponseDto, linkFilterDto, requestPackageName, requestEntityName);
-                        requestUrlSet.add(urlToResponseDto.getRequestUrl());
-                        responseDtoList.add(urlToResponseDto.getResponseDto());
-
-                    }
+                    refToIdDataList.addAll(dataModelServiceStub.extractValueFromResponse(lastRequestResponseDto, requestId));
                 }
+                fetchLevel(requestPackageName, requestEntityName, UNIQUE_IDENTIFIER, refToIdDataList,
+                        linkFilterDto, requestUrlSet, responseDtoList);
                 expressionDto.getRequestUrlStack().add(requestUrlSet);
                 expressionDto.getJsonResponseStack().add(responseDtoList);
                 break;
@@ -247,6 +217,8 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
                 requestEntityName = bwdNode.entity().ety().getText();
                 String requestAttributeName = bwdNode.attr().getText();
 
+                // collect the ids of the whole level before fetching them
+                List<Object> refByIdDataList = new ArrayList<>();
                 for (CommonResponseDto lastRequestResponseDto : lastRequestResultList) {
 
                     List<Object> requestIdDataList = dataModelServiceStub.extractValueFromResponse(lastRequestResponseDto, UNIQUE_IDENTIFIER);
@@ -254,20 +226,11 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
                         Objects.requireNonNull(requestIdData,
                                 "Cannot find 'id' from last request response. " +
                                         "Please ensure that the interface returned the data with one key named: 'id' as the development guideline requires.");
-
-                        Map<String, Object> requestParamMap = dataModelServiceStub.generateGetUrlParamMap(
-                                this.applicationProperties.getGatewayUrl(),
-                                requestPackageName,
-                                requestEntityName,
-                                requestAttributeName,
-                                requestIdData);
-                        UrlToResponseDto urlToResponseDto = dataModelServiceStub.initiateGetRequest(DataModelServiceStub.CHAIN_REQUEST_URL, requestParamMap);
-                        filterJsonResponse(urlToResponseDto, linkFilterDto, requestPackageName, requestEntityName);
-                        requestUrlSet.add(urlToResponseDto.getRequestUrl());
-                        responseDtoList.add(urlToResponseDto.getResponseDto());
-
+                        refByIdDataList.add(requestIdData);
                     }
                 }
+                fetchLevel(requestPackageName, requestEntityName, requestAttributeName, refByIdDataList,
+                        linkFilterDto, requestUrlSet, responseDtoList);
                 expressionDto.getRequestUrlStack().add(requestUrlSet);
                 expressionDto.getJsonResponseStack().add(responseDtoList);
                 break;
@@ -287,6 +250,46 @@ public class RootlessExpressionServiceImpl implements RootlessExpressionService
 
     }
 
+    /**
+     * Fetch all the data of one expression level, which is filtered by the given attribute with each of the values.
+     *
+     * @param requestPackageName   package name of the level
+     * @param requestEntityName    entity name of the level
+     * @param requestAttributeName attribute name to filter by
+     * @param requestValueList     values collected from the last level
+     * @param linkFilterDto        link filter of the level
+     * @param requestUrlSet        request urls of the level to fill
+     * @param responseDtoList      responses of the level to fill, in the same order as the values
+     */
+    private void fetchLevel(String requestPackageName,
+                            String requestEntityName,
+                            String requestAttributeName,
+                            List<Object> requestValueList,
+                            DmeLinkFilterDto linkFilterDto,
+                            Set<String> requestUrlSet,
+                            List<CommonResponseDto> responseDtoList) {
+        List<Map<String, Object>> requestParamMapList = new ArrayList<>();
+        for (Object requestValue : requestValueList) {
+            requestParamMapList.add(dataModelServiceStub.generateGetUrlParamMap(
+                    this.applicationProperties.getGatewayUrl(),
+                    requestPackageName,
+                    requestEntityName,
+                    requestAttributeName,
+                    requestValue));
+        }
+
+        List<UrlToResponseDto> urlToResponseDtoList = dataModelServiceStub.initiateGetRequests(DataModelServiceStub.CHAIN_REQUEST_URL, requestParamMapList);
+        // identical requests share one response, which should only be filtered once
+        Set<UrlToResponseDto> filteredResponseDtos = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (UrlToResponseDto urlToResponseDto : urlToResponseDtoList) {
+            if (filteredResponseDtos.add(urlToResponseDto)) {
+                filterJsonResponse(urlToResponseDto, linkFilterDto, requestPackageName, requestEntityName);
+            }
+            requestUrlSet.add(urlToResponseDto.getRequestUrl());
+            responseDtoList.add(urlToResponseDto.getResponseDto());
+        }
+    }
+
     private UrlToResponseDto getAllDataFromFirstEntity(DataModelExpressionDto expressionDto, String requestPackageName, String requestEntityName) {
         Map<String, Object> requestParamMap;
         UrlToResponseDto urlToResponseDto;// request
@@ -0,0 +1,288 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
+/**
+ * Short-lived cache of entity query responses, keyed by package, entity and
+ * query specification.
+ * 
+ * It is disabled by default. Once enabled, every entity is cached with the
+ * default TTL unless a TTL is configured for it explicitly, and a TTL less
+ * than or equal to zero keeps that entity strongly consistent.
+ * 
+ * Responses are copied on the way in and out, so callers may modify what they
+ * get. Each invalidation starts a new generation, and a response queried in an
+ * earlier generation is not cached, since it might be older than the write
+ * that caused the invalidation.
+ *
+ */
+@Service("entityDataCache")
+public class EntityDataCache {
+    private static final Logger log = LoggerFactory.getLogger(EntityDataCache.class);
+
+    public static final String KEY_DELIMITER = ":";
+
+    @Autowired
+    private DmeProperties dmeProperties;
+
+    private Cache<EntityDataCacheKey, EntityDataCacheEntry> entries;
+
+    private final AtomicLong staleHits = new AtomicLong();
+    private final AtomicLong totalHitAgeMillis = new AtomicLong();
+    private final AtomicLong maxHitAgeMillis = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        long maxTtlSeconds = dmeProperties.getEntityDataCacheDefaultTtlSeconds();
+        for (Integer ttl : dmeProperties.getEntityDataCacheEntityTtlSeconds().values()) {
+            if (ttl != null && ttl > maxTtlSeconds) {
+                maxTtlSeconds = ttl;
+            }
+        }
+
+        entries = CacheBuilder.newBuilder().maximumWeight(dmeProperties.getEntityDataCacheMaxRecords())
+                .weigher((EntityDataCacheKey k, EntityDataCacheEntry v) -> v.getWeight())
+                .expireAfterWrite(Math.max(maxTtlSeconds, 1), TimeUnit.SECONDS).recordStats().build();
+    }
+
+    public boolean isCacheable(String packageName, String entityName) {
+        if (!dmeProperties.isEntityDataCacheEnabled()) {
+            return false;
+        }
+
+        return getTtlMillis(packageName, entityName) > 0;
+    }
+
+    public StandardEntityOperationResponseDto get(String packageName, String entityName, String querySpecKey) {
+        EntityDataCacheKey key = new EntityDataCacheKey(packageName, entityName, querySpecKey);
+        EntityDataCacheEntry entry = entries.getIfPresent(key);
+        if (entry == null) {
+            return null;
+        }
+
+        long ageMillis = System.currentTimeMillis() - entry.getCreatedTime();
+        if (ageMillis >= getTtlMillis(packageName, entityName)) {
+            entries.invalidate(key);
+            staleHits.incrementAndGet();
+            return null;
+        }
+
+        totalHitAgeMillis.addAndGet(ageMillis);
+        maxHitAgeMillis.accumulateAndGet(ageMillis, Math::max);
+        StandardEntityOperationResponseDto response = copyResponse(entry.getResponse());
+        response.setFromCache(true);
+        return response;
+    }
+
+    /**
+     * @return the generation to pass to
+     *         {@link #put(String, String, String, StandardEntityOperationResponseDto, long)}
+     *         for a query sent after this call
+     */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * @param queryGeneration
+     *            generation taken before the query was sent, the response is
+     *            dropped if there were invalidations since then
+     */
+    public void put(String packageName, String entityName, String querySpecKey,
+            StandardEntityOperationResponseDto response, long queryGeneration) {
+        if (response == null || !StandardEntityOperationResponseDto.STATUS_OK.equalsIgnoreCase(response.getStatus())) {
+            return;
+        }
+
+        if (generation.get() != queryGeneration) {
+            return;
+        }
+
+        EntityDataCacheKey key = new EntityDataCacheKey(packageName, entityName, querySpecKey);
+        EntityDataCacheEntry entry = new EntityDataCacheEntry(copyResponse(response), System.currentTimeMillis());
+        entries.put(key, entry);
+        if (generation.get() != queryGeneration) {
+            // invalidated while storing, the invalidation might have missed it
+            entries.asMap().remove(key, entry);
+        }
+    }
+
+    public void invalidate(String packageName, String entityName) {
+        if (log.isDebugEnabled()) {
+            log.debug("invalidate cached entity data of {}:{}", packageName, entityName);
+        }
+
+        generation.incrementAndGet();
+
+        Iterator<EntityDataCacheKey> keys = entries.asMap().keySet().iterator();
+        while (keys.hasNext()) {
+            EntityDataCacheKey key = keys.next();
+            if (key.matches(packageName, entityName)) {
+                keys.remove();
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        invalidations.addAndGet(entries.size());
+        entries.invalidateAll();
+    }
+
+    public EntityDataCacheStatistics getStatistics() {
+        CacheStats stats = entries.stats();
+        EntityDataCacheStatistics statistics = new EntityDataCacheStatistics();
+        statistics.setEnabled(dmeProperties.isEntityDataCacheEnabled());
+        statistics.setSize(entries.size());
+        long staleHitCount = staleHits.get();
+        long freshHitCount = stats.hitCount() - staleHitCount;
+        long requestCount = stats.requestCount();
+        statistics.setHitCount(freshHitCount);
+        statistics.setMissCount(stats.missCount() + staleHitCount);
+        statistics.setHitRatio(requestCount > 0 ? (double) freshHitCount / requestCount : 1.0D);
+        statistics.setEvictionCount(stats.evictionCount());
+        statistics.setStaleHitCount(staleHitCount);
+        statistics.setInvalidationCount(invalidations.get());
+        statistics.setMaxHitAgeMillis(maxHitAgeMillis.get());
+        statistics.setAverageHitAgeMillis(freshHitCount > 0 ? totalHitAgeMillis.get() / freshHitCount : 0L);
+        return statistics;
+    }
+
+    private static StandardEntityOperationResponseDto copyResponse(StandardEntityOperationResponseDto response) {
+        StandardEntityOperationResponseDto copy = new StandardEntityOperationResponseDto();
+        copy.setStatus(response.getStatus());
+        copy.setMessage(response.getMessage());
+        copy.setData(copyData(response.getData()));
+        copy.setRequestUrl(response.getRequestUrl());
+        copy.setContentLength(response.getContentLength());
+        return copy;
+    }
+
+    private static Object copyData(Object data) {
+        if (data instanceof List) {
+            List<Object> copy = new ArrayList<>(((List<?>) data).size());
+            for (Object item : (List<?>) data) {
+                copy.add(copyData(item));
+            }
+            return copy;
+        }
+
+        if (data instanceof Map) {
+            Map<Object, Object> copy = new LinkedHashMap<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) data).entrySet()) {
+                copy.put(e.getKey(), copyData(e.getValue()));
+            }
+            return copy;
+        }
+
+        return data;
+    }
+
+    private long getTtlMillis(String packageName, String entityName) {
+        Integer ttl = dmeProperties.getEntityDataCacheEntityTtlSeconds()
+                .get(packageName + KEY_DELIMITER + entityName);
+        if (ttl == null) {
+            ttl = dmeProperties.getEntityDataCacheDefaultTtlSeconds();
+        }
+
+        return TimeUnit.SECONDS.toMillis(ttl);
+    }
+
+    private static class EntityDataCacheKey {
+        private final String packageName;
+        private final String entityName;
+        private final String querySpecKey;
+
+        EntityDataCacheKey(String packageName, String entityName, String querySpecKey) {
+            this.packageName = packageName;
+            this.entityName = entityName;
+            this.querySpecKey = querySpecKey;
+        }
+
+        boolean matches(String packageName, String entityName) {
+            return equalsOrBothNull(this.packageName, packageName) && equalsOrBothNull(this.entityName, entityName);
+        }
+
+        private static boolean equalsOrBothNull(String a, String b) {
+            return a == null ? b == null : a.equals(b);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof EntityDataCacheKey)) {
+                return false;
+            }
+            EntityDataCacheKey other = (EntityDataCacheKey) o;
+            return matches(other.packageName, other.entityName)
+                    && equalsOrBothNull(querySpecKey, other.querySpecKey);
+        }
+
+        @Override
+        public int hashCode() {
+            int result = packageName == null ? 0 : packageName.hashCode();
+            result = 31 * result + (entityName == null ? 0 : entityName.hashCode());
+            result = 31 * result + (querySpecKey == null ? 0 : querySpecKey.hashCode());
+            return result;
+        }
+    }
+
+    private static class EntityDataCacheEntry {
+        private final StandardEntityOperationResponseDto response;
+        private final long createdTime;
+        private final int weight;
+
+        EntityDataCacheEntry(StandardEntityOperationResponseDto response, long createdTime) {
+            this.response = response;
+            this.createdTime = createdTime;
+            this.weight = calculateWeight(response.getData());
+        }
+
+        private static int calculateWeight(Object data) {
+            if (data instanceof List) {
+                return ((List<?>) data).size() + 1;
+            }
+
+            if (data instanceof Map) {
+                return 2;
+            }
+
+            return 1;
+        }
+
+        StandardEntityOperationResponseDto getResponse() {
+            return response;
+        }
+
+        long getCreatedTime() {
+            return createdTime;
+        }
+
+        int getWeight() {
+            return weight;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.webank.wecube.platform.core.service.dme;
+
+public class EntityDataCacheStatistics {
+    private boolean enabled;
+    private long size;
+    private long hitCount;
+    private long missCount;
+    private double hitRatio;
+    private long evictionCount;
+    private long staleHitCount;
+    private long invalidationCount;
+    private long averageHitAgeMillis;
+    private long maxHitAgeMillis;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public void setEvictionCount(long evictionCount) {
+        this.evictionCount = evictionCount;
+    }
+
+    public long getStaleHitCount() {
+        return staleHitCount;
+    }
+
+    public void setStaleHitCount(long staleHitCount) {
+        this.staleHitCount = staleHitCount;
+    }
+
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    public void setInvalidationCount(long invalidationCount) {
+        this.invalidationCount = invalidationCount;
+    }
+
+    public long getAverageHitAgeMillis() {
+        return averageHitAgeMillis;
+    }
+
+    public void setAverageHitAgeMillis(long averageHitAgeMillis) {
+        this.averageHitAgeMillis = averageHitAgeMillis;
+    }
+
+    public long getMaxHitAgeMillis() {
+        return maxHitAgeMillis;
+    }
+
+    public void setMaxHitAgeMillis(long maxHitAgeMillis) {
+        this.maxHitAgeMillis = maxHitAgeMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[enabled=");
+        builder.append(enabled);
+        builder.append(", size=");
+        builder.append(size);
+        builder.append(", hitCount=");
+        builder.append(hitCount);
+        builder.append(", missCount=");
+        builder.append(missCount);
+        builder.append(", hitRatio=");
+        builder.append(hitRatio);
+        builder.append(", staleHitCount=");
+        builder.append(staleHitCount);
+        builder.append(", invalidationCount=");
+        builder.append(invalidationCount);
+        builder.append("]");
+        return builder.toString();
+    }
+}
@@ -1,26 +1,100 @@
 package com.webank.wecube.platform.core.service.dme;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
+import com.webank.wecube.platform.core.domain.plugin.PluginInstance;
+import com.webank.wecube.platform.core.service.PluginInstanceService;
 
 @Service
 public class EntityDataRouteFactory {
-    
+    private static final Logger log = LoggerFactory.getLogger(EntityDataRouteFactory.class);
+
+    public static final String ROUTE_MODE_GATEWAY = "gateway";
+    public static final String ROUTE_MODE_DIRECT = "direct";
+
     @Autowired
     private ApplicationProperties applicationProperties;
 
+    @Autowired
+    private DmeProperties dmeProperties;
+
+    @Autowired
+    private PluginInstanceService pluginInstanceService;
+
+    private volatile String[] gatewayUrlParts;
+
     public EntityRouteDescription deduceEntityDescription(String packageName, String entityName){
-        String gatewayUrl = applicationProperties.getGatewayUrl();
-        String [] parts = gatewayUrl.split(":");
         EntityRouteDescription entityDef = new EntityRouteDescription();
-        entityDef.setEntityName(packageName);
+        entityDef.setPackageName(packageName);
+        entityDef.setEntityName(entityName);
+        entityDef.setHttpSchema("http");
+
+        String[] parts = getGatewayUrlParts();
         entityDef.setHttpPort(parts[1]);
         entityDef.setHttpHost(parts[0]);
-        entityDef.setHttpSchema("http");
-        entityDef.setPackageName(entityName);
-        
+
+        if (isDirectRouteMode(packageName)) {
+            entityDef.setDirectEndpoints(deduceDirectEndpoints(packageName));
+            entityDef.setDirectEndpointRetryIntervalMillis(
+                    TimeUnit.SECONDS.toMillis(dmeProperties.getEntityDataDirectRouteRetryIntervalSeconds()));
+        }
+
         return entityDef;
     }
+
+    private boolean isDirectRouteMode(String packageName) {
+        if (dmeProperties == null) {
+            return false;
+        }
+
+        String routeMode = dmeProperties.getEntityDataRouteModes().get(packageName);
+        if (routeMode == null) {
+            routeMode = dmeProperties.getEntityDataRouteMode();
+        }
+
+        return ROUTE_MODE_DIRECT.equalsIgnoreCase(routeMode);
+    }
+
+    private List<EntityRouteEndpoint> deduceDirectEndpoints(String packageName) {
+        List<EntityRouteEndpoint> endpoints = new ArrayList<>();
+        List<PluginInstance> instances = null;
+        try {
+            instances = pluginInstanceService.getRunningPluginInstances(packageName);
+        } catch (WecubeCoreException e) {
+            log.warn("cannot route {} directly and fall back to gateway: {}", packageName, e.getMessage());
+            return endpoints;
+        }
+
+        for (PluginInstance instance : instances) {
+            if (instance.getHost() == null || instance.getPort() == null) {
+                continue;
+            }
+            endpoints.add(new EntityRouteEndpoint(instance.getHost().trim(), String.valueOf(instance.getPort())));
+        }
+
+        if (endpoints.isEmpty()) {
+            log.warn("none available instance to route {} directly and fall back to gateway", packageName);
+        }
+        return endpoints;
+    }
+
+    private String[] getGatewayUrlParts() {
+        String[] parts = gatewayUrlParts;
+        if (parts == null) {
+            parts = applicationProperties.getGatewayUrl().split(":");
+            gatewayUrlParts = parts;
+        }
+
+        return parts;
+    }
 }
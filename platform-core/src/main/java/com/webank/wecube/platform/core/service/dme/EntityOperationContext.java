@@ -14,6 +14,10 @@ public class EntityOperationContext {
     protected EntityQueryLinkNode currentEntityQueryLinkNode;
     
     protected EntityDataRouteFactory entityDataRouteFactory;
+
+    protected boolean fullEntityDataRequired;
+
+    protected EntityQueryProfile entityQueryProfile;
     
     public EntityQueryLinkNode getHeadEntityQueryLinkNode(){
         return headEntityQueryLinkNode;
@@ -96,4 +100,20 @@ public class EntityOperationContext {
     public void setEntityDataRouteFactory(EntityDataRouteFactory entityDataRouter) {
         this.entityDataRouteFactory = entityDataRouter;
     }
+
+    public boolean isFullEntityDataRequired() {
+        return fullEntityDataRequired;
+    }
+
+    public void setFullEntityDataRequired(boolean fullEntityDataRequired) {
+        this.fullEntityDataRequired = fullEntityDataRequired;
+    }
+
+    public EntityQueryProfile getEntityQueryProfile() {
+        return entityQueryProfile;
+    }
+
+    public void setEntityQueryProfile(EntityQueryProfile entityQueryProfile) {
+        this.entityQueryProfile = entityQueryProfile;
+    }
 }
@@ -12,7 +12,12 @@ import org.springframework.stereotype.Service;
 public class EntityQueryExpressionParser {
     public static final String PKG_DELIMITER = ":";
     public static final String REG_ENTITY_ID = "@@\\w+@@";
-    private Pattern entityIdPattern = Pattern.compile(REG_ENTITY_ID);
+    private static final Pattern entityIdPattern = Pattern.compile(REG_ENTITY_ID);
+    private static final Pattern exprOpPattern = Pattern
+            .compile(String.format("[%s%s]", EntityLinkType.REF_TO.symbol(), EntityLinkType.REF_BY.symbol()));
+    private static final Pattern filterPattern = Pattern.compile("\\{([^}\t\r\n])*?\\}");
+    private static final Pattern singleFilterPattern = Pattern.compile("^\\{([^}\t\r\n])*?\\}$");
+    private static final Pattern whitespacePattern = Pattern.compile("\\s+");
 
     public List<EntityQueryExprNodeInfo> parse(String expr) {
     	
@@ -20,10 +25,7 @@ public class EntityQueryExpressionParser {
     		throw new IllegalArgumentException("Expression to parse cannot be blank.");
     	}
 
-        String exprOpReg = String.format("[%s%s]", EntityLinkType.REF_TO.symbol(), EntityLinkType.REF_BY.symbol());
-
-        Pattern p = Pattern.compile(exprOpReg);
-        Matcher m = p.matcher(expr);
+        Matcher m = exprOpPattern.matcher(expr);
         int start = 0;
 
         List<EntityQueryExprNodeInfo> queryNodeInfos = new ArrayList<>();
@@ -115,7 +117,6 @@ public class EntityQueryExpressionParser {
     }
     
     protected void parseAdditionalFilters(EntityQueryExprNodeInfo nodeInfo, String filtersExpr){
-        Pattern filterPattern = Pattern.compile("\\{([^}\t\r\n])*?\\}");
         Matcher filterMatcher = filterPattern.matcher(filtersExpr);
         
         while (filterMatcher.find()) {
@@ -126,7 +127,7 @@ public class EntityQueryExpressionParser {
     }
     
     public EntityQueryFilter buildEntityQueryFilter(String filterExpr) {
-        if (!Pattern.matches("^\\{([^}\t\r\n])*?\\}$", filterExpr)) {
+        if (!singleFilterPattern.matcher(filterExpr).matches()) {
             return null;
         }
 
@@ -139,9 +140,7 @@ public class EntityQueryExpressionParser {
             expr = expr.substring(0, expr.length() - 1);
         }
 
-        String splitReg = "\\s+";
-        Pattern p = Pattern.compile(splitReg);
-        Matcher m = p.matcher(expr);
+        Matcher m = whitespacePattern.matcher(expr);
 
         String attrName = null;
         int opStart = -1;
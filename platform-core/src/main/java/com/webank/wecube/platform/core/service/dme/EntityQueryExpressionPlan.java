@@ -0,0 +1,82 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Immutable compiled form of an entity link expression, holding the parsed
+ * node infos together with the resolved route of each node.
+ * 
+ * The entity query link nodes carry query results, thus a fresh chain is
+ * created from the plan for each operation.
+ *
+ */
+public final class EntityQueryExpressionPlan {
+    private final String entityLinkExpr;
+    private final List<EntityQueryExprNodeInfo> exprNodeInfos;
+    private final List<EntityRouteDescription> entityRouteDescriptions;
+
+    public EntityQueryExpressionPlan(String entityLinkExpr, List<EntityQueryExprNodeInfo> exprNodeInfos,
+            List<EntityRouteDescription> entityRouteDescriptions) {
+        if (exprNodeInfos.size() != entityRouteDescriptions.size()) {
+            throw new IllegalArgumentException("Each expression node should have exactly one route.");
+        }
+        this.entityLinkExpr = entityLinkExpr;
+        this.exprNodeInfos = Collections.unmodifiableList(new ArrayList<>(exprNodeInfos));
+        this.entityRouteDescriptions = Collections.unmodifiableList(new ArrayList<>(entityRouteDescriptions));
+    }
+
+    public EntityQueryLinkNode buildEntityQueryLinkNodes() {
+        if (exprNodeInfos.isEmpty()) {
+            return null;
+        }
+
+        EntityQueryLinkNode headLinkNode = new EntityQueryLinkNode();
+        headLinkNode.setIndex(0);
+        headLinkNode.setExprNodeInfo(exprNodeInfos.get(0));
+        headLinkNode.setEntityRouteDescription(entityRouteDescriptions.get(0));
+        headLinkNode.setHead(true);
+        headLinkNode.setPreviousNode(null);
+
+        EntityQueryLinkNode previousLinkNode = headLinkNode;
+        for (int i = 1; i < exprNodeInfos.size(); i++) {
+            EntityQueryLinkNode linkNode = new EntityQueryLinkNode();
+            linkNode.setIndex(i);
+            linkNode.setExprNodeInfo(exprNodeInfos.get(i));
+            linkNode.setEntityRouteDescription(entityRouteDescriptions.get(i));
+            linkNode.setHead(false);
+            linkNode.setPreviousNode(previousLinkNode);
+            linkNode.setSucceedingNode(null);
+
+            previousLinkNode = linkNode;
+        }
+
+        return headLinkNode;
+    }
+
+    public String getEntityLinkExpr() {
+        return entityLinkExpr;
+    }
+
+    public List<EntityQueryExprNodeInfo> getExprNodeInfos() {
+        return exprNodeInfos;
+    }
+
+    public List<EntityRouteDescription> getEntityRouteDescriptions() {
+        return entityRouteDescriptions;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[entityLinkExpr=");
+        builder.append(entityLinkExpr);
+        builder.append(", exprNodeInfos=");
+        builder.append(exprNodeInfos);
+        builder.append(", entityRouteDescriptions=");
+        builder.append(entityRouteDescriptions);
+        builder.append("]");
+        return builder.toString();
+    }
+}
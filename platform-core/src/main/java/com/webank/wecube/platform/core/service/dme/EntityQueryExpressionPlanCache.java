@@ -0,0 +1,116 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
+/**
+ * Bounded LRU cache of compiled entity link expressions.
+ * 
+ * Routes depend on the registered plugin packages, so the whole cache is
+ * dropped once plugin packages get registered or decommissioned. Within a
+ * transaction it is dropped after completion, as plans compiled before the
+ * commit would still see the previous packages. A plan whose compilation
+ * overlaps an invalidation is not kept either.
+ *
+ */
+@Service("entityQueryExpressionPlanCache")
+public class EntityQueryExpressionPlanCache {
+    private static final Logger log = LoggerFactory.getLogger(EntityQueryExpressionPlanCache.class);
+
+    @Autowired
+    private EntityQueryExpressionParser entityQueryExpressionParser;
+
+    @Autowired
+    private EntityDataRouteFactory entityDataRouteFactory;
+
+    @Autowired
+    private DmeProperties dmeProperties;
+
+    private Cache<String, EntityQueryExpressionPlan> plans;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    public void init() {
+        plans = CacheBuilder.newBuilder().maximumSize(dmeProperties.getExpressionPlanCacheSize()).recordStats()
+                .build();
+    }
+
+    public EntityQueryExpressionPlan getPlan(String entityLinkExpr) {
+        if (entityLinkExpr == null) {
+            throw new IllegalArgumentException("Expression to parse cannot be blank.");
+        }
+
+        long planGeneration = generation.get();
+        try {
+            EntityQueryExpressionPlan plan = plans.get(entityLinkExpr, () -> compile(entityLinkExpr));
+            if (generation.get() != planGeneration) {
+                plans.invalidate(entityLinkExpr);
+            }
+            return plan;
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(String.format("Failed to compile expression %s", entityLinkExpr), e);
+        }
+    }
+
+    public void invalidateAll() {
+        if (log.isInfoEnabled()) {
+            log.info("invalidate all expression plans, stats {}", plans.stats());
+        }
+        generation.incrementAndGet();
+        plans.invalidateAll();
+    }
+
+    /**
+     * Invalidates all plans once the current transaction completes, or at
+     * once if there is no transaction.
+     */
+    public void invalidateAllAfterCompletion() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidateAll();
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                invalidateAll();
+            }
+        });
+    }
+
+    public long size() {
+        return plans.size();
+    }
+
+    protected EntityQueryExpressionPlan compile(String entityLinkExpr) {
+        List<EntityQueryExprNodeInfo> exprNodeInfos = entityQueryExpressionParser.parse(entityLinkExpr);
+        List<EntityRouteDescription> routes = new ArrayList<>();
+        for (EntityQueryExprNodeInfo nodeInfo : exprNodeInfos) {
+            routes.add(entityDataRouteFactory.deduceEntityDescription(nodeInfo.getPackageName(),
+                    nodeInfo.getEntityName()));
+        }
+
+        return new EntityQueryExpressionPlan(entityLinkExpr, exprNodeInfos, routes);
+    }
+}
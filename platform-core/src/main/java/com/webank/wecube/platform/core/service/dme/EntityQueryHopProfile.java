@@ -0,0 +1,152 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+public class EntityQueryHopProfile {
+    private int index;
+    private String entityQueryNodeExpr;
+    private String packageName;
+    private String entityName;
+    private Set<String> requestUrls = new LinkedHashSet<>();
+    private int requestCount;
+    private int cacheHitCount;
+    private int rowCount;
+    private long bytesTransferred;
+    private long elapsedMillis;
+
+    public EntityQueryHopProfile() {
+    }
+
+    public EntityQueryHopProfile(EntityQueryLinkNode linkNode) {
+        this.index = linkNode.getIndex();
+        this.entityQueryNodeExpr = linkNode.getExprNodeInfo().getEntityQueryNodeExpr();
+        this.packageName = linkNode.getExprNodeInfo().getPackageName();
+        this.entityName = linkNode.getExprNodeInfo().getEntityName();
+    }
+
+    public void recordRequest(String requestUrl, int rows, long bytes, long elapsed) {
+        if (requestUrl != null) {
+            this.requestUrls.add(requestUrl);
+        }
+        this.requestCount++;
+        this.rowCount += rows;
+        if (bytes > 0) {
+            this.bytesTransferred += bytes;
+        }
+        this.elapsedMillis += elapsed;
+    }
+
+    /**
+     * Records a response served by the entity data cache, which costs neither
+     * a request nor transferred bytes.
+     */
+    public void recordCacheHit(int rows, long elapsed) {
+        this.cacheHitCount++;
+        this.rowCount += rows;
+        this.elapsedMillis += elapsed;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public void setIndex(int index) {
+        this.index = index;
+    }
+
+    public String getEntityQueryNodeExpr() {
+        return entityQueryNodeExpr;
+    }
+
+    public void setEntityQueryNodeExpr(String entityQueryNodeExpr) {
+        this.entityQueryNodeExpr = entityQueryNodeExpr;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public String getEntityName() {
+        return entityName;
+    }
+
+    public void setEntityName(String entityName) {
+        this.entityName = entityName;
+    }
+
+    public Set<String> getRequestUrls() {
+        return requestUrls;
+    }
+
+    public void setRequestUrls(Set<String> requestUrls) {
+        this.requestUrls = requestUrls;
+    }
+
+    public int getRequestCount() {
+        return requestCount;
+    }
+
+    public void setRequestCount(int requestCount) {
+        this.requestCount = requestCount;
+    }
+
+    public int getCacheHitCount() {
+        return cacheHitCount;
+    }
+
+    public void setCacheHitCount(int cacheHitCount) {
+        this.cacheHitCount = cacheHitCount;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public void setRowCount(int rowCount) {
+        this.rowCount = rowCount;
+    }
+
+    public long getBytesTransferred() {
+        return bytesTransferred;
+    }
+
+    public void setBytesTransferred(long bytesTransferred) {
+        this.bytesTransferred = bytesTransferred;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[index=");
+        builder.append(index);
+        builder.append(", entityQueryNodeExpr=");
+        builder.append(entityQueryNodeExpr);
+        builder.append(", requestUrls=");
+        builder.append(requestUrls);
+        builder.append(", requestCount=");
+        builder.append(requestCount);
+        builder.append(", cacheHitCount=");
+        builder.append(cacheHitCount);
+        builder.append(", rowCount=");
+        builder.append(rowCount);
+        builder.append(", bytesTransferred=");
+        builder.append(bytesTransferred);
+        builder.append(", elapsedMillis=");
+        builder.append(elapsedMillis);
+        builder.append("]");
+        return builder.toString();
+    }
+}
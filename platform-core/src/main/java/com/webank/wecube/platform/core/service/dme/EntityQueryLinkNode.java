@@ -11,6 +11,7 @@ public class EntityQueryLinkNode {
     private EntityQueryLinkNode succeedingNode;
 
     private EntityQueryExprNodeInfo exprNodeInfo;
+    private EntityRouteDescription entityRouteDescription;
 
     private List<EntityDataDelegate> entityDataDelegates = new ArrayList<>();
 
@@ -142,6 +143,14 @@ public class EntityQueryLinkNode {
         this.exprNodeInfo = exprNodeInfo;
     }
 
+    public EntityRouteDescription getEntityRouteDescription() {
+        return entityRouteDescription;
+    }
+
+    public void setEntityRouteDescription(EntityRouteDescription entityRouteDescription) {
+        this.entityRouteDescription = entityRouteDescription;
+    }
+
     public int getIndex() {
         return index;
     }
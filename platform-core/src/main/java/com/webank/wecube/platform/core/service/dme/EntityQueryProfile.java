@@ -0,0 +1,110 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-hop costs of one entity operation, collected in explain mode or when
+ * the operation is sampled for profiling.
+ *
+ */
+public class EntityQueryProfile {
+    private String entityLinkExpr;
+    private String entityIdentity;
+    private long totalElapsedMillis;
+    private int resultCount;
+    private List<EntityQueryHopProfile> hops = new ArrayList<>();
+
+    public EntityQueryProfile() {
+    }
+
+    public EntityQueryProfile(EntityOperationRootCondition condition) {
+        this.entityLinkExpr = condition.getEntityLinkExpr();
+        this.entityIdentity = condition.getEntityIdentity();
+    }
+
+    public EntityQueryHopProfile getOrCreateHop(EntityQueryLinkNode linkNode) {
+        for (EntityQueryHopProfile hop : hops) {
+            if (hop.getIndex() == linkNode.getIndex()) {
+                return hop;
+            }
+        }
+
+        EntityQueryHopProfile hop = new EntityQueryHopProfile(linkNode);
+        hops.add(hop);
+        return hop;
+    }
+
+    public int getTotalRequestCount() {
+        int total = 0;
+        for (EntityQueryHopProfile hop : hops) {
+            total += hop.getRequestCount();
+        }
+        return total;
+    }
+
+    public int getTotalCacheHitCount() {
+        int total = 0;
+        for (EntityQueryHopProfile hop : hops) {
+            total += hop.getCacheHitCount();
+        }
+        return total;
+    }
+
+    public String getEntityLinkExpr() {
+        return entityLinkExpr;
+    }
+
+    public void setEntityLinkExpr(String entityLinkExpr) {
+        this.entityLinkExpr = entityLinkExpr;
+    }
+
+    public String getEntityIdentity() {
+        return entityIdentity;
+    }
+
+    public void setEntityIdentity(String entityIdentity) {
+        this.entityIdentity = entityIdentity;
+    }
+
+    public long getTotalElapsedMillis() {
+        return totalElapsedMillis;
+    }
+
+    public void setTotalElapsedMillis(long totalElapsedMillis) {
+        this.totalElapsedMillis = totalElapsedMillis;
+    }
+
+    public int getResultCount() {
+        return resultCount;
+    }
+
+    public void setResultCount(int resultCount) {
+        this.resultCount = resultCount;
+    }
+
+    public List<EntityQueryHopProfile> getHops() {
+        return hops;
+    }
+
+    public void setHops(List<EntityQueryHopProfile> hops) {
+        this.hops = hops;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        builder.append("[entityLinkExpr=");
+        builder.append(entityLinkExpr);
+        builder.append(", entityIdentity=");
+        builder.append(entityIdentity);
+        builder.append(", totalElapsedMillis=");
+        builder.append(totalElapsedMillis);
+        builder.append(", resultCount=");
+        builder.append(resultCount);
+        builder.append(", hops=");
+        builder.append(hops);
+        builder.append("]");
+        return builder.toString();
+    }
+}
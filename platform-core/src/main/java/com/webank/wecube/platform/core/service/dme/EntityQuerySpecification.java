@@ -11,6 +11,7 @@ public class EntityQuerySpecification {
 
     private EntityQueryCriteria criteria;
     private List<EntityQueryFilter> additionalFilters = new ArrayList<>();
+    private List<String> resultColumns;
 
     public EntityQueryCriteria getCriteria() {
         return criteria;
@@ -40,6 +41,14 @@ public class EntityQuerySpecification {
         return this;
     }
     
+    public List<String> getResultColumns() {
+        return resultColumns;
+    }
+
+    public void setResultColumns(List<String> resultColumns) {
+        this.resultColumns = resultColumns;
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -47,6 +56,8 @@ public class EntityQuerySpecification {
         builder.append(criteria);
         builder.append(", additionalFilters=");
         builder.append(additionalFilters);
+        builder.append(", resultColumns=");
+        builder.append(resultColumns);
         builder.append("]");
         return builder.toString();
     }
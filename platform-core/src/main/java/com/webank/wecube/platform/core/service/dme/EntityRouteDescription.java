@@ -1,11 +1,26 @@
 package com.webank.wecube.platform.core.service.dme;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Route of entity data operations of one entity. The http host and port are
+ * the gateway, and the direct endpoints are the running plugin instances if
+ * the package is routed directly.
+ *
+ */
 public class EntityRouteDescription {
     private String packageName;
     private String entityName;
     private String httpSchema = "http";
     private String httpHost;
     private String httpPort;
+    private List<EntityRouteEndpoint> directEndpoints = Collections.emptyList();
+    private long directEndpointRetryIntervalMillis;
+
+    private final AtomicInteger nextDirectEndpoint = new AtomicInteger();
 
     public String getPackageName() {
         return packageName;
@@ -47,6 +62,51 @@ public class EntityRouteDescription {
         this.httpPort = httpPort;
     }
 
+    public List<EntityRouteEndpoint> getDirectEndpoints() {
+        return directEndpoints;
+    }
+
+    public void setDirectEndpoints(List<EntityRouteEndpoint> directEndpoints) {
+        this.directEndpoints = directEndpoints == null ? Collections.emptyList()
+                : Collections.unmodifiableList(new ArrayList<>(directEndpoints));
+        this.nextDirectEndpoint.set(this.directEndpoints.isEmpty() ? 0
+                : (int) (Math.random() * this.directEndpoints.size()));
+    }
+
+    public long getDirectEndpointRetryIntervalMillis() {
+        return directEndpointRetryIntervalMillis;
+    }
+
+    public void setDirectEndpointRetryIntervalMillis(long directEndpointRetryIntervalMillis) {
+        this.directEndpointRetryIntervalMillis = directEndpointRetryIntervalMillis;
+    }
+
+    /**
+     * Picks the direct endpoints in turn, skipping the unavailable ones.
+     * 
+     * @return null if the request should go through the gateway
+     */
+    public EntityRouteEndpoint selectDirectEndpoint() {
+        int size = directEndpoints.size();
+        if (size == 0) {
+            return null;
+        }
+
+        int start = nextDirectEndpoint.getAndIncrement();
+        for (int i = 0; i < size; i++) {
+            EntityRouteEndpoint endpoint = directEndpoints.get(Math.floorMod(start + i, size));
+            if (endpoint.isAvailable()) {
+                return endpoint;
+            }
+        }
+
+        return null;
+    }
+
+    public void markUnavailable(EntityRouteEndpoint endpoint) {
+        endpoint.markUnavailable(directEndpointRetryIntervalMillis);
+    }
+
     @Override
     public String toString() {
         StringBuilder builder = new StringBuilder();
@@ -60,6 +120,8 @@ public class EntityRouteDescription {
         builder.append(httpHost);
         builder.append(", httpPort=");
         builder.append(httpPort);
+        builder.append(", directEndpoints=");
+        builder.append(directEndpoints);
         builder.append("]");
         return builder.toString();
     }
@@ -0,0 +1,41 @@
+package com.webank.wecube.platform.core.service.dme;
+
+/**
+ * Address of one running plugin instance to call directly.
+ *
+ * An endpoint failing to connect is skipped until its retry time, the
+ * requests meanwhile go to the other instances or through the gateway.
+ *
+ */
+public class EntityRouteEndpoint {
+    private final String httpHost;
+    private final String httpPort;
+
+    private volatile long unavailableUntil;
+
+    public EntityRouteEndpoint(String httpHost, String httpPort) {
+        this.httpHost = httpHost;
+        this.httpPort = httpPort;
+    }
+
+    public String getHttpHost() {
+        return httpHost;
+    }
+
+    public String getHttpPort() {
+        return httpPort;
+    }
+
+    public boolean isAvailable() {
+        return System.currentTimeMillis() >= unavailableUntil;
+    }
+
+    public void markUnavailable(long retryIntervalMillis) {
+        this.unavailableUntil = System.currentTimeMillis() + retryIntervalMillis;
+    }
+
+    @Override
+    public String toString() {
+        return httpHost + ":" + httpPort;
+    }
+}
@@ -0,0 +1,164 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Builds the flattened entity tree nodes with a hash index on (package,
+ * entity, id), thus each node and each edge is attached in constant time.
+ * 
+ * An optional listener gets notified with every newly created node in
+ * creation order, for callers which want to stream nodes out instead of
+ * waiting for the whole tree.
+ *
+ */
+public class EntityTreeNodesBuilder {
+    private final List<TreeNode> treeNodes = new ArrayList<>();
+    private final Map<TreeNodeKey, TreeNode> treeNodesIndex = new HashMap<>();
+    private final Set<TreeEdgeKey> treeEdges = new HashSet<>();
+    private final Consumer<TreeNode> newTreeNodeListener;
+    private long indexLookups;
+
+    public EntityTreeNodesBuilder() {
+        this(null);
+    }
+
+    public EntityTreeNodesBuilder(Consumer<TreeNode> newTreeNodeListener) {
+        this.newTreeNodeListener = newTreeNodeListener;
+    }
+
+    public EntityTreeNodesBuilder addEntityQueryLinkNode(EntityQueryLinkNode linkNode) {
+        for (EntityDataDelegate delegate : linkNode.getEntityDataDelegates()) {
+            addEntityDataDelegate(delegate);
+        }
+
+        return this;
+    }
+
+    public EntityTreeNodesBuilder addEntityDataDelegate(EntityDataDelegate delegate) {
+        TreeNode currTreeNode = getOrCreateTreeNode(delegate);
+
+        EntityDataDelegate prevDelegate = delegate.getPreviousEntity();
+        if (prevDelegate != null) {
+            TreeNode prevTreeNode = getOrCreateTreeNode(prevDelegate);
+            link(prevTreeNode, currTreeNode);
+        }
+
+        for (EntityDataDelegate succeedingDelegate : delegate.getSucceedingEntities()) {
+            TreeNode succeedingTreeNode = getOrCreateTreeNode(succeedingDelegate);
+            link(currTreeNode, succeedingTreeNode);
+        }
+
+        return this;
+    }
+
+    public TreeNode findTreeNode(String packageName, String entityName, Object id) {
+        return treeNodesIndex.get(new TreeNodeKey(packageName, entityName, id));
+    }
+
+    public List<TreeNode> build() {
+        return treeNodes;
+    }
+
+    public int size() {
+        return treeNodes.size();
+    }
+
+    long getIndexLookups() {
+        return indexLookups;
+    }
+
+    private TreeNode getOrCreateTreeNode(EntityDataDelegate delegate) {
+        TreeNodeKey key = new TreeNodeKey(delegate.getPackageName(), delegate.getEntityName(), delegate.getId());
+        indexLookups++;
+        TreeNode treeNode = treeNodesIndex.get(key);
+        if (treeNode != null) {
+            return treeNode;
+        }
+
+        treeNode = new TreeNode();
+        treeNode.setRootId(delegate.getId());
+        treeNode.setDisplayName(delegate.getDisplayName());
+        treeNode.setEntityName(delegate.getEntityName());
+        treeNode.setPackageName(delegate.getPackageName());
+
+        treeNodesIndex.put(key, treeNode);
+        treeNodes.add(treeNode);
+
+        if (newTreeNodeListener != null) {
+            newTreeNodeListener.accept(treeNode);
+        }
+
+        return treeNode;
+    }
+
+    private void link(TreeNode parent, TreeNode child) {
+        child.setParent(parent);
+        if (treeEdges.add(new TreeEdgeKey(parent, child))) {
+            parent.getChildren().add(child);
+        }
+    }
+
+    private static class TreeNodeKey {
+        private final String packageName;
+        private final String entityName;
+        private final Object id;
+
+        TreeNodeKey(String packageName, String entityName, Object id) {
+            this.packageName = packageName;
+            this.entityName = entityName;
+            this.id = id;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TreeNodeKey)) {
+                return false;
+            }
+            TreeNodeKey other = (TreeNodeKey) o;
+            return Objects.equals(packageName, other.packageName) && Objects.equals(entityName, other.entityName)
+                    && Objects.equals(id, other.id);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(packageName, entityName, id);
+        }
+    }
+
+    private static class TreeEdgeKey {
+        private final TreeNode parent;
+        private final TreeNode child;
+
+        TreeEdgeKey(TreeNode parent, TreeNode child) {
+            this.parent = parent;
+            this.child = child;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof TreeEdgeKey)) {
+                return false;
+            }
+            TreeEdgeKey other = (TreeEdgeKey) o;
+            return parent == other.parent && child == other.child;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(parent) + System.identityHashCode(child);
+        }
+    }
+}
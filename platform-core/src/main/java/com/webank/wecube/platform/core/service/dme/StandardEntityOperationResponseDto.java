@@ -1,5 +1,7 @@
 package com.webank.wecube.platform.core.service.dme;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 public class StandardEntityOperationResponseDto {
     public final static String STATUS_OK = "OK";
     public final static String STATUS_ERROR = "ERROR";
@@ -8,6 +10,13 @@ public class StandardEntityOperationResponseDto {
     private String message;
     private Object data;
 
+    @JsonIgnore
+    private String requestUrl;
+    @JsonIgnore
+    private long contentLength = -1L;
+    @JsonIgnore
+    private boolean fromCache;
+
     public String getStatus() {
         return status;
     }
@@ -32,6 +41,36 @@ public class StandardEntityOperationResponseDto {
         this.data = data;
     }
 
+    @JsonIgnore
+    public String getRequestUrl() {
+        return requestUrl;
+    }
+
+    @JsonIgnore
+    public void setRequestUrl(String requestUrl) {
+        this.requestUrl = requestUrl;
+    }
+
+    @JsonIgnore
+    public long getContentLength() {
+        return contentLength;
+    }
+
+    @JsonIgnore
+    public void setContentLength(long contentLength) {
+        this.contentLength = contentLength;
+    }
+
+    @JsonIgnore
+    public boolean isFromCache() {
+        return fromCache;
+    }
+
+    @JsonIgnore
+    public void setFromCache(boolean fromCache) {
+        this.fromCache = fromCache;
+    }
+
     public StandardEntityOperationResponseDto withData(Object data){
         this.data = data;
         return this;
@@ -1,13 +1,18 @@
 package com.webank.wecube.platform.core.service.dme;
 
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
 import java.net.URI;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestTemplate;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -19,6 +24,7 @@ public class StandardEntityOperationRestClient {
 	private String queryUriTemplate = "/{package-name}/entities/{entity-name}/query";
 	private String updateUriTemplate = "/{package-name}/entities/{entity-name}/update";
 	private RestTemplate restTemplate;
+	private EntityDataCache entityDataCache;
 	private ObjectMapper objectMapper = new ObjectMapper();
 
 	public StandardEntityOperationRestClient() {
@@ -30,7 +36,36 @@ public class StandardEntityOperationRestClient {
 
 	public StandardEntityOperationResponseDto query(EntityRouteDescription entityDef,
 			EntityQuerySpecification querySpec) {
-		String baseUri = buildBaseRequestUri(entityDef);
+		if (entityDataCache == null
+				|| !entityDataCache.isCacheable(entityDef.getPackageName(), entityDef.getEntityName())) {
+			return doQuery(entityDef, querySpec);
+		}
+
+		String querySpecKey = toJson(querySpec);
+		StandardEntityOperationResponseDto cachedResult = entityDataCache.get(entityDef.getPackageName(),
+				entityDef.getEntityName(), querySpecKey);
+		if (cachedResult != null) {
+			if (log.isDebugEnabled()) {
+				log.debug("HIT CACHE query {}:{}, request={}", entityDef.getPackageName(), entityDef.getEntityName(),
+						querySpecKey);
+			}
+			return cachedResult;
+		}
+
+		long queryGeneration = entityDataCache.getGeneration();
+		StandardEntityOperationResponseDto result = doQuery(entityDef, querySpec);
+		entityDataCache.put(entityDef.getPackageName(), entityDef.getEntityName(), querySpecKey, result,
+				queryGeneration);
+		return result;
+	}
+
+	private StandardEntityOperationResponseDto doQuery(EntityRouteDescription entityDef,
+			EntityQuerySpecification querySpec) {
+		return sendWithDirectFallback(entityDef, baseUri -> doQuery(entityDef, querySpec, baseUri));
+	}
+
+	private StandardEntityOperationResponseDto doQuery(EntityRouteDescription entityDef,
+			EntityQuerySpecification querySpec, String baseUri) {
 		String requestUriStr = buildRequestUri(baseUri, getQueryUriTemplate());
 		URI requestUri = getRestTemplate().getUriTemplateHandler().expand(requestUriStr, entityDef.getPackageName(),
 				entityDef.getEntityName());
@@ -39,8 +74,13 @@ public class StandardEntityOperationRestClient {
 		if (log.isInfoEnabled()) {
 			log.info("SEND QUERY post [{}] url={}, request={}", timeMilliSeconds, requestUri.toString(), toJson(querySpec));
 		}
-		StandardEntityOperationResponseDto result = getRestTemplate().postForObject(requestUri, querySpec,
-				StandardEntityOperationResponseDto.class);
+		ResponseEntity<StandardEntityOperationResponseDto> responseEntity = getRestTemplate().postForEntity(requestUri,
+				querySpec, StandardEntityOperationResponseDto.class);
+		StandardEntityOperationResponseDto result = responseEntity.getBody();
+		if (result != null) {
+			result.setRequestUrl(requestUri.toString());
+			result.setContentLength(responseEntity.getHeaders().getContentLength());
+		}
 		if (log.isInfoEnabled()) {
 			log.info("RECEIVE QUERY post [{}] url={},result={}", timeMilliSeconds, requestUri.toString(), result);
 		}
@@ -50,12 +90,22 @@ public class StandardEntityOperationRestClient {
 	// POST List<Map<String, Object>>
 	public StandardEntityOperationResponseDto update(EntityRouteDescription entityDef,
 			List<EntityDataRecord> recordsToUpdate) {
-		String baseUri = buildBaseRequestUri(entityDef);
+		List<Map<String, Object>> requestBody = convertToMapList(recordsToUpdate);
+		try {
+			return sendWithDirectFallback(entityDef, baseUri -> doUpdate(entityDef, requestBody, baseUri));
+		} finally {
+			if (entityDataCache != null) {
+				entityDataCache.invalidate(entityDef.getPackageName(), entityDef.getEntityName());
+			}
+		}
+	}
+
+	private StandardEntityOperationResponseDto doUpdate(EntityRouteDescription entityDef,
+			List<Map<String, Object>> requestBody, String baseUri) {
 		String requestUriStr = buildRequestUri(baseUri, getUpdateUriTemplate());
 		URI requestUri = getRestTemplate().getUriTemplateHandler().expand(requestUriStr, entityDef.getPackageName(),
 				entityDef.getEntityName());
 
-		List<Map<String, Object>> requestBody = convertToMapList(recordsToUpdate);
 		long timeMilliSeconds = System.currentTimeMillis();
 		log.info("SEND UPDATE post [{}] url={}, request={}", timeMilliSeconds, requestUri.toString(), toJson(requestBody));
 		StandardEntityOperationResponseDto result = getRestTemplate().postForObject(requestUri, requestBody,
@@ -64,6 +114,36 @@ public class StandardEntityOperationRestClient {
 		return result;
 	}
 
+	/**
+	 * Sends to a direct endpoint of the route if there is an available one, and
+	 * through the gateway otherwise or if the endpoint cannot be connected. The
+	 * request never reached the plugin in that case, so it is safe to resend.
+	 */
+	private StandardEntityOperationResponseDto sendWithDirectFallback(EntityRouteDescription entityDef,
+			Function<String, StandardEntityOperationResponseDto> sender) {
+		EntityRouteEndpoint endpoint = entityDef.selectDirectEndpoint();
+		if (endpoint != null) {
+			try {
+				return sender.apply(buildBaseRequestUri(entityDef.getHttpSchema(), endpoint.getHttpHost(),
+						endpoint.getHttpPort()));
+			} catch (ResourceAccessException e) {
+				if (!isConnectFailure(e)) {
+					throw e;
+				}
+				entityDef.markUnavailable(endpoint);
+				log.warn("failed to connect {} for {}:{}, fall back to gateway: {}", endpoint,
+						entityDef.getPackageName(), entityDef.getEntityName(), e.getMessage());
+			}
+		}
+
+		return sender.apply(buildBaseRequestUri(entityDef));
+	}
+
+	private boolean isConnectFailure(ResourceAccessException e) {
+		Throwable cause = e.getCause();
+		return cause instanceof ConnectException || cause instanceof NoRouteToHostException;
+	}
+
 	public StandardEntityOperationRestClient withQueryUriTemplate(String queryUriTemplate) {
 		this.queryUriTemplate = queryUriTemplate;
 		return this;
@@ -79,6 +159,11 @@ public class StandardEntityOperationRestClient {
 		return this;
 	}
 
+	public StandardEntityOperationRestClient withEntityDataCache(EntityDataCache entityDataCache) {
+		this.entityDataCache = entityDataCache;
+		return this;
+	}
+
 	public String getQueryUriTemplate() {
 		return queryUriTemplate;
 	}
@@ -91,6 +176,10 @@ public class StandardEntityOperationRestClient {
 		return restTemplate;
 	}
 
+	public EntityDataCache getEntityDataCache() {
+		return entityDataCache;
+	}
+
 	private String buildRequestUri(String baseUri, String path) {
 		if (!path.startsWith("/")) {
 			path = "/" + path;
@@ -100,11 +189,15 @@ public class StandardEntityOperationRestClient {
 	}
 
 	private String buildBaseRequestUri(EntityRouteDescription entityDef) {
+		return buildBaseRequestUri(entityDef.getHttpSchema(), entityDef.getHttpHost(), entityDef.getHttpPort());
+	}
+
+	private String buildBaseRequestUri(String httpSchema, String httpHost, String httpPort) {
 		StringBuilder builder = new StringBuilder();
-		builder.append(entityDef.getHttpSchema()).append("://");
-		builder.append(entityDef.getHttpHost());
-		if (entityDef.getHttpPort() != null && entityDef.getHttpPort().trim().length() > 0) {
-			builder.append(":").append(entityDef.getHttpPort().trim());
+		builder.append(httpSchema).append("://");
+		builder.append(httpHost);
+		if (httpPort != null && httpPort.trim().length() > 0) {
+			builder.append(":").append(httpPort.trim());
 		}
 		return builder.toString();
 	}
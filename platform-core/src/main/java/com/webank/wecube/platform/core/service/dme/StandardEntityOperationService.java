@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,12 +13,14 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
 @Service("standardEntityOperationService")
 public class StandardEntityOperationService {
     private static final Logger log = LoggerFactory.getLogger(StandardEntityOperationService.class);
 
     @Autowired
-    private EntityQueryExpressionParser entityQueryExpressionParser;
+    private EntityQueryExpressionPlanCache entityQueryExpressionPlanCache;
 
     @Autowired
     @Qualifier(value = "jwtSsoRestTemplate")
@@ -28,6 +31,12 @@ public class StandardEntityOperationService {
     
     @Autowired
     private EntityDataRouteFactory entityDataRouteFactory;
+
+    @Autowired
+    private EntityDataCache entityDataCache;
+
+    @Autowired
+    private DmeProperties dmeProperties;
     
     public List<Map<String,Object>> queryAttributeValuesOfLeafNode(EntityOperationRootCondition condition){
     	if(log.isDebugEnabled()) {
@@ -35,9 +44,37 @@ public class StandardEntityOperationService {
     	}
     	
     	EntityOperationContext ctx = buildEntityOperationContext(condition);
+        return queryAttributeValuesOfLeafNode(ctx);
+    }
+
+    /**
+     * Runs the leaf node query of the condition with profiling enabled and
+     * reports the owner, request URL, request count, rows, bytes and elapsed
+     * time of each hop instead of the entity data.
+     */
+    public EntityQueryProfile explain(EntityOperationRootCondition condition) {
+        if (log.isInfoEnabled()) {
+            log.info("explain entity operation with condition {}", condition);
+        }
+
+        EntityOperationContext ctx = buildEntityOperationContext(condition);
+        ctx.setEntityQueryProfile(new EntityQueryProfile(condition));
+        queryAttributeValuesOfLeafNode(ctx);
+
+        return ctx.getEntityQueryProfile();
+    }
+
+    private List<Map<String, Object>> queryAttributeValuesOfLeafNode(EntityOperationContext ctx) {
         ctx.setEntityOperationType(EntityOperationType.QUERY);
+        ctx.setFullEntityDataRequired(true);
         
-        List<EntityDataDelegate> entityDelegates = standardEntityQueryExcutor.executeQueryLeafEntity(ctx);
+        long startTime = System.currentTimeMillis();
+        List<EntityDataDelegate> entityDelegates = null;
+        try {
+            entityDelegates = standardEntityQueryExcutor.executeQueryLeafEntity(ctx);
+        } finally {
+            completeProfiling(ctx, startTime, entityDelegates == null ? 0 : entityDelegates.size());
+        }
         List<Map<String,Object>> result = new ArrayList<>();
         if(entityDelegates == null) {
         	return result;
@@ -61,7 +98,15 @@ public class StandardEntityOperationService {
 
         EntityOperationContext ctx = buildEntityOperationContext(condition);
         ctx.setEntityOperationType(EntityOperationType.QUERY);
-        return standardEntityQueryExcutor.executeQueryLeafAttributes(ctx);
+
+        long startTime = System.currentTimeMillis();
+        List<Object> result = null;
+        try {
+            result = standardEntityQueryExcutor.executeQueryLeafAttributes(ctx);
+        } finally {
+            completeProfiling(ctx, startTime, result == null ? 0 : result.size());
+        }
+        return result;
     }
 
     public void update(EntityOperationRootCondition condition, Object attrValueToUpdate) {
@@ -72,7 +117,12 @@ public class StandardEntityOperationService {
         EntityOperationContext ctx = buildEntityOperationContext(condition);
         ctx.setEntityOperationType(EntityOperationType.UPDATE);
 
-        standardEntityQueryExcutor.executeUpdate(ctx, attrValueToUpdate);
+        long startTime = System.currentTimeMillis();
+        try {
+            standardEntityQueryExcutor.executeUpdate(ctx, attrValueToUpdate);
+        } finally {
+            completeProfiling(ctx, startTime, 0);
+        }
 
         return;
     }
@@ -84,8 +134,16 @@ public class StandardEntityOperationService {
     	
     	EntityOperationContext ctx = buildEntityOperationContext(condition);
         ctx.setEntityOperationType(EntityOperationType.QUERY);
-        
-        return standardEntityQueryExcutor.generateEntityLinkOverview(ctx);
+
+        long startTime = System.currentTimeMillis();
+        EntityTreeNodesOverview overview = null;
+        try {
+            overview = standardEntityQueryExcutor.generateEntityLinkOverview(ctx);
+        } finally {
+            completeProfiling(ctx, startTime, overview == null || overview.getHierarchicalEntityNodes() == null ? 0
+                    : overview.getHierarchicalEntityNodes().size());
+        }
+        return overview;
     }
 
     public List<TreeNode> generatePreviewTree(EntityOperationRootCondition condition) {
@@ -95,48 +153,63 @@ public class StandardEntityOperationService {
         
         EntityOperationContext ctx = buildEntityOperationContext(condition);
         ctx.setEntityOperationType(EntityOperationType.UPDATE);
-        return standardEntityQueryExcutor.generatePreviewTree(ctx);
+
+        long startTime = System.currentTimeMillis();
+        List<TreeNode> treeNodes = null;
+        try {
+            treeNodes = standardEntityQueryExcutor.generatePreviewTree(ctx);
+        } finally {
+            completeProfiling(ctx, startTime, treeNodes == null ? 0 : treeNodes.size());
+        }
+        return treeNodes;
     }
 
     protected EntityOperationContext buildEntityOperationContext(EntityOperationRootCondition condition) {
-        List<EntityQueryExprNodeInfo> exprNodeInfos = entityQueryExpressionParser.parse(condition.getEntityLinkExpr());
+        EntityQueryExpressionPlan plan = entityQueryExpressionPlanCache.getPlan(condition.getEntityLinkExpr());
 
         EntityOperationContext ctx = new EntityOperationContext();
-        ctx.setEntityQueryExprNodeInfos(exprNodeInfos);
+        ctx.setEntityQueryExprNodeInfos(plan.getExprNodeInfos());
         ctx.setOriginalEntityLinkExpression(condition.getEntityLinkExpr());
         ctx.setOriginalEntityData(condition.getEntityIdentity());
-        ctx.setStandardEntityOperationRestClient(new StandardEntityOperationRestClient(jwtSsoRestTemplate));
-        ctx.setHeadEntityQueryLinkNode(buildEntityQueryLinkNode(exprNodeInfos));
+        ctx.setStandardEntityOperationRestClient(
+                new StandardEntityOperationRestClient(jwtSsoRestTemplate).withEntityDataCache(entityDataCache));
+        ctx.setHeadEntityQueryLinkNode(plan.buildEntityQueryLinkNodes());
         ctx.setEntityDataRouteFactory(entityDataRouteFactory);
 
+        if (isProfilingSampled()) {
+            ctx.setEntityQueryProfile(new EntityQueryProfile(condition));
+        }
+
         return ctx;
     }
 
-    protected EntityQueryLinkNode buildEntityQueryLinkNode(List<EntityQueryExprNodeInfo> exprNodeInfos) {
-        if (exprNodeInfos == null || exprNodeInfos.isEmpty()) {
-            return null;
+    private boolean isProfilingSampled() {
+        if (dmeProperties == null || dmeProperties.getProfilingSampleRate() <= 0.0D) {
+            return false;
+        }
+
+        return ThreadLocalRandom.current().nextDouble() < dmeProperties.getProfilingSampleRate();
+    }
+
+    private void completeProfiling(EntityOperationContext ctx, long startTime, int resultCount) {
+        EntityQueryProfile profile = ctx.getEntityQueryProfile();
+        if (profile == null) {
+            return;
         }
-        EntityQueryExprNodeInfo nodeInfo = exprNodeInfos.get(0);
-        EntityQueryLinkNode headLinkNode = new EntityQueryLinkNode();
-        headLinkNode.setIndex(0);
-        headLinkNode.setExprNodeInfo(nodeInfo);
-        headLinkNode.setHead(true);
-        headLinkNode.setPreviousNode(null);
-
-        EntityQueryLinkNode previousLinkNode = headLinkNode;
-        for (int i = 1; i < exprNodeInfos.size(); i++) {
-            EntityQueryExprNodeInfo ni = exprNodeInfos.get(i);
-            EntityQueryLinkNode linkNode = new EntityQueryLinkNode();
-            linkNode.setIndex(i);
-            linkNode.setExprNodeInfo(ni);
-            linkNode.setHead(false);
-            linkNode.setPreviousNode(previousLinkNode);
-            linkNode.setSucceedingNode(null);
-            
-            previousLinkNode = linkNode;
+
+        profile.setTotalElapsedMillis(System.currentTimeMillis() - startTime);
+        profile.setResultCount(resultCount);
+
+        long threshold = (dmeProperties == null ? Long.MAX_VALUE : dmeProperties.getSlowOperationThresholdMillis());
+        if (profile.getTotalElapsedMillis() >= threshold) {
+            log.warn("Slow entity operation took {} ms: {}", profile.getTotalElapsedMillis(), profile);
+        } else if (log.isDebugEnabled()) {
+            log.debug("Entity operation profile: {}", profile);
         }
+    }
 
-        return headLinkNode;
+    public EntityDataCacheStatistics getEntityDataCacheStatistics() {
+        return entityDataCache.getStatistics();
     }
 
     public RestTemplate getRestTemplate() {
@@ -4,15 +4,26 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
 
 @Service("standardEntityQueryExecutor")
 public class StandardEntityQueryExecutor implements EntityQueryExecutor {
 	private static final Logger log = LoggerFactory.getLogger(StandardEntityQueryExecutor.class);
 
+	@Autowired
+	private DmeProperties dmeProperties;
+
+	private final Set<String> packagesWithoutProjection = ConcurrentHashMap.newKeySet();
+
 	@Override
 	public EntityTreeNodesOverview generateEntityLinkOverview(EntityOperationContext ctx) {
 		doExecuteQuery(ctx);
@@ -29,77 +40,12 @@ public class StandardEntityQueryExecutor implements EntityQueryExecutor {
 		return generateHierarchicalEntityTreeNodes(ctx);
 	}
 
-	private void pupolateTreeNodeWithLinkNode(List<TreeNode> result, EntityQueryLinkNode linkNode) {
-		for (EntityDataDelegate delegate : linkNode.getEntityDataDelegates()) {
-
-			TreeNode currTreeNode = findTreeNode(result, delegate.getPackageName(), delegate.getEntityName(),
-					delegate.getId());
-			if (currTreeNode == null) {
-				currTreeNode = new TreeNode();
-				currTreeNode.setRootId(delegate.getId());
-				currTreeNode.setDisplayName(delegate.getDisplayName());
-				currTreeNode.setEntityName(delegate.getEntityName());
-				currTreeNode.setPackageName(delegate.getPackageName());
-
-				result.add(currTreeNode);
-			}
-
-			EntityDataDelegate prevDelegate = delegate.getPreviousEntity();
-			if (prevDelegate != null) {
-				TreeNode prevTreeNode = findTreeNode(result, prevDelegate.getPackageName(),
-						prevDelegate.getEntityName(), prevDelegate.getId());
-				if (prevTreeNode == null) {
-					prevTreeNode = new TreeNode();
-					prevTreeNode.setRootId(prevDelegate.getId());
-					prevTreeNode.setDisplayName(prevDelegate.getDisplayName());
-					prevTreeNode.setEntityName(prevDelegate.getEntityName());
-					prevTreeNode.setPackageName(prevDelegate.getPackageName());
-
-					result.add(prevTreeNode);
-				}
-
-				currTreeNode.setParent(prevTreeNode);
-				prevTreeNode.addChildren(currTreeNode);
-			}
-
-			for (EntityDataDelegate succeedingDelegate : delegate.getSucceedingEntities()) {
-				TreeNode succeedingTreeNode = findTreeNode(result, succeedingDelegate.getPackageName(),
-						succeedingDelegate.getEntityName(), succeedingDelegate.getId());
-				if (succeedingTreeNode == null) {
-					succeedingTreeNode = new TreeNode();
-					succeedingTreeNode.setRootId(succeedingDelegate.getId());
-					succeedingTreeNode.setDisplayName(succeedingDelegate.getDisplayName());
-					succeedingTreeNode.setEntityName(succeedingDelegate.getEntityName());
-					succeedingTreeNode.setPackageName(succeedingDelegate.getPackageName());
-
-					result.add(succeedingTreeNode);
-				}
-
-				succeedingTreeNode.setParent(currTreeNode);
-				currTreeNode.addChildren(succeedingTreeNode);
-			}
-		}
-	}
-
-	private TreeNode findTreeNode(List<TreeNode> nodes, String packageName, String entityName, String id) {
-		for (TreeNode n : nodes) {
-			if (n.getPackageName().equals(packageName) && n.getEntityName().equals(entityName)
-					&& n.getRootId().equals(id)) {
-				return n;
-			}
-		}
-
-		return null;
-	}
-
 	public void executeUpdate(EntityOperationContext ctx, Object valueToUpdate) {
 		List<EntityDataDelegate> entitiesToUpdate = executeQueryLeafEntity(ctx);
 		List<EntityDataRecord> entityDataRecordsToUpdate = buildEntityDataRecords(entitiesToUpdate, valueToUpdate);
 
 		EntityQueryLinkNode leafLinkNode = ctx.getTailEntityQueryLinkNode();
-		EntityQueryExprNodeInfo nodeInfo = leafLinkNode.getExprNodeInfo();
-		EntityRouteDescription entityDef = ctx.getEntityDataRouteFactory()
-				.deduceEntityDescription(nodeInfo.getEntityName(), nodeInfo.getPackageName());
+		EntityRouteDescription entityDef = resolveEntityRouteDescription(ctx, leafLinkNode);
 
 		StandardEntityOperationRestClient restClient = ctx.getStandardEntityOperationRestClient();
 		restClient.update(entityDef, entityDataRecordsToUpdate);
@@ -121,13 +67,22 @@ public class StandardEntityQueryExecutor implements EntityQueryExecutor {
 					linkNode.getExprNodeInfo().getEntityQueryNodeExpr());
 		}
 
-		EntityQueryExprNodeInfo nodeInfo = linkNode.getExprNodeInfo();
-		EntityRouteDescription entityDef = ctx.getEntityDataRouteFactory()
-				.deduceEntityDescription(nodeInfo.getEntityName(), nodeInfo.getPackageName());
+		EntityRouteDescription entityDef = resolveEntityRouteDescription(ctx, linkNode);
 
 		doPerformQuery(ctx, linkNode, entityDef);
 	}
 
+	private EntityRouteDescription resolveEntityRouteDescription(EntityOperationContext ctx,
+			EntityQueryLinkNode linkNode) {
+		if (linkNode.getEntityRouteDescription() != null) {
+			return linkNode.getEntityRouteDescription();
+		}
+
+		EntityQueryExprNodeInfo nodeInfo = linkNode.getExprNodeInfo();
+		return ctx.getEntityDataRouteFactory().deduceEntityDescription(nodeInfo.getPackageName(),
+				nodeInfo.getEntityName());
+	}
+
 	protected List<EntityDataRecord> buildEntityDataRecords(List<EntityDataDelegate> entitiesToUpdate,
 			Object valueToUpdate) {
 		List<EntityDataRecord> dataRecords = new ArrayList<>();
@@ -355,9 +310,35 @@ public class StandardEntityQueryExecutor implements EntityQueryExecutor {
 			EntityRouteDescription entityDef, EntityDataDelegate prevEntityDataDelegate,
 			EntityQuerySpecification querySpec) {
 		StandardEntityOperationRestClient restClient = ctx.getStandardEntityOperationRestClient();
-		StandardEntityOperationResponseDto responseDto = restClient.query(entityDef, querySpec);
+		boolean projected = applyResultColumns(ctx, linkNode, entityDef, querySpec);
+
+		long startTime = System.currentTimeMillis();
+		StandardEntityOperationResponseDto responseDto = null;
+		try {
+			responseDto = restClient.query(entityDef, querySpec);
+		} catch (HttpClientErrorException e) {
+			if (!projected) {
+				throw e;
+			}
+			log.warn("Errors met while querying {} with result columns, will retry without them: {}",
+					entityDef.getPackageName(), e.getMessage());
+		}
+
+		if (projected && !isStatusOk(responseDto)) {
+			querySpec.setResultColumns(null);
+			responseDto = restClient.query(entityDef, querySpec);
+			if (isStatusOk(responseDto)) {
+				log.info("Plugin {} does not support result columns, fall back to full entity data.",
+						entityDef.getPackageName());
+				packagesWithoutProjection.add(entityDef.getPackageName());
+			}
+		}
+
+		if (ctx.getEntityQueryProfile() != null) {
+			recordHopProfile(ctx, linkNode, responseDto, System.currentTimeMillis() - startTime);
+		}
 
-		if (StandardEntityOperationResponseDto.STATUS_OK.equalsIgnoreCase(responseDto.getStatus())) {
+		if (isStatusOk(responseDto)) {
 			performEntityDataExtraction(ctx, linkNode, prevEntityDataDelegate, responseDto.getData());
 		} else {
 			log.error("Error status met {} with message {}", responseDto.getStatus(), responseDto.getMessage());
@@ -366,6 +347,56 @@ public class StandardEntityQueryExecutor implements EntityQueryExecutor {
 		}
 	}
 
+	private void recordHopProfile(EntityOperationContext ctx, EntityQueryLinkNode linkNode,
+			StandardEntityOperationResponseDto responseDto, long elapsedMillis) {
+		EntityQueryHopProfile hop = ctx.getEntityQueryProfile().getOrCreateHop(linkNode);
+		if (responseDto == null) {
+			hop.recordRequest(null, 0, -1L, elapsedMillis);
+			return;
+		}
+
+		int rows = extractEntityDataFromResponse(responseDto.getData()).size();
+		if (responseDto.isFromCache()) {
+			hop.recordCacheHit(rows, elapsedMillis);
+		} else {
+			hop.recordRequest(responseDto.getRequestUrl(), rows, responseDto.getContentLength(), elapsedMillis);
+		}
+	}
+
+	private boolean isStatusOk(StandardEntityOperationResponseDto responseDto) {
+		return responseDto != null
+				&& StandardEntityOperationResponseDto.STATUS_OK.equalsIgnoreCase(responseDto.getStatus());
+	}
+
+	/**
+	 * Only requests the attributes needed to walk the link and to build the
+	 * results, unless the whole entity data of the leaf node is required.
+	 */
+	private boolean applyResultColumns(EntityOperationContext ctx, EntityQueryLinkNode linkNode,
+			EntityRouteDescription entityDef, EntityQuerySpecification querySpec) {
+		if (dmeProperties == null || !dmeProperties.isEntityDataProjectionEnabled()) {
+			return false;
+		}
+
+		if (ctx.isFullEntityDataRequired() && linkNode.isTailLinkNode()) {
+			return false;
+		}
+
+		if (packagesWithoutProjection.contains(entityDef.getPackageName())) {
+			return false;
+		}
+
+		List<String> resultColumns = new ArrayList<>();
+		resultColumns.add(EntityDataDelegate.UNIQUE_IDENTIFIER);
+		resultColumns.add(EntityDataDelegate.VISUAL_FIELD);
+		if (linkNode.hasQueryAttribute() && !resultColumns.contains(linkNode.getQueryAttributeName())) {
+			resultColumns.add(linkNode.getQueryAttributeName());
+		}
+
+		querySpec.setResultColumns(resultColumns);
+		return true;
+	}
+
 	protected void performEntityDataExtraction(EntityOperationContext ctx, EntityQueryLinkNode linkNode,
 			EntityDataDelegate prevEntityDataDelegate, Object responseData) {
 		List<Map<String, Object>> recordMapList = extractEntityDataFromResponse(responseData);
@@ -448,17 +479,17 @@ public class StandardEntityQueryExecutor implements EntityQueryExecutor {
 	}
 
 	protected List<TreeNode> generateHierarchicalEntityTreeNodes(EntityOperationContext ctx) {
-		List<TreeNode> result = new ArrayList<>();
+		EntityTreeNodesBuilder builder = new EntityTreeNodesBuilder();
 
 		EntityQueryLinkNode headEntityQueryLinkNode = ctx.getHeadEntityQueryLinkNode();
 		EntityQueryLinkNode linkNode = headEntityQueryLinkNode;
 
 		while (linkNode != null) {
-			pupolateTreeNodeWithLinkNode(result, linkNode);
+			builder.addEntityQueryLinkNode(linkNode);
 			linkNode = linkNode.getSucceedingNode();
 		}
 
-		return result;
+		return builder.build();
 	}
 
 	protected EntityTreeNodesOverview buildEntityTreeNodesOverview(List<TreeNode> hierarchicalEntityNodes,
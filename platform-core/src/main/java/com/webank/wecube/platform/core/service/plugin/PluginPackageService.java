@@ -18,6 +18,7 @@ import com.webank.wecube.platform.core.service.CommandService;
 import com.webank.wecube.platform.core.service.PluginInstanceService;
 import com.webank.wecube.platform.core.service.PluginPackageDataModelService;
 import com.webank.wecube.platform.core.service.ScpService;
+import com.webank.wecube.platform.core.service.dme.EntityQueryExpressionPlanCache;
 import com.webank.wecube.platform.core.service.user.RoleMenuService;
 import com.webank.wecube.platform.core.service.user.UserManagementService;
 import com.webank.wecube.platform.core.support.S3Client;
@@ -102,6 +103,9 @@ public class PluginPackageService {
     @Autowired
     private AuthServerRestClient authServerRestClient;
 
+    @Autowired
+    private EntityQueryExpressionPlanCache entityQueryExpressionPlanCache;
+
     @Transactional
     public PluginPackage uploadPackage(MultipartFile pluginPackageFile) throws Exception {
         String pluginPackageFileName = pluginPackageFile.getName();
@@ -255,7 +259,11 @@ public class PluginPackageService {
 
         pluginPackage.setStatus(REGISTERED);
 
-        return pluginPackageRepository.save(pluginPackage);
+        PluginPackage savedPluginPackage = pluginPackageRepository.save(pluginPackage);
+
+        entityQueryExpressionPlanCache.invalidateAllAfterCompletion();
+
+        return savedPluginPackage;
     }
 
     private void updateSystemVariableStatus(PluginPackage pluginPackage) {
@@ -375,6 +383,8 @@ public class PluginPackageService {
         removeLocalDockerImageFiles(pluginPackage);
 
         removePluginUiResourcesIfRequired(pluginPackage);
+
+        entityQueryExpressionPlanCache.invalidateAllAfterCompletion();
     }
 
     private void deactivateSystemVariables(PluginPackage pluginPackage) {
@@ -1,11 +1,127 @@
 package com.webank.wecube.platform.core.support;
 
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 import com.webank.wecube.platform.core.domain.plugin.PluginPackageDataModel;
+import com.webank.wecube.platform.core.dto.PluginPackageAttributeDto;
 import com.webank.wecube.platform.core.dto.PluginPackageDataModelDto;
+import com.webank.wecube.platform.core.dto.PluginPackageEntityDto;
+import com.webank.wecube.platform.core.utils.constant.DataModelDataType;
+import org.apache.commons.lang3.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
 
 public class PluginPackageDataModelHelper {
 
     public static boolean isDataModelSameAsAnother(PluginPackageDataModelDto newDataModelDto, PluginPackageDataModel existingDataModelDomain) {
         return false;
     }
+
+    /**
+     * Hash of the structure of the data model, which doesn't depend on ids, versions or the order of entities.
+     *
+     * @param entities entities of the data model
+     * @return hex string of the hash
+     */
+    public static String calculateContentHash(Collection<PluginPackageEntityDto> entities) {
+        Map<String, String> entityHashes = new TreeMap<>();
+        if (entities != null) {
+            entities.forEach(entity -> entityHashes.put(entity.getName(), calculateEntityContentHash(entity)));
+        }
+
+        Hasher hasher = Hashing.sha256().newHasher();
+        entityHashes.forEach((entityName, entityHash) -> {
+            putField(hasher, entityName);
+            putField(hasher, entityHash);
+        });
+        return hasher.hash().toString();
+    }
+
+    /**
+     * @param entity entity with attributes
+     * @return hex string of the hash of the entity and its attributes in their order
+     */
+    public static String calculateEntityContentHash(PluginPackageEntityDto entity) {
+        Hasher hasher = Hashing.sha256().newHasher();
+        putField(hasher, entity.getName());
+        putField(hasher, entity.getDisplayName());
+        putField(hasher, entity.getDescription());
+        if (entity.getAttributes() != null) {
+            for (PluginPackageAttributeDto attribute : entity.getAttributes()) {
+                putField(hasher, attribute.getName());
+                putField(hasher, attribute.getDescription());
+                putField(hasher, attribute.getDataType());
+                // only references of "ref" attributes are saved
+                if (DataModelDataType.Ref.getCode().equals(attribute.getDataType())) {
+                    putField(hasher, attribute.getRefPackageName());
+                    putField(hasher, attribute.getRefEntityName());
+                    putField(hasher, attribute.getRefAttributeName());
+                }
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Compares the entities of two data models by name and content hash.
+     *
+     * @param existingEntities entities of the stored data model
+     * @param newEntities      entities of the new data model
+     * @return names of the added, removed and changed entities
+     */
+    public static DataModelDiff diff(Collection<PluginPackageEntityDto> existingEntities, Collection<PluginPackageEntityDto> newEntities) {
+        Map<String, String> existingEntityHashes = new HashMap<>();
+        if (existingEntities != null) {
+            existingEntities.forEach(entity -> existingEntityHashes.put(entity.getName(), calculateEntityContentHash(entity)));
+        }
+
+        DataModelDiff diff = new DataModelDiff();
+        Set<String> newEntityNames = new HashSet<>();
+        if (newEntities != null) {
+            for (PluginPackageEntityDto entity : newEntities) {
+                newEntityNames.add(entity.getName());
+                String existingEntityHash = existingEntityHashes.get(entity.getName());
+                if (existingEntityHash == null) {
+                    diff.addedEntities.add(entity.getName());
+                } else if (!existingEntityHash.equals(calculateEntityContentHash(entity))) {
+                    diff.changedEntities.add(entity.getName());
+                }
+            }
+        }
+        if (existingEntities != null) {
+            existingEntities.stream()
+                    .filter(entity -> !newEntityNames.contains(entity.getName()))
+                    .forEach(entity -> diff.removedEntities.add(entity.getName()));
+        }
+        return diff;
+    }
+
+    private static void putField(Hasher hasher, String value) {
+        String normalizedValue = StringUtils.trimToEmpty(value);
+        hasher.putInt(normalizedValue.length());
+        hasher.putString(normalizedValue, StandardCharsets.UTF_8);
+    }
+
+    public static class DataModelDiff {
+        private final List<String> addedEntities = new ArrayList<>();
+        private final List<String> removedEntities = new ArrayList<>();
+        private final List<String> changedEntities = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return addedEntities.isEmpty() && removedEntities.isEmpty() && changedEntities.isEmpty();
+        }
+
+        public List<String> getAddedEntities() {
+            return addedEntities;
+        }
+
+        public List<String> getRemovedEntities() {
+            return removedEntities;
+        }
+
+        public List<String> getChangedEntities() {
+            return changedEntities;
+        }
+    }
 }
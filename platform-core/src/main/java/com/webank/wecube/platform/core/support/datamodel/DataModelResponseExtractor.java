@@ -0,0 +1,169 @@
+package com.webank.wecube.platform.core.support.datamodel;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
+import com.webank.wecube.platform.core.dto.CommonResponseDto;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResponseExtractor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Decodes the plugin response straight from the response stream into a {@link CommonResponseDto},
+ * whose data is bound to the given type without holding the body as a string first.
+ * <p>
+ * The data is an {@link ArrayList} of the given type if the plugin returned an array, otherwise a single
+ * value of the given type, the same shapes {@link DataModelServiceStub#responseToMapList} expects.
+ */
+public class DataModelResponseExtractor implements ResponseExtractor<CommonResponseDto> {
+    public static final String CONTENT_ENCODING_GZIP = "gzip";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final JavaType dataItemType;
+    private final long maxResponseBytes;
+
+    /**
+     * @param dataItemClass    class of each data item, maps are returned if it is null
+     * @param maxResponseBytes max bytes of the decoded response body, 0 or negative for no limit
+     */
+    public DataModelResponseExtractor(Class<?> dataItemClass, long maxResponseBytes) {
+        this.dataItemType = OBJECT_MAPPER.getTypeFactory().constructType(dataItemClass == null ? Object.class : dataItemClass);
+        this.maxResponseBytes = maxResponseBytes;
+    }
+
+    @Override
+    public CommonResponseDto extractData(ClientHttpResponse response) throws IOException {
+        HttpStatus statusCode = response.getStatusCode();
+        if (statusCode.is4xxClientError()) {
+            throw new WecubeCoreException(String.format("The target server returned error code: [%s]. The target server doesn't implement the request controller.", statusCode.toString()));
+        }
+
+        if (statusCode.is5xxServerError()) {
+            throw new WecubeCoreException(String.format("The target server returned error code: [%s], which is an target server's internal error.", statusCode.toString()));
+        }
+
+        CommonResponseDto responseDto;
+        try (InputStream bodyStream = openBodyStream(response)) {
+            responseDto = readResponse(bodyStream);
+        } catch (JsonProcessingException e) {
+            String msg = "Cannot transfer response from target server to CommonResponseDto class, the target server doesn't standardize the response style.";
+            throw new WecubeCoreException(msg, e);
+        }
+
+        if (!CommonResponseDto.STATUS_OK.equals(responseDto.getStatus())) {
+            String msg = String.format("Request error! The error message is [%s]", responseDto.getMessage());
+            throw new WecubeCoreException(msg);
+        }
+        return responseDto;
+    }
+
+    private InputStream openBodyStream(ClientHttpResponse response) throws IOException {
+        InputStream bodyStream = response.getBody();
+        String contentEncoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+        if (CONTENT_ENCODING_GZIP.equalsIgnoreCase(contentEncoding)) {
+            bodyStream = new GZIPInputStream(bodyStream);
+        }
+
+        if (maxResponseBytes > 0) {
+            bodyStream = new LimitedInputStream(bodyStream, maxResponseBytes);
+        }
+        return bodyStream;
+    }
+
+    private CommonResponseDto readResponse(InputStream bodyStream) throws IOException {
+        CommonResponseDto responseDto = new CommonResponseDto();
+        try (JsonParser parser = OBJECT_MAPPER.getFactory().createParser(bodyStream)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Response body is not a json object.");
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String fieldName = parser.getCurrentName();
+                JsonToken valueToken = parser.nextToken();
+                switch (fieldName) {
+                    case "status":
+                        responseDto.setStatus(parser.getValueAsString());
+                        break;
+                    case "message":
+                        responseDto.setMessage(parser.getValueAsString());
+                        break;
+                    case "data":
+                        responseDto.setData(readData(parser, valueToken));
+                        break;
+                    default:
+                        parser.skipChildren();
+                        break;
+                }
+            }
+        }
+        return responseDto;
+    }
+
+    private Object readData(JsonParser parser, JsonToken valueToken) throws IOException {
+        switch (valueToken) {
+            case VALUE_NULL:
+                return null;
+            case START_ARRAY:
+                JavaType listType = OBJECT_MAPPER.getTypeFactory().constructCollectionType(ArrayList.class, dataItemType);
+                return OBJECT_MAPPER.readValue(parser, listType);
+            case START_OBJECT:
+                return OBJECT_MAPPER.readValue(parser, dataItemType);
+            default:
+                return OBJECT_MAPPER.readValue(parser, Object.class);
+        }
+    }
+
+    private static class LimitedInputStream extends FilterInputStream {
+        private final long maxBytes;
+        private long readBytes;
+
+        LimitedInputStream(InputStream in, long maxBytes) {
+            super(in);
+            this.maxBytes = maxBytes;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                countBytes(1);
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = super.read(b, off, len);
+            if (n > 0) {
+                countBytes(n);
+            }
+            return n;
+        }
+
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            countBytes(skipped);
+            return skipped;
+        }
+
+        private void countBytes(long n) {
+            readBytes += n;
+            if (readBytes > maxBytes) {
+                throw new WecubeCoreException(String.format("The response from target server exceeds the size limit of %d bytes.", maxBytes));
+            }
+        }
+    }
+}
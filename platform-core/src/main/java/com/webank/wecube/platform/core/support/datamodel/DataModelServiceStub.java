@@ -1,5 +1,7 @@
 package com.webank.wecube.platform.core.support.datamodel;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
 import com.webank.wecube.platform.core.commons.WecubeCoreException;
 import com.webank.wecube.platform.core.dto.CommonResponseDto;
 import com.webank.wecube.platform.core.dto.Filter;
@@ -12,13 +14,18 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponents;
 import org.springframework.web.util.UriComponentsBuilder;
 
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -44,6 +51,26 @@ public class DataModelServiceStub {
     @Qualifier(value = "userJwtSsoTokenRestTemplate")
     private RestTemplate userJwtSsoTokenRestTemplate;
 
+    @Autowired
+    private DmeProperties dmeProperties;
+
+    private ExecutorService chainRequestExecutor;
+
+    @PostConstruct
+    public void init() {
+        int parallelism = dmeProperties.getChainRequestParallelism();
+        if (parallelism > 1) {
+            this.chainRequestExecutor = Executors.newFixedThreadPool(parallelism,
+                    new ThreadFactoryBuilder().setNameFormat("dme-chain-request-%d").setDaemon(true).build());
+        }
+    }
+
+    @PreDestroy
+    public void destroy() {
+        if (this.chainRequestExecutor != null) {
+            this.chainRequestExecutor.shutdown();
+        }
+    }
 
     /**
      * Issue a request from request url with place holders and param map
@@ -64,6 +91,76 @@ public class DataModelServiceStub {
         return responseDto;
     }
 
+    /**
+     * Issue the requests of one expression level, identical requests are only sent once
+     * and the distinct ones are sent in parallel if chain request parallelism is enabled.
+     *
+     * @param requestUrl    request url with place holders
+     * @param paramMapList  generated param maps
+     * @return url to response dto list in the same order as the param maps
+     */
+    public List<UrlToResponseDto> initiateGetRequests(String requestUrl, List<Map<String, Object>> paramMapList) {
+        List<String> uriStrList = new ArrayList<>();
+        Map<String, UrlToResponseDto> uriStrToResponseDto = new LinkedHashMap<>();
+        for (Map<String, Object> paramMap : paramMapList) {
+            String uriStr = UriComponentsBuilder.fromUriString(requestUrl).buildAndExpand(paramMap).toString();
+            uriStrList.add(uriStr);
+            uriStrToResponseDto.put(uriStr, null);
+        }
+
+        if (this.chainRequestExecutor == null || uriStrToResponseDto.size() <= 1) {
+            uriStrToResponseDto.keySet().forEach(uriStr -> uriStrToResponseDto.put(uriStr, sendGetRequest(uriStr)));
+        } else {
+            Map<String, Future<UrlToResponseDto>> uriStrToFuture = new LinkedHashMap<>();
+            uriStrToResponseDto.keySet().forEach(uriStr -> uriStrToFuture.put(uriStr, this.chainRequestExecutor.submit(() -> sendGetRequest(uriStr))));
+            try {
+                for (Map.Entry<String, Future<UrlToResponseDto>> entry : uriStrToFuture.entrySet()) {
+                    uriStrToResponseDto.put(entry.getKey(), entry.getValue().get());
+                }
+            } catch (ExecutionException e) {
+                uriStrToFuture.values().forEach(future -> future.cancel(true));
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new WecubeCoreException("Failed to issue chain requests.", e.getCause());
+            } catch (InterruptedException e) {
+                uriStrToFuture.values().forEach(future -> future.cancel(true));
+                Thread.currentThread().interrupt();
+                throw new WecubeCoreException("Interrupted while issuing chain requests.", e);
+            }
+        }
+
+        List<UrlToResponseDto> result = new ArrayList<>();
+        uriStrList.forEach(uriStr -> result.add(uriStrToResponseDto.get(uriStr)));
+        return result;
+    }
+
+    /**
+     * Issue a request from request url with place holders and param map, and decode the returned data
+     * straight into the given type
+     *
+     * @param requestUrl    request url with place holders
+     * @param paramMap      generated param map
+     * @param dataItemClass class of each returned data item
+     * @return returned data items, a single returned item is wrapped in a list
+     */
+    @SuppressWarnings("unchecked")
+    public <T> List<T> initiateGetRequest(String requestUrl, Map<String, Object> paramMap, Class<T> dataItemClass) {
+        String uriStr = UriComponentsBuilder.fromUriString(requestUrl).buildAndExpand(paramMap).toString();
+
+        logger.info(String.format("Sending GET request to target url: [%s]", uriStr));
+        CommonResponseDto responseDto = RestTemplateUtils.sendGetRequestWithResponseExtractor(this.jwtSsoRestTemplate, uriStr, createRequestHeaders(), createResponseExtractor(dataItemClass));
+
+        Object data = responseDto.getData();
+        if (data == null) {
+            return new ArrayList<>();
+        }
+        if (data instanceof List<?>) {
+            return (List<T>) data;
+        }
+        return Collections.singletonList(dataItemClass.cast(data));
+    }
+
     /**
      * Issue a request from request url with place holders and param map
      *
@@ -88,13 +185,10 @@ public class DataModelServiceStub {
      * @return common response dto
      */
     private UrlToResponseDto sendGetRequest(String uriStr) {
-        HttpHeaders httpHeaders = new HttpHeaders();
+        HttpHeaders httpHeaders = createRequestHeaders();
 
         logger.info(String.format("Sending GET request to target url: [%s]", uriStr));
-        ResponseEntity<String> response;
-        CommonResponseDto responseDto;
-        response = RestTemplateUtils.sendGetRequestWithUrlParamMap(this.jwtSsoRestTemplate, uriStr, httpHeaders);
-        responseDto = RestTemplateUtils.checkResponse(response);
+        CommonResponseDto responseDto = RestTemplateUtils.sendGetRequestWithResponseExtractor(this.jwtSsoRestTemplate, uriStr, httpHeaders, createResponseExtractor(null));
         return new UrlToResponseDto(uriStr, responseDto);
     }
 
@@ -105,15 +199,24 @@ public class DataModelServiceStub {
      * @return common response dto
      */
     private UrlToResponseDto sendPostRequest(String uriStr, List<Map<String, Object>> postRequestBodyParamMap) {
-        HttpHeaders httpHeaders = new HttpHeaders();
+        HttpHeaders httpHeaders = createRequestHeaders();
         logger.info(String.format("Sending POST request to target url: [%s] with request body: [%s]", uriStr, postRequestBodyParamMap));
-        ResponseEntity<String> response;
-        CommonResponseDto responseDto;
-        response = RestTemplateUtils.sendPostRequestWithBody(this.jwtSsoRestTemplate, uriStr, httpHeaders, postRequestBodyParamMap);
-        responseDto = RestTemplateUtils.checkResponse(response);
+        CommonResponseDto responseDto = RestTemplateUtils.sendPostRequestWithResponseExtractor(this.jwtSsoRestTemplate, uriStr, httpHeaders, postRequestBodyParamMap, createResponseExtractor(null));
         return new UrlToResponseDto(uriStr, responseDto);
     }
 
+    private HttpHeaders createRequestHeaders() {
+        HttpHeaders httpHeaders = new HttpHeaders();
+        if (dmeProperties.isEntityResponseGzipEnabled()) {
+            httpHeaders.set(HttpHeaders.ACCEPT_ENCODING, DataModelResponseExtractor.CONTENT_ENCODING_GZIP);
+        }
+        return httpHeaders;
+    }
+
+    private DataModelResponseExtractor createResponseExtractor(Class<?> dataItemClass) {
+        return new DataModelResponseExtractor(dataItemClass, dmeProperties.getEntityResponseMaxBytes());
+    }
+
     /**
      * Generation of fetch data url param map
      *
@@ -82,6 +82,19 @@ public class DataModelExpressionDto {
     public DataModelExpressionDto() {
     }
 
+    // copy constructor sharing the parse contexts but none of the request state
+    public DataModelExpressionDto(DataModelExpressionDto parsedDto) {
+        this.expression = parsedDto.expression;
+        this.dataModelExpressionOpType = parsedDto.dataModelExpressionOpType;
+        this.prevLink = parsedDto.prevLink;
+        this.fwdNode = parsedDto.fwdNode;
+        this.opFetch = parsedDto.opFetch;
+        this.opTo = parsedDto.opTo;
+        this.entity = parsedDto.entity;
+        this.opBy = parsedDto.opBy;
+        this.bwdNode = parsedDto.bwdNode;
+    }
+
     public DataModelExpressionDto(String requestUrl, CommonResponseDto responseDto) {
         this.requestUrlStack = new Stack<>();
         this.jsonResponseStack = new Stack<>();
@@ -1,10 +1,13 @@
 package com.webank.wecube.platform.core.utils;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.webank.wecube.platform.core.commons.HttpRequestErrorHandler;
 import com.webank.wecube.platform.core.commons.WecubeCoreException;
 import com.webank.wecube.platform.core.dto.CommonResponseDto;
 import org.springframework.http.*;
+import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
+import org.springframework.web.client.ResponseExtractor;
 import org.springframework.web.client.RestTemplate;
 
 import java.io.IOException;
@@ -13,6 +16,7 @@ import java.util.List;
 import java.util.Map;
 
 public class RestTemplateUtils {
+    private static final ObjectMapper REQUEST_BODY_MAPPER = new ObjectMapper();
 
     /**
      * Send get request to url with params
@@ -46,6 +50,42 @@ public class RestTemplateUtils {
         return sendGetRequestWithUrlParamMap(restTemplate, requestUri.getPath(), headers);
     }
 
+    /**
+     * Send get request to url with params and decode the response with the extractor
+     *
+     * @param restTemplate      restTemplate
+     * @param requestUri        target uri
+     * @param headers           request headers
+     * @param responseExtractor extractor reading the response stream
+     * @return extracted response
+     */
+    public static <T> T sendGetRequestWithResponseExtractor(RestTemplate restTemplate, String requestUri, HttpHeaders headers, ResponseExtractor<T> responseExtractor) {
+        // set content type as form
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+
+        restTemplate.setErrorHandler(new HttpRequestErrorHandler());
+        return restTemplate.execute(requestUri, HttpMethod.GET, request -> request.getHeaders().putAll(headers), responseExtractor);
+    }
+
+    /**
+     * Send post request to url with body and decode the response with the extractor
+     *
+     * @param restTemplate      restTemplate
+     * @param requestUri        target uri
+     * @param headers           request headers
+     * @param requestBody       request body to send as json
+     * @param responseExtractor extractor reading the response stream
+     * @return extracted response
+     */
+    public static <T> T sendPostRequestWithResponseExtractor(RestTemplate restTemplate, String requestUri, HttpHeaders headers, Object requestBody, ResponseExtractor<T> responseExtractor) {
+        headers.setContentType(MediaType.APPLICATION_JSON_UTF8);
+
+        return restTemplate.execute(requestUri, HttpMethod.POST, request -> {
+            request.getHeaders().putAll(headers);
+            StreamUtils.copy(REQUEST_BODY_MAPPER.writeValueAsBytes(requestBody), request.getBody());
+        }, responseExtractor);
+    }
+
     /**
      * Send get request to url without params
      *
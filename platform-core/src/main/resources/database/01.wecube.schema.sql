@@ -241,6 +241,19 @@ CREATE TABLE `plugin_instances` (
 
 
 
+drop table if exists plugin_route_table;
+CREATE TABLE `plugin_route_table` (
+    `id` VARCHAR(255) PRIMARY KEY,
+    `epoch` VARCHAR(64) NOT NULL,
+    `version` BIGINT NOT NULL DEFAULT 0
+) ENGINE=InnoDB  DEFAULT CHARSET=utf8 ;
+
+drop table if exists plugin_route_item_changes;
+CREATE TABLE `plugin_route_item_changes` (
+    `version` BIGINT PRIMARY KEY,
+    `name` VARCHAR(255) NOT NULL
+) ENGINE=InnoDB  DEFAULT CHARSET=utf8 ;
+
 drop table if exists plugin_mysql_instances;
 CREATE TABLE `plugin_mysql_instances` (
     `id` VARCHAR(255) PRIMARY KEY,
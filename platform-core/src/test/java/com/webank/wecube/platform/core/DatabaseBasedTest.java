@@ -1,5 +1,6 @@
 package com.webank.wecube.platform.core;
 
+import com.webank.wecube.platform.core.service.datamodel.DataModelGraphIndex;
 import org.camunda.bpm.engine.ProcessEngine;
 import org.camunda.bpm.engine.impl.ProcessEngineImpl;
 import org.junit.After;
@@ -25,11 +26,15 @@ public abstract class DatabaseBasedTest extends BaseSpringBootTest {
     @Autowired 
     private ProcessEngine processEngin;
 
+    @Autowired
+    private DataModelGraphIndex dataModelGraphIndex;
+
     @Before
     public void setup() throws Exception {
         cleanUpDatabase();
         refreshProcessSchema();
         prepareDatabase();
+        dataModelGraphIndex.invalidate();
     }
 
     @After
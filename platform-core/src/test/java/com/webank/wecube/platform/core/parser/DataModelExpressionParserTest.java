@@ -1,10 +1,12 @@
 package com.webank.wecube.platform.core.parser;
 
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
 import com.webank.wecube.platform.core.parser.datamodel.DataModelExpressionParser;
 import com.webank.wecube.platform.core.support.datamodel.dto.DataModelExpressionDto;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 
@@ -60,4 +62,49 @@ public class DataModelExpressionParserTest {
         expressionDtoList = new ArrayList<>(parseResult);
         assertThat(expressionDtoList.get(expressionDtoList.size() - 1).getExpression()).isEqualTo(expression + "." + DataModelExpressionParser.FETCH_ALL);
     }
+
+    @Test
+    public void parseSameExpressionWithCacheShouldReturnFreshCopies() {
+        DataModelExpressionParser cachedParser = new DataModelExpressionParser(16);
+        String expression = "wecmdb:subsys~(subsys)wecmdb:unit.unit_design>wecmdb:unit_design.subsys_design>wecmdb:subsys_design";
+
+        List<DataModelExpressionDto> first = new ArrayList<>(cachedParser.parse(expression));
+        first.get(0).setResultValue(new ArrayList<>());
+        first.get(0).getRequestUrlStack().add(Collections.singleton("http://localhost/unit"));
+        List<DataModelExpressionDto> second = new ArrayList<>(cachedParser.parse(expression));
+
+        assertThat(cachedParser.getParseCacheSize()).isEqualTo(1);
+        assertThat(second).hasSameSizeAs(first);
+        for (int i = 0; i < first.size(); i++) {
+            assertThat(second.get(i)).isNotSameAs(first.get(i));
+            assertThat(second.get(i).getExpression()).isEqualTo(first.get(i).getExpression());
+            assertThat(second.get(i).getDataModelExpressionOpType()).isEqualTo(first.get(i).getDataModelExpressionOpType());
+        }
+        assertThat(second.get(0).getResultValue()).isNull();
+        assertThat(second.get(0).getRequestUrlStack()).isEmpty();
+    }
+
+    @Test
+    public void parseExpressionsOfDepthOneToEightShouldMatchUncachedParser() {
+        DataModelExpressionParser cachedParser = new DataModelExpressionParser(16);
+        cachedParser.warmUp();
+        StringBuilder expression = new StringBuilder("wecmdb:entity_0");
+        for (int depth = 1; depth <= 8; depth++) {
+            String fullExpression = expression.toString() + ".attr_" + depth;
+            for (int round = 0; round < 2; round++) {
+                List<DataModelExpressionDto> cached = new ArrayList<>(cachedParser.parse(fullExpression));
+                List<DataModelExpressionDto> uncached = new ArrayList<>(parser.parse(fullExpression));
+                assertThat(cached).hasSize(depth);
+                for (int i = 0; i < depth; i++) {
+                    assertThat(cached.get(i).getExpression()).isEqualTo(uncached.get(i).getExpression());
+                }
+            }
+            expression.append(depth % 2 == 0 ? ".ref_" + depth + ">wecmdb:entity_" + depth : "~(ref_" + depth + ")wecmdb:entity_" + depth);
+        }
+    }
+
+    @Test(expected = WecubeCoreException.class)
+    public void parseInvalidExpressionShouldFallBackAndReportSyntaxError() {
+        new DataModelExpressionParser(16).parse("wecmdb:unit~~(unit)wecmdb:subsys.code");
+    }
 }
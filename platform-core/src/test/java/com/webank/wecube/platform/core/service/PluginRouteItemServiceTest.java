@@ -0,0 +1,227 @@
+package com.webank.wecube.platform.core.service;
+
+import com.webank.wecube.platform.core.DatabaseBasedTest;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.PluginProperties;
+import com.webank.wecube.platform.core.domain.plugin.PluginInstance;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackage;
+import com.webank.wecube.platform.core.domain.plugin.PluginRouteTable;
+import com.webank.wecube.platform.core.dto.PluginRouteItemChangesDto;
+import com.webank.wecube.platform.core.dto.PluginRouteItemChangesDto.RouteItemsChangeDto;
+import com.webank.wecube.platform.core.dto.PluginRouteItemDto;
+import com.webank.wecube.platform.core.jpa.PluginInstanceRepository;
+import com.webank.wecube.platform.core.jpa.PluginPackageRepository;
+import com.webank.wecube.platform.core.jpa.PluginRouteItemChangeRepository;
+import com.webank.wecube.platform.core.jpa.PluginRouteTableRepository;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.transaction.TestTransaction;
+
+import javax.persistence.EntityManager;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.webank.wecube.platform.core.domain.plugin.PluginPackage.Status.REGISTERED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginRouteItemServiceTest extends DatabaseBasedTest {
+    @Autowired
+    private PluginRouteItemService pluginRouteItemService;
+
+    @Autowired
+    private PluginPackageRepository pluginPackageRepository;
+
+    @Autowired
+    private PluginInstanceRepository pluginInstanceRepository;
+
+    @Autowired
+    private PluginRouteTableRepository pluginRouteTableRepository;
+
+    @Autowired
+    private PluginRouteItemChangeRepository pluginRouteItemChangeRepository;
+
+    @Autowired
+    private PluginProperties pluginProperties;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private int originalRouteItemChangeLogSize;
+
+    @Before
+    public void setupChangeLogSize() {
+        originalRouteItemChangeLogSize = pluginProperties.getRouteItemChangeLogSize();
+        pluginProperties.setRouteItemChangeLogSize(2);
+    }
+
+    @After
+    public void restoreChangeLogSize() {
+        pluginProperties.setRouteItemChangeLogSize(originalRouteItemChangeLogSize);
+    }
+
+    @Test
+    public void givenUnknownEpochWhenGetChangesThenShouldReturnAllRouteItems() {
+        saveRunningInstance("cmdb", 20000);
+        saveRunningInstance("cmdb", 20001);
+        saveRunningInstance("monitor", 20002);
+
+        PluginRouteItemChangesDto changes = pluginRouteItemService.getRouteItemChanges(null, null);
+
+        assertThat(changes.isFullSync()).isTrue();
+        assertThat(changes.getEpoch()).isEqualTo(storedEpoch());
+        assertThat(changes.getVersion()).isEqualTo(0L);
+        assertThat(changedNames(changes)).containsExactlyInAnyOrder("cmdb", "monitor");
+        assertThat(routeItemsOf(changes, "cmdb")).hasSize(2);
+    }
+
+    @Test
+    public void givenKnownVersionWhenGetChangesThenShouldReturnOnlyLatestChangesSinceIt() {
+        String epoch = pluginRouteItemService.getRouteItemChanges(null, null).getEpoch();
+
+        PluginInstance instance = saveRunningInstance("cmdb", 20000);
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+        pluginInstanceRepository.delete(instance);
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+
+        PluginRouteItemChangesDto changes = pluginRouteItemService.getRouteItemChanges(epoch, 0L);
+        assertThat(changes.isFullSync()).isFalse();
+        assertThat(changes.getVersion()).isEqualTo(2L);
+        assertThat(changedNames(changes)).containsExactly("cmdb");
+        assertThat(changes.getChanges().get(0).getRouteItems()).isEmpty();
+
+        assertThat(pluginRouteItemService.getRouteItemChanges(epoch, 2L).getChanges()).isEmpty();
+    }
+
+    @Test
+    public void givenChangesPublishedWhenGetVersionThenShouldBeKeptInDatabase() {
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+        pluginRouteItemService.publishRouteItemsChange("monitor", null);
+
+        assertThat(pluginRouteTableRepository.findById(PluginRouteTable.DEFAULT_ID).get().getVersion()).isEqualTo(2L);
+        assertThat(pluginRouteItemChangeRepository.findByVersionGreaterThanOrderByVersionAsc(0L))
+                .extracting("name").containsExactly("cmdb", "monitor");
+    }
+
+    @Test
+    public void givenVersionNoLongerInChangeLogWhenGetChangesThenShouldReturnAllRouteItems() {
+        String epoch = pluginRouteItemService.getRouteItemChanges(null, null).getEpoch();
+        saveRunningInstance("monitor", 20002);
+        for (int i = 0; i < 3; i++) {
+            pluginRouteItemService.publishRouteItemsChange("monitor", null);
+        }
+
+        // only the latest 2 changes are kept
+        assertThat(pluginRouteItemChangeRepository.findMinVersion()).isEqualTo(2L);
+        assertThat(pluginRouteItemService.getRouteItemChanges(epoch, 1L).isFullSync()).isFalse();
+        assertThat(pluginRouteItemService.getRouteItemChanges(epoch, 0L).isFullSync()).isTrue();
+        assertThat(pluginRouteItemService.getRouteItemChanges("another-epoch", 3L).isFullSync()).isTrue();
+        // the database was recreated behind the gateway
+        assertThat(pluginRouteItemService.getRouteItemChanges(epoch, 5L).isFullSync()).isTrue();
+    }
+
+    @Test
+    public void givenRouteTableCreatedWhenGetChangesThenShouldReturnItsRandomEpoch() {
+        String epoch = pluginRouteItemService.getRouteItemChanges(null, null).getEpoch();
+
+        assertThat(epoch).isNotEqualTo(PluginRouteTable.DEFAULT_ID).isEqualTo(storedEpoch());
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+        assertThat(pluginRouteItemService.getRouteItemChanges(null, null).getEpoch()).isEqualTo(epoch);
+    }
+
+    @Test
+    public void givenRouteTableRecreatedWhenGetChangesWithOldEpochThenShouldReturnAllRouteItems() {
+        saveRunningInstance("cmdb", 20000);
+        String oldEpoch = pluginRouteItemService.getRouteItemChanges(null, null).getEpoch();
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+
+        pluginRouteItemChangeRepository.deleteAll();
+        pluginRouteTableRepository.deleteAll();
+        entityManager.flush();
+        entityManager.clear();
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+
+        PluginRouteItemChangesDto changes = pluginRouteItemService.getRouteItemChanges(oldEpoch, 0L);
+        // version 1 again, but of another table
+        assertThat(changes.getVersion()).isEqualTo(1L);
+        assertThat(changes.getEpoch()).isNotEqualTo(oldEpoch).isEqualTo(storedEpoch());
+        assertThat(changes.isFullSync()).isTrue();
+    }
+
+    @Test
+    public void givenRouteTableAlreadyCreatedWhenInsertAgainThenShouldKeepTheFirstEpoch() {
+        pluginRouteTableRepository.insertIfAbsent(PluginRouteTable.DEFAULT_ID, "first-epoch");
+        pluginRouteTableRepository.insertIfAbsent(PluginRouteTable.DEFAULT_ID, "second-epoch");
+
+        assertThat(pluginRouteTableRepository.count()).isEqualTo(1);
+        assertThat(storedEpoch()).isEqualTo("first-epoch");
+        assertThat(pluginRouteItemService.getRouteItemChanges(null, null).getEpoch()).isEqualTo("first-epoch");
+    }
+
+    @Test
+    public void givenWatcherAtLatestVersionWhenChangeRecordedByAnotherInstanceThenShouldBeNotifiedOnPoll() {
+        String epoch = pluginRouteItemService.getRouteItemChanges(null, null).getEpoch();
+        List<PluginRouteItemChangesDto> notifiedChanges = new ArrayList<>();
+
+        assertThat(pluginRouteItemService.watchRouteItemChanges(epoch, 0L, notifiedChanges::add)).isNotNull();
+        pluginRouteItemService.pollRouteItemChanges();
+        assertThat(notifiedChanges).isEmpty();
+
+        saveRunningInstance("cmdb", 20000);
+        pluginRouteItemService.publishRouteItemsChange("cmdb", null);
+        // not committed yet, so the watcher is notified by the poll as if another instance recorded it
+        assertThat(notifiedChanges).isEmpty();
+        pluginRouteItemService.pollRouteItemChanges();
+
+        assertThat(notifiedChanges).hasSize(1);
+        assertThat(notifiedChanges.get(0).getVersion()).isEqualTo(1L);
+        assertThat(changedNames(notifiedChanges.get(0))).containsExactly("cmdb");
+
+        // behind the latest version, notified right away
+        assertThat(pluginRouteItemService.watchRouteItemChanges(epoch, 0L, notifiedChanges::add)).isNull();
+        assertThat(notifiedChanges).hasSize(2);
+    }
+
+    @Test
+    public void givenChangePublishedInTransactionWhenCommittedThenShouldNotifyListenerAndWatchers() {
+        String epoch = pluginRouteItemService.getRouteItemChanges(null, null).getEpoch();
+        List<PluginRouteItemChangesDto> notifiedChanges = new ArrayList<>();
+        List<List<PluginRouteItemDto>> publishedRouteItems = new ArrayList<>();
+        pluginRouteItemService.watchRouteItemChanges(epoch, 0L, notifiedChanges::add);
+
+        saveRunningInstance("cmdb", 20000);
+        pluginRouteItemService.publishRouteItemsChange("cmdb", publishedRouteItems::add);
+        assertThat(publishedRouteItems).isEmpty();
+        assertThat(notifiedChanges).isEmpty();
+
+        TestTransaction.flagForCommit();
+        TestTransaction.end();
+
+        assertThat(publishedRouteItems).hasSize(1);
+        assertThat(publishedRouteItems.get(0)).extracting("port").containsExactly("20000");
+        assertThat(notifiedChanges).hasSize(1);
+        assertThat(changedNames(notifiedChanges.get(0))).containsExactly("cmdb");
+    }
+
+    private PluginInstance saveRunningInstance(String name, int port) {
+        PluginPackage pluginPackage = pluginPackageRepository.save(new PluginPackage(null, name, "v" + port, REGISTERED,
+                new Timestamp(System.currentTimeMillis()), false));
+        return pluginInstanceRepository.save(new PluginInstance(null, pluginPackage, name, "10.0.0.1", port,
+                PluginInstance.CONTAINER_STATUS_RUNNING));
+    }
+
+    private String storedEpoch() {
+        return pluginRouteTableRepository.findById(PluginRouteTable.DEFAULT_ID).get().getEpoch();
+    }
+
+    private List<String> changedNames(PluginRouteItemChangesDto changes) {
+        return changes.getChanges().stream().map(RouteItemsChangeDto::getName).collect(Collectors.toList());
+    }
+
+    private List<PluginRouteItemDto> routeItemsOf(PluginRouteItemChangesDto changes, String name) {
+        return changes.getChanges().stream().filter(change -> name.equals(change.getName())).findFirst().get()
+                .getRouteItems();
+    }
+}
@@ -0,0 +1,124 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageAttribute;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageDataModel;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageEntity;
+import com.webank.wecube.platform.core.dto.PluginPackageEntityDto;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class DataModelGraphTest {
+
+    @Test
+    public void givenDataModelsWhenBuildGraphThenShouldIndexReferenceByEdges() {
+        PluginPackageDataModel cmdbDataModel = mockDataModel("cmdb", 1);
+        PluginPackageEntity host = mockEntity(cmdbDataModel, "host");
+        PluginPackageEntity app = mockEntity(cmdbDataModel, "app");
+        mockAttribute(app, "host", idOf(host));
+
+        PluginPackageDataModel monitorDataModel = mockDataModel("monitor", 1);
+        PluginPackageEntity instance = mockEntity(monitorDataModel, "instance");
+        mockAttribute(instance, "app", idOf(app));
+        mockAttribute(instance, "host", idOf(host));
+
+        DataModelGraph graph = DataModelGraph.EMPTY.withDataModels(Arrays.asList(cmdbDataModel, monitorDataModel), Collections.emptyList());
+
+        assertThat(graph.getVersion()).isEqualTo(1L);
+        assertThat(graph.getDataModelIds()).containsExactlyInAnyOrder(cmdbDataModel.getId(), monitorDataModel.getId());
+        assertThat(referenceByNames(graph, "cmdb", "host")).containsExactlyInAnyOrder("cmdb:app.host", "monitor:instance.host");
+        assertThat(referenceByNames(graph, "cmdb", "app")).containsExactly("monitor:instance.app");
+        assertThat(referenceByNames(graph, "monitor", "instance")).isEmpty();
+        assertThat(graph.getPackageNode("monitor").getReferenceToEdges()).hasSize(2);
+
+        PluginPackageEntityDto appDto = graph.getEntityNode("cmdb", "app").toEntityDto();
+        assertThat(appDto.getDataModelVersion()).isEqualTo(1);
+        assertThat(appDto.getAttributes()).extracting("name").containsExactly("id", "host");
+        assertThat(appDto.getAttributes().get(1).getRefEntityName()).isEqualTo("host");
+    }
+
+    @Test
+    public void givenNewDataModelWhenUpdateGraphThenShouldReplaceEdgesOfThePackageOnly() {
+        PluginPackageDataModel cmdbDataModel = mockDataModel("cmdb", 1);
+        PluginPackageEntity host = mockEntity(cmdbDataModel, "host");
+        PluginPackageEntity app = mockEntity(cmdbDataModel, "app");
+        mockAttribute(app, "host", idOf(host));
+
+        PluginPackageDataModel monitorDataModel = mockDataModel("monitor", 1);
+        PluginPackageEntity instance = mockEntity(monitorDataModel, "instance");
+        mockAttribute(instance, "app", idOf(app));
+        mockAttribute(instance, "host", idOf(host));
+
+        DataModelGraph graph = DataModelGraph.EMPTY.withDataModels(Arrays.asList(cmdbDataModel, monitorDataModel), Collections.emptyList());
+
+        // monitor drops its reference to host
+        PluginPackageDataModel newMonitorDataModel = mockDataModel("monitor", 2);
+        PluginPackageEntity newInstance = mockEntity(newMonitorDataModel, "instance");
+        mockAttribute(newInstance, "app", idOf(app));
+        DataModelGraph updatedGraph = graph.withDataModels(Collections.singletonList(newMonitorDataModel), Collections.emptyList());
+
+        assertThat(updatedGraph.getVersion()).isEqualTo(2L);
+        assertThat(updatedGraph.getPackageNode("monitor").getVersion()).isEqualTo(2);
+        assertThat(referenceByNames(updatedGraph, "cmdb", "host")).containsExactly("cmdb:app.host");
+        assertThat(referenceByNames(updatedGraph, "cmdb", "app")).containsExactly("monitor:instance.app");
+        // the previous snapshot is left as it was
+        assertThat(referenceByNames(graph, "cmdb", "host")).containsExactlyInAnyOrder("cmdb:app.host", "monitor:instance.host");
+
+        // monitor still refers to the entities of the first cmdb data model, which are not referred by in the new one
+        PluginPackageDataModel newCmdbDataModel = mockDataModel("cmdb", 2);
+        PluginPackageEntity newHost = mockEntity(newCmdbDataModel, "host");
+        PluginPackageEntity newApp = mockEntity(newCmdbDataModel, "app");
+        mockAttribute(newApp, "host", idOf(newHost));
+        updatedGraph = updatedGraph.withDataModels(Collections.singletonList(newCmdbDataModel), Collections.emptyList());
+
+        assertThat(referenceByNames(updatedGraph, "cmdb", "host")).containsExactly("cmdb:app.host");
+        assertThat(referenceByNames(updatedGraph, "cmdb", "app")).isEmpty();
+        assertThat(updatedGraph.getEntityNode("monitor", "instance")).isNotNull();
+
+        updatedGraph = updatedGraph.withDataModels(Collections.emptyList(), Collections.singletonList("cmdb"));
+        assertThat(updatedGraph.getPackageNode("cmdb")).isNull();
+        assertThat(referenceByNames(updatedGraph, "cmdb", "host")).isEmpty();
+        assertThat(updatedGraph.getDataModelIds()).containsExactly(newMonitorDataModel.getId());
+    }
+
+    private List<String> referenceByNames(DataModelGraph graph, String packageName, String entityName) {
+        return graph.getReferenceByEdges(packageName, entityName).stream()
+                .map(edge -> String.format("%s:%s.%s", edge.getSourceEntity().getPackageName(), edge.getSourceEntity().getName(),
+                        edge.copySourceAttribute().getName()))
+                .collect(Collectors.toList());
+    }
+
+    private PluginPackageDataModel mockDataModel(String packageName, int version) {
+        PluginPackageDataModel dataModel = new PluginPackageDataModel(null, version, packageName, false, null, null,
+                "PLUGIN_PACKAGE", System.currentTimeMillis(), new LinkedHashSet<>());
+        dataModel.initId();
+        return dataModel;
+    }
+
+    private PluginPackageEntity mockEntity(PluginPackageDataModel dataModel, String name) {
+        PluginPackageEntity entity = new PluginPackageEntity(dataModel, name, name, name);
+        entity.initId();
+        entity.setPluginPackageAttributeList(new ArrayList<>());
+        dataModel.getPluginPackageEntities().add(entity);
+        mockAttribute(entity, "id", null);
+        return entity;
+    }
+
+    private PluginPackageAttribute mockAttribute(PluginPackageEntity entity, String name, PluginPackageAttribute referenceAttribute) {
+        PluginPackageAttribute attribute = new PluginPackageAttribute(entity, referenceAttribute, name, name, referenceAttribute == null ? "str" : "ref");
+        attribute.initId();
+        entity.getPluginPackageAttributeList().add(attribute);
+        return attribute;
+    }
+
+    private PluginPackageAttribute idOf(PluginPackageEntity entity) {
+        return entity.getPluginPackageAttributeList().get(0);
+    }
+}
@@ -0,0 +1,184 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.PluginProperties;
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageAttribute;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageDataModel;
+import com.webank.wecube.platform.core.domain.plugin.PluginPackageEntity;
+import com.webank.wecube.platform.core.dto.DataModelRefreshJobDto;
+import com.webank.wecube.platform.core.dto.DataModelRefreshJobDto.PackageRefreshDto;
+import com.webank.wecube.platform.core.dto.PluginPackageAttributeDto;
+import com.webank.wecube.platform.core.dto.PluginPackageDataModelDto;
+import com.webank.wecube.platform.core.dto.PluginPackageEntityDto;
+import com.webank.wecube.platform.core.service.PluginPackageDataModelService;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class DataModelRefreshServiceTest {
+    private static final long JOB_TIMEOUT_MILLIS = 10000L;
+
+    @Mock
+    private PluginPackageDataModelService pluginPackageDataModelService;
+    @Mock
+    private DataModelGraphIndex dataModelGraphIndex;
+
+    private DataModelRefreshService dataModelRefreshService;
+    private DataModelGraph graph;
+
+    @Before
+    public void setup() {
+        PluginPackageDataModel cmdbDataModel = mockDataModel("cmdb", 3, true);
+        PluginPackageEntity host = mockEntity(cmdbDataModel, "host");
+        PluginPackageEntity app = mockEntity(cmdbDataModel, "app");
+        app.getPluginPackageAttributeList().add(new PluginPackageAttribute(app, host.getPluginPackageAttributeList().get(0), "host", "host", "ref"));
+
+        PluginPackageDataModel monitorDataModel = mockDataModel("monitor", 1, true);
+        mockEntity(monitorDataModel, "instance");
+
+        PluginPackageDataModel staticDataModel = mockDataModel("static", 1, false);
+        mockEntity(staticDataModel, "item");
+
+        graph = DataModelGraph.EMPTY.withDataModels(Arrays.asList(cmdbDataModel, monitorDataModel, staticDataModel), Collections.emptyList());
+        when(dataModelGraphIndex.getGraph()).thenReturn(graph);
+
+        PluginProperties pluginProperties = new ApplicationProperties().new PluginProperties();
+        pluginProperties.setDataModelRefreshParallelism(2);
+        pluginProperties.setDataModelRefreshJobHistorySize(1);
+
+        dataModelRefreshService = new DataModelRefreshService();
+        ReflectionTestUtils.setField(dataModelRefreshService, "pluginPackageDataModelService", pluginPackageDataModelService);
+        ReflectionTestUtils.setField(dataModelRefreshService, "dataModelGraphIndex", dataModelGraphIndex);
+        ReflectionTestUtils.setField(dataModelRefreshService, "pluginProperties", pluginProperties);
+        dataModelRefreshService.init();
+    }
+
+    @After
+    public void tearDown() {
+        dataModelRefreshService.destroy();
+    }
+
+    @Test
+    public void givenDynamicPackagesWhenRefreshThenShouldSkipUnchangedAndRegisterChangedOnes() throws InterruptedException {
+        // cmdb returns the same data model as stored
+        when(pluginPackageDataModelService.pullDynamicDataModel("cmdb")).thenReturn(mockPulledDataModel("cmdb",
+                entityDtosOf("cmdb")));
+
+        // monitor gets a new entity
+        List<PluginPackageEntityDto> monitorEntities = entityDtosOf("monitor");
+        monitorEntities.add(new PluginPackageEntityDto(null, "alarm", "alarm", "alarm",
+                new ArrayList<>(Collections.singletonList(new PluginPackageAttributeDto(null, "id", "id", "str", null, null, null)))));
+        PluginPackageDataModelDto pulledMonitorDataModel = mockPulledDataModel("monitor", monitorEntities);
+        when(pluginPackageDataModelService.pullDynamicDataModel("monitor")).thenReturn(pulledMonitorDataModel);
+        PluginPackageDataModelDto registeredMonitorDataModel = mockPulledDataModel("monitor", monitorEntities);
+        registeredMonitorDataModel.setVersion(2);
+        when(pluginPackageDataModelService.register(pulledMonitorDataModel, true)).thenReturn(registeredMonitorDataModel);
+
+        DataModelRefreshJobDto submittedJob = dataModelRefreshService.startRefresh(null);
+        assertThat(submittedJob.getTotalPackages()).isEqualTo(2);
+
+        DataModelRefreshJobDto job = waitForJob(submittedJob.getJobId());
+        assertThat(job.getFinishedPackages()).isEqualTo(2);
+        assertThat(job.getUpdatedPackages()).isEqualTo(1);
+        assertThat(job.getFailedPackages()).isEqualTo(0);
+
+        PackageRefreshDto cmdbRefresh = findPackage(job, "cmdb");
+        assertThat(cmdbRefresh.getStatus()).isEqualTo(DataModelRefreshJob.PACKAGE_STATUS_UNCHANGED);
+        assertThat(cmdbRefresh.getDataModelVersion()).isEqualTo(3);
+
+        PackageRefreshDto monitorRefresh = findPackage(job, "monitor");
+        assertThat(monitorRefresh.getStatus()).isEqualTo(DataModelRefreshJob.PACKAGE_STATUS_UPDATED);
+        assertThat(monitorRefresh.getPreviousDataModelVersion()).isEqualTo(1);
+        assertThat(monitorRefresh.getDataModelVersion()).isEqualTo(2);
+        assertThat(monitorRefresh.getAddedEntities()).containsExactly("alarm");
+        assertThat(monitorRefresh.getChangedEntities()).isEmpty();
+
+        verify(pluginPackageDataModelService, never()).pullDynamicDataModel("static");
+        verify(pluginPackageDataModelService, times(1)).register(any(PluginPackageDataModelDto.class), eq(true));
+    }
+
+    @Test
+    public void givenFailedPullWhenRefreshThenShouldReportFailureAndGoOn() throws InterruptedException {
+        when(pluginPackageDataModelService.pullDynamicDataModel("cmdb")).thenThrow(new WecubeCoreException("Request error! The error message is [timeout]"));
+        when(pluginPackageDataModelService.pullDynamicDataModel("monitor")).thenReturn(mockPulledDataModel("monitor",
+                entityDtosOf("monitor")));
+
+        DataModelRefreshJobDto job = waitForJob(dataModelRefreshService.startRefresh(Arrays.asList("cmdb", "monitor", "cmdb")).getJobId());
+
+        assertThat(job.getTotalPackages()).isEqualTo(2);
+        assertThat(job.getFailedPackages()).isEqualTo(1);
+        assertThat(findPackage(job, "cmdb").getMessage()).contains("timeout");
+        assertThat(findPackage(job, "monitor").getStatus()).isEqualTo(DataModelRefreshJob.PACKAGE_STATUS_UNCHANGED);
+        verify(pluginPackageDataModelService, never()).register(any(PluginPackageDataModelDto.class), eq(true));
+
+        // only the latest finished job is kept
+        DataModelRefreshJobDto nextJob = waitForJob(dataModelRefreshService.startRefresh(Collections.singletonList("monitor")).getJobId());
+        assertThat(nextJob.getFinishedPackages()).isEqualTo(1);
+        assertThatThrownBy(() -> dataModelRefreshService.getJob(job.getJobId()))
+                .isInstanceOf(WecubeCoreException.class)
+                .hasMessageContaining("is not found");
+    }
+
+    private DataModelRefreshJobDto waitForJob(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + JOB_TIMEOUT_MILLIS;
+        DataModelRefreshJobDto job = dataModelRefreshService.getJob(jobId);
+        while (!DataModelRefreshJob.STATUS_COMPLETED.equals(job.getStatus()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20L);
+            job = dataModelRefreshService.getJob(jobId);
+        }
+        assertThat(job.getStatus()).isEqualTo(DataModelRefreshJob.STATUS_COMPLETED);
+        return job;
+    }
+
+    private PackageRefreshDto findPackage(DataModelRefreshJobDto job, String packageName) {
+        return job.getPackages().stream().filter(packageRefreshDto -> packageName.equals(packageRefreshDto.getPackageName()))
+                .findFirst().orElseThrow(() -> new AssertionError("No refresh of package " + packageName));
+    }
+
+    private List<PluginPackageEntityDto> entityDtosOf(String packageName) {
+        List<PluginPackageEntityDto> entityDtos = new ArrayList<>();
+        graph.getPackageNode(packageName).getEntityNodes().forEach(entityNode -> entityDtos.add(entityNode.toEntityDto()));
+        return entityDtos;
+    }
+
+    private PluginPackageDataModelDto mockPulledDataModel(String packageName, List<PluginPackageEntityDto> entities) {
+        PluginPackageDataModelDto dataModelDto = new PluginPackageDataModelDto();
+        dataModelDto.setPackageName(packageName);
+        dataModelDto.setDynamic(true);
+        dataModelDto.setPluginPackageEntities(new LinkedHashSet<>(entities));
+        return dataModelDto;
+    }
+
+    private PluginPackageDataModel mockDataModel(String packageName, int version, boolean dynamic) {
+        PluginPackageDataModel dataModel = new PluginPackageDataModel(null, version, packageName, dynamic, "/data-model", "GET",
+                PluginPackageDataModelDto.Source.DATA_MODEL_ENDPOINT.name(), System.currentTimeMillis(), new LinkedHashSet<>());
+        dataModel.initId();
+        return dataModel;
+    }
+
+    private PluginPackageEntity mockEntity(PluginPackageDataModel dataModel, String name) {
+        PluginPackageEntity entity = new PluginPackageEntity(dataModel, name, name, name);
+        entity.initId();
+        entity.setPluginPackageAttributeList(new ArrayList<>());
+        entity.getPluginPackageAttributeList().add(new PluginPackageAttribute(entity, null, "id", "id", "str"));
+        dataModel.getPluginPackageEntities().add(entity);
+        return entity;
+    }
+}
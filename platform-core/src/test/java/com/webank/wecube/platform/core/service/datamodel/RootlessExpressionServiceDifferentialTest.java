@@ -0,0 +1,241 @@
+package com.webank.wecube.platform.core.service.datamodel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+import com.webank.wecube.platform.core.dto.DmeFilterDto;
+import com.webank.wecube.platform.core.dto.DmeLinkFilterDto;
+import com.webank.wecube.platform.core.dto.Filter;
+import com.webank.wecube.platform.core.parser.datamodel.DataModelExpressionParser;
+import com.webank.wecube.platform.core.support.datamodel.DataModelServiceStub;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+/**
+ * Compares the level-by-level fetching of {@link RootlessExpressionServiceImpl}, sequential and parallel,
+ * with a reference evaluation which resolves every id one by one as the original implementation did.
+ */
+public class RootlessExpressionServiceDifferentialTest {
+    private static final String GATEWAY_URL = "localhost:9999";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<String, List<Map<String, Object>>> entityDataMap = new HashMap<>();
+    private final Map<String, AtomicInteger> requestCountMap = new ConcurrentHashMap<>();
+    private final List<DataModelServiceStub> stubs = new ArrayList<>();
+
+    @Before
+    public void setup() {
+        Random random = new Random(20200301L);
+        addEntityData("subsys_design", 3, random, Collections.emptyMap());
+        addEntityData("subsys", 6, random, Collections.singletonMap("subsys_design", "subsys_design"));
+        addEntityData("unit_design", 5, random, Collections.singletonMap("subsys_design", "subsys_design"));
+        Map<String, String> unitRefs = new LinkedHashMap<>();
+        unitRefs.put("subsys", "subsys");
+        unitRefs.put("unit_design", "unit_design");
+        addEntityData("unit", 20, random, unitRefs);
+        addEntityData("running_instance", 40, random, Collections.singletonMap("unit", "unit"));
+    }
+
+    @After
+    public void tearDown() {
+        stubs.forEach(DataModelServiceStub::destroy);
+    }
+
+    @Test
+    public void entityFetchShouldMatchReference() {
+        List<Filter> filters = Collections.singletonList(new Filter("state", "eq", "created"));
+        verifyAgainstReference("wecmdb:unit.key_name",
+                Collections.singletonList(new Hop("unit", null, false)), "key_name", filters);
+    }
+
+    @Test
+    public void refToChainShouldMatchReference() {
+        verifyAgainstReference("wecmdb:unit.unit_design>wecmdb:unit_design.subsys_design>wecmdb:subsys_design.code",
+                Arrays.asList(new Hop("unit", null, false), new Hop("unit_design", "unit_design", false),
+                        new Hop("subsys_design", "subsys_design", false)), "code", null);
+    }
+
+    @Test
+    public void refByChainShouldMatchReference() {
+        verifyAgainstReference("wecmdb:subsys~(subsys)wecmdb:unit~(unit)wecmdb:running_instance.key_name",
+                Arrays.asList(new Hop("subsys", null, false), new Hop("unit", "subsys", true),
+                        new Hop("running_instance", "unit", true)), "key_name", null);
+    }
+
+    @Test
+    public void mixedChainWithFiltersShouldMatchReference() {
+        List<Filter> filters = Collections.singletonList(new Filter("state", "eq", "created"));
+        verifyAgainstReference("wecmdb:running_instance.unit>wecmdb:unit.unit_design>wecmdb:unit_design~(unit_design)wecmdb:unit.code",
+                Arrays.asList(new Hop("running_instance", null, false), new Hop("unit", "unit", false),
+                        new Hop("unit_design", "unit_design", false), new Hop("unit", "unit_design", true)), "code", filters);
+    }
+
+    private void verifyAgainstReference(String expression, List<Hop> hops, String fetchAttr, List<Filter> lastHopFilters) {
+        List<Object> expected = evaluateReference(hops, fetchAttr, lastHopFilters);
+        assertThat(expected).isNotEmpty();
+
+        for (int parallelism : new int[]{1, 4}) {
+            List<DmeLinkFilterDto> linkFilters = new ArrayList<>();
+            if (lastHopFilters != null) {
+                Hop lastHop = hops.get(hops.size() - 1);
+                linkFilters.add(new DmeLinkFilterDto(hops.size() - 1, "wecmdb", lastHop.entity, lastHopFilters));
+            }
+
+            requestCountMap.clear();
+            List<Object> actual = buildService(parallelism).fetchDataWithFilter(new DmeFilterDto(expression, linkFilters));
+
+            assertThat(actual).as("parallelism %d", parallelism).containsExactlyElementsOf(expected);
+            requestCountMap.forEach((url, count) -> assertThat(count.get()).as("requests to %s", url).isEqualTo(1));
+        }
+    }
+
+    private RootlessExpressionServiceImpl buildService(int parallelism) {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.setGatewayUrl(GATEWAY_URL);
+        DmeProperties dmeProperties = applicationProperties.new DmeProperties();
+        dmeProperties.setChainRequestParallelism(parallelism);
+
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+        server.expect(ExpectedCount.manyTimes(), requestTo(startsWith("http://" + GATEWAY_URL + "/wecmdb/entities/")))
+                .andRespond(this::respond);
+
+        DataModelServiceStub stub = new DataModelServiceStub();
+        ReflectionTestUtils.setField(stub, "jwtSsoRestTemplate", restTemplate);
+        ReflectionTestUtils.setField(stub, "dmeProperties", dmeProperties);
+        stub.init();
+        stubs.add(stub);
+
+        RootlessExpressionServiceImpl service = new RootlessExpressionServiceImpl(applicationProperties, stub);
+        ReflectionTestUtils.setField(service, "dataModelExpressionParser", new DataModelExpressionParser());
+        return service;
+    }
+
+    /**
+     * Plays the role of the plugin data model API: lists all data of the entity, or the data whose attribute equals the value.
+     */
+    private ClientHttpResponse respond(ClientHttpRequest request) throws IOException {
+        String url = request.getURI().toString();
+        requestCountMap.computeIfAbsent(url, key -> new AtomicInteger()).incrementAndGet();
+
+        List<String> pathSegments = UriComponentsBuilder.fromUri(request.getURI()).build().getPathSegments();
+        String entity = pathSegments.get(pathSegments.size() - 1);
+        String filter = UriComponentsBuilder.fromUri(request.getURI()).build().getQueryParams().getFirst("filter");
+
+        List<Map<String, Object>> data = entityDataMap.get(entity);
+        if (filter != null) {
+            String[] attrToValue = filter.split(",", 2);
+            data = findData(entity, attrToValue[0], attrToValue[1]);
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "OK");
+        body.put("message", "Success");
+        body.put("data", data);
+        return withSuccess(objectMapper.writeValueAsString(body), MediaType.APPLICATION_JSON).createResponse(request);
+    }
+
+    private List<Object> evaluateReference(List<Hop> hops, String fetchAttr, List<Filter> lastHopFilters) {
+        List<List<Map<String, Object>>> responses = Collections.singletonList(
+                applyFilters(entityDataMap.get(hops.get(0).entity), hops.size() == 1 ? lastHopFilters : null));
+
+        for (int i = 1; i < hops.size(); i++) {
+            Hop hop = hops.get(i);
+            List<Filter> filters = (i == hops.size() - 1) ? lastHopFilters : null;
+            List<List<Map<String, Object>>> nextResponses = new ArrayList<>();
+            for (List<Map<String, Object>> response : responses) {
+                for (Map<String, Object> row : sortById(response)) {
+                    if (hop.refBy) {
+                        nextResponses.add(applyFilters(findData(hop.entity, hop.attr, String.valueOf(row.get("id"))), filters));
+                    } else {
+                        nextResponses.add(applyFilters(findData(hop.entity, "id", String.valueOf(row.get(hop.attr))), filters));
+                    }
+                }
+            }
+            responses = nextResponses;
+        }
+
+        List<Object> result = new ArrayList<>();
+        responses.forEach(response -> sortById(response).forEach(row -> result.add(row.get(fetchAttr))));
+        return result;
+    }
+
+    private List<Map<String, Object>> findData(String entity, String attr, String value) {
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> row : entityDataMap.get(entity)) {
+            if (value.equals(String.valueOf(row.get(attr)))) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> applyFilters(List<Map<String, Object>> data, List<Filter> filters) {
+        if (filters == null) {
+            return data;
+        }
+        List<Map<String, Object>> result = new ArrayList<>();
+        for (Map<String, Object> row : data) {
+            if (filters.stream().allMatch(filter -> filter.getValue().equals(row.get(filter.getName())))) {
+                result.add(row);
+            }
+        }
+        return result;
+    }
+
+    private List<Map<String, Object>> sortById(List<Map<String, Object>> data) {
+        List<Map<String, Object>> result = new ArrayList<>(data);
+        result.sort(Comparator.comparing(row -> String.valueOf(row.get("id"))));
+        return result;
+    }
+
+    private void addEntityData(String entity, int size, Random random, Map<String, String> refAttrToEntity) {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", String.format("%s_%04d", entity, i));
+            row.put("key_name", String.format("%s-%d", entity.toUpperCase(), i));
+            row.put("code", String.format("C%d", random.nextInt(1000)));
+            row.put("state", random.nextBoolean() ? "created" : "changed");
+            refAttrToEntity.forEach((attr, refEntity) -> {
+                List<Map<String, Object>> refData = entityDataMap.get(refEntity);
+                row.put(attr, refData.get(random.nextInt(refData.size())).get("id"));
+            });
+            data.add(row);
+        }
+        // the plugin does not return data in id order
+        Collections.shuffle(data, random);
+        entityDataMap.put(entity, data);
+    }
+
+    private static class Hop {
+        private final String entity;
+        private final String attr;
+        private final boolean refBy;
+
+        Hop(String entity, String attr, boolean refBy) {
+            this.entity = entity;
+            this.attr = attr;
+            this.refBy = refBy;
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
+public class EntityDataCacheTests {
+    DmeProperties dmeProperties;
+    EntityDataCache entityDataCache;
+
+    @Before
+    public void setup() {
+        dmeProperties = new ApplicationProperties().new DmeProperties();
+        dmeProperties.setEntityDataCacheEnabled(true);
+        dmeProperties.setEntityDataCacheDefaultTtlSeconds(60);
+        dmeProperties.getEntityDataCacheEntityTtlSeconds().put("wecmdb:host", 0);
+
+        entityDataCache = new EntityDataCache();
+        ReflectionTestUtils.setField(entityDataCache, "dmeProperties", dmeProperties);
+        entityDataCache.init();
+    }
+
+    @Test
+    public void givenCacheDisabledWhenCheckCacheableThenShouldNotCache() {
+        dmeProperties.setEntityDataCacheEnabled(false);
+        Assert.assertFalse(entityDataCache.isCacheable("wecmdb", "unit"));
+    }
+
+    @Test
+    public void givenZeroTtlEntityWhenCheckCacheableThenShouldNotCache() {
+        Assert.assertTrue(entityDataCache.isCacheable("wecmdb", "unit"));
+        Assert.assertFalse(entityDataCache.isCacheable("wecmdb", "host"));
+    }
+
+    @Test
+    public void givenCachedResponseWhenQueryAgainThenShouldNotSendRequest() {
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(ExpectedCount.times(2), requestTo("http://localhost:9999/wecmdb/entities/unit/query"))
+                .andExpect(method(HttpMethod.POST))
+                .andRespond(withSuccess("{\"status\":\"OK\",\"message\":\"Success\",\"data\":[{\"id\":\"0008_01\"}]}",
+                        MediaType.APPLICATION_JSON));
+
+        StandardEntityOperationRestClient restClient = new StandardEntityOperationRestClient(restTemplate)
+                .withEntityDataCache(entityDataCache);
+        EntityRouteDescription entityDef = new EntityRouteDescription();
+        entityDef.setPackageName("wecmdb");
+        entityDef.setEntityName("unit");
+        entityDef.setHttpHost("localhost");
+        entityDef.setHttpPort("9999");
+
+        EntityQuerySpecification querySpec = new EntityQuerySpecification();
+        querySpec.setCriteria(new EntityQueryCriteria("id", "0008_01"));
+
+        StandardEntityOperationResponseDto first = restClient.query(entityDef, querySpec);
+        StandardEntityOperationResponseDto second = restClient.query(entityDef, querySpec);
+        Assert.assertNotSame(first, second);
+        Assert.assertEquals(first.getData(), second.getData());
+        Assert.assertEquals(1L, entityDataCache.getStatistics().getHitCount());
+        Assert.assertEquals(1L, entityDataCache.getStatistics().getMissCount());
+
+        entityDataCache.invalidate("wecmdb", "unit");
+        Assert.assertEquals(0L, entityDataCache.getStatistics().getSize());
+        restClient.query(entityDef, querySpec);
+
+        server.verify();
+    }
+
+    @Test
+    public void givenErrorResponseWhenPutThenShouldNotCache() {
+        StandardEntityOperationResponseDto response = new StandardEntityOperationResponseDto();
+        response.setStatus(StandardEntityOperationResponseDto.STATUS_ERROR);
+        entityDataCache.put("wecmdb", "unit", "{}", response, entityDataCache.getGeneration());
+
+        Assert.assertNull(entityDataCache.get("wecmdb", "unit", "{}"));
+    }
+
+    @Test
+    public void givenMoreRecordsThanCapacityWhenPutThenShouldEvict() {
+        dmeProperties.setEntityDataCacheMaxRecords(10);
+        entityDataCache.init();
+
+        for (int i = 0; i < 5; i++) {
+            List<Object> data = new ArrayList<>();
+            for (int j = 0; j < 5; j++) {
+                data.add(j);
+            }
+            StandardEntityOperationResponseDto response = new StandardEntityOperationResponseDto();
+            response.setStatus(StandardEntityOperationResponseDto.STATUS_OK);
+            response.setData(data);
+            entityDataCache.put("wecmdb", "unit", String.valueOf(i), response, entityDataCache.getGeneration());
+        }
+
+        Assert.assertTrue(entityDataCache.getStatistics().getSize() < 5);
+    }
+
+    @Test
+    public void givenCachedResponseWhenCallerModifiesItThenShouldNotChangeCachedResponse() {
+        StandardEntityOperationResponseDto response = buildOkResponse("0008_01");
+        entityDataCache.put("wecmdb", "unit", "{}", response, entityDataCache.getGeneration());
+        firstRecord(response).put("id", "modified after put");
+
+        StandardEntityOperationResponseDto cachedResponse = entityDataCache.get("wecmdb", "unit", "{}");
+        Assert.assertEquals("0008_01", firstRecord(cachedResponse).get("id"));
+        firstRecord(cachedResponse).put("id", "modified after get");
+        ((List<?>) cachedResponse.getData()).clear();
+
+        StandardEntityOperationResponseDto anotherCachedResponse = entityDataCache.get("wecmdb", "unit", "{}");
+        Assert.assertEquals(1, ((List<?>) anotherCachedResponse.getData()).size());
+        Assert.assertEquals("0008_01", firstRecord(anotherCachedResponse).get("id"));
+    }
+
+    @Test
+    public void givenInvalidationDuringQueryWhenPutThenShouldNotCacheStaleResponse() {
+        long queryGeneration = entityDataCache.getGeneration();
+        entityDataCache.invalidate("wecmdb", "unit");
+        entityDataCache.put("wecmdb", "unit", "{}", buildOkResponse("0008_01"), queryGeneration);
+        Assert.assertNull(entityDataCache.get("wecmdb", "unit", "{}"));
+
+        queryGeneration = entityDataCache.getGeneration();
+        entityDataCache.invalidateAll();
+        entityDataCache.put("wecmdb", "unit", "{}", buildOkResponse("0008_01"), queryGeneration);
+        Assert.assertNull(entityDataCache.get("wecmdb", "unit", "{}"));
+
+        entityDataCache.put("wecmdb", "unit", "{}", buildOkResponse("0008_01"), entityDataCache.getGeneration());
+        Assert.assertNotNull(entityDataCache.get("wecmdb", "unit", "{}"));
+    }
+
+    private StandardEntityOperationResponseDto buildOkResponse(String id) {
+        Map<String, Object> record = new HashMap<>();
+        record.put("id", id);
+        List<Object> data = new ArrayList<>();
+        data.add(record);
+
+        StandardEntityOperationResponseDto response = new StandardEntityOperationResponseDto();
+        response.setStatus(StandardEntityOperationResponseDto.STATUS_OK);
+        response.setData(data);
+        return response;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> firstRecord(StandardEntityOperationResponseDto response) {
+        return (Map<String, Object>) ((List<?>) response.getData()).get(0);
+    }
+}
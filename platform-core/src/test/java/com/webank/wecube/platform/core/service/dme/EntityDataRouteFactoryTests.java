@@ -0,0 +1,146 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.net.ConnectException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.ExpectedCount;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
+import com.webank.wecube.platform.core.domain.plugin.PluginInstance;
+import com.webank.wecube.platform.core.service.PluginInstanceService;
+
+@RunWith(MockitoJUnitRunner.class)
+public class EntityDataRouteFactoryTests {
+    @Mock
+    private PluginInstanceService pluginInstanceService;
+    @InjectMocks
+    private EntityDataRouteFactory entityDataRouteFactory = new EntityDataRouteFactory();
+
+    private DmeProperties dmeProperties;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.setGatewayUrl("localhost:9999");
+        dmeProperties = applicationProperties.new DmeProperties();
+
+        ReflectionTestUtils.setField(entityDataRouteFactory, "applicationProperties", applicationProperties);
+        ReflectionTestUtils.setField(entityDataRouteFactory, "dmeProperties", dmeProperties);
+    }
+
+    @Test
+    public void givenGatewayModeWhenDeduceThenShouldRouteThroughGateway() {
+        EntityRouteDescription entityDef = entityDataRouteFactory.deduceEntityDescription("wecmdb", "unit");
+
+        Assert.assertEquals("wecmdb", entityDef.getPackageName());
+        Assert.assertEquals("unit", entityDef.getEntityName());
+        Assert.assertEquals("localhost", entityDef.getHttpHost());
+        Assert.assertEquals("9999", entityDef.getHttpPort());
+    }
+
+    @Test
+    public void givenDirectModeForPackageWhenDeduceThenShouldRouteToPluginInstances() {
+        dmeProperties.getEntityDataRouteModes().put("wecmdb", EntityDataRouteFactory.ROUTE_MODE_DIRECT);
+        when(pluginInstanceService.getRunningPluginInstances("wecmdb"))
+                .thenReturn(Arrays.asList(buildPluginInstance("10.0.0.2"), buildPluginInstance("10.0.0.3")));
+
+        EntityRouteDescription entityDef = entityDataRouteFactory.deduceEntityDescription("wecmdb", "unit");
+        Assert.assertEquals("localhost", entityDef.getHttpHost());
+        Assert.assertEquals("9999", entityDef.getHttpPort());
+        Assert.assertEquals(2, entityDef.getDirectEndpoints().size());
+        Assert.assertEquals("20003", entityDef.getDirectEndpoints().get(0).getHttpPort());
+
+        Set<String> selectedHosts = new HashSet<>();
+        selectedHosts.add(entityDef.selectDirectEndpoint().getHttpHost());
+        selectedHosts.add(entityDef.selectDirectEndpoint().getHttpHost());
+        Assert.assertEquals(new HashSet<>(Arrays.asList("10.0.0.2", "10.0.0.3")), selectedHosts);
+
+        entityDef = entityDataRouteFactory.deduceEntityDescription("service-mgmt", "task");
+        Assert.assertTrue(entityDef.getDirectEndpoints().isEmpty());
+        Assert.assertNull(entityDef.selectDirectEndpoint());
+    }
+
+    @Test
+    public void givenUnavailableEndpointWhenSelectThenShouldSkipIt() {
+        dmeProperties.setEntityDataRouteMode(EntityDataRouteFactory.ROUTE_MODE_DIRECT);
+        when(pluginInstanceService.getRunningPluginInstances("wecmdb"))
+                .thenReturn(Arrays.asList(buildPluginInstance("10.0.0.2"), buildPluginInstance("10.0.0.3")));
+        EntityRouteDescription entityDef = entityDataRouteFactory.deduceEntityDescription("wecmdb", "unit");
+
+        EntityRouteEndpoint unavailableEndpoint = entityDef.getDirectEndpoints().get(0);
+        entityDef.markUnavailable(unavailableEndpoint);
+        for (int i = 0; i < 4; i++) {
+            Assert.assertSame(entityDef.getDirectEndpoints().get(1), entityDef.selectDirectEndpoint());
+        }
+
+        entityDef.markUnavailable(entityDef.getDirectEndpoints().get(1));
+        Assert.assertNull(entityDef.selectDirectEndpoint());
+    }
+
+    @Test
+    public void givenEndpointRefusingConnectionWhenQueryThenShouldFallBackToGateway() {
+        dmeProperties.setEntityDataRouteMode(EntityDataRouteFactory.ROUTE_MODE_DIRECT);
+        when(pluginInstanceService.getRunningPluginInstances("wecmdb"))
+                .thenReturn(Arrays.asList(buildPluginInstance("10.0.0.2")));
+        EntityRouteDescription entityDef = entityDataRouteFactory.deduceEntityDescription("wecmdb", "unit");
+
+        RestTemplate restTemplate = new RestTemplate();
+        MockRestServiceServer server = MockRestServiceServer.bindTo(restTemplate).build();
+        server.expect(ExpectedCount.once(), requestTo("http://10.0.0.2:20003/wecmdb/entities/unit/query"))
+                .andRespond(request -> {
+                    throw new ConnectException("Connection refused");
+                });
+        server.expect(ExpectedCount.times(2), requestTo("http://localhost:9999/wecmdb/entities/unit/query"))
+                .andRespond(withSuccess("{\"status\":\"OK\",\"message\":\"Success\",\"data\":[]}",
+                        MediaType.APPLICATION_JSON));
+
+        StandardEntityOperationRestClient restClient = new StandardEntityOperationRestClient(restTemplate);
+        EntityQuerySpecification querySpec = new EntityQuerySpecification();
+        Assert.assertEquals(StandardEntityOperationResponseDto.STATUS_OK,
+                restClient.query(entityDef, querySpec).getStatus());
+        Assert.assertFalse(entityDef.getDirectEndpoints().get(0).isAvailable());
+
+        // the refusing endpoint is skipped until its retry time
+        Assert.assertEquals(StandardEntityOperationResponseDto.STATUS_OK,
+                restClient.query(entityDef, querySpec).getStatus());
+        server.verify();
+    }
+
+    @Test
+    public void givenNoRunningInstanceWhenDeduceDirectRouteThenShouldFallBackToGateway() {
+        dmeProperties.setEntityDataRouteMode(EntityDataRouteFactory.ROUTE_MODE_DIRECT);
+        when(pluginInstanceService.getRunningPluginInstances("wecmdb"))
+                .thenThrow(new WecubeCoreException("No instance for plugin [wecmdb] is available."));
+
+        EntityRouteDescription entityDef = entityDataRouteFactory.deduceEntityDescription("wecmdb", "unit");
+        Assert.assertEquals("localhost", entityDef.getHttpHost());
+        Assert.assertEquals("9999", entityDef.getHttpPort());
+        Assert.assertNull(entityDef.selectDirectEndpoint());
+    }
+
+    private PluginInstance buildPluginInstance(String host) {
+        PluginInstance instance = new PluginInstance();
+        instance.setHost(host);
+        instance.setPort(20003);
+        return instance;
+    }
+}
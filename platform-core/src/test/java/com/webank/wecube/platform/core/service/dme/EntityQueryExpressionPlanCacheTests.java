@@ -0,0 +1,142 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
+public class EntityQueryExpressionPlanCacheTests {
+    EntityQueryExpressionPlanCache planCache;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.setGatewayUrl("localhost:9999");
+
+        EntityDataRouteFactory routeFactory = new EntityDataRouteFactory();
+        ReflectionTestUtils.setField(routeFactory, "applicationProperties", applicationProperties);
+
+        DmeProperties dmeProperties = applicationProperties.new DmeProperties();
+        dmeProperties.setExpressionPlanCacheSize(2);
+
+        planCache = new EntityQueryExpressionPlanCache();
+        ReflectionTestUtils.setField(planCache, "entityQueryExpressionParser", new EntityQueryExpressionParser());
+        ReflectionTestUtils.setField(planCache, "entityDataRouteFactory", routeFactory);
+        ReflectionTestUtils.setField(planCache, "dmeProperties", dmeProperties);
+        planCache.init();
+    }
+
+    @Test
+    public void givenSameExpressionWhenGetPlanThenShouldReuseCompiledPlan() {
+        String expr = "wecmdb:subsys.subsys_design>wecmdb:subsys_design.system_design>wecmdb:system_design.key_name";
+
+        EntityQueryExpressionPlan plan = planCache.getPlan(expr);
+        Assert.assertSame(plan, planCache.getPlan(expr));
+        Assert.assertEquals(3, plan.getExprNodeInfos().size());
+        Assert.assertEquals(3, plan.getEntityRouteDescriptions().size());
+
+        EntityRouteDescription route = plan.getEntityRouteDescriptions().get(1);
+        Assert.assertEquals("wecmdb", route.getPackageName());
+        Assert.assertEquals("subsys_design", route.getEntityName());
+        Assert.assertEquals("localhost", route.getHttpHost());
+        Assert.assertEquals("9999", route.getHttpPort());
+    }
+
+    @Test
+    public void givenCompiledPlanWhenBuildLinkNodesThenShouldCreateFreshChain() {
+        EntityQueryExpressionPlan plan = planCache
+                .getPlan("wecmdb:zone_design~(zone_design2)wecmdb:zone_link_design");
+
+        EntityQueryLinkNode head = plan.buildEntityQueryLinkNodes();
+        EntityQueryLinkNode anotherHead = plan.buildEntityQueryLinkNodes();
+        Assert.assertNotSame(head, anotherHead);
+        Assert.assertTrue(head.isHeadLinkNode());
+        Assert.assertNotNull(head.getSucceedingNode());
+        Assert.assertTrue(head.getSucceedingNode().isTailLinkNode());
+        Assert.assertSame(head, head.getSucceedingNode().getPreviousNode());
+        Assert.assertEquals(EntityLinkType.REF_BY, head.getSucceedingNode().getExprNodeInfo().getEntityLinkType());
+        Assert.assertSame(plan.getEntityRouteDescriptions().get(1),
+                head.getSucceedingNode().getEntityRouteDescription());
+    }
+
+    @Test
+    public void givenInvalidationWhenGetPlanThenShouldRecompile() {
+        String expr = "we-cmdb:system_design{attr1 eq 'ABC'}";
+        EntityQueryExpressionPlan plan = planCache.getPlan(expr);
+
+        planCache.invalidateAll();
+        Assert.assertEquals(0, planCache.size());
+        Assert.assertNotSame(plan, planCache.getPlan(expr));
+    }
+
+    @Test
+    public void givenTransactionWhenInvalidateAfterCompletionThenShouldKeepPlansUntilCompleted() {
+        String expr = "we-cmdb:system_design";
+        EntityQueryExpressionPlan plan = planCache.getPlan(expr);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            planCache.invalidateAllAfterCompletion();
+            Assert.assertSame(plan, planCache.getPlan(expr));
+
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager
+                    .getSynchronizations()) {
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+            }
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        Assert.assertEquals(0, planCache.size());
+        Assert.assertNotSame(plan, planCache.getPlan(expr));
+    }
+
+    @Test
+    public void givenNoTransactionWhenInvalidateAfterCompletionThenShouldInvalidateAtOnce() {
+        planCache.getPlan("we-cmdb:system_design");
+
+        planCache.invalidateAllAfterCompletion();
+        Assert.assertEquals(0, planCache.size());
+    }
+
+    @Test
+    public void givenInvalidationDuringCompileWhenGetPlanThenShouldNotKeepPlan() {
+        EntityQueryExpressionPlanCache racingPlanCache = new EntityQueryExpressionPlanCache() {
+            @Override
+            protected EntityQueryExpressionPlan compile(String entityLinkExpr) {
+                EntityQueryExpressionPlan plan = super.compile(entityLinkExpr);
+                invalidateAll();
+                return plan;
+            }
+        };
+        ReflectionTestUtils.setField(racingPlanCache, "entityQueryExpressionParser",
+                ReflectionTestUtils.getField(planCache, "entityQueryExpressionParser"));
+        ReflectionTestUtils.setField(racingPlanCache, "entityDataRouteFactory",
+                ReflectionTestUtils.getField(planCache, "entityDataRouteFactory"));
+        ReflectionTestUtils.setField(racingPlanCache, "dmeProperties",
+                ReflectionTestUtils.getField(planCache, "dmeProperties"));
+        racingPlanCache.init();
+
+        Assert.assertNotNull(racingPlanCache.getPlan("we-cmdb:system_design"));
+        Assert.assertEquals(0, racingPlanCache.size());
+    }
+
+    @Test
+    public void givenMoreExpressionsThanCapacityWhenGetPlanThenShouldStayBounded() {
+        planCache.getPlan("we-cmdb:unit");
+        planCache.getPlan("we-cmdb:host");
+        planCache.getPlan("we-cmdb:system_design");
+
+        Assert.assertTrue(planCache.size() <= 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void givenBlankExpressionWhenGetPlanThenShouldFail() {
+        planCache.getPlan(" ");
+    }
+}
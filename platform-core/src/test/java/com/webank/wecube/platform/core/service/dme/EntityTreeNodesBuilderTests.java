@@ -0,0 +1,95 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+public class EntityTreeNodesBuilderTests {
+
+    @Test
+    public void givenLinkedEntitiesWhenBuildThenShouldAttachEachNodeAndEdgeOnce() {
+        EntityDataDelegate unit = buildEntityDataDelegate("unit", "0008_01", null);
+        EntityDataDelegate host1 = buildEntityDataDelegate("host", "0010_01", unit);
+        EntityDataDelegate host2 = buildEntityDataDelegate("host", "0010_02", unit);
+
+        EntityTreeNodesBuilder builder = new EntityTreeNodesBuilder();
+        builder.addEntityDataDelegate(unit).addEntityDataDelegate(host1).addEntityDataDelegate(host2);
+
+        List<TreeNode> treeNodes = builder.build();
+        Assert.assertEquals(3, treeNodes.size());
+        Assert.assertEquals("0010_01", treeNodes.get(1).getRootId());
+
+        TreeNode unitNode = builder.findTreeNode("wecmdb", "unit", "0008_01");
+        Assert.assertSame(unitNode, treeNodes.get(0));
+        Assert.assertEquals(2, unitNode.getChildren().size());
+        Assert.assertSame(unitNode, builder.findTreeNode("wecmdb", "host", "0010_02").getParent());
+    }
+
+    @Test
+    public void givenListenerWhenBuildThenShouldStreamEachNewNodeOnceInCreationOrder() {
+        EntityDataDelegate unit = buildEntityDataDelegate("unit", "0008_01", null);
+        EntityDataDelegate host = buildEntityDataDelegate("host", "0010_01", unit);
+
+        List<TreeNode> streamedNodes = new ArrayList<>();
+        EntityTreeNodesBuilder builder = new EntityTreeNodesBuilder(streamedNodes::add);
+        builder.addEntityDataDelegate(host).addEntityDataDelegate(unit).addEntityDataDelegate(host);
+
+        Assert.assertEquals(builder.build(), streamedNodes);
+        Assert.assertEquals("0010_01", streamedNodes.get(0).getRootId());
+        Assert.assertEquals("0008_01", streamedNodes.get(1).getRootId());
+    }
+
+    @Test
+    public void givenLargeSyntheticGraphsWhenBuildThenShouldLookUpEachNodeAConstantNumberOfTimes() {
+        int fanOut = 10;
+        for (int size : new int[] { 10000, 50000, 100000 }) {
+            int roots = size / (fanOut + 1);
+            EntityTreeNodesBuilder builder = buildSyntheticGraph(roots, fanOut);
+
+            Assert.assertEquals(roots * (fanOut + 1), builder.size());
+            // one index lookup per root, two per child for itself and its parent,
+            // however many nodes were built before
+            Assert.assertEquals(roots + 2L * roots * fanOut, builder.getIndexLookups());
+
+            List<TreeNode> treeNodes = builder.build();
+            for (int i = 0; i < roots; i++) {
+                TreeNode rootNode = treeNodes.get(i * (fanOut + 1));
+                Assert.assertEquals("unit_" + i, rootNode.getRootId());
+                Assert.assertNull(rootNode.getParent());
+                Assert.assertEquals(fanOut, rootNode.getChildren().size());
+                for (int j = 0; j < fanOut; j++) {
+                    TreeNode childNode = rootNode.getChildren().get(j);
+                    Assert.assertEquals("host_" + i + "_" + j, childNode.getRootId());
+                    Assert.assertSame(rootNode, childNode.getParent());
+                    Assert.assertSame(childNode, treeNodes.get(i * (fanOut + 1) + j + 1));
+                }
+            }
+        }
+    }
+
+    private EntityTreeNodesBuilder buildSyntheticGraph(int roots, int fanOut) {
+        EntityTreeNodesBuilder builder = new EntityTreeNodesBuilder();
+        for (int i = 0; i < roots; i++) {
+            EntityDataDelegate root = buildEntityDataDelegate("unit", "unit_" + i, null);
+            builder.addEntityDataDelegate(root);
+            for (int j = 0; j < fanOut; j++) {
+                builder.addEntityDataDelegate(buildEntityDataDelegate("host", "host_" + i + "_" + j, root));
+            }
+        }
+        return builder;
+    }
+
+    private EntityDataDelegate buildEntityDataDelegate(String entityName, String id, EntityDataDelegate prev) {
+        EntityDataDelegate delegate = new EntityDataDelegate();
+        delegate.setPackageName("wecmdb");
+        delegate.setEntityName(entityName);
+        delegate.setId(id);
+        delegate.setDisplayName(id);
+        if (prev != null) {
+            delegate.setPreviousEntity(prev);
+        }
+        return delegate;
+    }
+}
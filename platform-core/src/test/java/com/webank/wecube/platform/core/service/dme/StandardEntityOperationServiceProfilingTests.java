@@ -0,0 +1,82 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
+@RunWith(MockitoJUnitRunner.class)
+public class StandardEntityOperationServiceProfilingTests {
+    @Mock
+    private EntityQueryExecutor entityQueryExecutor;
+
+    private EntityOperationContext profiledContext;
+    private StandardEntityOperationService service;
+
+    @Before
+    public void setup() {
+        DmeProperties dmeProperties = new ApplicationProperties().new DmeProperties();
+        dmeProperties.setSlowOperationThresholdMillis(Long.MAX_VALUE);
+
+        service = new StandardEntityOperationService() {
+            @Override
+            protected EntityOperationContext buildEntityOperationContext(EntityOperationRootCondition condition) {
+                profiledContext = new EntityOperationContext();
+                profiledContext.setEntityQueryProfile(new EntityQueryProfile(condition));
+                return profiledContext;
+            }
+        };
+        ReflectionTestUtils.setField(service, "standardEntityQueryExcutor", entityQueryExecutor);
+        ReflectionTestUtils.setField(service, "dmeProperties", dmeProperties);
+    }
+
+    @Test
+    public void givenProfiledPreviewTreeWhenGenerateThenShouldCompleteProfile() {
+        when(entityQueryExecutor.generatePreviewTree(any(EntityOperationContext.class)))
+                .thenReturn(Arrays.asList(new TreeNode(), new TreeNode()));
+
+        service.generatePreviewTree(new EntityOperationRootCondition("wecmdb:unit", "0008_01"));
+
+        Assert.assertEquals(2, profiledContext.getEntityQueryProfile().getResultCount());
+    }
+
+    @Test
+    public void givenProfiledLinkOverviewWhenGenerateThenShouldCompleteProfile() {
+        EntityTreeNodesOverview overview = new EntityTreeNodesOverview();
+        overview.addHierarchicalEntityNodes(new TreeNode(), new TreeNode(), new TreeNode());
+        when(entityQueryExecutor.generateEntityLinkOverview(any(EntityOperationContext.class))).thenReturn(overview);
+
+        service.generateEntityLinkOverview(new EntityOperationRootCondition("wecmdb:unit", "0008_01"));
+
+        Assert.assertEquals(3, profiledContext.getEntityQueryProfile().getResultCount());
+    }
+
+    @Test
+    public void givenFailingProfiledOperationWhenGenerateThenShouldStillCompleteProfile() {
+        when(entityQueryExecutor.generatePreviewTree(any(EntityOperationContext.class))).thenAnswer(invocation -> {
+            Thread.sleep(20L);
+            throw new IllegalStateException("plugin unavailable");
+        });
+
+        try {
+            service.generatePreviewTree(new EntityOperationRootCondition("wecmdb:unit", "0008_01"));
+            Assert.fail("the failure of the executor should be thrown");
+        } catch (IllegalStateException e) {
+            Assert.assertEquals("plugin unavailable", e.getMessage());
+        }
+
+        Assert.assertTrue(profiledContext.getEntityQueryProfile().getTotalElapsedMillis() >= 20L);
+        Assert.assertEquals(0, profiledContext.getEntityQueryProfile().getResultCount());
+    }
+}
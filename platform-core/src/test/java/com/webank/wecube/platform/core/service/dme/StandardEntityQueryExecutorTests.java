@@ -0,0 +1,163 @@
+package com.webank.wecube.platform.core.service.dme;
+
+import static org.hamcrest.Matchers.contains;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withBadRequest;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import java.util.List;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import com.webank.wecube.platform.core.commons.ApplicationProperties;
+import com.webank.wecube.platform.core.commons.ApplicationProperties.DmeProperties;
+
+public class StandardEntityQueryExecutorTests {
+    private static final String UNIT_QUERY_URL = "http://localhost:9999/wecmdb/entities/unit/query";
+    private static final String UNIT_QUERY_RESPONSE = "{\"status\":\"OK\",\"message\":\"Success\",\"data\":"
+            + "[{\"id\":\"0008_01\",\"displayName\":\"EDP-CORE_PRD-APP\",\"key_name\":\"EDP-CORE_PRD-APP\"}]}";
+
+    StandardEntityQueryExecutor executor;
+    EntityQueryExpressionPlanCache planCache;
+    RestTemplate restTemplate;
+    MockRestServiceServer server;
+
+    @Before
+    public void setup() {
+        ApplicationProperties applicationProperties = new ApplicationProperties();
+        applicationProperties.setGatewayUrl("localhost:9999");
+        DmeProperties dmeProperties = applicationProperties.new DmeProperties();
+
+        EntityDataRouteFactory routeFactory = new EntityDataRouteFactory();
+        ReflectionTestUtils.setField(routeFactory, "applicationProperties", applicationProperties);
+
+        planCache = new EntityQueryExpressionPlanCache();
+        ReflectionTestUtils.setField(planCache, "entityQueryExpressionParser", new EntityQueryExpressionParser());
+        ReflectionTestUtils.setField(planCache, "entityDataRouteFactory", routeFactory);
+        ReflectionTestUtils.setField(planCache, "dmeProperties", dmeProperties);
+        planCache.init();
+
+        executor = new StandardEntityQueryExecutor();
+        ReflectionTestUtils.setField(executor, "dmeProperties", dmeProperties);
+
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+    }
+
+    @Test
+    public void givenAttributeQueryWhenExecuteThenShouldOnlyRequestNeededColumns() {
+        server.expect(requestTo(UNIT_QUERY_URL))
+                .andExpect(jsonPath("$.resultColumns", contains("id", "displayName", "key_name")))
+                .andRespond(withSuccess(UNIT_QUERY_RESPONSE, MediaType.APPLICATION_JSON));
+
+        List<Object> result = executor.executeQueryLeafAttributes(buildContext("wecmdb:unit.key_name", false));
+        Assert.assertEquals("EDP-CORE_PRD-APP", result.get(0));
+        server.verify();
+    }
+
+    @Test
+    public void givenFullEntityDataRequiredWhenExecuteThenShouldNotProjectLeafNode() {
+        server.expect(requestTo(UNIT_QUERY_URL)).andExpect(jsonPath("$.resultColumns").doesNotExist())
+                .andRespond(withSuccess(UNIT_QUERY_RESPONSE, MediaType.APPLICATION_JSON));
+
+        List<EntityDataDelegate> result = executor.executeQueryLeafEntity(buildContext("wecmdb:unit", true));
+        Assert.assertEquals(1, result.size());
+        server.verify();
+    }
+
+    @Test
+    public void givenPluginRejectingResultColumnsWhenExecuteThenShouldFallBackToFullEntityData() {
+        server.expect(requestTo(UNIT_QUERY_URL)).andExpect(jsonPath("$.resultColumns").exists())
+                .andRespond(withBadRequest());
+        server.expect(requestTo(UNIT_QUERY_URL)).andExpect(jsonPath("$.resultColumns").doesNotExist())
+                .andRespond(withSuccess(UNIT_QUERY_RESPONSE, MediaType.APPLICATION_JSON));
+        server.expect(requestTo(UNIT_QUERY_URL)).andExpect(jsonPath("$.resultColumns").doesNotExist())
+                .andRespond(withSuccess(UNIT_QUERY_RESPONSE, MediaType.APPLICATION_JSON));
+
+        List<Object> result = executor.executeQueryLeafAttributes(buildContext("wecmdb:unit.key_name", false));
+        Assert.assertEquals("EDP-CORE_PRD-APP", result.get(0));
+
+        result = executor.executeQueryLeafAttributes(buildContext("wecmdb:unit.key_name", false));
+        Assert.assertEquals("EDP-CORE_PRD-APP", result.get(0));
+        server.verify();
+    }
+
+    @Test
+    public void givenProfileAttachedWhenExecuteThenShouldRecordHopCosts() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentLength(UNIT_QUERY_RESPONSE.length());
+        server.expect(requestTo(UNIT_QUERY_URL))
+                .andRespond(withSuccess(UNIT_QUERY_RESPONSE, MediaType.APPLICATION_JSON).headers(headers));
+
+        EntityOperationContext ctx = buildContext("wecmdb:unit", true);
+        EntityQueryProfile profile = new EntityQueryProfile();
+        ctx.setEntityQueryProfile(profile);
+        executor.executeQueryLeafEntity(ctx);
+
+        Assert.assertEquals(1, profile.getHops().size());
+        EntityQueryHopProfile hop = profile.getHops().get(0);
+        Assert.assertEquals("wecmdb", hop.getPackageName());
+        Assert.assertEquals("unit", hop.getEntityName());
+        Assert.assertTrue(hop.getRequestUrls().contains(UNIT_QUERY_URL));
+        Assert.assertEquals(1, hop.getRequestCount());
+        Assert.assertEquals(1, hop.getRowCount());
+        Assert.assertEquals(UNIT_QUERY_RESPONSE.length(), hop.getBytesTransferred());
+        Assert.assertEquals(0, hop.getCacheHitCount());
+        server.verify();
+    }
+
+    @Test
+    public void givenCachedResponseWhenProfileThenShouldCountCacheHitApartFromRequests() {
+        server.expect(requestTo(UNIT_QUERY_URL))
+                .andRespond(withSuccess(UNIT_QUERY_RESPONSE, MediaType.APPLICATION_JSON));
+
+        DmeProperties cacheProperties = new ApplicationProperties().new DmeProperties();
+        cacheProperties.setEntityDataCacheEnabled(true);
+        EntityDataCache entityDataCache = new EntityDataCache();
+        ReflectionTestUtils.setField(entityDataCache, "dmeProperties", cacheProperties);
+        entityDataCache.init();
+
+        EntityQueryProfile firstProfile = new EntityQueryProfile();
+        EntityOperationContext ctx = buildContext("wecmdb:unit", true);
+        ctx.getStandardEntityOperationRestClient().withEntityDataCache(entityDataCache);
+        ctx.setEntityQueryProfile(firstProfile);
+        executor.executeQueryLeafEntity(ctx);
+
+        EntityQueryProfile secondProfile = new EntityQueryProfile();
+        ctx = buildContext("wecmdb:unit", true);
+        ctx.getStandardEntityOperationRestClient().withEntityDataCache(entityDataCache);
+        ctx.setEntityQueryProfile(secondProfile);
+        executor.executeQueryLeafEntity(ctx);
+
+        Assert.assertEquals(1, firstProfile.getTotalRequestCount());
+        Assert.assertEquals(0, firstProfile.getTotalCacheHitCount());
+
+        EntityQueryHopProfile cachedHop = secondProfile.getHops().get(0);
+        Assert.assertEquals(0, cachedHop.getRequestCount());
+        Assert.assertEquals(1, cachedHop.getCacheHitCount());
+        Assert.assertEquals(1, cachedHop.getRowCount());
+        Assert.assertEquals(0L, cachedHop.getBytesTransferred());
+        Assert.assertTrue(cachedHop.getRequestUrls().isEmpty());
+        server.verify();
+    }
+
+    private EntityOperationContext buildContext(String expr, boolean fullEntityDataRequired) {
+        EntityQueryExpressionPlan plan = planCache.getPlan(expr);
+        EntityOperationContext ctx = new EntityOperationContext();
+        ctx.setEntityOperationType(EntityOperationType.QUERY);
+        ctx.setEntityQueryExprNodeInfos(plan.getExprNodeInfos());
+        ctx.setOriginalEntityLinkExpression(expr);
+        ctx.setHeadEntityQueryLinkNode(plan.buildEntityQueryLinkNodes());
+        ctx.setStandardEntityOperationRestClient(new StandardEntityOperationRestClient(restTemplate));
+        ctx.setFullEntityDataRequired(fullEntityDataRequired);
+        return ctx;
+    }
+}
@@ -0,0 +1,71 @@
+package com.webank.wecube.platform.core.support;
+
+import com.webank.wecube.platform.core.dto.PluginPackageAttributeDto;
+import com.webank.wecube.platform.core.dto.PluginPackageEntityDto;
+import com.webank.wecube.platform.core.support.PluginPackageDataModelHelper.DataModelDiff;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class PluginPackageDataModelHelperTest {
+
+    @Test
+    public void givenSameEntitiesInAnotherOrderWhenCalculateContentHashThenShouldBeSame() {
+        List<PluginPackageEntityDto> entities = Arrays.asList(mockEntity("host", "name"), mockEntity("app", "name", "host"));
+        List<PluginPackageEntityDto> reorderedEntities = Arrays.asList(mockEntity("app", "name", "host"), mockEntity("host", "name"));
+
+        assertThat(PluginPackageDataModelHelper.calculateContentHash(entities))
+                .isEqualTo(PluginPackageDataModelHelper.calculateContentHash(reorderedEntities));
+    }
+
+    @Test
+    public void givenChangedAttributeWhenCalculateContentHashThenShouldBeDifferent() {
+        List<PluginPackageEntityDto> entities = Arrays.asList(mockEntity("host", "name"), mockEntity("app", "name", "host"));
+        List<PluginPackageEntityDto> changedEntities = Arrays.asList(mockEntity("host", "name"), mockEntity("app", "name", "host"));
+        changedEntities.get(1).getAttributes().get(2).setRefAttributeName("name");
+
+        assertThat(PluginPackageDataModelHelper.calculateContentHash(entities))
+                .isNotEqualTo(PluginPackageDataModelHelper.calculateContentHash(changedEntities));
+    }
+
+    @Test
+    public void givenBlankReferenceOfNonRefAttributeWhenCalculateContentHashThenShouldBeIgnored() {
+        PluginPackageEntityDto entity = mockEntity("host", "name");
+        PluginPackageEntityDto pulledEntity = mockEntity("host", "name");
+        pulledEntity.getAttributes().get(1).setRefPackageName("");
+        pulledEntity.getAttributes().get(1).setRefEntityName("host");
+
+        assertThat(PluginPackageDataModelHelper.calculateEntityContentHash(entity))
+                .isEqualTo(PluginPackageDataModelHelper.calculateEntityContentHash(pulledEntity));
+    }
+
+    @Test
+    public void givenNewEntitiesWhenDiffThenShouldReportAddedRemovedAndChangedEntities() {
+        List<PluginPackageEntityDto> existingEntities = Arrays.asList(mockEntity("host", "name"), mockEntity("app", "name"), mockEntity("zone", "name"));
+        List<PluginPackageEntityDto> newEntities = Arrays.asList(mockEntity("host", "name"), mockEntity("app", "name", "host"), mockEntity("disk", "size"));
+
+        DataModelDiff diff = PluginPackageDataModelHelper.diff(existingEntities, newEntities);
+
+        assertThat(diff.isEmpty()).isFalse();
+        assertThat(diff.getAddedEntities()).containsExactly("disk");
+        assertThat(diff.getRemovedEntities()).containsExactly("zone");
+        assertThat(diff.getChangedEntities()).containsExactly("app");
+        assertThat(PluginPackageDataModelHelper.diff(existingEntities, existingEntities).isEmpty()).isTrue();
+    }
+
+    private PluginPackageEntityDto mockEntity(String name, String attributeName, String... refEntityNames) {
+        List<PluginPackageAttributeDto> attributes = new ArrayList<>();
+        attributes.add(new PluginPackageAttributeDto(null, "id", "id", "str", null, null, null));
+        attributes.add(new PluginPackageAttributeDto(null, attributeName, attributeName, "str", null, null, null));
+        for (String refEntityName : refEntityNames) {
+            attributes.add(new PluginPackageAttributeDto(null, refEntityName, refEntityName, "ref", "cmdb", refEntityName, "id"));
+        }
+        PluginPackageEntityDto entity = new PluginPackageEntityDto(null, name, name, name + " description", attributes);
+        entity.setPackageName("cmdb");
+        return entity;
+    }
+}
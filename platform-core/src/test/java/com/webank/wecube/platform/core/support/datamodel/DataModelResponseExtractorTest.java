@@ -0,0 +1,165 @@
+package com.webank.wecube.platform.core.support.datamodel;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.wecube.platform.core.commons.WecubeCoreException;
+import com.webank.wecube.platform.core.dto.CommonResponseDto;
+import com.webank.wecube.platform.core.utils.JsonUtils;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DataModelResponseExtractorTest {
+    private static final int LARGE_RESPONSE_ROWS = 50000;
+
+    private byte[] largeResponseBody;
+
+    @Before
+    public void setup() throws IOException {
+        List<Map<String, Object>> data = new ArrayList<>();
+        for (int i = 0; i < LARGE_RESPONSE_ROWS; i++) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("id", String.format("0008_%010d", i));
+            row.put("displayName", "unit-" + i);
+            row.put("key_name", "EDP-CORE_PRD-APP-" + i);
+            row.put("description", "synthetic unit for response decoding " + i);
+            data.add(row);
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("status", "OK");
+        body.put("message", "Success");
+        body.put("data", data);
+        largeResponseBody = new ObjectMapper().writeValueAsBytes(body);
+    }
+
+    @Test
+    public void givenLargeResponseWhenExtractThenShouldDecodeAllData() throws IOException {
+        CommonResponseDto responseDto = new DataModelResponseExtractor(null, 0).extractData(new MockClientHttpResponse(largeResponseBody, HttpStatus.OK));
+
+        List<?> data = (List<?>) responseDto.getData();
+        assertThat(data).hasSize(LARGE_RESPONSE_ROWS);
+        assertThat(((Map<?, ?>) data.get(1)).get("key_name")).isEqualTo("EDP-CORE_PRD-APP-1");
+    }
+
+    @Test
+    public void givenGzipResponseWhenExtractWithTypeThenShouldDecodeTypedData() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(largeResponseBody);
+        }
+        MockClientHttpResponse response = new MockClientHttpResponse(compressed.toByteArray(), HttpStatus.OK);
+        response.getHeaders().set(HttpHeaders.CONTENT_ENCODING, DataModelResponseExtractor.CONTENT_ENCODING_GZIP);
+
+        CommonResponseDto responseDto = new DataModelResponseExtractor(UnitDto.class, largeResponseBody.length).extractData(response);
+
+        List<?> data = (List<?>) responseDto.getData();
+        assertThat(data).hasSize(LARGE_RESPONSE_ROWS);
+        assertThat(data.get(2)).isInstanceOf(UnitDto.class);
+        assertThat(((UnitDto) data.get(2)).getKey_name()).isEqualTo("EDP-CORE_PRD-APP-2");
+    }
+
+    @Test
+    public void givenResponseExceedingLimitWhenExtractThenShouldFail() {
+        assertThatThrownBy(() -> new DataModelResponseExtractor(null, 1024).extractData(new MockClientHttpResponse(largeResponseBody, HttpStatus.OK)))
+                .isInstanceOf(WecubeCoreException.class)
+                .hasMessageContaining("exceeds the size limit");
+    }
+
+    @Test
+    public void givenErrorStatusWhenExtractThenShouldFail() {
+        byte[] body = "{\"status\":\"ERROR\",\"message\":\"entity not found\",\"data\":null}".getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> new DataModelResponseExtractor(null, 0).extractData(new MockClientHttpResponse(body, HttpStatus.OK)))
+                .isInstanceOf(WecubeCoreException.class)
+                .hasMessageContaining("entity not found");
+        assertThatThrownBy(() -> new DataModelResponseExtractor(null, 0).extractData(new MockClientHttpResponse(new byte[0], HttpStatus.OK)))
+                .isInstanceOf(WecubeCoreException.class)
+                .hasMessageContaining("Cannot transfer response");
+    }
+
+    @Test
+    public void givenLargeResponseWhenExtractThenShouldAllocateLessThanStringDecoding() throws IOException {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threadMXBean.isThreadAllocatedMemorySupported() || !threadMXBean.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+        long threadId = Thread.currentThread().getId();
+
+        // warm up both paths before measuring
+        decodeThroughString();
+        new DataModelResponseExtractor(null, 0).extractData(new MockClientHttpResponse(largeResponseBody, HttpStatus.OK));
+
+        long start = threadMXBean.getThreadAllocatedBytes(threadId);
+        decodeThroughString();
+        long stringDecodingBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+        start = threadMXBean.getThreadAllocatedBytes(threadId);
+        new DataModelResponseExtractor(null, 0).extractData(new MockClientHttpResponse(largeResponseBody, HttpStatus.OK));
+        long streamingDecodingBytes = threadMXBean.getThreadAllocatedBytes(threadId) - start;
+
+        assertThat(streamingDecodingBytes)
+                .as("bytes allocated decoding a %d bytes response through stream, %d bytes through string",
+                        largeResponseBody.length, stringDecodingBytes)
+                .isLessThan(stringDecodingBytes);
+    }
+
+    private CommonResponseDto decodeThroughString() throws IOException {
+        String body = new String(largeResponseBody, StandardCharsets.UTF_8);
+        return JsonUtils.toObject(body, CommonResponseDto.class);
+    }
+
+    public static class UnitDto {
+        private String id;
+        private String displayName;
+        private String key_name;
+        private String description;
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getDisplayName() {
+            return displayName;
+        }
+
+        public void setDisplayName(String displayName) {
+            this.displayName = displayName;
+        }
+
+        public String getKey_name() {
+            return key_name;
+        }
+
+        public void setKey_name(String key_name) {
+            this.key_name = key_name;
+        }
+
+        public String getDescription() {
+            return description;
+        }
+
+        public void setDescription(String description) {
+            this.description = description;
+        }
+    }
+}
@@ -12,6 +12,8 @@ delete from plugin_config_interface_parameters;
 delete from plugin_config_interfaces;
 delete from plugin_configs;
 delete from plugin_instances;
+delete from plugin_route_item_changes;
+delete from plugin_route_table;
 delete from menu_items;
 delete from role_menu;
 delete from plugin_package_resource_files;
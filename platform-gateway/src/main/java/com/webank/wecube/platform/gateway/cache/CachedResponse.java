@@ -0,0 +1,72 @@
+package com.webank.wecube.platform.gateway.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Response kept in {@link ResponseCache}, immutable except its freshness
+ * which is extended by revalidation.
+ */
+public class CachedResponse {
+    private final String primaryKey;
+    private final String routeName;
+    private final HttpStatus statusCode;
+    private final HttpHeaders headers;
+    private final byte[] body;
+    private final String etag;
+    private volatile long freshUntilMillis;
+
+    public CachedResponse(String primaryKey, String routeName, HttpStatus statusCode, HttpHeaders headers,
+            byte[] body, long freshUntilMillis) {
+        this.primaryKey = primaryKey;
+        this.routeName = routeName;
+        this.statusCode = statusCode;
+        this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+        this.body = body;
+        this.etag = headers.getETag();
+        this.freshUntilMillis = freshUntilMillis;
+    }
+
+    public boolean isFresh(long nowMillis) {
+        return freshUntilMillis > nowMillis;
+    }
+
+    public void setFreshUntilMillis(long freshUntilMillis) {
+        this.freshUntilMillis = freshUntilMillis;
+    }
+
+    public long getSize() {
+        long size = body.length;
+        for (String headerName : headers.keySet()) {
+            size += headerName.length();
+            for (String headerValue : headers.get(headerName)) {
+                size += headerValue.length();
+            }
+        }
+        return size;
+    }
+
+    public String getPrimaryKey() {
+        return primaryKey;
+    }
+
+    public String getRouteName() {
+        return routeName;
+    }
+
+    public HttpStatus getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public byte[] getBody() {
+        return body;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+}
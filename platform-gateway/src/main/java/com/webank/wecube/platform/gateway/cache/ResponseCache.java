@@ -0,0 +1,168 @@
+package com.webank.wecube.platform.gateway.cache;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+
+import com.webank.wecube.platform.gateway.route.RouteItemsChangeListener;
+
+/**
+ * LRU cache of responses bounded by their total size.
+ * <p>
+ * Responses are keyed by route, path and query, plus the values of the
+ * request headers named by their Vary header. All the responses of a route
+ * are purged once its running instances change.
+ */
+public class ResponseCache implements RouteItemsChangeListener {
+    private static final Logger log = LoggerFactory.getLogger(ResponseCache.class);
+
+    private final long maxTotalBytes;
+    private final long maxEntryBytes;
+
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, List<String>> varyHeaderNames = new HashMap<>();
+    private long totalBytes;
+
+    public ResponseCache(long maxTotalBytes, long maxEntryBytes) {
+        this.maxTotalBytes = maxTotalBytes;
+        this.maxEntryBytes = maxEntryBytes;
+    }
+
+    public static String calculatePrimaryKey(String routeId, URI uri) {
+        String query = uri.getRawQuery();
+        return routeId + " " + uri.getRawPath() + "?" + (query == null ? "" : query);
+    }
+
+    /**
+     * @param responseHeaders
+     *            headers of a 200 response to a GET request
+     * @param authorizedRequest
+     *            whether the request carries credentials
+     * @return millis the response stays fresh, 0 if it has to be revalidated
+     *         each time, or -1 if it must not be cached
+     */
+    public static long calculateFreshnessMillis(HttpHeaders responseHeaders, boolean authorizedRequest) {
+        if (responseHeaders.containsKey(HttpHeaders.SET_COOKIE) || responseHeaders.getVary().contains("*")) {
+            return -1;
+        }
+
+        boolean isPublic = false;
+        boolean noCache = false;
+        Long maxAge = null;
+        Long sharedMaxAge = null;
+        List<String> cacheControls = responseHeaders.get(HttpHeaders.CACHE_CONTROL);
+        try {
+            for (String cacheControl : cacheControls == null ? Collections.<String> emptyList() : cacheControls) {
+                for (String directive : cacheControl.split(",")) {
+                    String d = directive.trim().toLowerCase(Locale.ROOT);
+                    if ("no-store".equals(d) || "private".equals(d)) {
+                        return -1;
+                    } else if ("public".equals(d)) {
+                        isPublic = true;
+                    } else if ("no-cache".equals(d)) {
+                        noCache = true;
+                    } else if (d.startsWith("max-age=")) {
+                        maxAge = Long.parseLong(d.substring("max-age=".length()));
+                    } else if (d.startsWith("s-maxage=")) {
+                        sharedMaxAge = Long.parseLong(d.substring("s-maxage=".length()));
+                    }
+                }
+            }
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+
+        // responses to requests with credentials are shared only if allowed explicitly
+        if (authorizedRequest && !isPublic && sharedMaxAge == null) {
+            return -1;
+        }
+
+        long freshnessSeconds = 0;
+        if (!noCache) {
+            freshnessSeconds = sharedMaxAge != null ? sharedMaxAge : (maxAge != null ? maxAge : 0);
+        }
+        if (freshnessSeconds <= 0 && responseHeaders.getETag() == null) {
+            return -1;
+        }
+        return TimeUnit.SECONDS.toMillis(Math.max(0, freshnessSeconds));
+    }
+
+    public synchronized CachedResponse get(String primaryKey, HttpHeaders requestHeaders) {
+        return entries.get(calculateKey(primaryKey, varyHeaderNames.get(primaryKey), requestHeaders));
+    }
+
+    public synchronized void put(HttpHeaders requestHeaders, CachedResponse response) {
+        long size = response.getSize();
+        if (size > maxEntryBytes) {
+            return;
+        }
+
+        List<String> headerNames = response.getHeaders().getVary();
+        varyHeaderNames.put(response.getPrimaryKey(), headerNames);
+        CachedResponse previous = entries.put(calculateKey(response.getPrimaryKey(), headerNames, requestHeaders),
+                response);
+        if (previous != null) {
+            totalBytes -= previous.getSize();
+        }
+        totalBytes += size;
+
+        Iterator<CachedResponse> iterator = entries.values().iterator();
+        while (totalBytes > maxTotalBytes && iterator.hasNext()) {
+            remove(iterator);
+        }
+    }
+
+    public synchronized void purge(String routeName) {
+        int count = 0;
+        Iterator<CachedResponse> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            CachedResponse response = iterator.next();
+            if (routeName.equals(response.getRouteName())) {
+                totalBytes -= response.getSize();
+                varyHeaderNames.remove(response.getPrimaryKey());
+                iterator.remove();
+                count++;
+            }
+        }
+        if (count > 0) {
+            log.info("purged {} cached responses of {}", count, routeName);
+        }
+    }
+
+    @Override
+    public void onRouteItemsChanged(String name) {
+        purge(name);
+    }
+
+    private void remove(Iterator<CachedResponse> iterator) {
+        CachedResponse response = iterator.next();
+        totalBytes -= response.getSize();
+        // the other variants are missed until the response is cached again
+        varyHeaderNames.remove(response.getPrimaryKey());
+        iterator.remove();
+    }
+
+    private String calculateKey(String primaryKey, List<String> headerNames, HttpHeaders requestHeaders) {
+        if (headerNames == null || headerNames.isEmpty()) {
+            return primaryKey;
+        }
+
+        StringBuilder key = new StringBuilder(primaryKey);
+        for (String headerName : headerNames) {
+            List<String> values = requestHeaders.get(headerName);
+            key.append('\n').append(headerName.toLowerCase(Locale.ROOT)).append(':')
+                    .append(values == null ? "" : String.join(",", values));
+        }
+        return key.toString();
+    }
+}
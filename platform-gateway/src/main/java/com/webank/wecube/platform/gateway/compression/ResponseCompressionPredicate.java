@@ -0,0 +1,64 @@
+package com.webank.wecube.platform.gateway.compression;
+
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.stream.Collectors;
+
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+import wiremock.org.apache.commons.lang3.StringUtils;
+
+/**
+ * Tells whether netty compresses a response, which it does on the fly with
+ * gzip or deflate as negotiated by the Accept-Encoding of the request, so that
+ * responses are compressed while they are streamed through.
+ * <p>
+ * Responses already encoded by the plugins are passed through as they are.
+ */
+public class ResponseCompressionPredicate implements BiPredicate<HttpServerRequest, HttpServerResponse> {
+    private final long minResponseBytes;
+    private final List<MimeType> mimeTypes;
+
+    public ResponseCompressionPredicate(long minResponseBytes, List<String> mimeTypes) {
+        this.minResponseBytes = minResponseBytes;
+        this.mimeTypes = mimeTypes.stream().map(MimeTypeUtils::parseMimeType).collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean test(HttpServerRequest request, HttpServerResponse response) {
+        HttpHeaders headers = response.responseHeaders();
+        if (headers.contains(HttpHeaderNames.CONTENT_ENCODING)) {
+            return false;
+        }
+        if (!isCompressibleContentType(headers.get(HttpHeaderNames.CONTENT_TYPE))) {
+            return false;
+        }
+
+        String contentLength = headers.get(HttpHeaderNames.CONTENT_LENGTH);
+        if (StringUtils.isNumeric(contentLength) && Long.parseLong(contentLength) < minResponseBytes) {
+            return false;
+        }
+
+        // the representation depends on the request, tell it to the caches in between
+        headers.add(HttpHeaderNames.VARY, HttpHeaderNames.ACCEPT_ENCODING);
+        return true;
+    }
+
+    private boolean isCompressibleContentType(String contentType) {
+        if (StringUtils.isBlank(contentType)) {
+            return false;
+        }
+        MimeType mimeType;
+        try {
+            mimeType = MimeTypeUtils.parseMimeType(contentType);
+        } catch (Exception e) {
+            return false;
+        }
+        return mimeTypes.stream().anyMatch(candidate -> candidate.isCompatibleWith(mimeType));
+    }
+}
@@ -0,0 +1,45 @@
+package com.webank.wecube.platform.gateway.compression;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "platform.gateway.compression")
+public class ResponseCompressionProperties {
+    private boolean enabled = true;
+    /**
+     * responses with a smaller content length are sent as they are, streamed
+     * responses without content length are always compressed
+     */
+    private long minResponseBytes = 2048;
+    private List<String> mimeTypes = new ArrayList<>(Arrays.asList("text/html", "text/xml", "text/plain",
+            "text/css", "text/csv", "text/javascript", "application/javascript", "application/json",
+            "application/xml"));
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getMinResponseBytes() {
+        return minResponseBytes;
+    }
+
+    public void setMinResponseBytes(long minResponseBytes) {
+        this.minResponseBytes = minResponseBytes;
+    }
+
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+
+}
@@ -0,0 +1,31 @@
+package com.webank.wecube.platform.gateway.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.webank.wecube.platform.gateway.compression.ResponseCompressionPredicate;
+import com.webank.wecube.platform.gateway.compression.ResponseCompressionProperties;
+
+@Configuration
+@EnableConfigurationProperties({
+    ResponseCompressionProperties.class
+})
+public class CompressionConfiguration {
+    @Autowired
+    private ResponseCompressionProperties responseCompressionProperties;
+
+    @Bean
+    public WebServerFactoryCustomizer<NettyReactiveWebServerFactory> responseCompressionCustomizer() {
+        ResponseCompressionPredicate predicate = new ResponseCompressionPredicate(
+                responseCompressionProperties.getMinResponseBytes(), responseCompressionProperties.getMimeTypes());
+        return factory -> {
+            if (responseCompressionProperties.isEnabled()) {
+                factory.addServerCustomizers(httpServer -> httpServer.compress(predicate));
+            }
+        };
+    }
+}
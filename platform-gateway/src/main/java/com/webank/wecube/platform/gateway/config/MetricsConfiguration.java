@@ -0,0 +1,35 @@
+package com.webank.wecube.platform.gateway.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.webank.wecube.platform.gateway.filter.RouteMetricsGlobalFilter;
+import com.webank.wecube.platform.gateway.filter.UpstreamLatencyGlobalFilter;
+import com.webank.wecube.platform.gateway.metrics.GatewayMetricsProperties;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+
+@Configuration
+@EnableConfigurationProperties({
+    GatewayMetricsProperties.class
+})
+public class MetricsConfiguration {
+    @Autowired
+    private GatewayMetricsProperties gatewayMetricsProperties;
+
+    @Bean
+    public RouteMetricsRegistry routeMetricsRegistry() {
+        return new RouteMetricsRegistry();
+    }
+
+    @Bean
+    public RouteMetricsGlobalFilter routeMetricsGlobalFilter() {
+        return new RouteMetricsGlobalFilter(routeMetricsRegistry(), gatewayMetricsProperties);
+    }
+
+    @Bean
+    public UpstreamLatencyGlobalFilter upstreamLatencyGlobalFilter() {
+        return new UpstreamLatencyGlobalFilter();
+    }
+}
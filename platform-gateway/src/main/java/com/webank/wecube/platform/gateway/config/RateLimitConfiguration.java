@@ -0,0 +1,46 @@
+package com.webank.wecube.platform.gateway.config;
+
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.webank.wecube.platform.gateway.filter.RateLimitGlobalFilter;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.parser.JwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.ratelimit.RateLimitProperties;
+import com.webank.wecube.platform.gateway.ratelimit.TokenBucketRateLimiter;
+
+import reactor.core.publisher.Flux;
+
+@Configuration
+@EnableConfigurationProperties({
+    RateLimitProperties.class
+})
+public class RateLimitConfiguration {
+    private static final Duration IDLE_BUCKET_EVICTION_INTERVAL = Duration.ofMinutes(1);
+
+    @Autowired
+    private RateLimitProperties rateLimitProperties;
+
+    @Autowired
+    private JwtSsoTokenParser jwtSsoTokenParser;
+
+    @Autowired
+    private RouteMetricsRegistry routeMetricsRegistry;
+
+    @Bean
+    public TokenBucketRateLimiter tokenBucketRateLimiter() {
+        TokenBucketRateLimiter rateLimiter = new TokenBucketRateLimiter(rateLimitProperties);
+        Flux.interval(IDLE_BUCKET_EVICTION_INTERVAL).subscribe(t -> rateLimiter.evictIdleBuckets());
+        return rateLimiter;
+    }
+
+    @Bean
+    public RateLimitGlobalFilter rateLimitGlobalFilter() {
+        return new RateLimitGlobalFilter(tokenBucketRateLimiter(), rateLimitProperties, jwtSsoTokenParser,
+                routeMetricsRegistry);
+    }
+}
@@ -0,0 +1,30 @@
+package com.webank.wecube.platform.gateway.config;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.webank.wecube.platform.gateway.cache.ResponseCache;
+import com.webank.wecube.platform.gateway.cache.ResponseCacheProperties;
+import com.webank.wecube.platform.gateway.filter.ResponseCacheGlobalFilter;
+
+@Configuration
+@EnableConfigurationProperties({
+    ResponseCacheProperties.class
+})
+public class ResponseCacheConfiguration {
+    @Autowired
+    private ResponseCacheProperties responseCacheProperties;
+
+    @Bean
+    public ResponseCache responseCache() {
+        return new ResponseCache(responseCacheProperties.getMaxTotalBytes(),
+                responseCacheProperties.getMaxEntryBytes());
+    }
+
+    @Bean
+    public ResponseCacheGlobalFilter responseCacheGlobalFilter() {
+        return new ResponseCacheGlobalFilter(responseCache(), responseCacheProperties);
+    }
+}
@@ -1,32 +1,96 @@
 package com.webank.wecube.platform.gateway.config;
 
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
 
 import com.webank.wecube.platform.gateway.filter.factory.DynamicRouteGatewayFilterFactory;
 import com.webank.wecube.platform.gateway.filter.factory.DynamicRouteProperties;
 import com.webank.wecube.platform.gateway.filter.factory.JwtSsoTokenGatewayFilterFactory;
+import com.webank.wecube.platform.gateway.filter.factory.JwtSsoTokenProperties;
+import com.webank.wecube.platform.gateway.hedge.HedgeProperties;
+import com.webank.wecube.platform.gateway.hedge.HedgedRequestRouter;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.parser.CachingJwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.parser.DefaultJwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.parser.JwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.route.DynamicRouteConfigurationService;
+import com.webank.wecube.platform.gateway.route.RouteItemLoadBalancer;
+
+import reactor.netty.http.client.HttpClient;
 
 @Configuration
 @EnableConfigurationProperties({
-    DynamicRouteProperties.class
+    DynamicRouteProperties.class,
+    JwtSsoTokenProperties.class,
+    HedgeProperties.class
 })
 public class RouteConfiguration {
     @Autowired
     private DynamicRouteProperties dynamicRouteProperties;
+
+    @Autowired
+    private JwtSsoTokenProperties jwtSsoTokenProperties;
+
+    @Autowired
+    private HedgeProperties hedgeProperties;
+
+    @Autowired
+    private DynamicRouteConfigurationService dynamicRouteConfigurationService;
+
+    @Autowired
+    private RouteMetricsRegistry routeMetricsRegistry;
     
     @Bean
     public JwtSsoTokenGatewayFilterFactory jwtSsoTokenGatewayFilterFactory(){
-        return new JwtSsoTokenGatewayFilterFactory();
+        JwtSsoTokenGatewayFilterFactory f = new JwtSsoTokenGatewayFilterFactory();
+        f.setJwtParser(jwtSsoTokenParser());
+
+        return f;
+    }
+
+    @Bean
+    public JwtSsoTokenParser jwtSsoTokenParser() {
+        return new CachingJwtSsoTokenParser(new DefaultJwtSsoTokenParser(),
+                Math.max(1, jwtSsoTokenProperties.getTokenCacheMaxSize()),
+                TimeUnit.SECONDS.toMillis(jwtSsoTokenProperties.getTokenCacheMaxTtlSeconds()));
     }
     
     @Bean
-    public DynamicRouteGatewayFilterFactory dynamicRouteGatewayFilterFactory(){
+    public DynamicRouteGatewayFilterFactory dynamicRouteGatewayFilterFactory(HedgedRequestRouter hedgedRequestRouter){
         DynamicRouteGatewayFilterFactory f =  new DynamicRouteGatewayFilterFactory();
         f.setDynamicRouteProperties(dynamicRouteProperties);
+        f.setDynamicRouteConfigurationService(dynamicRouteConfigurationService);
+        f.setRouteItemLoadBalancer(routeItemLoadBalancer());
+        f.setHedgedRequestRouter(hedgedRequestRouter);
         
         return f;
     }
+
+    @Bean
+    public RouteItemLoadBalancer routeItemLoadBalancer() {
+        return new RouteItemLoadBalancer(dynamicRouteProperties.getLoadBalanceStrategy(),
+                Math.max(1, dynamicRouteProperties.getOutlierConsecutiveFailures()),
+                TimeUnit.SECONDS.toMillis(dynamicRouteProperties.getOutlierEjectionSeconds()));
+    }
+
+    /**
+     * Sends the hedged requests with the same netty client as the routing
+     * filter, so they share its connection pool and settings.
+     */
+    @Bean
+    public HedgedRequestRouter hedgedRequestRouter(HttpClient httpClient,
+            ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider) {
+        WebClient webClient = WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+        return new HedgedRequestRouter(webClient, headersFiltersProvider, routeItemLoadBalancer(),
+                routeMetricsRegistry, hedgeProperties);
+    }
 }
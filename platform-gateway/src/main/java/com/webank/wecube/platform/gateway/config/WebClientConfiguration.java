@@ -0,0 +1,60 @@
+package com.webank.wecube.platform.gateway.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.webank.wecube.platform.gateway.filter.factory.DynamicRouteProperties;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.timeout.ReadTimeoutHandler;
+import io.netty.handler.timeout.WriteTimeoutHandler;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+public class WebClientConfiguration {
+    private static final String ROUTE_CONFIG_CONNECTION_POOL_NAME = "route-config";
+    private static final String ROUTE_CHANGES_CONNECTION_POOL_NAME = "route-changes";
+
+    @Autowired
+    private DynamicRouteProperties dynamicRouteProperties;
+
+    /**
+     * Shared client of the calls to platform core, with a bounded connection
+     * pool and timeouts so that no call waits forever.
+     */
+    @Bean
+    public WebClient routeConfigWebClient() {
+        return buildWebClient(ROUTE_CONFIG_CONNECTION_POOL_NAME, dynamicRouteProperties.getRouteConfigMaxConnections(),
+                dynamicRouteProperties.getRouteConfigReadTimeoutMillis());
+    }
+
+    /**
+     * Client of the route changes long-poll, whose responses are held by core
+     * up to the long-poll timeout.
+     */
+    @Bean
+    public WebClient routeChangesWebClient() {
+        return buildWebClient(ROUTE_CHANGES_CONNECTION_POOL_NAME, 1,
+                dynamicRouteProperties.getRouteChangesLongPollTimeoutMillis()
+                        + dynamicRouteProperties.getRouteConfigReadTimeoutMillis());
+    }
+
+    private WebClient buildWebClient(String poolName, int maxConnections, int readTimeoutMillis) {
+        HttpClient httpClient = HttpClient
+                .create(ConnectionProvider.fixed(poolName, maxConnections))
+                .tcpConfiguration(tcpClient -> tcpClient
+                        .option(ChannelOption.CONNECT_TIMEOUT_MILLIS,
+                                dynamicRouteProperties.getRouteConfigConnectTimeoutMillis())
+                        .doOnConnected(connection -> connection
+                                .addHandlerLast(new ReadTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS))
+                                .addHandlerLast(new WriteTimeoutHandler(readTimeoutMillis, TimeUnit.MILLISECONDS))));
+
+        return WebClient.builder().clientConnector(new ReactorClientHttpConnector(httpClient)).build();
+    }
+}
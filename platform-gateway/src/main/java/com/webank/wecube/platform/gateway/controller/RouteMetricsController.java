@@ -0,0 +1,28 @@
+package com.webank.wecube.platform.gateway.controller;
+
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import com.webank.wecube.platform.gateway.dto.CommonResponseDto;
+import com.webank.wecube.platform.gateway.dto.RouteMetricsDto;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+
+import reactor.core.publisher.Mono;
+
+@RestController
+@RequestMapping("/gateway/v1")
+public class RouteMetricsController {
+
+    @Autowired
+    private RouteMetricsRegistry routeMetricsRegistry;
+
+    @GetMapping("/route-metrics")
+    public Mono<CommonResponseDto> listRouteMetrics() {
+        List<RouteMetricsDto> metrics = routeMetricsRegistry.listRouteMetrics();
+        return Mono.just(CommonResponseDto.okayWithData(metrics));
+    }
+}
@@ -0,0 +1,64 @@
+package com.webank.wecube.platform.gateway.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RouteItemChangesDto {
+    private String epoch;
+    private long version;
+    private boolean fullSync;
+    private List<RouteItemsChangeDto> changes = new ArrayList<>();
+
+    public String getEpoch() {
+        return epoch;
+    }
+
+    public void setEpoch(String epoch) {
+        this.epoch = epoch;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
+    public boolean isFullSync() {
+        return fullSync;
+    }
+
+    public void setFullSync(boolean fullSync) {
+        this.fullSync = fullSync;
+    }
+
+    public List<RouteItemsChangeDto> getChanges() {
+        return changes;
+    }
+
+    public void setChanges(List<RouteItemsChangeDto> changes) {
+        this.changes = changes;
+    }
+
+    public static class RouteItemsChangeDto {
+        private String name;
+        private List<RouteItemInfoDto> routeItems = new ArrayList<>();
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<RouteItemInfoDto> getRouteItems() {
+            return routeItems;
+        }
+
+        public void setRouteItems(List<RouteItemInfoDto> routeItems) {
+            this.routeItems = routeItems;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.webank.wecube.platform.gateway.dto;
+
+public class RouteMetricsDto {
+    private String routeId;
+    private String packageName;
+    private long requests;
+    private long errors;
+    private double errorRate;
+    private long cancelledRequests;
+    private long responseBytes;
+    private double meanResponseBytes;
+    private long rateLimitRejections;
+    private long hedgedRequests;
+    private LatencyDto latency;
+    private LatencyDto upstreamLatency;
+
+    public String getRouteId() {
+        return routeId;
+    }
+
+    public void setRouteId(String routeId) {
+        this.routeId = routeId;
+    }
+
+    public String getPackageName() {
+        return packageName;
+    }
+
+    public void setPackageName(String packageName) {
+        this.packageName = packageName;
+    }
+
+    public long getRequests() {
+        return requests;
+    }
+
+    public void setRequests(long requests) {
+        this.requests = requests;
+    }
+
+    public long getErrors() {
+        return errors;
+    }
+
+    public void setErrors(long errors) {
+        this.errors = errors;
+    }
+
+    public double getErrorRate() {
+        return errorRate;
+    }
+
+    public void setErrorRate(double errorRate) {
+        this.errorRate = errorRate;
+    }
+
+    public long getCancelledRequests() {
+        return cancelledRequests;
+    }
+
+    public void setCancelledRequests(long cancelledRequests) {
+        this.cancelledRequests = cancelledRequests;
+    }
+
+    public long getResponseBytes() {
+        return responseBytes;
+    }
+
+    public void setResponseBytes(long responseBytes) {
+        this.responseBytes = responseBytes;
+    }
+
+    public double getMeanResponseBytes() {
+        return meanResponseBytes;
+    }
+
+    public void setMeanResponseBytes(double meanResponseBytes) {
+        this.meanResponseBytes = meanResponseBytes;
+    }
+
+    public long getRateLimitRejections() {
+        return rateLimitRejections;
+    }
+
+    public void setRateLimitRejections(long rateLimitRejections) {
+        this.rateLimitRejections = rateLimitRejections;
+    }
+
+    public long getHedgedRequests() {
+        return hedgedRequests;
+    }
+
+    public void setHedgedRequests(long hedgedRequests) {
+        this.hedgedRequests = hedgedRequests;
+    }
+
+    public LatencyDto getLatency() {
+        return latency;
+    }
+
+    public void setLatency(LatencyDto latency) {
+        this.latency = latency;
+    }
+
+    public LatencyDto getUpstreamLatency() {
+        return upstreamLatency;
+    }
+
+    public void setUpstreamLatency(LatencyDto upstreamLatency) {
+        this.upstreamLatency = upstreamLatency;
+    }
+
+    /**
+     * Latencies in milliseconds.
+     */
+    public static class LatencyDto {
+        private long count;
+        private double mean;
+        private long p50;
+        private long p95;
+        private long p99;
+        private long max;
+
+        public long getCount() {
+            return count;
+        }
+
+        public void setCount(long count) {
+            this.count = count;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+
+        public void setMean(double mean) {
+            this.mean = mean;
+        }
+
+        public long getP50() {
+            return p50;
+        }
+
+        public void setP50(long p50) {
+            this.p50 = p50;
+        }
+
+        public long getP95() {
+            return p95;
+        }
+
+        public void setP95(long p95) {
+            this.p95 = p95;
+        }
+
+        public long getP99() {
+            return p99;
+        }
+
+        public void setP99(long p99) {
+            this.p99 = p99;
+        }
+
+        public long getMax() {
+            return max;
+        }
+
+        public void setMax(long max) {
+            this.max = max;
+        }
+    }
+}
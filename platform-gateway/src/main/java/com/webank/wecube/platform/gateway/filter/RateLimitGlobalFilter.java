@@ -0,0 +1,132 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import java.net.InetSocketAddress;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.wecube.platform.gateway.dto.CommonResponseDto;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.parser.JwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.ratelimit.RateLimitProperties;
+import com.webank.wecube.platform.gateway.ratelimit.TokenBucketRateLimiter;
+import com.webank.wecube.platform.gateway.route.RoutePathUtils;
+
+import io.jsonwebtoken.JwtException;
+import reactor.core.publisher.Mono;
+
+/**
+ * Limits the requests of each user to each route with token buckets, users
+ * are identified by the subject of their access token, or by their address if
+ * they have no valid token.
+ */
+public class RateLimitGlobalFilter implements GlobalFilter, Ordered {
+    private static final Logger log = LoggerFactory.getLogger(RateLimitGlobalFilter.class);
+
+    public static final String TOKEN_PREFIX = "Bearer";
+
+    private final TokenBucketRateLimiter rateLimiter;
+    private final RateLimitProperties rateLimitProperties;
+    private final JwtSsoTokenParser jwtParser;
+    private final RouteMetricsRegistry routeMetricsRegistry;
+
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    public RateLimitGlobalFilter(TokenBucketRateLimiter rateLimiter, RateLimitProperties rateLimitProperties,
+            JwtSsoTokenParser jwtParser, RouteMetricsRegistry routeMetricsRegistry) {
+        this.rateLimiter = rateLimiter;
+        this.rateLimitProperties = rateLimitProperties;
+        this.jwtParser = jwtParser;
+        this.routeMetricsRegistry = routeMetricsRegistry;
+    }
+
+    @Override
+    public int getOrder() {
+        // after the metrics filter so that rejections are measured too
+        return 0;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!rateLimitProperties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return chain.filter(exchange);
+        }
+
+        ServerHttpRequest request = exchange.getRequest();
+        String routeName = RoutePathUtils.calculateComponentPath(request.getURI().getPath());
+        String userKey = resolveUserKey(request);
+        long waitNanos = rateLimiter.tryAcquire(routeName, userKey);
+        if (waitNanos == 0) {
+            return chain.filter(exchange);
+        }
+
+        routeMetricsRegistry.getRouteMetrics(route.getId(), routeName).recordRateLimitRejection();
+        if (log.isDebugEnabled()) {
+            log.debug("request {} of {} rejected by rate limit", request.getURI().getPath(), userKey);
+        }
+        return handleRejection(exchange, waitNanos);
+    }
+
+    private String resolveUserKey(ServerHttpRequest request) {
+        String token = null;
+        List<String> authorizationHeaders = request.getHeaders().get(HttpHeaders.AUTHORIZATION);
+        if (authorizationHeaders != null) {
+            for (String authorizationHeader : authorizationHeaders) {
+                if (authorizationHeader != null && authorizationHeader.startsWith(TOKEN_PREFIX)) {
+                    token = authorizationHeader.substring(TOKEN_PREFIX.length()).trim();
+                }
+            }
+        }
+
+        if (StringUtils.isNotBlank(token)) {
+            try {
+                String subject = jwtParser.parseJwt(token).getBody().getSubject();
+                if (StringUtils.isNotBlank(subject)) {
+                    return "user:" + subject;
+                }
+            } catch (JwtException | IllegalArgumentException e) {
+                // limited by address as anonymous requests
+            }
+        }
+
+        InetSocketAddress remoteAddress = request.getRemoteAddress();
+        return "address:" + (remoteAddress == null ? "unknown" : remoteAddress.getHostString());
+    }
+
+    private Mono<Void> handleRejection(ServerWebExchange exchange, long waitNanos) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+        response.getHeaders().set(HttpHeaders.RETRY_AFTER,
+                String.valueOf(Math.max(1, (long) Math.ceil(waitNanos / (double) TimeUnit.SECONDS.toNanos(1)))));
+        try {
+            byte[] bits = objectMapper.writeValueAsBytes(CommonResponseDto.error("Too many requests."));
+            DataBuffer buffer = response.bufferFactory().wrap(bits);
+            response.getHeaders().add("Content-Type", "application/json;charset=UTF-8");
+            return response.writeWith(Mono.just(buffer));
+        } catch (JsonProcessingException e) {
+            log.error("failed to process json", e);
+            return response.setComplete();
+        }
+    }
+}
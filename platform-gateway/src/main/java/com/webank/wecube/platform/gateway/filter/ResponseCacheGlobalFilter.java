@@ -0,0 +1,224 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.webank.wecube.platform.gateway.cache.CachedResponse;
+import com.webank.wecube.platform.gateway.cache.ResponseCache;
+import com.webank.wecube.platform.gateway.cache.ResponseCacheProperties;
+import com.webank.wecube.platform.gateway.route.RoutePathUtils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves GET requests from {@link ResponseCache} and caches the responses the
+ * instances mark as cacheable.
+ * <p>
+ * Fresh responses are served without routing. Stale ones with an ETag are
+ * revalidated with If-None-Match, and served from the cache again if the
+ * instance answers 304. The response body is copied into the cache while it
+ * is written to the client, never held back.
+ */
+public class ResponseCacheGlobalFilter implements GlobalFilter, Ordered {
+
+    private static final Set<String> UNCACHED_HEADERS = new HashSet<>(Arrays.asList(HttpHeaders.CONNECTION,
+            "Keep-Alive", HttpHeaders.TRANSFER_ENCODING, HttpHeaders.UPGRADE, HttpHeaders.PROXY_AUTHENTICATE,
+            HttpHeaders.SET_COOKIE, HttpHeaders.CONTENT_LENGTH));
+
+    private final ResponseCache responseCache;
+    private final ResponseCacheProperties responseCacheProperties;
+
+    public ResponseCacheGlobalFilter(ResponseCache responseCache, ResponseCacheProperties responseCacheProperties) {
+        this.responseCache = responseCache;
+        this.responseCacheProperties = responseCacheProperties;
+    }
+
+    @Override
+    public int getOrder() {
+        // before NettyWriteResponseFilter so that the response body written by it is seen
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (!responseCacheProperties.isEnabled() || route == null || request.getMethod() != HttpMethod.GET) {
+            return chain.filter(exchange);
+        }
+
+        String primaryKey = ResponseCache.calculatePrimaryKey(route.getId(), request.getURI());
+        CachedResponse cachedResponse = responseCache.get(primaryKey, request.getHeaders());
+        if (cachedResponse != null && cachedResponse.isFresh(System.currentTimeMillis())) {
+            return writeCachedResponse(exchange.getResponse(), request, cachedResponse);
+        }
+
+        ServerHttpRequest routedRequest = request;
+        CachedResponse revalidatedResponse = null;
+        if (cachedResponse != null && cachedResponse.getEtag() != null) {
+            revalidatedResponse = cachedResponse;
+            routedRequest = request.mutate()
+                    .headers(headers -> headers.setIfNoneMatch(cachedResponse.getEtag())).build();
+        }
+
+        CachingResponse response = new CachingResponse(exchange.getResponse(), request, primaryKey,
+                RoutePathUtils.calculateComponentPath(request.getURI().getPath()), revalidatedResponse);
+        return chain.filter(exchange.mutate().request(routedRequest).response(response).build());
+    }
+
+    private Mono<Void> writeCachedResponse(ServerHttpResponse response, ServerHttpRequest request,
+            CachedResponse cachedResponse) {
+        response.getHeaders().putAll(cachedResponse.getHeaders());
+        if (isNotModified(request, cachedResponse)) {
+            response.setStatusCode(HttpStatus.NOT_MODIFIED);
+            response.getHeaders().remove(HttpHeaders.CONTENT_LENGTH);
+            return response.setComplete();
+        }
+
+        response.setStatusCode(cachedResponse.getStatusCode());
+        response.getHeaders().setContentLength(cachedResponse.getBody().length);
+        return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(cachedResponse.getBody())));
+    }
+
+    private boolean isNotModified(ServerHttpRequest request, CachedResponse cachedResponse) {
+        if (cachedResponse.getEtag() == null) {
+            return false;
+        }
+        String etag = stripWeakPrefix(cachedResponse.getEtag());
+        for (String requestEtag : request.getHeaders().getIfNoneMatch()) {
+            if ("*".equals(requestEtag) || etag.equals(stripWeakPrefix(requestEtag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private String stripWeakPrefix(String etag) {
+        return etag.startsWith("W/") ? etag.substring(2) : etag;
+    }
+
+    private class CachingResponse extends ServerHttpResponseDecorator {
+        private final ServerHttpRequest request;
+        private final String primaryKey;
+        private final String routeName;
+        private final CachedResponse revalidatedResponse;
+
+        CachingResponse(ServerHttpResponse delegate, ServerHttpRequest request, String primaryKey, String routeName,
+                CachedResponse revalidatedResponse) {
+            super(delegate);
+            this.request = request;
+            this.primaryKey = primaryKey;
+            this.routeName = routeName;
+            this.revalidatedResponse = revalidatedResponse;
+        }
+
+        @Override
+        public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+            HttpStatus statusCode = getStatusCode();
+            if (revalidatedResponse != null && statusCode == HttpStatus.NOT_MODIFIED) {
+                long freshnessMillis = ResponseCache.calculateFreshnessMillis(getHeaders(), isAuthorized());
+                revalidatedResponse.setFreshUntilMillis(System.currentTimeMillis() + Math.max(0, freshnessMillis));
+
+                getHeaders().clear();
+                return Flux.from(body).doOnNext(DataBufferUtils::release)
+                        .then(writeCachedResponse(getDelegate(), request, revalidatedResponse));
+            }
+
+            if (statusCode != HttpStatus.OK) {
+                return super.writeWith(body);
+            }
+
+            long freshnessMillis = ResponseCache.calculateFreshnessMillis(getHeaders(), isAuthorized());
+            if (freshnessMillis < 0) {
+                return super.writeWith(body);
+            }
+
+            BodyCopy bodyCopy = new BodyCopy(responseCacheProperties.getMaxEntryBytes());
+            return super.writeWith(Flux.from(body).doOnNext(bodyCopy::append).doOnComplete(() -> {
+                if (!bodyCopy.isTruncated()) {
+                    cache(statusCode, bodyCopy.toByteArray(), freshnessMillis);
+                }
+            }));
+        }
+
+        private void cache(HttpStatus statusCode, byte[] body, long freshnessMillis) {
+            HttpHeaders headers = new HttpHeaders();
+            getHeaders().forEach((headerName, headerValues) -> {
+                if (!isUncachedHeader(headerName)) {
+                    headers.put(headerName, new ArrayList<>(headerValues));
+                }
+            });
+            responseCache.put(request.getHeaders(), new CachedResponse(primaryKey, routeName, statusCode, headers,
+                    body, System.currentTimeMillis() + freshnessMillis));
+        }
+
+        private boolean isUncachedHeader(String headerName) {
+            for (String uncachedHeader : UNCACHED_HEADERS) {
+                if (uncachedHeader.equalsIgnoreCase(headerName)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isAuthorized() {
+            List<String> authorizationHeaders = request.getHeaders().get(HttpHeaders.AUTHORIZATION);
+            return authorizationHeaders != null && !authorizationHeaders.isEmpty();
+        }
+    }
+
+    /**
+     * Copy of the response body, given up once it exceeds the max size.
+     */
+    private static class BodyCopy {
+        private final long maxBytes;
+        private ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+        BodyCopy(long maxBytes) {
+            this.maxBytes = maxBytes;
+        }
+
+        void append(DataBuffer buffer) {
+            if (bytes == null) {
+                return;
+            }
+            if (bytes.size() + buffer.readableByteCount() > maxBytes) {
+                bytes = null;
+                return;
+            }
+            byte[] bufferBytes = new byte[buffer.readableByteCount()];
+            buffer.asByteBuffer().get(bufferBytes);
+            bytes.write(bufferBytes, 0, bufferBytes.length);
+        }
+
+        boolean isTruncated() {
+            return bytes == null;
+        }
+
+        byte[] toByteArray() {
+            return bytes.toByteArray();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.reactivestreams.Publisher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.webank.wecube.platform.gateway.metrics.GatewayMetricsProperties;
+import com.webank.wecube.platform.gateway.metrics.RouteMetrics;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.route.RoutePathUtils;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Records the metrics of each routed request, from receiving it until its
+ * response body is written, so that the latency includes the overhead of the
+ * gateway itself.
+ */
+public class RouteMetricsGlobalFilter implements GlobalFilter, Ordered {
+    private static final Logger log = LoggerFactory.getLogger(RouteMetricsGlobalFilter.class);
+
+    public static final String UPSTREAM_LATENCY_NANOS_ATTR = RouteMetricsGlobalFilter.class.getName()
+            + ".upstreamLatencyNanos";
+
+    private final RouteMetricsRegistry routeMetricsRegistry;
+    private final GatewayMetricsProperties gatewayMetricsProperties;
+
+    public RouteMetricsGlobalFilter(RouteMetricsRegistry routeMetricsRegistry,
+            GatewayMetricsProperties gatewayMetricsProperties) {
+        this.routeMetricsRegistry = routeMetricsRegistry;
+        this.gatewayMetricsProperties = gatewayMetricsProperties;
+    }
+
+    @Override
+    public int getOrder() {
+        // outermost, so that responses served by the response cache are measured too
+        return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        if (!gatewayMetricsProperties.isEnabled()) {
+            return chain.filter(exchange);
+        }
+
+        long startTime = System.nanoTime();
+        LongAdder responseBytes = new LongAdder();
+        ServerHttpResponseDecorator response = new ServerHttpResponseDecorator(exchange.getResponse()) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                return super.writeWith(Flux.from(body).doOnNext(buffer -> responseBytes.add(buffer.readableByteCount())));
+            }
+
+            @Override
+            public Mono<Void> writeAndFlushWith(Publisher<? extends Publisher<? extends DataBuffer>> body) {
+                return super.writeAndFlushWith(Flux.from(body).map(
+                        p -> Flux.from(p).doOnNext(buffer -> responseBytes.add(buffer.readableByteCount()))));
+            }
+        };
+
+        ServerWebExchange decoratedExchange = exchange.mutate().response(response).build();
+        return chain.filter(decoratedExchange)
+                .doOnSuccess(v -> record(decoratedExchange, startTime, responseBytes.sum(), null, false))
+                .doOnError(e -> record(decoratedExchange, startTime, responseBytes.sum(), e, false))
+                .doOnCancel(() -> record(decoratedExchange, startTime, responseBytes.sum(), null, true));
+    }
+
+    private void record(ServerWebExchange exchange, long startTime, long responseSize, Throwable error,
+            boolean cancelled) {
+        Route route = exchange.getAttribute(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR);
+        if (route == null) {
+            return;
+        }
+
+        long latencyMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        AtomicLong upstreamLatencyNanos = exchange.getAttribute(UPSTREAM_LATENCY_NANOS_ATTR);
+        Long upstreamLatencyMillis = upstreamLatencyNanos == null ? null
+                : TimeUnit.NANOSECONDS.toMillis(upstreamLatencyNanos.get());
+        HttpStatus statusCode = exchange.getResponse().getStatusCode();
+        boolean failed = error != null || (statusCode != null && statusCode.is5xxServerError());
+        String packageName = RoutePathUtils.calculateComponentPath(exchange.getRequest().getURI().getPath());
+
+        RouteMetrics routeMetrics = routeMetricsRegistry.getRouteMetrics(route.getId(), packageName);
+        if (cancelled) {
+            // the client went away, the latency until then is not one of a response
+            routeMetrics.recordCancelledRequest();
+        } else {
+            routeMetrics.record(latencyMillis, upstreamLatencyMillis, responseSize, failed);
+        }
+
+        if (latencyMillis >= gatewayMetricsProperties.getSlowRequestThresholdMillis()) {
+            log.warn("slow request {} {} route:{} status:{} latency:{}ms upstream:{}ms size:{} error:{} cancelled:{}",
+                    exchange.getRequest().getMethod(), exchange.getRequest().getURI().getPath(), route.getId(),
+                    statusCode, latencyMillis, upstreamLatencyMillis, responseSize,
+                    error == null ? null : error.toString(), cancelled);
+        }
+    }
+}
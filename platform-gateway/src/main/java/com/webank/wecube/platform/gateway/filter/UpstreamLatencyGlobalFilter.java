@@ -0,0 +1,34 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.core.Ordered;
+import org.springframework.web.server.ServerWebExchange;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Measures the time the routing filter takes to connect to the instance, send
+ * the request and receive the response headers, summed over the attempts of a
+ * retried request.
+ */
+public class UpstreamLatencyGlobalFilter implements GlobalFilter, Ordered {
+
+    @Override
+    public int getOrder() {
+        // right before NettyRoutingFilter
+        return Ordered.LOWEST_PRECEDENCE - 1;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+        long startTime = System.nanoTime();
+        return chain.filter(exchange).doFinally(signal -> {
+            AtomicLong upstreamLatencyNanos = (AtomicLong) exchange.getAttributes()
+                    .computeIfAbsent(RouteMetricsGlobalFilter.UPSTREAM_LATENCY_NANOS_ATTR, k -> new AtomicLong());
+            upstreamLatencyNanos.addAndGet(System.nanoTime() - startTime);
+        });
+    }
+}
@@ -4,28 +4,34 @@ import java.io.UnsupportedEncodingException;
 import java.net.URI;
 import java.net.URLDecoder;
 import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.server.reactive.ServerHttpRequest;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.server.ServerWebExchange;
 import org.springframework.web.util.UriComponentsBuilder;
 
-import com.webank.wecube.platform.gateway.dto.GenericResponseDto;
 import com.webank.wecube.platform.gateway.dto.RouteItemInfoDto;
+import com.webank.wecube.platform.gateway.hedge.HedgedRequestRouter;
+import com.webank.wecube.platform.gateway.route.DynamicRouteConfigurationService;
+import com.webank.wecube.platform.gateway.route.RouteItemLoadBalancer;
+import com.webank.wecube.platform.gateway.route.RoutePathUtils;
 
-import wiremock.org.apache.commons.lang3.StringUtils;
+import reactor.core.publisher.Mono;
+import reactor.netty.Connection;
 
 public class DynamicRouteGatewayFilterFactory
         extends AbstractGatewayFilterFactory<DynamicRouteGatewayFilterFactory.Config> {
@@ -34,8 +40,21 @@ public class DynamicRouteGatewayFilterFactory
 
     public static final String ENABLED_KEY = "enabled";
 
+    /**
+     * Request bodies are streamed to the instance and cannot be sent again, so
+     * only the idempotent methods without body are retried.
+     */
+    private static final Set<HttpMethod> RETRYABLE_METHODS = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD,
+            HttpMethod.OPTIONS);
+
     private DynamicRouteProperties dynamicRouteProperties;
 
+    private DynamicRouteConfigurationService dynamicRouteConfigurationService;
+
+    private RouteItemLoadBalancer routeItemLoadBalancer;
+
+    private HedgedRequestRouter hedgedRequestRouter;
+
     public DynamicRouteGatewayFilterFactory() {
         super(Config.class);
     }
@@ -68,77 +87,97 @@ public class DynamicRouteGatewayFilterFactory
                 log.debug("route:{} {}", route.getId(), route.getUri().toString());
             }
 
-            String newPath = req.getURI().getPath();
-            String baseUrl = null;
-            try {
-                baseUrl = determineBaseUrl(newPath);
-            } catch (Exception e) {
-                log.error("errors while determining base url", e);
-                return chain.filter(exchange);
-            }
+            String componentPath = calculateComponentPath(req.getURI().getPath());
+            List<RouteItemInfoDto> routeItemInfoDtos = dynamicRouteConfigurationService.getRouteItems(componentPath);
 
-            if (log.isDebugEnabled()) {
-                log.debug("base url:{}", baseUrl);
+            if (routeItemInfoDtos.isEmpty()) {
+                log.warn("There is none route item found for path:{}", req.getURI().getPath());
+                return chain.filter(exchange);
             }
 
-            URI newUri = UriComponentsBuilder.fromHttpUrl(baseUrl).build().toUri();
             ServerWebExchangeUtils.addOriginalRequestUrl(exchange, req.getURI());
-            
-
-            Route newRoute = Route.async().asyncPredicate(route.getPredicate()).filters(route.getFilters())
-                    .id(route.getId()).order(route.getOrder()).uri(newUri).build();
 
-            exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, newRoute);
+            if (hedgedRequestRouter != null
+                    && hedgedRequestRouter.isHedgeable(exchange, componentPath, routeItemInfoDtos)) {
+                return hedgedRequestRouter.route(exchange, route, componentPath, routeItemInfoDtos);
+            }
 
-            return chain.filter(exchange);
+            return filterWithRouteItem(exchange, chain, route, componentPath, routeItemInfoDtos, new HashSet<>());
         });
     }
 
-    protected String determineBaseUrl(String path) {
-        String componentPath = calculateComponentPath(path);
-        RestTemplate client = new RestTemplate();
-
-        String url = dynamicRouteProperties.getRouteConfigServer() + dynamicRouteProperties.getRouteConfigUri() + "/"
-                + componentPath;
+    protected Mono<Void> filterWithRouteItem(ServerWebExchange exchange, GatewayFilterChain chain, Route route,
+            String componentPath, List<RouteItemInfoDto> routeItemInfoDtos, Set<String> triedBaseUrls) {
+        RouteItemInfoDto item = routeItemLoadBalancer.choose(componentPath, routeItemInfoDtos, triedBaseUrls);
+        String baseUrl = RouteItemLoadBalancer.addressOf(item);
+        triedBaseUrls.add(baseUrl);
 
-        HttpHeaders header = new HttpHeaders();
-        header.setContentType(MediaType.APPLICATION_JSON_UTF8);
-        header.add("Authorization", String.format("Bearer %s", dynamicRouteProperties.getRouteConfigAccessKey()));
+        if (log.isDebugEnabled()) {
+            log.debug("base url:{}", baseUrl);
+        }
 
-        HttpEntity<MultiValueMap<String, String>> httpEntity = new HttpEntity<>(header);
+        URI newUri = UriComponentsBuilder.fromHttpUrl(baseUrl).build().toUri();
+        Route newRoute = Route.async().asyncPredicate(route.getPredicate()).filters(route.getFilters())
+                .id(route.getId()).order(route.getOrder()).uri(newUri).build();
 
-        ResponseEntity<RouteConfigInfoResponseDto> responseEntity = client.exchange(url, HttpMethod.GET, httpEntity,
-                RouteConfigInfoResponseDto.class);
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, newRoute);
 
-        RouteConfigInfoResponseDto responseDto = responseEntity.getBody();
+        routeItemLoadBalancer.onRequestStarted(baseUrl);
+        return chain.filter(exchange).doOnCancel(() -> routeItemLoadBalancer.onRequestFinished(baseUrl, false))
+                .then(Mono.<Throwable> empty()).onErrorResume(Mono::just).map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(error -> afterRouted(exchange, chain, route, componentPath, routeItemInfoDtos,
+                        triedBaseUrls, baseUrl, error.orElse(null)));
+    }
 
-        List<RouteItemInfoDto> routeItemInfoDtos = responseDto.getData();
-        if (log.isInfoEnabled()) {
-            if (routeItemInfoDtos != null) {
-                routeItemInfoDtos.forEach(ri -> {
-                    log.info("Route Item:{}", ri);
-                });
-            }
+    private Mono<Void> afterRouted(ServerWebExchange exchange, GatewayFilterChain chain, Route route,
+            String componentPath, List<RouteItemInfoDto> routeItemInfoDtos, Set<String> triedBaseUrls,
+            String baseUrl, Throwable error) {
+        HttpStatus statusCode = exchange.getResponse().getStatusCode();
+        boolean failed = error != null || (statusCode != null && statusCode.is5xxServerError());
+        routeItemLoadBalancer.onRequestFinished(baseUrl, failed);
+
+        if (failed && isRetryable(exchange, routeItemInfoDtos, triedBaseUrls)) {
+            log.warn("request {} to {} failed, retry on another instance, status:{} error:{}",
+                    exchange.getRequest().getURI().getPath(), baseUrl, statusCode, error == null ? null : error.toString());
+            reset(exchange);
+            return filterWithRouteItem(exchange, chain, route, componentPath, routeItemInfoDtos, triedBaseUrls);
         }
 
-        String baseUrl = "";
-        if (routeItemInfoDtos != null && !routeItemInfoDtos.isEmpty()) {
-            RouteItemInfoDto item = routeItemInfoDtos.get(0);
-            baseUrl = String.format("%s://%s:%s", item.getSchema(), item.getHost(), item.getPort());
+        if (error != null) {
+            return Mono.error(error);
         }
-        return baseUrl;
+        return Mono.empty();
     }
 
-    protected String calculateComponentPath(String path) {
-        if (path.startsWith("/")) {
-            path = path.substring(1);
+    private boolean isRetryable(ServerWebExchange exchange, List<RouteItemInfoDto> routeItemInfoDtos,
+            Set<String> triedBaseUrls) {
+        if (!RETRYABLE_METHODS.contains(exchange.getRequest().getMethod())) {
+            return false;
+        }
+        if (exchange.getResponse().isCommitted()) {
+            return false;
+        }
+        if (triedBaseUrls.size() > dynamicRouteProperties.getInstanceMaxRetries()) {
+            return false;
         }
+        return routeItemInfoDtos.stream()
+                .anyMatch(item -> !triedBaseUrls.contains(RouteItemLoadBalancer.addressOf(item)));
+    }
 
-        if (path.indexOf("/") >= 0) {
-            path = path.substring(0, path.indexOf("/"));
+    private void reset(ServerWebExchange exchange) {
+        Connection connection = exchange.getAttribute(ServerWebExchangeUtils.CLIENT_RESPONSE_CONN_ATTR);
+        if (connection != null) {
+            connection.dispose();
         }
+        Set<String> addedHeaders = exchange.getAttributeOrDefault(ServerWebExchangeUtils.CLIENT_RESPONSE_HEADER_NAMES,
+                Collections.emptySet());
+        addedHeaders.forEach(header -> exchange.getResponse().getHeaders().remove(header));
+        exchange.getAttributes().remove(ServerWebExchangeUtils.GATEWAY_ALREADY_ROUTED_ATTR);
+    }
 
-        return path;
+    protected String calculateComponentPath(String path) {
+        return RoutePathUtils.calculateComponentPath(path);
     }
 
     public DynamicRouteProperties getDynamicRouteProperties() {
@@ -149,6 +188,31 @@ public class DynamicRouteGatewayFilterFactory
         this.dynamicRouteProperties = dynamicRouteProperties;
     }
 
+    public RouteItemLoadBalancer getRouteItemLoadBalancer() {
+        return routeItemLoadBalancer;
+    }
+
+    public void setRouteItemLoadBalancer(RouteItemLoadBalancer routeItemLoadBalancer) {
+        this.routeItemLoadBalancer = routeItemLoadBalancer;
+    }
+
+    public HedgedRequestRouter getHedgedRequestRouter() {
+        return hedgedRequestRouter;
+    }
+
+    public void setHedgedRequestRouter(HedgedRequestRouter hedgedRequestRouter) {
+        this.hedgedRequestRouter = hedgedRequestRouter;
+    }
+
+    public DynamicRouteConfigurationService getDynamicRouteConfigurationService() {
+        return dynamicRouteConfigurationService;
+    }
+
+    public void setDynamicRouteConfigurationService(
+            DynamicRouteConfigurationService dynamicRouteConfigurationService) {
+        this.dynamicRouteConfigurationService = dynamicRouteConfigurationService;
+    }
+
     public List<String> shortcutFieldOrder() {
         return Arrays.asList(ENABLED_KEY);
     }
@@ -166,8 +230,4 @@ public class DynamicRouteGatewayFilterFactory
 
     }
 
-    private static class RouteConfigInfoResponseDto extends GenericResponseDto<List<RouteItemInfoDto>> {
-
-    }
-
 }
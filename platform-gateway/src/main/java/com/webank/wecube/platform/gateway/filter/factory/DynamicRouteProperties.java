@@ -7,6 +7,19 @@ public class DynamicRouteProperties {
     private String routeConfigServer;
     private String routeConfigUri;
     private String routeConfigAccessKey;
+    private String routeChangesUri;
+    private int routeChangesLongPollTimeoutMillis = 30000;
+    private long routeChangesRetryIntervalMillis = 3000;
+    private int routeRefreshIntervalSeconds = 300;
+    private int routeConfigConnectTimeoutMillis = 3000;
+    private int routeConfigReadTimeoutMillis = 5000;
+    private int routeConfigMaxConnections = 20;
+    private int routeConfigMaxRetries = 2;
+    private long routeConfigRetryBackoffMillis = 200;
+    private String loadBalanceStrategy = "round-robin";
+    private int outlierConsecutiveFailures = 3;
+    private int outlierEjectionSeconds = 30;
+    private int instanceMaxRetries = 1;
 
     public String getRouteConfigServer() {
         return routeConfigServer;
@@ -32,4 +45,108 @@ public class DynamicRouteProperties {
         this.routeConfigAccessKey = routeConfigAccessKey;
     }
 
+    public int getRouteRefreshIntervalSeconds() {
+        return routeRefreshIntervalSeconds;
+    }
+
+    public void setRouteRefreshIntervalSeconds(int routeRefreshIntervalSeconds) {
+        this.routeRefreshIntervalSeconds = routeRefreshIntervalSeconds;
+    }
+
+    public int getRouteConfigConnectTimeoutMillis() {
+        return routeConfigConnectTimeoutMillis;
+    }
+
+    public void setRouteConfigConnectTimeoutMillis(int routeConfigConnectTimeoutMillis) {
+        this.routeConfigConnectTimeoutMillis = routeConfigConnectTimeoutMillis;
+    }
+
+    public int getRouteConfigReadTimeoutMillis() {
+        return routeConfigReadTimeoutMillis;
+    }
+
+    public void setRouteConfigReadTimeoutMillis(int routeConfigReadTimeoutMillis) {
+        this.routeConfigReadTimeoutMillis = routeConfigReadTimeoutMillis;
+    }
+
+    public int getRouteConfigMaxConnections() {
+        return routeConfigMaxConnections;
+    }
+
+    public void setRouteConfigMaxConnections(int routeConfigMaxConnections) {
+        this.routeConfigMaxConnections = routeConfigMaxConnections;
+    }
+
+    public int getRouteConfigMaxRetries() {
+        return routeConfigMaxRetries;
+    }
+
+    public void setRouteConfigMaxRetries(int routeConfigMaxRetries) {
+        this.routeConfigMaxRetries = routeConfigMaxRetries;
+    }
+
+    public long getRouteConfigRetryBackoffMillis() {
+        return routeConfigRetryBackoffMillis;
+    }
+
+    public void setRouteConfigRetryBackoffMillis(long routeConfigRetryBackoffMillis) {
+        this.routeConfigRetryBackoffMillis = routeConfigRetryBackoffMillis;
+    }
+
+    public String getLoadBalanceStrategy() {
+        return loadBalanceStrategy;
+    }
+
+    public void setLoadBalanceStrategy(String loadBalanceStrategy) {
+        this.loadBalanceStrategy = loadBalanceStrategy;
+    }
+
+    public int getOutlierConsecutiveFailures() {
+        return outlierConsecutiveFailures;
+    }
+
+    public void setOutlierConsecutiveFailures(int outlierConsecutiveFailures) {
+        this.outlierConsecutiveFailures = outlierConsecutiveFailures;
+    }
+
+    public int getOutlierEjectionSeconds() {
+        return outlierEjectionSeconds;
+    }
+
+    public void setOutlierEjectionSeconds(int outlierEjectionSeconds) {
+        this.outlierEjectionSeconds = outlierEjectionSeconds;
+    }
+
+    public int getInstanceMaxRetries() {
+        return instanceMaxRetries;
+    }
+
+    public void setInstanceMaxRetries(int instanceMaxRetries) {
+        this.instanceMaxRetries = instanceMaxRetries;
+    }
+
+    public String getRouteChangesUri() {
+        return routeChangesUri;
+    }
+
+    public void setRouteChangesUri(String routeChangesUri) {
+        this.routeChangesUri = routeChangesUri;
+    }
+
+    public int getRouteChangesLongPollTimeoutMillis() {
+        return routeChangesLongPollTimeoutMillis;
+    }
+
+    public void setRouteChangesLongPollTimeoutMillis(int routeChangesLongPollTimeoutMillis) {
+        this.routeChangesLongPollTimeoutMillis = routeChangesLongPollTimeoutMillis;
+    }
+
+    public long getRouteChangesRetryIntervalMillis() {
+        return routeChangesRetryIntervalMillis;
+    }
+
+    public void setRouteChangesRetryIntervalMillis(long routeChangesRetryIntervalMillis) {
+        this.routeChangesRetryIntervalMillis = routeChangesRetryIntervalMillis;
+    }
+
 }
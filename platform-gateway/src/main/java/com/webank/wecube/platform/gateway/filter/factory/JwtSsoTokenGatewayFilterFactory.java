@@ -54,7 +54,9 @@ public class JwtSsoTokenGatewayFilterFactory
         
         return ((exchange, chain) -> {
             ServerHttpRequest req = exchange.getRequest();
-            log.info("Filter-{},uri:{}", JwtSsoTokenGatewayFilterFactory.class.getSimpleName(), req.getURI().toString());
+            if (log.isDebugEnabled()) {
+                log.debug("Filter-{},uri:{}", JwtSsoTokenGatewayFilterFactory.class.getSimpleName(), req.getURI().toString());
+            }
             
             boolean authenticated = config.isAuthenticated();
             if (!authenticated) {
@@ -113,6 +115,14 @@ public class JwtSsoTokenGatewayFilterFactory
         }
     }
 
+    public JwtSsoTokenParser getJwtParser() {
+        return jwtParser;
+    }
+
+    public void setJwtParser(JwtSsoTokenParser jwtParser) {
+        this.jwtParser = jwtParser;
+    }
+
     @Override
     public List<String> shortcutFieldOrder() {
         return Arrays.asList(AUTHENTICATED_KEY);
@@ -0,0 +1,26 @@
+package com.webank.wecube.platform.gateway.filter.factory;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "platform.gateway.jwt")
+public class JwtSsoTokenProperties {
+    private int tokenCacheMaxSize = 10000;
+    private int tokenCacheMaxTtlSeconds = 300;
+
+    public int getTokenCacheMaxSize() {
+        return tokenCacheMaxSize;
+    }
+
+    public void setTokenCacheMaxSize(int tokenCacheMaxSize) {
+        this.tokenCacheMaxSize = tokenCacheMaxSize;
+    }
+
+    public int getTokenCacheMaxTtlSeconds() {
+        return tokenCacheMaxTtlSeconds;
+    }
+
+    public void setTokenCacheMaxTtlSeconds(int tokenCacheMaxTtlSeconds) {
+        this.tokenCacheMaxTtlSeconds = tokenCacheMaxTtlSeconds;
+    }
+
+}
@@ -0,0 +1,30 @@
+package com.webank.wecube.platform.gateway.hedge;
+
+/**
+ * Budget shared by all the routes bounding hedged requests to a ratio of the
+ * hedgeable ones: each hedgeable request deposits the ratio, each hedged
+ * request withdraws one.
+ */
+public class HedgeBudget {
+    private final double ratio;
+    private final double maxBalance;
+
+    private double balance;
+
+    public HedgeBudget(double ratio, double maxBalance) {
+        this.ratio = ratio;
+        this.maxBalance = maxBalance;
+    }
+
+    public synchronized void deposit() {
+        balance = Math.min(maxBalance, balance + ratio);
+    }
+
+    public synchronized boolean tryWithdraw() {
+        if (balance < 1) {
+            return false;
+        }
+        balance -= 1;
+        return true;
+    }
+}
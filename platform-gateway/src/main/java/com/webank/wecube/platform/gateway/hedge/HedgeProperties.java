@@ -0,0 +1,91 @@
+package com.webank.wecube.platform.gateway.hedge;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "platform.gateway.hedge")
+public class HedgeProperties {
+    private double budgetRatio = 0.1;
+    private double budgetMaxBalance = 20;
+    private long minSamples = 100;
+    /**
+     * hedging policies keyed by the first path segment of the route, routes
+     * without a policy are never hedged
+     */
+    private Map<String, RouteHedgePolicy> routes = new HashMap<>();
+
+    public double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    public void setBudgetRatio(double budgetRatio) {
+        this.budgetRatio = budgetRatio;
+    }
+
+    public double getBudgetMaxBalance() {
+        return budgetMaxBalance;
+    }
+
+    public void setBudgetMaxBalance(double budgetMaxBalance) {
+        this.budgetMaxBalance = budgetMaxBalance;
+    }
+
+    public long getMinSamples() {
+        return minSamples;
+    }
+
+    public void setMinSamples(long minSamples) {
+        this.minSamples = minSamples;
+    }
+
+    public Map<String, RouteHedgePolicy> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteHedgePolicy> routes) {
+        this.routes = routes;
+    }
+
+    public static class RouteHedgePolicy {
+        private boolean enabled = true;
+        private double delayPercentile = 0.95;
+        private long minDelayMillis = 50;
+        private long defaultDelayMillis = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getDelayPercentile() {
+            return delayPercentile;
+        }
+
+        public void setDelayPercentile(double delayPercentile) {
+            this.delayPercentile = delayPercentile;
+        }
+
+        public long getMinDelayMillis() {
+            return minDelayMillis;
+        }
+
+        public void setMinDelayMillis(long minDelayMillis) {
+            this.minDelayMillis = minDelayMillis;
+        }
+
+        public long getDefaultDelayMillis() {
+            return defaultDelayMillis;
+        }
+
+        public void setDefaultDelayMillis(long defaultDelayMillis) {
+            this.defaultDelayMillis = defaultDelayMillis;
+        }
+
+    }
+
+}
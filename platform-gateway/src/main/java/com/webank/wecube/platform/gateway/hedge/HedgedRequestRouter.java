@@ -0,0 +1,165 @@
+package com.webank.wecube.platform.gateway.hedge;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter.Type;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import com.webank.wecube.platform.gateway.dto.RouteItemInfoDto;
+import com.webank.wecube.platform.gateway.filter.RouteMetricsGlobalFilter;
+import com.webank.wecube.platform.gateway.hedge.HedgeProperties.RouteHedgePolicy;
+import com.webank.wecube.platform.gateway.metrics.LatencyHistogram;
+import com.webank.wecube.platform.gateway.metrics.RouteMetrics;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.route.RouteItemLoadBalancer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes GET requests of routes with a hedging policy.
+ * <p>
+ * The request is sent to one instance, and if no response arrives within the
+ * configured percentile of the upstream latency of the route, to another
+ * instance too. Whichever responds first is written to the client and the
+ * other one is cancelled. Hedged requests are bounded by {@link HedgeBudget}.
+ */
+public class HedgedRequestRouter {
+    private static final Logger log = LoggerFactory.getLogger(HedgedRequestRouter.class);
+
+    private final WebClient webClient;
+    private final ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider;
+    private final RouteItemLoadBalancer routeItemLoadBalancer;
+    private final RouteMetricsRegistry routeMetricsRegistry;
+    private final HedgeProperties hedgeProperties;
+    private final HedgeBudget hedgeBudget;
+
+    public HedgedRequestRouter(WebClient webClient, ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider,
+            RouteItemLoadBalancer routeItemLoadBalancer, RouteMetricsRegistry routeMetricsRegistry,
+            HedgeProperties hedgeProperties) {
+        this.webClient = webClient;
+        this.headersFiltersProvider = headersFiltersProvider;
+        this.routeItemLoadBalancer = routeItemLoadBalancer;
+        this.routeMetricsRegistry = routeMetricsRegistry;
+        this.hedgeProperties = hedgeProperties;
+        this.hedgeBudget = new HedgeBudget(hedgeProperties.getBudgetRatio(), hedgeProperties.getBudgetMaxBalance());
+    }
+
+    public boolean isHedgeable(ServerWebExchange exchange, String componentPath,
+            List<RouteItemInfoDto> routeItemInfoDtos) {
+        RouteHedgePolicy policy = hedgeProperties.getRoutes().get(componentPath);
+        return policy != null && policy.isEnabled() && exchange.getRequest().getMethod() == HttpMethod.GET
+                && routeItemInfoDtos.size() > 1;
+    }
+
+    public Mono<Void> route(ServerWebExchange exchange, Route route, String componentPath,
+            List<RouteItemInfoDto> routeItemInfoDtos) {
+        RouteMetrics routeMetrics = routeMetricsRegistry.getRouteMetrics(route.getId(), componentPath);
+        Duration delay = calculateDelay(hedgeProperties.getRoutes().get(componentPath), routeMetrics);
+        hedgeBudget.deposit();
+
+        RouteItemInfoDto primaryItem = routeItemLoadBalancer.choose(componentPath, routeItemInfoDtos,
+                Collections.emptySet());
+        String primaryBaseUrl = RouteItemLoadBalancer.addressOf(primaryItem);
+        AtomicBoolean responded = new AtomicBoolean();
+        long startTime = System.nanoTime();
+
+        Mono<ClientResponse> primaryResponse = send(exchange, primaryBaseUrl, responded);
+        Mono<ClientResponse> hedgedResponse = Mono.delay(delay).flatMap(t -> {
+            RouteItemInfoDto hedgedItem = routeItemLoadBalancer.choose(componentPath, routeItemInfoDtos,
+                    Collections.singleton(primaryBaseUrl));
+            if (hedgedItem == null || responded.get() || !hedgeBudget.tryWithdraw()) {
+                return Mono.empty();
+            }
+
+            String hedgedBaseUrl = RouteItemLoadBalancer.addressOf(hedgedItem);
+            routeMetrics.recordHedgedRequest();
+            if (log.isDebugEnabled()) {
+                log.debug("request {} hedged to {} after {} ms", exchange.getRequest().getURI().getPath(),
+                        hedgedBaseUrl, delay.toMillis());
+            }
+            return send(exchange, hedgedBaseUrl, responded);
+        });
+
+        return Flux.mergeDelayError(2, primaryResponse, hedgedResponse).next().flatMap(clientResponse -> {
+            exchange.getAttributes().put(RouteMetricsGlobalFilter.UPSTREAM_LATENCY_NANOS_ATTR,
+                    new AtomicLong(System.nanoTime() - startTime));
+            return writeResponse(exchange, clientResponse);
+        });
+    }
+
+    /**
+     * @return the configured percentile of the upstream latency of the route,
+     *         or the default delay until enough latencies are sampled
+     */
+    Duration calculateDelay(RouteHedgePolicy policy, RouteMetrics routeMetrics) {
+        LatencyHistogram upstreamLatency = routeMetrics.getUpstreamLatency();
+        long delayMillis = policy.getDefaultDelayMillis();
+        if (upstreamLatency.getCount() >= hedgeProperties.getMinSamples()) {
+            delayMillis = upstreamLatency.getPercentileMillis(policy.getDelayPercentile());
+        }
+        return Duration.ofMillis(Math.max(policy.getMinDelayMillis(), delayMillis));
+    }
+
+    private Mono<ClientResponse> send(ServerWebExchange exchange, String baseUrl, AtomicBoolean responded) {
+        ServerHttpRequest request = exchange.getRequest();
+        URI uri = UriComponentsBuilder.fromHttpUrl(baseUrl).path(request.getURI().getRawPath())
+                .query(request.getURI().getRawQuery()).build(true).toUri();
+        HttpHeaders headers = HttpHeadersFilter.filterRequest(getHeadersFilters(), exchange);
+        headers.remove(HttpHeaders.HOST);
+
+        routeItemLoadBalancer.onRequestStarted(baseUrl);
+        return webClient.get().uri(uri).headers(h -> h.putAll(headers)).exchange()
+                .doOnSuccess(clientResponse -> routeItemLoadBalancer.onRequestFinished(baseUrl,
+                        clientResponse != null && clientResponse.statusCode().is5xxServerError()))
+                .doOnError(e -> routeItemLoadBalancer.onRequestFinished(baseUrl, true))
+                .doOnCancel(() -> routeItemLoadBalancer.onRequestFinished(baseUrl, false))
+                .flatMap(clientResponse -> claimResponse(clientResponse, responded));
+    }
+
+    /**
+     * @return the response if it is the first one of the request, otherwise
+     *         nothing once its body is drained, so that its connection is
+     *         released instead of leaked
+     */
+    Mono<ClientResponse> claimResponse(ClientResponse clientResponse, AtomicBoolean responded) {
+        if (responded.compareAndSet(false, true)) {
+            return Mono.just(clientResponse);
+        }
+        return clientResponse.bodyToMono(Void.class).then(Mono.empty());
+    }
+
+    private Mono<Void> writeResponse(ServerWebExchange exchange, ClientResponse clientResponse) {
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(clientResponse.statusCode());
+        response.getHeaders().putAll(HttpHeadersFilter.filter(getHeadersFilters(),
+                clientResponse.headers().asHttpHeaders(), exchange, Type.RESPONSE));
+        ServerWebExchangeUtils.setAlreadyRouted(exchange);
+
+        return response.writeWith(clientResponse.body(BodyExtractors.toDataBuffers()));
+    }
+
+    private List<HttpHeadersFilter> getHeadersFilters() {
+        List<HttpHeadersFilter> headersFilters = headersFiltersProvider.getIfAvailable();
+        return headersFilters == null ? Collections.emptyList() : headersFilters;
+    }
+}
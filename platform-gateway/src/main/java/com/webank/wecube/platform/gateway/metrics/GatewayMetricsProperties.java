@@ -0,0 +1,26 @@
+package com.webank.wecube.platform.gateway.metrics;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "platform.gateway.metrics")
+public class GatewayMetricsProperties {
+    private boolean enabled = true;
+    private long slowRequestThresholdMillis = 3000;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getSlowRequestThresholdMillis() {
+        return slowRequestThresholdMillis;
+    }
+
+    public void setSlowRequestThresholdMillis(long slowRequestThresholdMillis) {
+        this.slowRequestThresholdMillis = slowRequestThresholdMillis;
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.webank.wecube.platform.gateway.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import com.webank.wecube.platform.gateway.dto.RouteMetricsDto;
+
+/**
+ * Metrics of the requests of one plugin package through one route.
+ */
+public class RouteMetrics {
+    private final String routeId;
+    private final String packageName;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder cancelledRequests = new LongAdder();
+    private final LongAdder responseBytes = new LongAdder();
+    private final LongAdder rateLimitRejections = new LongAdder();
+    private final LongAdder hedgedRequests = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LatencyHistogram upstreamLatency = new LatencyHistogram();
+
+    public RouteMetrics(String routeId, String packageName) {
+        this.routeId = routeId;
+        this.packageName = packageName;
+    }
+
+    public void record(long latencyMillis, Long upstreamLatencyMillis, long responseSize, boolean error) {
+        requests.increment();
+        if (error) {
+            errors.increment();
+        }
+        responseBytes.add(responseSize);
+        latency.record(latencyMillis);
+        if (upstreamLatencyMillis != null) {
+            upstreamLatency.record(upstreamLatencyMillis);
+        }
+    }
+
+    /**
+     * Records a request aborted by the client before its response was
+     * written, which is neither a response nor an upstream failure.
+     */
+    public void recordCancelledRequest() {
+        cancelledRequests.increment();
+    }
+
+    public void recordRateLimitRejection() {
+        rateLimitRejections.increment();
+    }
+
+    public void recordHedgedRequest() {
+        hedgedRequests.increment();
+    }
+
+    public LatencyHistogram getUpstreamLatency() {
+        return upstreamLatency;
+    }
+
+    public RouteMetricsDto toDto() {
+        RouteMetricsDto dto = new RouteMetricsDto();
+        dto.setRouteId(routeId);
+        dto.setPackageName(packageName);
+
+        long requestCount = requests.sum();
+        long errorCount = errors.sum();
+        long responseSize = responseBytes.sum();
+        dto.setRequests(requestCount);
+        dto.setErrors(errorCount);
+        dto.setErrorRate(requestCount == 0 ? 0 : (double) errorCount / requestCount);
+        dto.setCancelledRequests(cancelledRequests.sum());
+        dto.setResponseBytes(responseSize);
+        dto.setMeanResponseBytes(requestCount == 0 ? 0 : (double) responseSize / requestCount);
+        dto.setRateLimitRejections(rateLimitRejections.sum());
+        dto.setHedgedRequests(hedgedRequests.sum());
+        dto.setLatency(toLatencyDto(latency));
+        dto.setUpstreamLatency(toLatencyDto(upstreamLatency));
+        return dto;
+    }
+
+    private RouteMetricsDto.LatencyDto toLatencyDto(LatencyHistogram histogram) {
+        RouteMetricsDto.LatencyDto dto = new RouteMetricsDto.LatencyDto();
+        dto.setCount(histogram.getCount());
+        dto.setMean(histogram.getMeanMillis());
+        dto.setP50(histogram.getPercentileMillis(0.50));
+        dto.setP95(histogram.getPercentileMillis(0.95));
+        dto.setP99(histogram.getPercentileMillis(0.99));
+        dto.setMax(histogram.getMaxMillis());
+        return dto;
+    }
+}
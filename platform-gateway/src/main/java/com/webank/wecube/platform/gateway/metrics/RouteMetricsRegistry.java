@@ -0,0 +1,24 @@
+package com.webank.wecube.platform.gateway.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.webank.wecube.platform.gateway.dto.RouteMetricsDto;
+
+public class RouteMetricsRegistry {
+    private final Map<String, RouteMetrics> routeMetrics = new ConcurrentHashMap<>();
+
+    public RouteMetrics getRouteMetrics(String routeId, String packageName) {
+        return routeMetrics.computeIfAbsent(routeId + "/" + packageName, k -> new RouteMetrics(routeId, packageName));
+    }
+
+    public List<RouteMetricsDto> listRouteMetrics() {
+        List<RouteMetricsDto> dtos = new ArrayList<>();
+        routeMetrics.values().forEach(m -> dtos.add(m.toDto()));
+        dtos.sort(Comparator.comparing(RouteMetricsDto::getRouteId).thenComparing(RouteMetricsDto::getPackageName));
+        return dtos;
+    }
+}
@@ -0,0 +1,97 @@
+package com.webank.wecube.platform.gateway.parser;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+
+/**
+ * Keeps the verified tokens in a bounded concurrent cache keyed by their
+ * SHA-256 hash, so that a token is parsed and verified only once until it
+ * expires. Each entry expires after the max TTL or at the expiration of its
+ * token, whichever comes first. Tokens failing to parse are never cached.
+ */
+public class CachingJwtSsoTokenParser implements JwtSsoTokenParser {
+
+    private final JwtSsoTokenParser delegate;
+    private final long maxTtlMillis;
+    private final Cache<String, VerifiedToken> verifiedTokens;
+
+    public CachingJwtSsoTokenParser(JwtSsoTokenParser delegate, int maxSize, long maxTtlMillis) {
+        this.delegate = delegate;
+        this.maxTtlMillis = maxTtlMillis;
+        this.verifiedTokens = Caffeine.newBuilder().maximumSize(maxSize).expireAfter(new VerifiedTokenExpiry())
+                .build();
+    }
+
+    @Override
+    public Jws<Claims> parseJwt(String token) {
+        // expired tokens are missing in the cache and parsed again so that the
+        // parser reports the expiration
+        VerifiedToken verifiedToken = verifiedTokens.get(hash(token), tokenHash -> verify(token));
+        return verifiedToken == null ? null : verifiedToken.jwt;
+    }
+
+    private VerifiedToken verify(String token) {
+        long now = System.currentTimeMillis();
+        Jws<Claims> jwt = delegate.parseJwt(token);
+        if (jwt == null) {
+            return null;
+        }
+
+        long expireTime = now + maxTtlMillis;
+        Date expiration = jwt.getBody().getExpiration();
+        if (expiration != null) {
+            expireTime = Math.min(expireTime, expiration.getTime());
+        }
+        return new VerifiedToken(jwt, expireTime);
+    }
+
+    private String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return Base64.getEncoder().encodeToString(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class VerifiedToken {
+        private final Jws<Claims> jwt;
+        private final long expireTime;
+
+        VerifiedToken(Jws<Claims> jwt, long expireTime) {
+            this.jwt = jwt;
+            this.expireTime = expireTime;
+        }
+    }
+
+    private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(String tokenHash, VerifiedToken verifiedToken, long currentTime) {
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(0, verifiedToken.expireTime - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(String tokenHash, VerifiedToken verifiedToken, long currentTime,
+                long currentDuration) {
+            return expireAfterCreate(tokenHash, verifiedToken, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String tokenHash, VerifiedToken verifiedToken, long currentTime,
+                long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.webank.wecube.platform.gateway.ratelimit;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "platform.gateway.rate-limit")
+public class RateLimitProperties {
+    private boolean enabled = true;
+    private long burstCapacity = 200;
+    private double refillTokensPerSecond = 100;
+    /**
+     * limits overriding the default ones, keyed by the first path segment of
+     * the route, which is the plugin package name for plugin routes
+     */
+    private Map<String, RouteRateLimit> routes = new HashMap<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public long getBurstCapacity() {
+        return burstCapacity;
+    }
+
+    public void setBurstCapacity(long burstCapacity) {
+        this.burstCapacity = burstCapacity;
+    }
+
+    public double getRefillTokensPerSecond() {
+        return refillTokensPerSecond;
+    }
+
+    public void setRefillTokensPerSecond(double refillTokensPerSecond) {
+        this.refillTokensPerSecond = refillTokensPerSecond;
+    }
+
+    public Map<String, RouteRateLimit> getRoutes() {
+        return routes;
+    }
+
+    public void setRoutes(Map<String, RouteRateLimit> routes) {
+        this.routes = routes;
+    }
+
+    public static class RouteRateLimit {
+        private long burstCapacity;
+        private double refillTokensPerSecond;
+
+        public long getBurstCapacity() {
+            return burstCapacity;
+        }
+
+        public void setBurstCapacity(long burstCapacity) {
+            this.burstCapacity = burstCapacity;
+        }
+
+        public double getRefillTokensPerSecond() {
+            return refillTokensPerSecond;
+        }
+
+        public void setRefillTokensPerSecond(double refillTokensPerSecond) {
+            this.refillTokensPerSecond = refillTokensPerSecond;
+        }
+
+    }
+
+}
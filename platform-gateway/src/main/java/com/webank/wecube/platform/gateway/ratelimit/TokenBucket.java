@@ -0,0 +1,50 @@
+package com.webank.wecube.platform.gateway.ratelimit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bucket holding up to the burst capacity of tokens and refilled continuously,
+ * each request takes one token.
+ */
+public class TokenBucket {
+    private final long burstCapacity;
+    private final double refillTokensPerNano;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(long burstCapacity, double refillTokensPerSecond, long nowNanos) {
+        this.burstCapacity = burstCapacity;
+        this.refillTokensPerNano = refillTokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.tokens = burstCapacity;
+        this.lastRefillNanos = nowNanos;
+    }
+
+    /**
+     * @param nowNanos
+     *            current {@link System#nanoTime()}
+     * @return 0 if a token is taken, otherwise the nanos to wait for the next
+     *         token
+     */
+    public synchronized long tryConsume(long nowNanos) {
+        refill(nowNanos);
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return Math.max(1, (long) Math.ceil((1 - tokens) / refillTokensPerNano));
+    }
+
+    public synchronized boolean isFull(long nowNanos) {
+        refill(nowNanos);
+        return tokens >= burstCapacity;
+    }
+
+    private void refill(long nowNanos) {
+        long elapsedNanos = nowNanos - lastRefillNanos;
+        if (elapsedNanos > 0) {
+            tokens = Math.min(burstCapacity, tokens + elapsedNanos * refillTokensPerNano);
+            lastRefillNanos = nowNanos;
+        }
+    }
+}
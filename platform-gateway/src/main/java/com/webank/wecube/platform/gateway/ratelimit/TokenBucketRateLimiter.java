@@ -0,0 +1,55 @@
+package com.webank.wecube.platform.gateway.ratelimit;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.webank.wecube.platform.gateway.ratelimit.RateLimitProperties.RouteRateLimit;
+
+/**
+ * Keeps one token bucket per user and route in memory.
+ */
+public class TokenBucketRateLimiter {
+    private final RateLimitProperties rateLimitProperties;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    public TokenBucketRateLimiter(RateLimitProperties rateLimitProperties) {
+        this.rateLimitProperties = rateLimitProperties;
+    }
+
+    /**
+     * @param routeName
+     *            first path segment of the route
+     * @param userKey
+     *            key of the user sending the request
+     * @return 0 if the request is allowed, otherwise the nanos to wait before
+     *         sending it again
+     */
+    public long tryAcquire(String routeName, String userKey) {
+        long burstCapacity = rateLimitProperties.getBurstCapacity();
+        double refillTokensPerSecond = rateLimitProperties.getRefillTokensPerSecond();
+        RouteRateLimit routeRateLimit = rateLimitProperties.getRoutes().get(routeName);
+        if (routeRateLimit != null) {
+            burstCapacity = routeRateLimit.getBurstCapacity();
+            refillTokensPerSecond = routeRateLimit.getRefillTokensPerSecond();
+        }
+        // non-positive limits mean the route is not limited
+        if (burstCapacity <= 0 || refillTokensPerSecond <= 0) {
+            return 0;
+        }
+
+        long now = System.nanoTime();
+        long capacity = burstCapacity;
+        double refill = refillTokensPerSecond;
+        TokenBucket bucket = buckets.computeIfAbsent(routeName + "/" + userKey,
+                k -> new TokenBucket(capacity, refill, now));
+        return bucket.tryConsume(now);
+    }
+
+    /**
+     * Drops the buckets refilled to full, which behave the same as new ones.
+     */
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+}
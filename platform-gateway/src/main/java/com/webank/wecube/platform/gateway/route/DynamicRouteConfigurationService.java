@@ -4,10 +4,16 @@ import java.net.URI;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
@@ -22,17 +28,16 @@ import org.springframework.cloud.gateway.route.RouteDefinition;
 import org.springframework.cloud.gateway.route.RouteDefinitionRepository;
 import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.ApplicationEventPublisherAware;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.util.MultiValueMap;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 import org.springframework.web.util.UriComponentsBuilder;
 
 import com.webank.wecube.platform.gateway.dto.GenericResponseDto;
+import com.webank.wecube.platform.gateway.dto.RouteItemChangesDto;
+import com.webank.wecube.platform.gateway.dto.RouteItemChangesDto.RouteItemsChangeDto;
 import com.webank.wecube.platform.gateway.dto.RouteItemInfoDto;
 import com.webank.wecube.platform.gateway.filter.factory.DynamicRouteProperties;
 
@@ -40,9 +45,21 @@ import reactor.core.publisher.Flux;
 import reactor.core.publisher.Mono;
 import wiremock.org.apache.commons.lang3.StringUtils;
 
+/**
+ * Keeps the route table of plugin instances in memory.
+ * <p>
+ * The table is synchronized with core by long-polling the changes since the
+ * route table version the gateway has, core responds with all the route items
+ * the first time and then only with the route items of the changed names.
+ * The route items of a name are also replaced as soon as core pushes them, and
+ * the whole table is refreshed periodically with an ETag check as a fallback,
+ * so that the route items of requests are looked up locally.
+ */
 @Service
 public class DynamicRouteConfigurationService implements ApplicationEventPublisherAware {
 
+    private static final String ROUTE_DEFINITION_ID_SUFFIX = "-1";
+
     private Logger log = LoggerFactory.getLogger(DynamicRouteConfigurationService.class);
 
     @Resource
@@ -51,11 +68,26 @@ public class DynamicRouteConfigurationService implements ApplicationEventPublish
     @Autowired
     private DynamicRouteProperties dynamicRouteProperties;
 
+    @Autowired(required = false)
+    private List<RouteItemsChangeListener> routeItemsChangeListeners = new ArrayList<>();
+
     private ApplicationEventPublisher publisher;
 
-    private Map<String, List<RouteItemInfoDto>> routeItems = new ConcurrentHashMap<>();
+    @Autowired
+    private WebClient routeConfigWebClient;
+
+    @Autowired
+    private WebClient routeChangesWebClient;
+
+    private final Map<String, List<RouteItemInfoDto>> routeItems = new ConcurrentHashMap<>();
+
+    private final AtomicLong routeItemsPushSequence = new AtomicLong();
+
+    private volatile String routeItemsEtag;
+
+    private volatile String routeTableEpoch;
 
-    private volatile boolean isDynamicRouteLoaded = false;
+    private volatile Long routeTableVersion;
 
     @PostConstruct
     public void afterPropertiesSet() {
@@ -68,76 +100,171 @@ public class DynamicRouteConfigurationService implements ApplicationEventPublish
 
     protected void init() {
         log.info("try to load dynamic routes");
-        try {
-            doLoadRoutes();
-            isDynamicRouteLoaded = true;
-        } catch (Exception e) {
-            log.warn("#########################################");
-            log.warn("failed to load default route items", e);
-            isDynamicRouteLoaded = false;
-        }
 
-        if (!isDynamicRouteLoaded) {
-            Flux.interval(Duration.ofSeconds(30)).subscribe(this::loadRoutes);
-        }
+        Duration interval = Duration.ofSeconds(Math.max(1, dynamicRouteProperties.getRouteRefreshIntervalSeconds()));
+        Flux.interval(interval, interval).onBackpressureDrop().concatMap(this::loadRoutes).subscribe();
+
+        Duration retryInterval = Duration.ofMillis(dynamicRouteProperties.getRouteChangesRetryIntervalMillis());
+        Mono.defer(this::syncRouteItemChanges).onErrorResume(e -> {
+            log.warn("failed to sync route item changes since {} {}, retry in {} ms", routeTableEpoch,
+                    routeTableVersion, retryInterval.toMillis(), e);
+            return Mono.delay(retryInterval).then();
+        }).repeat().subscribe();
+    }
+
+    protected Mono<Void> syncRouteItemChanges() {
+        return fetchRouteItemChanges(routeTableEpoch, routeTableVersion).doOnNext(this::applyRouteItemChanges)
+                .then();
     }
 
-    protected void loadRoutes(Long time) {
-        if (isDynamicRouteLoaded) {
+    private void applyRouteItemChanges(RouteItemChangesDto changesDto) {
+        if (changesDto.getChanges().isEmpty() && !changesDto.isFullSync()) {
+            routeTableVersion = changesDto.getVersion();
             return;
         }
 
-        log.info("try to load dynamic routes --- {}", time);
-        try {
-            doLoadRoutes();
+        Map<String, List<RouteItemInfoDto>> changedRouteItems = new LinkedHashMap<>();
+        for (RouteItemsChangeDto change : changesDto.getChanges()) {
+            List<RouteItemInfoDto> items = change.getRouteItems();
+            changedRouteItems.put(change.getName(), items == null ? Collections.emptyList() : items);
+        }
 
-            isDynamicRouteLoaded = true;
-        } catch (Exception e) {
-            log.warn("#########################################");
-            log.warn("failed to load default route items", e);
+        synchronized (this) {
+            // the changes are newer than a full load in progress
+            routeItemsPushSequence.incrementAndGet();
+            if (changesDto.isFullSync()) {
+                for (String name : new HashSet<>(routeItems.keySet())) {
+                    if (!changedRouteItems.containsKey(name)) {
+                        applyRouteItems(name, Collections.emptyList());
+                    }
+                }
+            }
+            changedRouteItems.forEach(this::applyRouteItems);
+            routeTableEpoch = changesDto.getEpoch();
+            routeTableVersion = changesDto.getVersion();
+        }
 
-            isDynamicRouteLoaded = false;
+        log.info("applied route item changes of {} names, full sync:{}, route table version:{}",
+                changedRouteItems.size(), changesDto.isFullSync(), changesDto.getVersion());
+    }
 
+    protected Mono<Void> loadRoutes(Long time) {
+        if (log.isDebugEnabled()) {
+            log.debug("try to refresh dynamic routes --- {}", time);
         }
+        return doLoadRoutes().onErrorResume(e -> {
+            log.warn("#########################################");
+            log.warn("failed to load route items", e);
+            return Mono.empty();
+        });
     }
 
-    protected void doLoadRoutes() {
-        log.info("start to load routes...");
+    protected Mono<Void> doLoadRoutes() {
+        long pushSequence = routeItemsPushSequence.get();
+        return fetchAllRouteItems(routeItemsEtag)
+                .doOnNext(responseEntity -> applyLoadedRouteItems(pushSequence, responseEntity)).then();
+    }
 
-        List<RouteItemInfoDto> dtos = fetchAllRouteItems();
+    private void applyLoadedRouteItems(long pushSequence, ResponseEntity<RouteConfigInfoResponseDto> responseEntity) {
+        if (responseEntity.getStatusCode() == HttpStatus.NOT_MODIFIED) {
+            if (log.isDebugEnabled()) {
+                log.debug("route items not modified, etag:{}", routeItemsEtag);
+            }
+            return;
+        }
+
+        List<RouteItemInfoDto> dtos = null;
+        if (responseEntity.getBody() != null) {
+            dtos = responseEntity.getBody().getData();
+        }
+        if (dtos == null) {
+            dtos = new ArrayList<>();
+        }
 
+        Map<String, List<RouteItemInfoDto>> loadedRouteItems = new LinkedHashMap<>();
         for (RouteItemInfoDto d : dtos) {
-            String name = d.getName();
-            List<RouteItemInfoDto> itemList = routeItems.get(name);
-            if (itemList == null) {
-                itemList = new ArrayList<>();
-                routeItems.put(name, itemList);
+            loadedRouteItems.computeIfAbsent(d.getName(), name -> new ArrayList<>()).add(d);
+        }
+
+        synchronized (this) {
+            if (pushSequence != routeItemsPushSequence.get()) {
+                // the loaded items might be older than the pushed ones
+                log.info("route items pushed while loading, discard the loaded ones");
+                routeItemsEtag = null;
+                return;
             }
 
-            itemList.add(d);
+            for (String name : new HashSet<>(routeItems.keySet())) {
+                if (!loadedRouteItems.containsKey(name)) {
+                    applyRouteItems(name, Collections.emptyList());
+                }
+            }
+            loadedRouteItems.forEach(this::applyRouteItems);
+            routeItemsEtag = responseEntity.getHeaders().getETag();
         }
 
-        initRouteItems();
+        log.info("loaded {} route items of {} names", dtos.size(), loadedRouteItems.size());
+    }
+
+    /**
+     * @param name
+     *            the first path segment of requests
+     * @return route items of the running instances, empty if there is none
+     */
+    public List<RouteItemInfoDto> getRouteItems(String name) {
+        List<RouteItemInfoDto> items = routeItems.get(name);
+        if (items == null) {
+            return Collections.emptyList();
+        }
+        return items;
     }
 
-    protected void initRouteItems() {
-        int count = 0;
-        for (String name : routeItems.keySet()) {
-            List<RouteItemInfoDto> dtos = routeItems.get(name);
-            if (dtos == null || dtos.isEmpty()) {
-                continue;
+    private void applyRouteItems(String name, List<RouteItemInfoDto> items) {
+        List<RouteItemInfoDto> existingItems = routeItems.get(name);
+        if (items.isEmpty()) {
+            if (existingItems != null) {
+                routeItems.remove(name);
+                delete(name + ROUTE_DEFINITION_ID_SUFFIX);
+                log.info("### route removed:{}", name);
+                notifyRouteItemsChanged(name);
             }
+            return;
+        }
+
+        routeItems.put(name, Collections.unmodifiableList(new ArrayList<>(items)));
+        if (existingItems == null || !isSameAddress(existingItems.get(0), items.get(0))) {
+            buildRouteDefinition(name, items.get(0));
+        }
+        if (existingItems == null || !addressesOf(existingItems).equals(addressesOf(items))) {
+            notifyRouteItemsChanged(name);
+        }
+    }
 
-            buildRouteDefinition(name, dtos.get(0));
-            count++;
+    private Set<String> addressesOf(List<RouteItemInfoDto> items) {
+        Set<String> addresses = new HashSet<>();
+        items.forEach(item -> addresses.add(RouteItemLoadBalancer.addressOf(item)));
+        return addresses;
+    }
+
+    private void notifyRouteItemsChanged(String name) {
+        for (RouteItemsChangeListener listener : routeItemsChangeListeners) {
+            try {
+                listener.onRouteItemsChanged(name);
+            } catch (Exception e) {
+                log.warn("failed to notify route items change of {}", name, e);
+            }
         }
+    }
 
-        log.info("add {} route definitions", count);
+    private boolean isSameAddress(RouteItemInfoDto item, RouteItemInfoDto anotherItem) {
+        return Objects.equals(item.getSchema(), anotherItem.getSchema())
+                && Objects.equals(item.getHost(), anotherItem.getHost())
+                && Objects.equals(item.getPort(), anotherItem.getPort());
     }
 
     protected void buildRouteDefinition(String name, RouteItemInfoDto dto) {
         RouteDefinition rd = new RouteDefinition();
-        rd.setId(name + "-1");
+        rd.setId(name + ROUTE_DEFINITION_ID_SUFFIX);
         String urlStr = String.format("http://%s:%s", dto.getHost(), dto.getPort());
         URI uri = UriComponentsBuilder.fromHttpUrl(urlStr).build().toUri();
         rd.setUri(uri);
@@ -178,65 +305,61 @@ public class DynamicRouteConfigurationService implements ApplicationEventPublish
         return items;
     }
 
-    protected List<RouteItemInfoDto> fetchAllRouteItems() {
-        RestTemplate client = new RestTemplate();
-
+    protected Mono<ResponseEntity<RouteConfigInfoResponseDto>> fetchAllRouteItems(String etag) {
         String url = dynamicRouteProperties.getRouteConfigServer() + dynamicRouteProperties.getRouteConfigUri();
 
-        HttpHeaders header = new HttpHeaders();
-        header.setContentType(MediaType.APPLICATION_JSON_UTF8);
-        header.add("Authorization", String.format("Bearer %s", dynamicRouteProperties.getRouteConfigAccessKey()));
-
-        HttpEntity<MultiValueMap<String, String>> httpEntity = new HttpEntity<>(header);
-
-        ResponseEntity<RouteConfigInfoResponseDto> responseEntity = client.exchange(url, HttpMethod.GET, httpEntity,
-                RouteConfigInfoResponseDto.class);
-
-        RouteConfigInfoResponseDto responseDto = responseEntity.getBody();
-
-        List<RouteItemInfoDto> routeItemInfoDtos = responseDto.getData();
-        if (log.isInfoEnabled()) {
-            if (routeItemInfoDtos != null) {
-                routeItemInfoDtos.forEach(ri -> {
-                    log.info("Route Item:{}", ri);
-                });
+        return routeConfigWebClient.get().uri(url).headers(header -> {
+            header.setContentType(MediaType.APPLICATION_JSON_UTF8);
+            header.add("Authorization", String.format("Bearer %s", dynamicRouteProperties.getRouteConfigAccessKey()));
+            if (StringUtils.isNotBlank(etag)) {
+                header.setIfNoneMatch(etag);
             }
-        }
+        }).retrieve().toEntity(RouteConfigInfoResponseDto.class)
+                .timeout(Duration.ofMillis(dynamicRouteProperties.getRouteConfigReadTimeoutMillis()))
+                .retryBackoff(dynamicRouteProperties.getRouteConfigMaxRetries(),
+                        Duration.ofMillis(dynamicRouteProperties.getRouteConfigRetryBackoffMillis()));
+    }
 
-        if (routeItemInfoDtos == null) {
-            routeItemInfoDtos = new ArrayList<>();
+    protected Mono<RouteItemChangesDto> fetchRouteItemChanges(String epoch, Long version) {
+        String changesUri = dynamicRouteProperties.getRouteChangesUri();
+        if (StringUtils.isBlank(changesUri)) {
+            changesUri = dynamicRouteProperties.getRouteConfigUri() + "/changes";
+        }
+        int longPollTimeoutMillis = dynamicRouteProperties.getRouteChangesLongPollTimeoutMillis();
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder
+                .fromHttpUrl(dynamicRouteProperties.getRouteConfigServer() + changesUri)
+                .queryParam("timeoutMillis", longPollTimeoutMillis);
+        if (StringUtils.isNotBlank(epoch) && version != null) {
+            uriBuilder.queryParam("epoch", epoch).queryParam("version", version);
         }
 
-        return routeItemInfoDtos;
+        return routeChangesWebClient.get().uri(uriBuilder.build().toUri()).headers(header -> {
+            header.setContentType(MediaType.APPLICATION_JSON_UTF8);
+            header.add("Authorization", String.format("Bearer %s", dynamicRouteProperties.getRouteConfigAccessKey()));
+        }).retrieve().bodyToMono(RouteItemChangesResponseDto.class)
+                .timeout(Duration.ofMillis(longPollTimeoutMillis + dynamicRouteProperties.getRouteConfigReadTimeoutMillis()))
+                .flatMap(responseDto -> Mono.justOrEmpty(responseDto.getData()));
     }
 
     private void notifyChanged() {
         this.publisher.publishEvent(new RefreshRoutesEvent(this));
     }
 
+    /**
+     * Replaces the route items of the name with the pushed ones, which are all
+     * the running instances of it, and removes the route if there is none.
+     */
     public void pushRouteItem(String name, List<RouteItemInfoDto> routeItems) {
         if (StringUtils.isBlank(name)) {
             log.error("name is blank.");
             return;
         }
 
-        if (routeItems == null || routeItems.isEmpty()) {
-            log.error("route items is empty for name:{}", name);
-            return;
+        log.info("about to apply route items for name {} size {}", name, routeItems.size());
+        synchronized (this) {
+            routeItemsPushSequence.incrementAndGet();
+            applyRouteItems(name, routeItems);
         }
-
-        if (routeItems.contains(name)) {
-            log.error("route items already exist for name:{}", name);
-            return;
-        }
-
-        doPushRouteItem(name, routeItems);
-
-    }
-
-    protected void doPushRouteItem(String name, List<RouteItemInfoDto> routeItems) {
-        log.info("about to add route items for name {} size {}", name, routeItems.size());
-        buildRouteDefinition(name, routeItems.get(0));
     }
 
     public String add(RouteDefinition definition) {
@@ -263,7 +386,8 @@ public class DynamicRouteConfigurationService implements ApplicationEventPublish
 
     public String delete(String id) {
         try {
-            this.routeDefinitionRepository.delete(Mono.just(id));
+            this.routeDefinitionRepository.delete(Mono.just(id)).subscribe(null,
+                    e -> log.warn("failed to delete route definition {}", id, e));
 
             notifyChanged();
             return "delete success";
@@ -283,4 +407,8 @@ public class DynamicRouteConfigurationService implements ApplicationEventPublish
 
     }
 
+    private static class RouteItemChangesResponseDto extends GenericResponseDto<RouteItemChangesDto> {
+
+    }
+
 }
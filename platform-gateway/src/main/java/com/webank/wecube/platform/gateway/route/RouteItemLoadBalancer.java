@@ -0,0 +1,128 @@
+package com.webank.wecube.platform.gateway.route;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.webank.wecube.platform.gateway.dto.RouteItemInfoDto;
+
+/**
+ * Chooses one of the running instances of a plugin for each request.
+ * <p>
+ * Instances failing in a row, with connection errors or 5xx responses, are
+ * ejected for a while and only chosen again when all the other instances are
+ * ejected too.
+ */
+public class RouteItemLoadBalancer {
+    private static final Logger log = LoggerFactory.getLogger(RouteItemLoadBalancer.class);
+
+    public static final String STRATEGY_ROUND_ROBIN = "round-robin";
+    public static final String STRATEGY_LEAST_CONNECTIONS = "least-connections";
+
+    private final String strategy;
+    private final int outlierConsecutiveFailures;
+    private final long outlierEjectionMillis;
+
+    private final Map<String, AtomicInteger> roundRobinCounters = new ConcurrentHashMap<>();
+    private final Map<String, InstanceStats> instanceStats = new ConcurrentHashMap<>();
+
+    public RouteItemLoadBalancer(String strategy, int outlierConsecutiveFailures, long outlierEjectionMillis) {
+        this.strategy = strategy;
+        this.outlierConsecutiveFailures = outlierConsecutiveFailures;
+        this.outlierEjectionMillis = outlierEjectionMillis;
+    }
+
+    public static String addressOf(RouteItemInfoDto item) {
+        return String.format("%s://%s:%s", item.getSchema(), item.getHost(), item.getPort());
+    }
+
+    /**
+     * @param name
+     *            name of the plugin
+     * @param items
+     *            running instances of the plugin
+     * @param excludedAddresses
+     *            addresses already tried by the request
+     * @return the chosen instance, or null if all the instances are excluded
+     */
+    public RouteItemInfoDto choose(String name, List<RouteItemInfoDto> items, Set<String> excludedAddresses) {
+        List<RouteItemInfoDto> candidates = new ArrayList<>();
+        List<RouteItemInfoDto> ejectedCandidates = new ArrayList<>();
+        long now = System.currentTimeMillis();
+        for (RouteItemInfoDto item : items) {
+            String address = addressOf(item);
+            if (excludedAddresses.contains(address)) {
+                continue;
+            }
+            InstanceStats stats = instanceStats.get(address);
+            if (stats != null && stats.ejectedUntilMillis > now) {
+                ejectedCandidates.add(item);
+            } else {
+                candidates.add(item);
+            }
+        }
+
+        if (candidates.isEmpty()) {
+            candidates = ejectedCandidates;
+        }
+        if (candidates.isEmpty()) {
+            return null;
+        }
+
+        int start = Math.floorMod(roundRobinCounters.computeIfAbsent(name, k -> new AtomicInteger()).getAndIncrement(),
+                candidates.size());
+        if (!STRATEGY_LEAST_CONNECTIONS.equals(strategy)) {
+            return candidates.get(start);
+        }
+
+        // starts from the round robin position so that ties are spread
+        RouteItemInfoDto chosen = null;
+        int leastActiveRequests = Integer.MAX_VALUE;
+        for (int i = 0; i < candidates.size(); i++) {
+            RouteItemInfoDto candidate = candidates.get((start + i) % candidates.size());
+            InstanceStats stats = instanceStats.get(addressOf(candidate));
+            int activeRequests = stats == null ? 0 : stats.activeRequests.get();
+            if (activeRequests < leastActiveRequests) {
+                chosen = candidate;
+                leastActiveRequests = activeRequests;
+            }
+        }
+        return chosen;
+    }
+
+    public void onRequestStarted(String address) {
+        getInstanceStats(address).activeRequests.incrementAndGet();
+    }
+
+    public void onRequestFinished(String address, boolean failed) {
+        InstanceStats stats = getInstanceStats(address);
+        stats.activeRequests.decrementAndGet();
+        if (!failed) {
+            stats.consecutiveFailures.set(0);
+            return;
+        }
+
+        if (stats.consecutiveFailures.incrementAndGet() >= outlierConsecutiveFailures) {
+            stats.consecutiveFailures.set(0);
+            stats.ejectedUntilMillis = System.currentTimeMillis() + outlierEjectionMillis;
+            log.warn("instance {} ejected for {} ms after {} consecutive failures", address, outlierEjectionMillis,
+                    outlierConsecutiveFailures);
+        }
+    }
+
+    private InstanceStats getInstanceStats(String address) {
+        return instanceStats.computeIfAbsent(address, k -> new InstanceStats());
+    }
+
+    private static class InstanceStats {
+        private final AtomicInteger activeRequests = new AtomicInteger();
+        private final AtomicInteger consecutiveFailures = new AtomicInteger();
+        private volatile long ejectedUntilMillis;
+    }
+}
@@ -0,0 +1,13 @@
+package com.webank.wecube.platform.gateway.route;
+
+/**
+ * Notified when the running instances of a route change.
+ */
+public interface RouteItemsChangeListener {
+
+    /**
+     * @param name
+     *            the first path segment of the route
+     */
+    void onRouteItemsChanged(String name);
+}
@@ -0,0 +1,25 @@
+package com.webank.wecube.platform.gateway.route;
+
+public final class RoutePathUtils {
+
+    private RoutePathUtils() {
+    }
+
+    /**
+     * @param path
+     *            request path
+     * @return the first segment of the path, which is the name of the plugin
+     *         package for dynamic routes
+     */
+    public static String calculateComponentPath(String path) {
+        if (path.startsWith("/")) {
+            path = path.substring(1);
+        }
+
+        if (path.indexOf("/") >= 0) {
+            path = path.substring(0, path.indexOf("/"));
+        }
+
+        return path;
+    }
+}
@@ -0,0 +1,156 @@
+package com.webank.wecube.platform.gateway.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+
+import org.junit.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+public class ResponseCacheTests {
+    private static final String PRIMARY_KEY = ResponseCache.calculatePrimaryKey("wecmdb-1",
+            URI.create("http://localhost/wecmdb/entities/unit?filter=a"));
+
+    @Test
+    public void givenMaxAgeWhenCalculateFreshnessThenShouldUseIt() {
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("max-age=60"), false)).isEqualTo(60000);
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("max-age=60, s-maxage=10"), false))
+                .isEqualTo(10000);
+    }
+
+    @Test
+    public void givenUncacheableResponseWhenCalculateFreshnessThenShouldBeNegative() {
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("no-store"), false)).isEqualTo(-1);
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("private, max-age=60"), false))
+                .isEqualTo(-1);
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("max-age=abc"), false)).isEqualTo(-1);
+        assertThat(ResponseCache.calculateFreshnessMillis(new HttpHeaders(), false)).isEqualTo(-1);
+
+        HttpHeaders cookieHeaders = cacheControl("max-age=60");
+        cookieHeaders.add(HttpHeaders.SET_COOKIE, "session=1");
+        assertThat(ResponseCache.calculateFreshnessMillis(cookieHeaders, false)).isEqualTo(-1);
+
+        HttpHeaders varyAllHeaders = cacheControl("max-age=60");
+        varyAllHeaders.setVary(Collections.singletonList("*"));
+        assertThat(ResponseCache.calculateFreshnessMillis(varyAllHeaders, false)).isEqualTo(-1);
+    }
+
+    @Test
+    public void givenAuthorizedRequestWhenCalculateFreshnessThenShouldRequireExplicitSharing() {
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("max-age=60"), true)).isEqualTo(-1);
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("public, max-age=60"), true))
+                .isEqualTo(60000);
+        assertThat(ResponseCache.calculateFreshnessMillis(cacheControl("s-maxage=30"), true)).isEqualTo(30000);
+    }
+
+    @Test
+    public void givenNoCacheWithEtagWhenCalculateFreshnessThenShouldRevalidateEachTime() {
+        HttpHeaders headers = cacheControl("no-cache, max-age=60");
+        headers.setETag("\"v1\"");
+
+        assertThat(ResponseCache.calculateFreshnessMillis(headers, false)).isEqualTo(0);
+    }
+
+    @Test
+    public void givenFreshUntilWhenCheckFreshThenShouldCompareWithNow() {
+        CachedResponse response = response(PRIMARY_KEY, new HttpHeaders(), "body", 1000);
+
+        assertThat(response.isFresh(999)).isTrue();
+        assertThat(response.isFresh(1000)).isFalse();
+        response.setFreshUntilMillis(2000);
+        assertThat(response.isFresh(1000)).isTrue();
+    }
+
+    @Test
+    public void givenVaryHeaderWhenGetThenShouldKeyByTheRequestHeaderValues() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024);
+        HttpHeaders responseHeaders = new HttpHeaders();
+        responseHeaders.setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+        CachedResponse english = response(PRIMARY_KEY, responseHeaders, "hello", Long.MAX_VALUE);
+
+        cache.put(language("en"), english);
+
+        assertThat(cache.get(PRIMARY_KEY, language("en"))).isSameAs(english);
+        assertThat(cache.get(PRIMARY_KEY, language("zh"))).isNull();
+        assertThat(cache.get(PRIMARY_KEY, new HttpHeaders())).isNull();
+
+        CachedResponse chinese = response(PRIMARY_KEY, responseHeaders, "ni hao", Long.MAX_VALUE);
+        cache.put(language("zh"), chinese);
+        assertThat(cache.get(PRIMARY_KEY, language("zh"))).isSameAs(chinese);
+        assertThat(cache.get(PRIMARY_KEY, language("en"))).isSameAs(english);
+    }
+
+    @Test
+    public void givenRouteItemsChangedWhenGetThenShouldMissThePurgedRoute() {
+        ResponseCache cache = new ResponseCache(1024 * 1024, 1024);
+        String otherKey = ResponseCache.calculatePrimaryKey("service-mgmt-1",
+                URI.create("http://localhost/service-mgmt/tasks"));
+        cache.put(new HttpHeaders(), response(PRIMARY_KEY, new HttpHeaders(), "unit", Long.MAX_VALUE));
+        CachedResponse other = new CachedResponse(otherKey, "service-mgmt", HttpStatus.OK, new HttpHeaders(),
+                "tasks".getBytes(StandardCharsets.UTF_8), Long.MAX_VALUE);
+        cache.put(new HttpHeaders(), other);
+
+        cache.onRouteItemsChanged("wecmdb");
+
+        assertThat(cache.get(PRIMARY_KEY, new HttpHeaders())).isNull();
+        assertThat(cache.get(otherKey, new HttpHeaders())).isSameAs(other);
+    }
+
+    @Test
+    public void givenTotalBytesExceededWhenPutThenShouldEvictTheLeastRecentlyUsed() {
+        ResponseCache cache = new ResponseCache(250, 200);
+        CachedResponse first = response(key("first"), new HttpHeaders(), repeat('a', 100), Long.MAX_VALUE);
+        CachedResponse second = response(key("second"), new HttpHeaders(), repeat('b', 100), Long.MAX_VALUE);
+        cache.put(new HttpHeaders(), first);
+        cache.put(new HttpHeaders(), second);
+        cache.get(key("first"), new HttpHeaders());
+
+        cache.put(new HttpHeaders(), response(key("third"), new HttpHeaders(), repeat('c', 100), Long.MAX_VALUE));
+
+        assertThat(cache.get(key("first"), new HttpHeaders())).isSameAs(first);
+        assertThat(cache.get(key("second"), new HttpHeaders())).isNull();
+        assertThat(cache.get(key("third"), new HttpHeaders())).isNotNull();
+    }
+
+    @Test
+    public void givenEntryOverMaxBytesWhenPutThenShouldNotCache() {
+        ResponseCache cache = new ResponseCache(1024, 10);
+
+        cache.put(new HttpHeaders(), response(PRIMARY_KEY, new HttpHeaders(), repeat('a', 11), Long.MAX_VALUE));
+
+        assertThat(cache.get(PRIMARY_KEY, new HttpHeaders())).isNull();
+    }
+
+    private static String key(String path) {
+        return ResponseCache.calculatePrimaryKey("wecmdb-1", URI.create("http://localhost/wecmdb/" + path));
+    }
+
+    private static CachedResponse response(String primaryKey, HttpHeaders headers, String body,
+            long freshUntilMillis) {
+        return new CachedResponse(primaryKey, "wecmdb", HttpStatus.OK, headers, body.getBytes(StandardCharsets.UTF_8),
+                freshUntilMillis);
+    }
+
+    private static HttpHeaders cacheControl(String cacheControl) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setCacheControl(cacheControl);
+        return headers;
+    }
+
+    private static HttpHeaders language(String language) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.ACCEPT_LANGUAGE, language);
+        return headers;
+    }
+
+    private static String repeat(char c, int times) {
+        StringBuilder s = new StringBuilder();
+        for (int i = 0; i < times; i++) {
+            s.append(c);
+        }
+        return s.toString();
+    }
+}
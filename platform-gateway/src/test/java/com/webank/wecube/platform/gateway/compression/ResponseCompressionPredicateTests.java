@@ -0,0 +1,274 @@
+package com.webank.wecube.platform.gateway.compression;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.PooledByteBufAllocator;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.compression.ZlibCodecFactory;
+import io.netty.handler.codec.compression.ZlibWrapper;
+import io.netty.handler.codec.http.DefaultHttpHeaders;
+import io.netty.handler.codec.http.HttpHeaderNames;
+import io.netty.handler.codec.http.HttpHeaders;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.server.HttpServer;
+import reactor.netty.http.server.HttpServerRequest;
+import reactor.netty.http.server.HttpServerResponse;
+
+public class ResponseCompressionPredicateTests {
+    private static final String LARGE_JSON = "[" + String.join(",", Collections.nCopies(500, "{\"guid\":\"0001\"}")) + "]";
+    private static final int STREAMED_CHUNK_BYTES = 64 * 1024;
+    private static final int STREAMED_CHUNKS = 4096;
+    private static final long MAX_BUFFERED_BYTES = 64L * 1024 * 1024;
+
+    private ResponseCompressionProperties properties;
+    private ResponseCompressionPredicate predicate;
+    private DisposableServer stubServer;
+
+    @Before
+    public void setup() {
+        properties = new ResponseCompressionProperties();
+        predicate = new ResponseCompressionPredicate(properties.getMinResponseBytes(), properties.getMimeTypes());
+    }
+
+    @After
+    public void tearDown() {
+        if (stubServer != null) {
+            stubServer.disposeNow();
+        }
+    }
+
+    @Test
+    public void givenLargeJsonResponseWhenTestThenShouldCompressAndVaryByAcceptEncoding() {
+        HttpServerResponse response = response(headers -> {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json;charset=UTF-8");
+            headers.set(HttpHeaderNames.CONTENT_LENGTH, "4096");
+        });
+
+        assertThat(predicate.test(mock(HttpServerRequest.class), response)).isTrue();
+        assertThat(response.responseHeaders().get(HttpHeaderNames.VARY)).isEqualTo("accept-encoding");
+    }
+
+    @Test
+    public void givenStreamedResponseWithoutContentLengthWhenTestThenShouldCompress() {
+        HttpServerResponse response = response(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "text/csv"));
+
+        assertThat(predicate.test(mock(HttpServerRequest.class), response)).isTrue();
+    }
+
+    @Test
+    public void givenSmallResponseWhenTestThenShouldNotCompress() {
+        HttpServerResponse response = response(headers -> {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            headers.set(HttpHeaderNames.CONTENT_LENGTH, "2047");
+        });
+
+        assertThat(predicate.test(mock(HttpServerRequest.class), response)).isFalse();
+        assertThat(response.responseHeaders().contains(HttpHeaderNames.VARY)).isFalse();
+    }
+
+    @Test
+    public void givenResponseAlreadyEncodedWhenTestThenShouldPassItThrough() {
+        HttpServerResponse response = response(headers -> {
+            headers.set(HttpHeaderNames.CONTENT_TYPE, "application/json");
+            headers.set(HttpHeaderNames.CONTENT_ENCODING, "gzip");
+            headers.set(HttpHeaderNames.CONTENT_LENGTH, "4096");
+        });
+
+        assertThat(predicate.test(mock(HttpServerRequest.class), response)).isFalse();
+    }
+
+    @Test
+    public void givenIncompressibleOrUnknownContentTypeWhenTestThenShouldNotCompress() {
+        assertThat(predicate.test(mock(HttpServerRequest.class),
+                response(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "image/png")))).isFalse();
+        assertThat(predicate.test(mock(HttpServerRequest.class),
+                response(headers -> headers.set(HttpHeaderNames.CONTENT_TYPE, "not a mime type")))).isFalse();
+        assertThat(predicate.test(mock(HttpServerRequest.class), response(headers -> {
+        }))).isFalse();
+    }
+
+    @Test
+    public void givenServerCompressingByPredicateWhenClientAcceptsGzipThenShouldReceiveItCompressed()
+            throws Exception {
+        stubServer = HttpServer.create().host("localhost").port(0).compress(predicate)
+                .handle((request, response) -> response.header(HttpHeaderNames.CONTENT_TYPE, "application/json")
+                        .sendString(Mono.just(LARGE_JSON)))
+                .bindNow();
+
+        CompressedResponse gzipped = get(HttpHeaderNames.ACCEPT_ENCODING.toString(), "gzip");
+        assertThat(gzipped.contentEncoding).isEqualTo("gzip");
+        assertThat(gzipped.body.length).isLessThan(LARGE_JSON.length());
+        assertThat(gunzip(gzipped.body)).isEqualTo(LARGE_JSON);
+
+        CompressedResponse identity = get(HttpHeaderNames.ACCEPT.toString(), "application/json");
+        assertThat(identity.contentEncoding).isNull();
+        assertThat(new String(identity.body, StandardCharsets.UTF_8)).isEqualTo(LARGE_JSON);
+    }
+
+    @Test
+    public void givenHundredsOfMegabytesStreamedWhenClientAcceptsGzipThenShouldArriveCompleteWithBoundedBuffers()
+            throws Exception {
+        byte[][] chunkTemplates = csvChunkTemplates(16);
+        AtomicLong generatedBytes = new AtomicLong();
+        CRC32 generatedCrc = new CRC32();
+        stubServer = HttpServer.create().host("localhost").port(0).compress(predicate)
+                .handle((request, response) -> response.header(HttpHeaderNames.CONTENT_TYPE, "text/csv")
+                        .send(Flux.<ByteBuf, Integer>generate(() -> 0, (chunk, sink) -> {
+                            if (chunk == STREAMED_CHUNKS) {
+                                sink.complete();
+                                return chunk;
+                            }
+                            byte[] bytes = chunkTemplates[chunk % chunkTemplates.length].clone();
+                            // tells the chunks built from the same template apart
+                            System.arraycopy(String.format("%08x", chunk).getBytes(StandardCharsets.US_ASCII), 0,
+                                    bytes, 0, 8);
+                            synchronized (generatedCrc) {
+                                generatedCrc.update(bytes);
+                            }
+                            generatedBytes.addAndGet(bytes.length);
+                            sink.next(Unpooled.wrappedBuffer(bytes));
+                            return chunk + 1;
+                        })))
+                .bindNow();
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        memory.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        long directMemoryBefore = PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory();
+
+        EmbeddedChannel gunzip = new EmbeddedChannel(ZlibCodecFactory.newZlibDecoder(ZlibWrapper.GZIP));
+        CRC32 receivedCrc = new CRC32();
+        AtomicLong compressedBytes = new AtomicLong();
+        AtomicLong receivedBytes = new AtomicLong();
+        AtomicLong maxBufferedBytes = new AtomicLong();
+        AtomicLong maxDirectMemoryGrowth = new AtomicLong();
+        AtomicReference<String> contentEncoding = new AtomicReference<>();
+
+        long startTime = System.nanoTime();
+        HttpClient.create().headers(headers -> headers.set(HttpHeaderNames.ACCEPT_ENCODING, "gzip")).get()
+                .uri("http://localhost:" + stubServer.port() + "/wecmdb/entities/unit/export")
+                .response((response, body) -> {
+                    contentEncoding.set(response.responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING));
+                    return body.doOnNext(buffer -> {
+                        compressedBytes.addAndGet(buffer.readableBytes());
+                        gunzip.writeInbound(buffer.retain());
+                        ByteBuf decompressed;
+                        while ((decompressed = gunzip.readInbound()) != null) {
+                            receivedCrc.update(decompressed.nioBuffer());
+                            receivedBytes.addAndGet(decompressed.readableBytes());
+                            decompressed.release();
+                        }
+                        // generated by the server but not yet gunzipped by the client
+                        maxBufferedBytes.accumulateAndGet(generatedBytes.get() - receivedBytes.get(), Math::max);
+                        maxDirectMemoryGrowth.accumulateAndGet(
+                                PooledByteBufAllocator.DEFAULT.metric().usedDirectMemory() - directMemoryBefore,
+                                Math::max);
+                    }).then();
+                }).blockLast(Duration.ofSeconds(300));
+        long elapsedMillis = Math.max(1, (System.nanoTime() - startTime) / 1000000);
+        gunzip.finishAndReleaseAll();
+
+        memory.gc();
+        long retainedHeap = memory.getHeapMemoryUsage().getUsed() - heapBefore;
+        long totalBytes = (long) STREAMED_CHUNK_BYTES * STREAMED_CHUNKS;
+        long generatedCrcValue;
+        synchronized (generatedCrc) {
+            generatedCrcValue = generatedCrc.getValue();
+        }
+        String summary = String.format(
+                "%s MB in %s ms, %s MB gzipped, buffered max %s MB, direct grew %s MB, heap retained %s MB",
+                totalBytes >> 20, elapsedMillis, compressedBytes.get() >> 20, maxBufferedBytes.get() >> 20,
+                maxDirectMemoryGrowth.get() >> 20, retainedHeap >> 20);
+
+        assertThat(contentEncoding.get()).as(summary).isEqualTo("gzip");
+        assertThat(receivedBytes.get()).as(summary).isEqualTo(totalBytes);
+        assertThat(receivedCrc.getValue()).as(summary).isEqualTo(generatedCrcValue);
+        assertThat(compressedBytes.get()).as(summary).isLessThan(totalBytes);
+        // streamed with backpressure, never held in full on either side
+        assertThat(maxBufferedBytes.get()).as(summary).isLessThan(MAX_BUFFERED_BYTES);
+        assertThat(maxDirectMemoryGrowth.get()).as(summary).isLessThan(2 * MAX_BUFFERED_BYTES);
+        assertThat(retainedHeap).as(summary).isLessThan(MAX_BUFFERED_BYTES);
+    }
+
+    private HttpServerResponse response(Consumer<HttpHeaders> headersCustomizer) {
+        HttpHeaders headers = new DefaultHttpHeaders();
+        headersCustomizer.accept(headers);
+        HttpServerResponse response = mock(HttpServerResponse.class);
+        when(response.responseHeaders()).thenReturn(headers);
+        return response;
+    }
+
+    private CompressedResponse get(String headerName, String headerValue) {
+        return HttpClient.create().headers(headers -> headers.set(headerName, headerValue)).get()
+                .uri("http://localhost:" + stubServer.port() + "/wecmdb/entities/unit")
+                .responseSingle((response, body) -> body.asByteArray().defaultIfEmpty(new byte[0])
+                        .map(bytes -> new CompressedResponse(
+                                response.responseHeaders().get(HttpHeaderNames.CONTENT_ENCODING), bytes)))
+                .block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * Rows of random hex values, compressible about as well as exported data.
+     */
+    private byte[][] csvChunkTemplates(int templates) {
+        Random random = new Random(0);
+        byte[][] chunkTemplates = new byte[templates][];
+        for (int t = 0; t < templates; t++) {
+            StringBuilder chunk = new StringBuilder(STREAMED_CHUNK_BYTES);
+            while (chunk.length() < STREAMED_CHUNK_BYTES) {
+                chunk.append(Long.toHexString(random.nextLong())).append(',').append(random.nextInt(1000))
+                        .append(",unit\n");
+            }
+            chunk.setLength(STREAMED_CHUNK_BYTES);
+            chunkTemplates[t] = chunk.toString().getBytes(StandardCharsets.US_ASCII);
+        }
+        return chunkTemplates;
+    }
+
+    private String gunzip(byte[] body) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                out.write(buffer, 0, read);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static class CompressedResponse {
+        private final String contentEncoding;
+        private final byte[] body;
+
+        CompressedResponse(String contentEncoding, byte[] body) {
+            this.contentEncoding = contentEncoding;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.webank.wecube.platform.gateway.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.webank.wecube.platform.gateway.filter.factory.DynamicRouteProperties;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Load against a stub core counting the connections it accepts, the calls of
+ * the gateway must reuse the pooled connections instead of opening one per
+ * request, and must not hold the threads they are issued from while core is
+ * responding.
+ */
+public class WebClientConfigurationTests {
+    private static final Logger log = LoggerFactory.getLogger(WebClientConfigurationTests.class);
+
+    private static final String ROUTE_ITEMS_URI = "/platform/v1/route-items";
+    private static final String ROUTE_ITEMS_RESPONSE = "{\"status\":\"OK\",\"message\":\"success\",\"data\":[]}";
+    private static final int EVENT_LOOP_THREADS = 2;
+
+    private final AtomicInteger acceptedConnections = new AtomicInteger();
+
+    private DisposableServer stubCore;
+    private DynamicRouteProperties properties;
+    private WebClientConfiguration webClientConfiguration;
+    private Scheduler eventLoop;
+
+    @Before
+    public void setup() {
+        stubCore = HttpServer.create().host("localhost").port(0)
+                .tcpConfiguration(tcpServer -> tcpServer
+                        .doOnConnection(connection -> acceptedConnections.incrementAndGet()))
+                .route(routes -> routes.get(ROUTE_ITEMS_URI,
+                        (request, response) -> response.header("Content-Type", "application/json")
+                                .sendString(Mono.just(ROUTE_ITEMS_RESPONSE).delayElement(Duration.ofMillis(2)))))
+                .bindNow();
+
+        properties = new DynamicRouteProperties();
+        properties.setRouteConfigServer("http://localhost:" + stubCore.port());
+        properties.setRouteConfigUri(ROUTE_ITEMS_URI);
+        properties.setRouteConfigMaxConnections(4);
+        properties.setRouteChangesLongPollTimeoutMillis(1000);
+
+        webClientConfiguration = new WebClientConfiguration();
+        ReflectionTestUtils.setField(webClientConfiguration, "dynamicRouteProperties", properties);
+
+        eventLoop = Schedulers.newParallel("stub-event-loop", EVENT_LOOP_THREADS);
+    }
+
+    @After
+    public void tearDown() {
+        eventLoop.dispose();
+        stubCore.disposeNow();
+    }
+
+    @Test
+    public void givenConcurrentLoadWhenCallCoreThenShouldReusePooledConnections() {
+        WebClient webClient = webClientConfiguration.routeConfigWebClient();
+        int requests = 2000;
+
+        long startTime = System.nanoTime();
+        List<String> responses = callCore(webClient, requests, 32);
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        assertThat(responses).hasSize(requests).containsOnly(ROUTE_ITEMS_RESPONSE);
+        assertThat(acceptedConnections.get())
+                .as("%s requests in %s ms, %s requests/s", requests, elapsedMillis, requests * 1000 / elapsedMillis)
+                .isBetween(1, properties.getRouteConfigMaxConnections());
+    }
+
+    @Test
+    public void givenSequentialCallsWhenLongPollChangesThenShouldUseOneConnection() {
+        WebClient webClient = webClientConfiguration.routeChangesWebClient();
+
+        List<String> responses = callCore(webClient, 50, 1);
+
+        assertThat(responses).hasSize(50);
+        assertThat(acceptedConnections.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenCallsIssuedFromEventLoopThreadsWhenPooledWebClientReplacesRestTemplateThenThroughputShouldGrow() {
+        properties.setRouteConfigMaxConnections(32);
+        String url = properties.getRouteConfigServer() + properties.getRouteConfigUri();
+        int requests = 500;
+
+        // the previous path, one blocking exchange per call holding the issuing thread
+        RestTemplate restTemplate = new RestTemplate();
+        long restTemplateRate = requestsPerSecond(requests, () -> Flux.range(0, requests)
+                .flatMap(i -> Mono.fromCallable(() -> restTemplate.getForObject(url, String.class))
+                        .subscribeOn(eventLoop), 32));
+
+        WebClient webClient = webClientConfiguration.routeConfigWebClient();
+        long webClientRate = requestsPerSecond(requests, () -> Flux.range(0, requests)
+                .flatMap(i -> webClient.get().uri(url).retrieve().bodyToMono(String.class).subscribeOn(eventLoop),
+                        32));
+
+        log.info("{} calls from {} event loop threads: RestTemplate {} requests/s, pooled WebClient {} requests/s",
+                requests, EVENT_LOOP_THREADS, restTemplateRate, webClientRate);
+        // the blocking path is bounded by the event loop threads, the pooled one by the connections
+        assertThat(webClientRate).as("RestTemplate %s requests/s, WebClient %s requests/s", restTemplateRate,
+                webClientRate).isGreaterThan(restTemplateRate * 3);
+    }
+
+    private long requestsPerSecond(int requests, Supplier<Flux<String>> calls) {
+        // warms the connections and the JIT up before measuring
+        calls.get().take(50).blockLast(Duration.ofSeconds(60));
+
+        long startTime = System.nanoTime();
+        List<String> responses = calls.get().collectList().block(Duration.ofSeconds(60));
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        assertThat(responses).hasSize(requests).containsOnly(ROUTE_ITEMS_RESPONSE);
+        return requests * 1000 / elapsedMillis;
+    }
+
+    private List<String> callCore(WebClient webClient, int requests, int concurrency) {
+        String url = properties.getRouteConfigServer() + properties.getRouteConfigUri();
+        return Flux.range(0, requests)
+                .flatMap(i -> webClient.get().uri(url).retrieve().bodyToMono(String.class), concurrency)
+                .collectList().block(Duration.ofSeconds(60));
+    }
+}
@@ -0,0 +1,125 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.parser.JwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.ratelimit.RateLimitProperties;
+import com.webank.wecube.platform.gateway.ratelimit.TokenBucketRateLimiter;
+
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.DefaultJws;
+import io.jsonwebtoken.impl.DefaultJwsHeader;
+import reactor.core.publisher.Mono;
+
+public class RateLimitGlobalFilterTests {
+    private static final String ROUTE_ID = "wecmdb-1";
+
+    private final AtomicInteger forwardedRequests = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        forwardedRequests.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private RateLimitProperties rateLimitProperties;
+    private RouteMetricsRegistry routeMetricsRegistry;
+    private RateLimitGlobalFilter filter;
+
+    @Before
+    public void setup() {
+        rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setBurstCapacity(2);
+        rateLimitProperties.setRefillTokensPerSecond(0.1);
+        routeMetricsRegistry = new RouteMetricsRegistry();
+
+        JwtSsoTokenParser jwtParser = token -> {
+            if (!token.startsWith("valid-")) {
+                throw new MalformedJwtException("bad token");
+            }
+            return new DefaultJws<>(new DefaultJwsHeader(), new DefaultClaims().setSubject(token.substring(6)),
+                    "signature");
+        };
+        filter = new RateLimitGlobalFilter(new TokenBucketRateLimiter(rateLimitProperties), rateLimitProperties,
+                jwtParser, routeMetricsRegistry);
+    }
+
+    @Test
+    public void givenBurstExceededWhenFilterThenShouldRejectWith429AndRetryAfter() {
+        assertThat(filter(request("valid-admin")).getStatusCode()).isNull();
+        assertThat(filter(request("valid-admin")).getStatusCode()).isNull();
+
+        MockServerHttpResponse response = filter(request("valid-admin"));
+
+        assertThat(forwardedRequests.get()).isEqualTo(2);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        // one token per 10 seconds
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("10");
+        assertThat(response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE)).startsWith("application/json");
+        assertThat(response.getBodyAsString().block(Duration.ofSeconds(5))).contains("Too many requests.");
+        assertThat(routeMetricsRegistry.getRouteMetrics(ROUTE_ID, "wecmdb").toDto().getRateLimitRejections())
+                .isEqualTo(1);
+    }
+
+    @Test
+    public void givenUsersWithOwnTokensWhenFilterThenShouldLimitEachSeparately() {
+        filter(request("valid-admin"));
+        filter(request("valid-admin"));
+
+        assertThat(filter(request("valid-admin")).getStatusCode()).isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(filter(request("valid-guest")).getStatusCode()).isNull();
+        assertThat(forwardedRequests.get()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenInvalidTokenWhenFilterThenShouldLimitByAddress() {
+        filter(request("invalid-token"));
+        filter(request(null));
+
+        assertThat(filter(request("another-invalid-token")).getStatusCode())
+                .isEqualTo(HttpStatus.TOO_MANY_REQUESTS);
+        assertThat(filter(request("valid-admin")).getStatusCode()).isNull();
+    }
+
+    @Test
+    public void givenRateLimitDisabledWhenFilterThenShouldForwardAll() {
+        rateLimitProperties.setEnabled(false);
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(filter(request("valid-admin")).getStatusCode()).isNull();
+        }
+        assertThat(forwardedRequests.get()).isEqualTo(10);
+    }
+
+    private MockServerWebExchange request(String token) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get("/wecmdb/entities/unit")
+                .remoteAddress(new InetSocketAddress("10.0.0.100", 50000));
+        if (token != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, "Bearer " + token);
+        }
+        MockServerWebExchange exchange = MockServerWebExchange.from(builder.build());
+        Route route = Route.async().id(ROUTE_ID).uri("http://10.0.0.1:20000").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private MockServerHttpResponse filter(MockServerWebExchange exchange) {
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange.getResponse();
+    }
+}
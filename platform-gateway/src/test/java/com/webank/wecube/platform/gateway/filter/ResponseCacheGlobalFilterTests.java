@@ -0,0 +1,206 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.webank.wecube.platform.gateway.cache.ResponseCache;
+import com.webank.wecube.platform.gateway.cache.ResponseCacheProperties;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Routes requests through the filter to a stub instance answering with the
+ * configured status, headers and body, as NettyWriteResponseFilter would
+ * write them.
+ */
+public class ResponseCacheGlobalFilterTests {
+    private static final String ROUTE_ID = "wecmdb-1";
+    private static final String PATH = "/wecmdb/entities/unit";
+
+    private final List<ServerHttpRequest> routedRequests = new ArrayList<>();
+
+    private ResponseCache responseCache;
+    private ResponseCacheProperties responseCacheProperties;
+    private ResponseCacheGlobalFilter filter;
+
+    private HttpStatus upstreamStatus;
+    private HttpHeaders upstreamHeaders;
+    private String upstreamBody;
+
+    private final GatewayFilterChain chain = exchange -> {
+        routedRequests.add(exchange.getRequest());
+        ServerHttpResponse response = exchange.getResponse();
+        response.setStatusCode(upstreamStatus);
+        response.getHeaders().putAll(upstreamHeaders);
+        byte[] body = upstreamBody.getBytes(StandardCharsets.UTF_8);
+        return response.writeWith(Flux.just(response.bufferFactory().wrap(body)));
+    };
+
+    @Before
+    public void setup() {
+        responseCacheProperties = new ResponseCacheProperties();
+        responseCache = new ResponseCache(responseCacheProperties.getMaxTotalBytes(),
+                responseCacheProperties.getMaxEntryBytes());
+        filter = new ResponseCacheGlobalFilter(responseCache, responseCacheProperties);
+
+        upstreamStatus = HttpStatus.OK;
+        upstreamHeaders = new HttpHeaders();
+        upstreamBody = "units";
+    }
+
+    @Test
+    public void givenFreshResponseWhenRequestAgainThenShouldServeFromCache() {
+        upstreamHeaders.setCacheControl("public, max-age=60");
+
+        MockServerHttpResponse first = filter(request());
+        upstreamBody = "changed units";
+        MockServerHttpResponse second = filter(request());
+
+        assertThat(routedRequests).hasSize(1);
+        assertThat(bodyOf(first)).isEqualTo("units");
+        assertThat(second.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bodyOf(second)).isEqualTo("units");
+        assertThat(second.getHeaders().getCacheControl()).isEqualTo("public, max-age=60");
+        assertThat(second.getHeaders().getContentLength()).isEqualTo(5);
+    }
+
+    @Test
+    public void givenUncacheableResponseWhenRequestAgainThenShouldRouteAgain() {
+        upstreamHeaders.setCacheControl("private, max-age=60");
+        filter(request());
+        filter(request());
+
+        upstreamHeaders.setCacheControl("max-age=60");
+        filter(request().header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+        filter(request().header(HttpHeaders.AUTHORIZATION, "Bearer token"));
+
+        assertThat(routedRequests).hasSize(4);
+    }
+
+    @Test
+    public void givenVaryHeaderWhenRequestOtherVariantThenShouldRouteIt() {
+        upstreamHeaders.setCacheControl("max-age=60");
+        upstreamHeaders.setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+
+        upstreamBody = "units";
+        filter(request().header(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+        upstreamBody = "danwei";
+        filter(request().header(HttpHeaders.ACCEPT_LANGUAGE, "zh"));
+
+        MockServerHttpResponse english = filter(request().header(HttpHeaders.ACCEPT_LANGUAGE, "en"));
+        MockServerHttpResponse chinese = filter(request().header(HttpHeaders.ACCEPT_LANGUAGE, "zh"));
+
+        assertThat(routedRequests).hasSize(2);
+        assertThat(bodyOf(english)).isEqualTo("units");
+        assertThat(bodyOf(chinese)).isEqualTo("danwei");
+    }
+
+    @Test
+    public void givenRouteItemsChangedWhenRequestAgainThenShouldRouteAgain() {
+        upstreamHeaders.setCacheControl("max-age=60");
+        filter(request());
+
+        responseCache.onRouteItemsChanged("wecmdb");
+        upstreamBody = "units of new instances";
+        MockServerHttpResponse response = filter(request());
+
+        assertThat(routedRequests).hasSize(2);
+        assertThat(bodyOf(response)).isEqualTo("units of new instances");
+    }
+
+    @Test
+    public void givenStaleResponseWithEtagWhenNotModifiedThenShouldServeFromCache() {
+        upstreamHeaders.setCacheControl("no-cache");
+        upstreamHeaders.setETag("\"v1\"");
+        filter(request());
+
+        upstreamStatus = HttpStatus.NOT_MODIFIED;
+        upstreamBody = "";
+        MockServerHttpResponse response = filter(request());
+
+        assertThat(routedRequests).hasSize(2);
+        assertThat(routedRequests.get(0).getHeaders().getIfNoneMatch()).isEmpty();
+        assertThat(routedRequests.get(1).getHeaders().getIfNoneMatch()).containsExactly("\"v1\"");
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getETag()).isEqualTo("\"v1\"");
+        assertThat(bodyOf(response)).isEqualTo("units");
+    }
+
+    @Test
+    public void givenStaleResponseWithEtagWhenModifiedThenShouldServeAndCacheTheNewOne() {
+        upstreamHeaders.setCacheControl("no-cache");
+        upstreamHeaders.setETag("\"v1\"");
+        filter(request());
+
+        upstreamHeaders.setETag("\"v2\"");
+        upstreamBody = "new units";
+        MockServerHttpResponse modified = filter(request());
+        upstreamStatus = HttpStatus.NOT_MODIFIED;
+        upstreamBody = "";
+        MockServerHttpResponse revalidated = filter(request());
+
+        assertThat(bodyOf(modified)).isEqualTo("new units");
+        assertThat(routedRequests.get(2).getHeaders().getIfNoneMatch()).containsExactly("\"v2\"");
+        assertThat(bodyOf(revalidated)).isEqualTo("new units");
+    }
+
+    @Test
+    public void givenClientEtagMatchingFreshResponseWhenRequestThenShouldAnswerNotModified() {
+        upstreamHeaders.setCacheControl("max-age=60");
+        upstreamHeaders.setETag("\"v1\"");
+        filter(request());
+
+        MockServerHttpResponse response = filter(request().header(HttpHeaders.IF_NONE_MATCH, "W/\"v1\""));
+
+        assertThat(routedRequests).hasSize(1);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(response.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH)).isFalse();
+    }
+
+    @Test
+    public void givenCacheDisabledWhenRequestAgainThenShouldRouteAgain() {
+        responseCacheProperties.setEnabled(false);
+        upstreamHeaders.setCacheControl("max-age=60");
+
+        filter(request());
+        filter(request());
+
+        assertThat(routedRequests).hasSize(2);
+    }
+
+    private MockServerHttpRequest.BaseBuilder<?> request() {
+        return MockServerHttpRequest.get(PATH);
+    }
+
+    private MockServerHttpResponse filter(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request.build());
+        Route route = Route.async().id(ROUTE_ID).uri("http://10.0.0.1:20000").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+        return exchange.getResponse();
+    }
+
+    private String bodyOf(MockServerHttpResponse response) {
+        return response.getBodyAsString().defaultIfEmpty("").block(Duration.ofSeconds(5));
+    }
+}
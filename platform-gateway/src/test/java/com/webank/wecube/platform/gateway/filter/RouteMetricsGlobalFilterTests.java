@@ -0,0 +1,203 @@
+package com.webank.wecube.platform.gateway.filter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.BodyExtractors;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.webank.wecube.platform.gateway.dto.RouteMetricsDto;
+import com.webank.wecube.platform.gateway.metrics.GatewayMetricsProperties;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.spi.ILoggingEvent;
+import ch.qos.logback.core.read.ListAppender;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Routes requests through the metrics and upstream latency filters to a stub
+ * instance, the routing filter being stood in for by a WebClient call whose
+ * response body is written with writeWith or writeAndFlushWith.
+ */
+public class RouteMetricsGlobalFilterTests {
+    private static final String BODY = "0123456789";
+    private static final long SLOW_REQUEST_THRESHOLD_MILLIS = 200;
+    private static final long SLOW_RESPONSE_DELAY_MILLIS = 300;
+
+    private final WebClient webClient = WebClient.create();
+
+    private DisposableServer stubInstance;
+    private RouteMetricsRegistry routeMetricsRegistry;
+    private GatewayMetricsProperties gatewayMetricsProperties;
+    private RouteMetricsGlobalFilter filter;
+    private ListAppender<ILoggingEvent> logAppender;
+
+    @Before
+    public void setup() {
+        stubInstance = HttpServer.create().host("localhost").port(0)
+                .route(routes -> routes
+                        .get("/{packageName}/ok", (request, response) -> response.sendString(Mono.just(BODY)))
+                        .get("/{packageName}/unavailable",
+                                (request, response) -> response.status(503).sendString(Mono.just("unavailable")))
+                        .get("/{packageName}/slow", (request, response) -> response.sendString(
+                                Mono.just(BODY).delayElement(Duration.ofMillis(SLOW_RESPONSE_DELAY_MILLIS)))))
+                .bindNow();
+        // the first call starts the client event loop, which must not count as a slow request
+        webClient.get().uri("http://localhost:" + stubInstance.port() + "/wecmdb/ok").retrieve()
+                .bodyToMono(String.class).block(Duration.ofSeconds(5));
+
+        routeMetricsRegistry = new RouteMetricsRegistry();
+        gatewayMetricsProperties = new GatewayMetricsProperties();
+        gatewayMetricsProperties.setSlowRequestThresholdMillis(SLOW_REQUEST_THRESHOLD_MILLIS);
+        filter = new RouteMetricsGlobalFilter(routeMetricsRegistry, gatewayMetricsProperties);
+
+        logAppender = new ListAppender<>();
+        logAppender.start();
+        filterLogger().addAppender(logAppender);
+    }
+
+    @After
+    public void tearDown() {
+        filterLogger().detachAppender(logAppender);
+        stubInstance.disposeNow();
+    }
+
+    @Test
+    public void givenRequestsOfRoutesAndPackagesWhenFilterThenShouldRecordThemSeparately() {
+        filter(exchange("wecmdb-1", "/wecmdb/ok"), false);
+        filter(exchange("wecmdb-1", "/wecmdb/ok"), true);
+        filter(exchange("wecmdb-1", "/monitor/ok"), false);
+        filter(exchange("monitor-1", "/monitor/ok"), true);
+
+        RouteMetricsDto wecmdb = metricsOf("wecmdb-1", "wecmdb");
+        assertThat(wecmdb.getRequests()).isEqualTo(2);
+        assertThat(wecmdb.getResponseBytes()).isEqualTo(2 * BODY.length());
+        assertThat(wecmdb.getErrors()).isEqualTo(0);
+        assertThat(wecmdb.getLatency().getCount()).isEqualTo(2);
+        assertThat(wecmdb.getUpstreamLatency().getCount()).isEqualTo(2);
+
+        assertThat(routeMetricsRegistry.listRouteMetrics())
+                .extracting(RouteMetricsDto::getRouteId, RouteMetricsDto::getPackageName, RouteMetricsDto::getRequests)
+                .containsExactly(tuple("monitor-1", "monitor", 1L), tuple("wecmdb-1", "monitor", 1L),
+                        tuple("wecmdb-1", "wecmdb", 2L));
+    }
+
+    @Test
+    public void givenServerErrorsAndExceptionsWhenFilterThenShouldCountThemAsErrors() {
+        filter(exchange("wecmdb-1", "/wecmdb/ok"), false);
+        filter(exchange("wecmdb-1", "/wecmdb/unavailable"), false);
+        MockServerWebExchange failing = exchange("wecmdb-1", "/wecmdb/ok");
+        assertThatThrownBy(() -> filter.filter(failing, exchange -> Mono.error(new IllegalStateException("reset")))
+                .block(Duration.ofSeconds(5))).isInstanceOf(IllegalStateException.class);
+        filter(exchange("wecmdb-1", "/wecmdb/ok"), true);
+
+        RouteMetricsDto wecmdb = metricsOf("wecmdb-1", "wecmdb");
+        assertThat(wecmdb.getRequests()).isEqualTo(4);
+        assertThat(wecmdb.getErrors()).isEqualTo(2);
+        assertThat(wecmdb.getErrorRate()).isEqualTo(0.5);
+        // the exception was raised without going through the upstream latency filter
+        assertThat(wecmdb.getUpstreamLatency().getCount()).isEqualTo(3);
+    }
+
+    @Test
+    public void givenSlowUpstreamWhenFilterThenShouldRecordUpstreamLatencyAndWarnPastThreshold() {
+        filter(exchange("wecmdb-1", "/wecmdb/ok"), false);
+        assertThat(slowRequestWarnings()).isEmpty();
+
+        filter(exchange("wecmdb-1", "/wecmdb/slow"), true);
+
+        RouteMetricsDto wecmdb = metricsOf("wecmdb-1", "wecmdb");
+        assertThat(wecmdb.getUpstreamLatency().getMax()).isGreaterThanOrEqualTo(SLOW_RESPONSE_DELAY_MILLIS);
+        assertThat(wecmdb.getLatency().getMax()).isGreaterThanOrEqualTo(wecmdb.getUpstreamLatency().getMax());
+        assertThat(wecmdb.getResponseBytes()).isEqualTo(2 * BODY.length());
+
+        List<String> warnings = slowRequestWarnings();
+        assertThat(warnings).hasSize(1);
+        assertThat(warnings.get(0)).contains("/wecmdb/slow", "route:wecmdb-1", "status:200", "size:10");
+    }
+
+    @Test
+    public void givenClientAbortingWhenUpstreamSlowThenShouldCountCancelledRequestOnly() throws Exception {
+        Disposable request = filter.filter(exchange("wecmdb-1", "/wecmdb/slow"), routingChain(false)).subscribe();
+        Thread.sleep(SLOW_RESPONSE_DELAY_MILLIS / 3);
+        request.dispose();
+
+        RouteMetricsDto wecmdb = metricsOf("wecmdb-1", "wecmdb");
+        assertThat(wecmdb.getCancelledRequests()).isEqualTo(1);
+        assertThat(wecmdb.getRequests()).isEqualTo(0);
+        assertThat(wecmdb.getErrors()).isEqualTo(0);
+        assertThat(wecmdb.getLatency().getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenMetricsDisabledWhenFilterThenShouldRecordNothing() {
+        gatewayMetricsProperties.setEnabled(false);
+
+        filter(exchange("wecmdb-1", "/wecmdb/ok"), false);
+
+        assertThat(routeMetricsRegistry.listRouteMetrics()).isEmpty();
+    }
+
+    private void filter(MockServerWebExchange exchange, boolean flushEachBuffer) {
+        filter.filter(exchange, routingChain(flushEachBuffer)).block(Duration.ofSeconds(5));
+    }
+
+    /**
+     * The upstream latency filter followed by a call to the stub instance
+     * standing for the routing filter.
+     */
+    private GatewayFilterChain routingChain(boolean flushEachBuffer) {
+        UpstreamLatencyGlobalFilter upstreamLatencyFilter = new UpstreamLatencyGlobalFilter();
+        GatewayFilterChain routing = exchange -> webClient.get()
+                .uri("http://localhost:" + stubInstance.port() + exchange.getRequest().getURI().getPath()).exchange()
+                .flatMap(clientResponse -> {
+                    exchange.getResponse().setStatusCode(clientResponse.statusCode());
+                    Flux<DataBuffer> body = clientResponse.body(BodyExtractors.toDataBuffers());
+                    return flushEachBuffer ? exchange.getResponse().writeAndFlushWith(body.map(Mono::just))
+                            : exchange.getResponse().writeWith(body);
+                });
+        return exchange -> upstreamLatencyFilter.filter(exchange, routing);
+    }
+
+    private MockServerWebExchange exchange(String routeId, String path) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+        Route route = Route.async().id(routeId).uri("http://localhost").predicate(e -> true).build();
+        exchange.getAttributes().put(ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR, route);
+        return exchange;
+    }
+
+    private RouteMetricsDto metricsOf(String routeId, String packageName) {
+        return routeMetricsRegistry.getRouteMetrics(routeId, packageName).toDto();
+    }
+
+    private List<String> slowRequestWarnings() {
+        return logAppender.list.stream().filter(event -> event.getLevel() == Level.WARN)
+                .map(ILoggingEvent::getFormattedMessage).filter(message -> message.startsWith("slow request"))
+                .collect(Collectors.toList());
+    }
+
+    private static Logger filterLogger() {
+        return (Logger) LoggerFactory.getLogger(RouteMetricsGlobalFilter.class);
+    }
+}
@@ -0,0 +1,143 @@
+package com.webank.wecube.platform.gateway.filter.factory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import com.webank.wecube.platform.gateway.parser.CachingJwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.parser.DefaultJwtSsoTokenParser;
+import com.webank.wecube.platform.gateway.parser.JwtSsoTokenParser;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the same requests through the filter with the verifying parser and
+ * with the caching one, and compares the overhead per request of each.
+ */
+public class JwtSsoTokenGatewayFilterFactoryTests {
+    private static final Logger log = LoggerFactory.getLogger(JwtSsoTokenGatewayFilterFactoryTests.class);
+
+    private static final String SIGNING_KEY = "platform-auth-server-@Jwt!&Secret^#";
+    private static final long ONE_HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final AtomicInteger forwardedRequests = new AtomicInteger();
+    private final GatewayFilterChain chain = exchange -> {
+        forwardedRequests.incrementAndGet();
+        return Mono.empty();
+    };
+
+    private List<String> tokens;
+
+    @Before
+    public void setup() {
+        tokens = new ArrayList<>();
+        for (int i = 0; i < 50; i++) {
+            tokens.add(signedToken("user-" + i, System.currentTimeMillis() + ONE_HOUR_MILLIS));
+        }
+    }
+
+    @Test
+    public void givenValidTokenWhenFilterThenShouldForwardRequest() {
+        GatewayFilter filter = filter(new DefaultJwtSsoTokenParser());
+
+        MockServerWebExchange exchange = request(tokens.get(0));
+        filter.filter(exchange, chain).block(Duration.ofSeconds(5));
+
+        assertThat(exchange.getResponse().getStatusCode()).isNull();
+        assertThat(forwardedRequests.get()).isEqualTo(1);
+    }
+
+    @Test
+    public void givenExpiredOrMissingTokenWhenFilterThenShouldRejectWith401() {
+        GatewayFilter filter = filter(
+                new CachingJwtSsoTokenParser(new DefaultJwtSsoTokenParser(), 100, ONE_HOUR_MILLIS));
+
+        MockServerWebExchange expired = request(signedToken("admin", System.currentTimeMillis() - 1000));
+        filter.filter(expired, chain).block(Duration.ofSeconds(5));
+        MockServerWebExchange missing = request(null);
+        filter.filter(missing, chain).block(Duration.ofSeconds(5));
+
+        assertThat(expired.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(expired.getResponse().getBodyAsString().block(Duration.ofSeconds(5)))
+                .contains("Access token has expired.");
+        assertThat(missing.getResponse().getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
+        assertThat(forwardedRequests.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenSameLoadWhenFilterWithCachingParserThenShouldCostLessPerRequestThanVerifyingEachToken() {
+        int requests = 20000;
+        GatewayFilter verifyingFilter = filter(new DefaultJwtSsoTokenParser());
+        GatewayFilter cachingFilter = filter(
+                new CachingJwtSsoTokenParser(new DefaultJwtSsoTokenParser(), 1000, ONE_HOUR_MILLIS));
+
+        // warms the JIT and the cache up before measuring
+        nanosPerRequest(verifyingFilter, 2000);
+        nanosPerRequest(cachingFilter, 2000);
+        long verifyingNanos = nanosPerRequest(verifyingFilter, requests);
+        long cachingNanos = nanosPerRequest(cachingFilter, requests);
+
+        log.info("{} requests with {} tokens: {} ns per request verifying each token, {} ns per request cached",
+                requests, tokens.size(), verifyingNanos, cachingNanos);
+        assertThat(forwardedRequests.get()).isEqualTo(2 * (requests + 2000));
+        assertThat(cachingNanos).as("verifying %s ns per request, cached %s ns per request", verifyingNanos,
+                cachingNanos).isLessThan(verifyingNanos / 2);
+    }
+
+    private long nanosPerRequest(GatewayFilter filter, int requests) {
+        List<MockServerWebExchange> exchanges = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            exchanges.add(request(tokens.get(i % tokens.size())));
+        }
+
+        long startTime = System.nanoTime();
+        for (MockServerWebExchange exchange : exchanges) {
+            filter.filter(exchange, chain).block();
+        }
+        long elapsedNanos = System.nanoTime() - startTime;
+
+        for (MockServerWebExchange exchange : exchanges) {
+            assertThat(exchange.getResponse().getStatusCode()).isNull();
+        }
+        return elapsedNanos / requests;
+    }
+
+    private GatewayFilter filter(JwtSsoTokenParser jwtParser) {
+        JwtSsoTokenGatewayFilterFactory factory = new JwtSsoTokenGatewayFilterFactory();
+        factory.setJwtParser(jwtParser);
+        JwtSsoTokenGatewayFilterFactory.Config config = new JwtSsoTokenGatewayFilterFactory.Config();
+        config.setAuthenticated(true);
+        return factory.apply(config);
+    }
+
+    private MockServerWebExchange request(String token) {
+        MockServerHttpRequest.BaseBuilder<?> builder = MockServerHttpRequest.get("/wecmdb/entities/unit");
+        if (token != null) {
+            builder.header(HttpHeaders.AUTHORIZATION, JwtSsoTokenGatewayFilterFactory.TOKEN_PREFIX + " " + token);
+        }
+        return MockServerWebExchange.from(builder.build());
+    }
+
+    private String signedToken(String subject, long expireTime) {
+        return Jwts.builder().setSubject(subject).setIssuedAt(new Date()).setExpiration(new Date(expireTime))
+                .signWith(SignatureAlgorithm.HS512, SIGNING_KEY).compact();
+    }
+}
@@ -0,0 +1,59 @@
+package com.webank.wecube.platform.gateway.hedge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class HedgeBudgetTests {
+
+    @Test
+    public void givenNoDepositWhenWithdrawThenShouldRefuse() {
+        HedgeBudget budget = new HedgeBudget(0.1, 20);
+
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    public void givenDepositsWhenWithdrawThenShouldAllowOnePerWholeBalance() {
+        HedgeBudget budget = new HedgeBudget(0.25, 20);
+        for (int i = 0; i < 3; i++) {
+            budget.deposit();
+        }
+        assertThat(budget.tryWithdraw()).isFalse();
+
+        budget.deposit();
+        assertThat(budget.tryWithdraw()).isTrue();
+        assertThat(budget.tryWithdraw()).isFalse();
+    }
+
+    @Test
+    public void givenRatioWhenManyRequestsThenShouldBoundTheHedgedOnes() {
+        HedgeBudget budget = new HedgeBudget(0.1, 20);
+
+        int hedged = 0;
+        for (int i = 0; i < 1000; i++) {
+            budget.deposit();
+            if (budget.tryWithdraw()) {
+                hedged++;
+            }
+        }
+
+        // the deposits of 0.1 do not add up to 1 exactly
+        assertThat(hedged).isBetween(99, 100);
+    }
+
+    @Test
+    public void givenLongIdleWhenDepositThenShouldCapTheBalance() {
+        HedgeBudget budget = new HedgeBudget(1, 3);
+        for (int i = 0; i < 100; i++) {
+            budget.deposit();
+        }
+
+        int hedged = 0;
+        while (budget.tryWithdraw()) {
+            hedged++;
+        }
+
+        assertThat(hedged).isEqualTo(3);
+    }
+}
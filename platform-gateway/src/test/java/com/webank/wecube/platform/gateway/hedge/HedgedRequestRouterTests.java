@@ -0,0 +1,263 @@
+package com.webank.wecube.platform.gateway.hedge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.gateway.filter.headers.HttpHeadersFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.webank.wecube.platform.gateway.dto.RouteItemInfoDto;
+import com.webank.wecube.platform.gateway.hedge.HedgeProperties.RouteHedgePolicy;
+import com.webank.wecube.platform.gateway.metrics.RouteMetrics;
+import com.webank.wecube.platform.gateway.metrics.RouteMetricsRegistry;
+import com.webank.wecube.platform.gateway.route.RouteItemLoadBalancer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Routes requests to two stub instances whose latency is controlled by the
+ * tests. Instances are chosen round robin, so the primary request of the
+ * first request of a test goes to the first instance.
+ */
+public class HedgedRequestRouterTests {
+    private static final String NAME = "wecmdb";
+    private static final Route ROUTE = Route.async().id(NAME + "-1").uri("http://localhost").predicate(e -> true)
+            .build();
+
+    private final AtomicInteger primaryInstanceRequests = new AtomicInteger();
+    private final AtomicInteger secondInstanceRequests = new AtomicInteger();
+
+    private volatile IntFunction<Long> primaryInstanceDelayMillis = i -> 0L;
+    private volatile IntFunction<Long> secondInstanceDelayMillis = i -> 0L;
+
+    private DisposableServer primaryInstance;
+    private DisposableServer secondInstance;
+    private List<RouteItemInfoDto> routeItems;
+
+    private HedgeProperties hedgeProperties;
+    private RouteHedgePolicy policy;
+    private RouteMetricsRegistry routeMetricsRegistry;
+    private RouteItemLoadBalancer routeItemLoadBalancer;
+
+    @Before
+    public void setup() {
+        primaryInstance = startInstance("primary", primaryInstanceRequests, i -> primaryInstanceDelayMillis.apply(i));
+        secondInstance = startInstance("second", secondInstanceRequests, i -> secondInstanceDelayMillis.apply(i));
+        routeItems = Arrays.asList(routeItem(primaryInstance), routeItem(secondInstance));
+
+        policy = new RouteHedgePolicy();
+        policy.setMinDelayMillis(10);
+        policy.setDefaultDelayMillis(100);
+        hedgeProperties = new HedgeProperties();
+        hedgeProperties.getRoutes().put(NAME, policy);
+        routeMetricsRegistry = new RouteMetricsRegistry();
+        routeItemLoadBalancer = spy(
+                new RouteItemLoadBalancer(RouteItemLoadBalancer.STRATEGY_ROUND_ROBIN, 1000, 30000));
+    }
+
+    @After
+    public void tearDown() {
+        primaryInstance.disposeNow();
+        secondInstance.disposeNow();
+    }
+
+    @Test
+    public void givenFewSamplesWhenCalculateDelayThenShouldUseTheDefaultDelay() {
+        RouteMetrics routeMetrics = recordUpstreamLatencies(99, 30);
+
+        assertThat(newRouter().calculateDelay(policy, routeMetrics)).isEqualTo(Duration.ofMillis(100));
+    }
+
+    @Test
+    public void givenEnoughSamplesWhenCalculateDelayThenShouldUseThePercentile() {
+        RouteMetrics routeMetrics = recordUpstreamLatencies(100, 30);
+
+        assertThat(newRouter().calculateDelay(policy, routeMetrics)).isEqualTo(Duration.ofMillis(30));
+
+        policy.setMinDelayMillis(50);
+        assertThat(newRouter().calculateDelay(policy, routeMetrics)).isEqualTo(Duration.ofMillis(50));
+    }
+
+    @Test
+    public void givenFastPrimaryWhenRouteThenShouldNotHedge() {
+        hedgeProperties.setBudgetRatio(1);
+        HedgedRequestRouter router = newRouter();
+
+        MockServerWebExchange exchange = exchange();
+        router.route(exchange, ROUTE, NAME, routeItems).block(Duration.ofSeconds(5));
+
+        assertThat(bodyOf(exchange)).isEqualTo("primary");
+        assertThat(secondInstanceRequests.get()).isEqualTo(0);
+        assertThat(routeMetricsRegistry.getRouteMetrics(ROUTE.getId(), NAME).toDto().getHedgedRequests())
+                .isEqualTo(0);
+    }
+
+    @Test
+    public void givenStalledPrimaryWhenRouteThenShouldHedgeAfterTheDelayAndCancelThePrimary() {
+        hedgeProperties.setBudgetRatio(1);
+        primaryInstanceDelayMillis = i -> 3000L;
+        HedgedRequestRouter router = newRouter();
+
+        long startTime = System.nanoTime();
+        MockServerWebExchange exchange = exchange();
+        router.route(exchange, ROUTE, NAME, routeItems).block(Duration.ofSeconds(5));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertThat(exchange.getResponse().getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(bodyOf(exchange)).isEqualTo("second");
+        assertThat(elapsedMillis).isBetween(policy.getDefaultDelayMillis(), 2000L);
+        assertThat(routeMetricsRegistry.getRouteMetrics(ROUTE.getId(), NAME).toDto().getHedgedRequests())
+                .isEqualTo(1);
+        // the primary request is cancelled without counting as a failure
+        String primaryAddress = RouteItemLoadBalancer.addressOf(routeItems.get(0));
+        verify(routeItemLoadBalancer, timeout(1000)).onRequestFinished(primaryAddress, false);
+    }
+
+    @Test
+    public void givenEmptyBudgetWhenPrimaryStalledThenShouldWaitForThePrimary() {
+        hedgeProperties.setBudgetRatio(0.1);
+        primaryInstanceDelayMillis = i -> 300L;
+        HedgedRequestRouter router = newRouter();
+
+        MockServerWebExchange exchange = exchange();
+        router.route(exchange, ROUTE, NAME, routeItems).block(Duration.ofSeconds(5));
+
+        assertThat(bodyOf(exchange)).isEqualTo("primary");
+        assertThat(secondInstanceRequests.get()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenResponseAlreadyClaimedWhenClaimThenShouldDrainTheLoserBody() {
+        HedgedRequestRouter router = newRouter();
+        AtomicBoolean responded = new AtomicBoolean();
+        AtomicBoolean winnerBodyRead = new AtomicBoolean();
+        AtomicBoolean loserBodyRead = new AtomicBoolean();
+        ClientResponse winner = clientResponse("winner", winnerBodyRead);
+        ClientResponse loser = clientResponse("loser", loserBodyRead);
+
+        assertThat(router.claimResponse(winner, responded).block(Duration.ofSeconds(5))).isSameAs(winner);
+        assertThat(router.claimResponse(loser, responded).block(Duration.ofSeconds(5))).isNull();
+
+        assertThat(winnerBodyRead.get()).isFalse();
+        assertThat(loserBodyRead.get()).isTrue();
+    }
+
+    @Test
+    public void givenOccasionalStallsWhenLoadedThenShouldCutTheTailLatencyWithinTheBudget() {
+        // every tenth request to the first instance stalls as on a GC pause
+        primaryInstanceDelayMillis = i -> i % 10 == 9 ? 1000L : 5L;
+        secondInstanceDelayMillis = i -> 5L;
+        int requests = 300;
+
+        policy.setDefaultDelayMillis(60000);
+        List<Long> unhedgedLatencies = load(newRouter(), requests);
+
+        primaryInstanceRequests.set(0);
+        secondInstanceRequests.set(0);
+        routeMetricsRegistry = new RouteMetricsRegistry();
+        policy.setDefaultDelayMillis(100);
+        long startTime = System.nanoTime();
+        List<Long> hedgedLatencies = load(newRouter(), requests);
+        long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+        long hedgedRequests = routeMetricsRegistry.getRouteMetrics(ROUTE.getId(), NAME).toDto().getHedgedRequests();
+        String summary = String.format("p99 %s ms unhedged, %s ms hedged, %s hedged requests, %s requests/s",
+                percentile(unhedgedLatencies, 0.99), percentile(hedgedLatencies, 0.99), hedgedRequests,
+                requests * 1000L / elapsedMillis);
+        assertThat(percentile(unhedgedLatencies, 0.99)).as(summary).isGreaterThanOrEqualTo(1000);
+        assertThat(percentile(hedgedLatencies, 0.99)).as(summary).isLessThan(500);
+        assertThat(hedgedRequests).as(summary).isGreaterThan(0)
+                .isLessThanOrEqualTo((long) (requests * hedgeProperties.getBudgetRatio()
+                        + hedgeProperties.getBudgetMaxBalance()));
+    }
+
+    private List<Long> load(HedgedRequestRouter router, int requests) {
+        return Flux.range(0, requests).flatMap(i -> Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            MockServerWebExchange exchange = exchange();
+            return router.route(exchange, ROUTE, NAME, routeItems)
+                    .then(Mono.fromCallable(() -> TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime)));
+        }), 10).collectList().block(Duration.ofSeconds(120));
+    }
+
+    private long percentile(List<Long> latencies, double percentile) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        return sorted.get((int) Math.ceil(percentile * sorted.size()) - 1);
+    }
+
+    private HedgedRequestRouter newRouter() {
+        @SuppressWarnings("unchecked")
+        ObjectProvider<List<HttpHeadersFilter>> headersFiltersProvider = mock(ObjectProvider.class);
+        return new HedgedRequestRouter(WebClient.create(), headersFiltersProvider, routeItemLoadBalancer,
+                routeMetricsRegistry, hedgeProperties);
+    }
+
+    private RouteMetrics recordUpstreamLatencies(int samples, long latencyMillis) {
+        RouteMetrics routeMetrics = routeMetricsRegistry.getRouteMetrics(ROUTE.getId(), NAME);
+        for (int i = 0; i < samples; i++) {
+            routeMetrics.record(latencyMillis, latencyMillis, 0, false);
+        }
+        return routeMetrics;
+    }
+
+    private MockServerWebExchange exchange() {
+        return MockServerWebExchange.from(MockServerHttpRequest.get("/wecmdb/entities/unit"));
+    }
+
+    private String bodyOf(MockServerWebExchange exchange) {
+        return exchange.getResponse().getBodyAsString().block(Duration.ofSeconds(5));
+    }
+
+    private ClientResponse clientResponse(String body, AtomicBoolean bodyRead) {
+        DataBuffer buffer = new DefaultDataBufferFactory().wrap(body.getBytes(StandardCharsets.UTF_8));
+        return ClientResponse.create(HttpStatus.OK)
+                .body(Flux.just(buffer).doOnSubscribe(subscription -> bodyRead.set(true))).build();
+    }
+
+    private DisposableServer startInstance(String body, AtomicInteger requests, IntFunction<Long> delayMillis) {
+        return HttpServer.create().host("localhost").port(0)
+                .handle((request, response) -> {
+                    long delay = delayMillis.apply(requests.getAndIncrement());
+                    return response.header("Content-Type", "text/plain")
+                            .sendString(Mono.just(body).delayElement(Duration.ofMillis(delay)));
+                }).bindNow();
+    }
+
+    private static RouteItemInfoDto routeItem(DisposableServer instance) {
+        RouteItemInfoDto item = new RouteItemInfoDto();
+        item.setName(NAME);
+        item.setSchema("http");
+        item.setHost("localhost");
+        item.setPort(String.valueOf(instance.port()));
+        return item;
+    }
+}
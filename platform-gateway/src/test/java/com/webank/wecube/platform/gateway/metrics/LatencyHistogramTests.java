@@ -0,0 +1,61 @@
+package com.webank.wecube.platform.gateway.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+public class LatencyHistogramTests {
+    private final LatencyHistogram histogram = new LatencyHistogram();
+
+    @Test
+    public void givenNoLatencyWhenGetPercentileThenShouldBeZero() {
+        assertThat(histogram.getCount()).isEqualTo(0);
+        assertThat(histogram.getMeanMillis()).isEqualTo(0.0);
+        assertThat(histogram.getPercentileMillis(0.99)).isEqualTo(0);
+    }
+
+    @Test
+    public void givenLatenciesWhenGetPercentileThenShouldRoundTheRankUp() {
+        histogram.record(1);
+        histogram.record(5);
+        histogram.record(50);
+
+        // ranks ceil(0.99), ceil(1.02), ceil(1.5) and ceil(2.97) of 3 latencies
+        assertThat(histogram.getPercentileMillis(0.33)).isEqualTo(1);
+        assertThat(histogram.getPercentileMillis(0.34)).isEqualTo(5);
+        assertThat(histogram.getPercentileMillis(0.50)).isEqualTo(5);
+        assertThat(histogram.getPercentileMillis(0.99)).isEqualTo(50);
+        assertThat(histogram.getCount()).isEqualTo(3);
+        assertThat(histogram.getMeanMillis()).isEqualTo(56 / 3.0);
+    }
+
+    @Test
+    public void givenLatenciesBelowBucketUpperBoundWhenGetPercentileThenShouldClampToMax() {
+        histogram.record(3);
+        histogram.record(4);
+
+        // both in the bucket up to 5 ms
+        assertThat(histogram.getPercentileMillis(0.99)).isEqualTo(4);
+        assertThat(histogram.getMaxMillis()).isEqualTo(4);
+
+        histogram.record(200);
+        assertThat(histogram.getPercentileMillis(0.50)).isEqualTo(5);
+        assertThat(histogram.getPercentileMillis(0.99)).isEqualTo(200);
+    }
+
+    @Test
+    public void givenLatencyPastLastBucketWhenGetPercentileThenShouldReportTheMax() {
+        for (int i = 0; i < 99; i++) {
+            histogram.record(10);
+        }
+        histogram.record(90000);
+
+        assertThat(histogram.getPercentileMillis(0.99)).isEqualTo(10);
+        assertThat(histogram.getPercentileMillis(1.0)).isEqualTo(90000);
+        assertThat(histogram.getMaxMillis()).isEqualTo(90000);
+
+        histogram.record(60000);
+        // exactly the upper bound of the last bucket
+        assertThat(histogram.getPercentileMillis(0.985)).isEqualTo(60000);
+    }
+}
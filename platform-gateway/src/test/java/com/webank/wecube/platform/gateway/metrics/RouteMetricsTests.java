@@ -0,0 +1,58 @@
+package com.webank.wecube.platform.gateway.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.Test;
+
+import com.webank.wecube.platform.gateway.dto.RouteMetricsDto;
+
+public class RouteMetricsTests {
+    private final RouteMetrics routeMetrics = new RouteMetrics("wecmdb-1", "wecmdb");
+
+    @Test
+    public void givenNoRequestWhenToDtoThenShouldReportZeroRates() {
+        RouteMetricsDto dto = routeMetrics.toDto();
+
+        assertThat(dto.getRouteId()).isEqualTo("wecmdb-1");
+        assertThat(dto.getPackageName()).isEqualTo("wecmdb");
+        assertThat(dto.getRequests()).isEqualTo(0);
+        assertThat(dto.getErrorRate()).isEqualTo(0.0);
+        assertThat(dto.getMeanResponseBytes()).isEqualTo(0.0);
+        assertThat(dto.getLatency().getCount()).isEqualTo(0);
+        assertThat(dto.getUpstreamLatency().getP99()).isEqualTo(0);
+    }
+
+    @Test
+    public void givenRecordedRequestsWhenToDtoThenShouldReportCountsRatesAndLatencies() {
+        routeMetrics.record(12, 10L, 100, false);
+        routeMetrics.record(40, 38L, 300, false);
+        routeMetrics.record(3, null, 0, true);
+        routeMetrics.record(150, 140L, 600, true);
+        routeMetrics.recordCancelledRequest();
+        routeMetrics.recordRateLimitRejection();
+        routeMetrics.recordHedgedRequest();
+        routeMetrics.recordHedgedRequest();
+
+        RouteMetricsDto dto = routeMetrics.toDto();
+
+        assertThat(dto.getRequests()).isEqualTo(4);
+        assertThat(dto.getErrors()).isEqualTo(2);
+        assertThat(dto.getErrorRate()).isEqualTo(0.5);
+        assertThat(dto.getCancelledRequests()).isEqualTo(1);
+        assertThat(dto.getResponseBytes()).isEqualTo(1000);
+        assertThat(dto.getMeanResponseBytes()).isEqualTo(250.0);
+        assertThat(dto.getRateLimitRejections()).isEqualTo(1);
+        assertThat(dto.getHedgedRequests()).isEqualTo(2);
+
+        assertThat(dto.getLatency().getCount()).isEqualTo(4);
+        assertThat(dto.getLatency().getMean()).isEqualTo(51.25);
+        assertThat(dto.getLatency().getP50()).isEqualTo(20);
+        assertThat(dto.getLatency().getP95()).isEqualTo(150);
+        assertThat(dto.getLatency().getMax()).isEqualTo(150);
+
+        // the request failing before reaching the instance has no upstream latency
+        assertThat(dto.getUpstreamLatency().getCount()).isEqualTo(3);
+        assertThat(dto.getUpstreamLatency().getP50()).isEqualTo(50);
+        assertThat(dto.getUpstreamLatency().getP99()).isEqualTo(140);
+    }
+}
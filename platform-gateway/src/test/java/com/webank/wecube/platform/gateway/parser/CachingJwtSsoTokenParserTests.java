@@ -0,0 +1,142 @@
+package com.webank.wecube.platform.gateway.parser;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.impl.DefaultClaims;
+import io.jsonwebtoken.impl.DefaultJws;
+import io.jsonwebtoken.impl.DefaultJwsHeader;
+
+public class CachingJwtSsoTokenParserTests {
+    private static final long ONE_HOUR_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private final AtomicInteger parses = new AtomicInteger();
+
+    @Test
+    public void givenVerifiedTokenWhenParseAgainThenShouldHitTheCache() {
+        CachingJwtSsoTokenParser parser = new CachingJwtSsoTokenParser(expiringIn(ONE_HOUR_MILLIS), 100,
+                ONE_HOUR_MILLIS);
+
+        Jws<Claims> jwt = parser.parseJwt("token");
+
+        assertThat(parser.parseJwt("token")).isSameAs(jwt);
+        assertThat(parses.get()).isEqualTo(1);
+        assertThat(parser.parseJwt("another-token")).isNotSameAs(jwt);
+        assertThat(parses.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenTokenExpiringBeforeMaxTtlWhenExpiredThenShouldParseAgain() throws InterruptedException {
+        CachingJwtSsoTokenParser parser = new CachingJwtSsoTokenParser(expiringIn(200), 100, ONE_HOUR_MILLIS);
+        parser.parseJwt("token");
+        parser.parseJwt("token");
+        assertThat(parses.get()).isEqualTo(1);
+
+        Thread.sleep(400);
+
+        parser.parseJwt("token");
+        assertThat(parses.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenMaxTtlBeforeTokenExpirationWhenElapsedThenShouldParseAgain() throws InterruptedException {
+        CachingJwtSsoTokenParser parser = new CachingJwtSsoTokenParser(expiringIn(ONE_HOUR_MILLIS), 100, 200);
+        parser.parseJwt("token");
+        parser.parseJwt("token");
+        assertThat(parses.get()).isEqualTo(1);
+
+        Thread.sleep(400);
+
+        parser.parseJwt("token");
+        assertThat(parses.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenTokenFailingToParseWhenParseAgainThenShouldNotBeCached() {
+        JwtSsoTokenParser failingParser = token -> {
+            parses.incrementAndGet();
+            throw new MalformedJwtException("bad token");
+        };
+        CachingJwtSsoTokenParser parser = new CachingJwtSsoTokenParser(failingParser, 100, ONE_HOUR_MILLIS);
+
+        assertThatThrownBy(() -> parser.parseJwt("bad-token")).isInstanceOf(MalformedJwtException.class);
+        assertThatThrownBy(() -> parser.parseJwt("bad-token")).isInstanceOf(MalformedJwtException.class);
+        assertThat(parses.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenNullParseResultWhenParseAgainThenShouldNotBeCached() {
+        JwtSsoTokenParser nullParser = token -> {
+            parses.incrementAndGet();
+            return null;
+        };
+        CachingJwtSsoTokenParser parser = new CachingJwtSsoTokenParser(nullParser, 100, ONE_HOUR_MILLIS);
+
+        assertThat(parser.parseJwt("token")).isNull();
+        assertThat(parser.parseJwt("token")).isNull();
+        assertThat(parses.get()).isEqualTo(2);
+    }
+
+    @Test
+    public void givenConcurrentRequestsWhenParseSameTokensThenShouldParseEachOnce() throws Exception {
+        int threads = 16;
+        int tokens = 200;
+        int parsesPerThread = 50000;
+        CachingJwtSsoTokenParser parser = new CachingJwtSsoTokenParser(expiringIn(ONE_HOUR_MILLIS), 10000,
+                ONE_HOUR_MILLIS);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Callable<Integer>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                tasks.add(() -> {
+                    int verified = 0;
+                    for (int i = 0; i < parsesPerThread; i++) {
+                        if (parser.parseJwt("token-" + ((offset + i) % tokens)) != null) {
+                            verified++;
+                        }
+                    }
+                    return verified;
+                });
+            }
+
+            long startTime = System.nanoTime();
+            int verified = 0;
+            for (Future<Integer> future : executor.invokeAll(tasks)) {
+                verified += future.get();
+            }
+            long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+
+            assertThat(verified).isEqualTo(threads * parsesPerThread);
+            assertThat(parses.get()).as("%s parses in %s ms, %s parses/s", verified, elapsedMillis,
+                    verified * 1000L / elapsedMillis).isEqualTo(tokens);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private JwtSsoTokenParser expiringIn(long millis) {
+        return token -> {
+            parses.incrementAndGet();
+            Claims claims = new DefaultClaims().setSubject(token)
+                    .setExpiration(new Date(System.currentTimeMillis() + millis));
+            return new DefaultJws<>(new DefaultJwsHeader(), claims, "signature");
+        };
+    }
+}
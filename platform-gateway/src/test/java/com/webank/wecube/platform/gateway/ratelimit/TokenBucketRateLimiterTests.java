@@ -0,0 +1,91 @@
+package com.webank.wecube.platform.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.webank.wecube.platform.gateway.ratelimit.RateLimitProperties.RouteRateLimit;
+
+public class TokenBucketRateLimiterTests {
+    private RateLimitProperties rateLimitProperties;
+    private TokenBucketRateLimiter rateLimiter;
+
+    @Before
+    public void setup() {
+        rateLimitProperties = new RateLimitProperties();
+        rateLimitProperties.setBurstCapacity(3);
+        rateLimitProperties.setRefillTokensPerSecond(0.001);
+        rateLimiter = new TokenBucketRateLimiter(rateLimitProperties);
+    }
+
+    @Test
+    public void givenDefaultLimitWhenBurstExceededThenShouldReject() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(rateLimiter.tryAcquire("wecmdb", "user:admin")).isEqualTo(0);
+        }
+        assertThat(rateLimiter.tryAcquire("wecmdb", "user:admin")).isGreaterThan(0);
+    }
+
+    @Test
+    public void givenDifferentUsersAndRoutesWhenAcquireThenShouldUseSeparateBuckets() {
+        exhaust("wecmdb", "user:admin");
+
+        assertThat(rateLimiter.tryAcquire("wecmdb", "user:admin")).isGreaterThan(0);
+        assertThat(rateLimiter.tryAcquire("wecmdb", "user:guest")).isEqualTo(0);
+        assertThat(rateLimiter.tryAcquire("service-mgmt", "user:admin")).isEqualTo(0);
+    }
+
+    @Test
+    public void givenRouteLimitWhenAcquireThenShouldOverrideTheDefaultLimit() {
+        rateLimitProperties.getRoutes().put("wecmdb", routeRateLimit(1, 0.001));
+
+        assertThat(rateLimiter.tryAcquire("wecmdb", "user:admin")).isEqualTo(0);
+        assertThat(rateLimiter.tryAcquire("wecmdb", "user:admin")).isGreaterThan(0);
+    }
+
+    @Test
+    public void givenNonPositiveRouteLimitWhenAcquireThenShouldNotLimit() {
+        rateLimitProperties.getRoutes().put("wecmdb", routeRateLimit(0, 0));
+
+        for (int i = 0; i < 100; i++) {
+            assertThat(rateLimiter.tryAcquire("wecmdb", "user:admin")).isEqualTo(0);
+        }
+    }
+
+    @Test
+    public void givenFullAndUsedBucketsWhenEvictIdleBucketsThenShouldOnlyDropTheFullOnes()
+            throws InterruptedException {
+        rateLimitProperties.setRefillTokensPerSecond(1000000);
+        rateLimiter.tryAcquire("wecmdb", "user:admin");
+        rateLimitProperties.getRoutes().put("service-mgmt", routeRateLimit(3, 0.001));
+        rateLimiter.tryAcquire("service-mgmt", "user:admin");
+        Thread.sleep(10);
+
+        rateLimiter.evictIdleBuckets();
+
+        Map<String, TokenBucket> buckets = getBuckets();
+        assertThat(buckets).containsOnlyKeys("service-mgmt/user:admin");
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, TokenBucket> getBuckets() {
+        return (Map<String, TokenBucket>) ReflectionTestUtils.getField(rateLimiter, "buckets");
+    }
+
+    private void exhaust(String routeName, String userKey) {
+        while (rateLimiter.tryAcquire(routeName, userKey) == 0) {
+            // takes all the tokens
+        }
+    }
+
+    private RouteRateLimit routeRateLimit(long burstCapacity, double refillTokensPerSecond) {
+        RouteRateLimit routeRateLimit = new RouteRateLimit();
+        routeRateLimit.setBurstCapacity(burstCapacity);
+        routeRateLimit.setRefillTokensPerSecond(refillTokensPerSecond);
+        return routeRateLimit;
+    }
+}
@@ -0,0 +1,67 @@
+package com.webank.wecube.platform.gateway.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+public class TokenBucketTests {
+    private static final long ONE_SECOND_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    public void givenFullBucketWhenConsumeThenShouldAllowTheBurstCapacity() {
+        TokenBucket bucket = new TokenBucket(5, 1, 0);
+
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(0)).isEqualTo(0);
+        }
+        assertThat(bucket.tryConsume(0)).isGreaterThan(0);
+    }
+
+    @Test
+    public void givenEmptyBucketWhenConsumeThenShouldReturnTheNanosToTheNextToken() {
+        TokenBucket bucket = new TokenBucket(1, 2, 0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.tryConsume(0)).isCloseTo(ONE_SECOND_NANOS / 2, within(10L));
+        assertThat(bucket.tryConsume(ONE_SECOND_NANOS / 4)).isCloseTo(ONE_SECOND_NANOS / 4, within(10L));
+    }
+
+    @Test
+    public void givenTimeElapsedWhenConsumeThenShouldRefillAtTheRate() {
+        TokenBucket bucket = new TokenBucket(10, 10, 0);
+        for (int i = 0; i < 10; i++) {
+            bucket.tryConsume(0);
+        }
+
+        long now = ONE_SECOND_NANOS * 11 / 20;
+        for (int i = 0; i < 5; i++) {
+            assertThat(bucket.tryConsume(now)).isEqualTo(0);
+        }
+        assertThat(bucket.tryConsume(now)).isGreaterThan(0);
+    }
+
+    @Test
+    public void givenLongIdleWhenConsumeThenShouldNotExceedTheBurstCapacity() {
+        TokenBucket bucket = new TokenBucket(3, 100, 0);
+        bucket.tryConsume(0);
+
+        long now = 60 * ONE_SECOND_NANOS;
+        assertThat(bucket.isFull(now)).isTrue();
+        for (int i = 0; i < 3; i++) {
+            assertThat(bucket.tryConsume(now)).isEqualTo(0);
+        }
+        assertThat(bucket.tryConsume(now)).isGreaterThan(0);
+    }
+
+    @Test
+    public void givenTokenTakenWhenCheckFullThenShouldNotBeFullUntilRefilled() {
+        TokenBucket bucket = new TokenBucket(2, 1, 0);
+        bucket.tryConsume(0);
+
+        assertThat(bucket.isFull(ONE_SECOND_NANOS / 2)).isFalse();
+        assertThat(bucket.isFull(2 * ONE_SECOND_NANOS)).isTrue();
+    }
+}
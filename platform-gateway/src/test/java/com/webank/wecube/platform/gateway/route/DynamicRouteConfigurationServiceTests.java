@@ -0,0 +1,183 @@
+package com.webank.wecube.platform.gateway.route;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.cloud.gateway.route.InMemoryRouteDefinitionRepository;
+import org.springframework.cloud.gateway.route.RouteDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.webank.wecube.platform.gateway.config.WebClientConfiguration;
+import com.webank.wecube.platform.gateway.filter.factory.DynamicRouteProperties;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+/**
+ * Refreshes the route table from a stub core answering after a delay, and
+ * detects blocking calls on the refresh path by the threads it runs on: the
+ * scheduler thread driving a refresh must stay free while core has not
+ * responded, and the route items are applied on the event loop delivering the
+ * response.
+ */
+public class DynamicRouteConfigurationServiceTests {
+    private static final String ROUTE_ITEMS_URI = "/platform/v1/route-items";
+    private static final long CORE_RESPONSE_DELAY_MILLIS = 500;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final List<String> listenerThreadNames = new CopyOnWriteArrayList<>();
+
+    private DisposableServer stubCore;
+    private Scheduler refreshScheduler;
+    private InMemoryRouteDefinitionRepository routeDefinitionRepository;
+    private DynamicRouteConfigurationService service;
+    private CountDownLatch routeItemsChanged;
+
+    @Before
+    public void setup() {
+        stubCore = HttpServer.create().host("localhost").port(0)
+                .route(routes -> routes
+                        .get(ROUTE_ITEMS_URI, (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendString(delayed(routeItemsResponse())))
+                        .get(ROUTE_ITEMS_URI + "/changes", (request, response) -> response
+                                .header("Content-Type", "application/json")
+                                .sendString(delayed(routeItemChangesResponse()))))
+                .bindNow();
+
+        DynamicRouteProperties properties = new DynamicRouteProperties();
+        properties.setRouteConfigServer("http://localhost:" + stubCore.port());
+        properties.setRouteConfigUri(ROUTE_ITEMS_URI);
+        properties.setRouteConfigAccessKey("test-access-key");
+        properties.setRouteChangesLongPollTimeoutMillis(1000);
+
+        WebClientConfiguration webClientConfiguration = new WebClientConfiguration();
+        ReflectionTestUtils.setField(webClientConfiguration, "dynamicRouteProperties", properties);
+
+        routeItemsChanged = new CountDownLatch(1);
+        RouteItemsChangeListener listener = name -> {
+            listenerThreadNames.add(Thread.currentThread().getName());
+            routeItemsChanged.countDown();
+        };
+
+        routeDefinitionRepository = new InMemoryRouteDefinitionRepository();
+        service = new DynamicRouteConfigurationService();
+        ReflectionTestUtils.setField(service, "routeDefinitionRepository", routeDefinitionRepository);
+        ReflectionTestUtils.setField(service, "dynamicRouteProperties", properties);
+        ReflectionTestUtils.setField(service, "routeItemsChangeListeners", Collections.singletonList(listener));
+        ReflectionTestUtils.setField(service, "routeConfigWebClient", webClientConfiguration.routeConfigWebClient());
+        ReflectionTestUtils.setField(service, "routeChangesWebClient",
+                webClientConfiguration.routeChangesWebClient());
+        service.setApplicationEventPublisher(event -> {
+        });
+
+        refreshScheduler = Schedulers.newSingle("route-refresh-test");
+    }
+
+    @After
+    public void tearDown() {
+        refreshScheduler.dispose();
+        stubCore.disposeNow();
+    }
+
+    @Test
+    public void givenSlowCoreWhenLoadRoutesThenShouldNotBlockTheRefreshThread() throws Exception {
+        Mono.defer(() -> service.loadRoutes(1L)).subscribeOn(refreshScheduler).subscribe();
+
+        assertRefreshThreadFreeWhileCoreResponds();
+        assertAppliedOnEventLoop();
+    }
+
+    @Test
+    public void givenSlowCoreWhenSyncRouteItemChangesThenShouldNotBlockTheRefreshThread() throws Exception {
+        Mono.defer(() -> service.syncRouteItemChanges()).subscribeOn(refreshScheduler).subscribe();
+
+        assertRefreshThreadFreeWhileCoreResponds();
+        assertAppliedOnEventLoop();
+    }
+
+    private void assertRefreshThreadFreeWhileCoreResponds() {
+        long startTime = System.nanoTime();
+        String refreshThreadName = Mono.fromCallable(() -> Thread.currentThread().getName())
+                .subscribeOn(refreshScheduler).block(Duration.ofSeconds(5));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+        assertThat(refreshThreadName).startsWith("route-refresh-test");
+        assertThat(elapsedMillis).as("refresh thread held while waiting for core, %s ms", elapsedMillis)
+                .isLessThan(CORE_RESPONSE_DELAY_MILLIS);
+        assertThat(routeItemsChanged.getCount()).isEqualTo(1);
+    }
+
+    private void assertAppliedOnEventLoop() throws InterruptedException {
+        assertThat(routeItemsChanged.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(listenerThreadNames).isNotEmpty().allSatisfy(name -> assertThat(name).startsWith("reactor-http"));
+
+        List<RouteDefinition> routeDefinitions = routeDefinitionRepository.getRouteDefinitions().collectList()
+                .block(Duration.ofSeconds(5));
+        assertThat(routeDefinitions).extracting(RouteDefinition::getId).containsExactly("wecmdb-1");
+        assertThat(service.getRouteItems("wecmdb")).hasSize(1);
+    }
+
+    private Mono<String> delayed(String body) {
+        return Mono.just(body).delayElement(Duration.ofMillis(CORE_RESPONSE_DELAY_MILLIS));
+    }
+
+    private String routeItemsResponse() {
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "OK");
+        response.put("message", "success");
+        response.put("data", Collections.singletonList(routeItem()));
+        return toJson(response);
+    }
+
+    private String routeItemChangesResponse() {
+        Map<String, Object> change = new HashMap<>();
+        change.put("name", "wecmdb");
+        change.put("routeItems", Collections.singletonList(routeItem()));
+
+        Map<String, Object> changes = new HashMap<>();
+        changes.put("epoch", "test-epoch");
+        changes.put("version", 1);
+        changes.put("fullSync", true);
+        changes.put("changes", Collections.singletonList(change));
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("status", "OK");
+        response.put("message", "success");
+        response.put("data", changes);
+        return toJson(response);
+    }
+
+    private Map<String, Object> routeItem() {
+        Map<String, Object> item = new HashMap<>();
+        item.put("name", "wecmdb");
+        item.put("schema", "http");
+        item.put("host", "10.0.0.1");
+        item.put("port", "20000");
+        return item;
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
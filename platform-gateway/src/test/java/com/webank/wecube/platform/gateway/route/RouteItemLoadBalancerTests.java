@@ -0,0 +1,152 @@
+package com.webank.wecube.platform.gateway.route;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+
+import com.webank.wecube.platform.gateway.dto.RouteItemInfoDto;
+
+public class RouteItemLoadBalancerTests {
+    private static final String NAME = "wecmdb";
+
+    private final RouteItemInfoDto first = routeItem("10.0.0.1");
+    private final RouteItemInfoDto second = routeItem("10.0.0.2");
+    private final RouteItemInfoDto third = routeItem("10.0.0.3");
+    private final List<RouteItemInfoDto> items = Arrays.asList(first, second, third);
+
+    @Test
+    public void givenRoundRobinWhenChooseThenShouldSpreadEvenly() {
+        RouteItemLoadBalancer loadBalancer = roundRobin(3, 30000);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            RouteItemInfoDto chosen = loadBalancer.choose(NAME, items, Collections.emptySet());
+            counts.merge(chosen.getHost(), 1, Integer::sum);
+        }
+
+        assertThat(counts).containsEntry("10.0.0.1", 100).containsEntry("10.0.0.2", 100).containsEntry("10.0.0.3",
+                100);
+    }
+
+    @Test
+    public void givenExcludedAddressesWhenChooseThenShouldSkipThem() {
+        RouteItemLoadBalancer loadBalancer = roundRobin(3, 30000);
+        Set<String> excluded = new HashSet<>(
+                Arrays.asList(RouteItemLoadBalancer.addressOf(first), RouteItemLoadBalancer.addressOf(third)));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose(NAME, items, excluded)).isSameAs(second);
+        }
+    }
+
+    @Test
+    public void givenAllAddressesExcludedWhenChooseThenShouldReturnNull() {
+        RouteItemLoadBalancer loadBalancer = roundRobin(3, 30000);
+        Set<String> excluded = new HashSet<>();
+        items.forEach(item -> excluded.add(RouteItemLoadBalancer.addressOf(item)));
+
+        assertThat(loadBalancer.choose(NAME, items, excluded)).isNull();
+        assertThat(loadBalancer.choose(NAME, Collections.emptyList(), Collections.emptySet())).isNull();
+    }
+
+    @Test
+    public void givenConsecutiveFailuresWhenChooseThenShouldEjectTheInstance() {
+        RouteItemLoadBalancer loadBalancer = roundRobin(3, 30000);
+        fail(loadBalancer, second, 3);
+
+        for (int i = 0; i < 30; i++) {
+            assertThat(loadBalancer.choose(NAME, items, Collections.emptySet())).isNotSameAs(second);
+        }
+    }
+
+    @Test
+    public void givenSuccessBetweenFailuresWhenChooseThenShouldNotEject() {
+        RouteItemLoadBalancer loadBalancer = roundRobin(3, 30000);
+        fail(loadBalancer, second, 2);
+        String address = RouteItemLoadBalancer.addressOf(second);
+        loadBalancer.onRequestStarted(address);
+        loadBalancer.onRequestFinished(address, false);
+        fail(loadBalancer, second, 2);
+
+        assertThat(chooseMany(loadBalancer, 30)).contains(second);
+    }
+
+    @Test
+    public void givenAllInstancesEjectedWhenChooseThenShouldStillChooseOne() {
+        RouteItemLoadBalancer loadBalancer = roundRobin(1, 30000);
+        items.forEach(item -> fail(loadBalancer, item, 1));
+
+        assertThat(chooseMany(loadBalancer, 30)).containsOnly(first, second, third);
+    }
+
+    @Test
+    public void givenEjectionElapsedWhenChooseThenShouldChooseTheInstanceAgain() throws InterruptedException {
+        RouteItemLoadBalancer loadBalancer = roundRobin(1, 50);
+        fail(loadBalancer, second, 1);
+        assertThat(chooseMany(loadBalancer, 30)).doesNotContain(second);
+
+        Thread.sleep(100);
+
+        assertThat(chooseMany(loadBalancer, 30)).contains(second);
+    }
+
+    @Test
+    public void givenLeastConnectionsWhenChooseThenShouldPreferTheLeastActiveInstance() {
+        RouteItemLoadBalancer loadBalancer = new RouteItemLoadBalancer(
+                RouteItemLoadBalancer.STRATEGY_LEAST_CONNECTIONS, 3, 30000);
+        loadBalancer.onRequestStarted(RouteItemLoadBalancer.addressOf(first));
+        loadBalancer.onRequestStarted(RouteItemLoadBalancer.addressOf(first));
+        loadBalancer.onRequestStarted(RouteItemLoadBalancer.addressOf(third));
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(loadBalancer.choose(NAME, items, Collections.emptySet())).isSameAs(second);
+        }
+    }
+
+    @Test
+    public void givenLeastConnectionsTieWhenChooseThenShouldSpreadTheTie() {
+        RouteItemLoadBalancer loadBalancer = new RouteItemLoadBalancer(
+                RouteItemLoadBalancer.STRATEGY_LEAST_CONNECTIONS, 3, 30000);
+
+        assertThat(chooseMany(loadBalancer, 30)).containsOnly(first, second, third);
+    }
+
+    private RouteItemLoadBalancer roundRobin(int outlierConsecutiveFailures, long outlierEjectionMillis) {
+        return new RouteItemLoadBalancer(RouteItemLoadBalancer.STRATEGY_ROUND_ROBIN, outlierConsecutiveFailures,
+                outlierEjectionMillis);
+    }
+
+    private List<RouteItemInfoDto> chooseMany(RouteItemLoadBalancer loadBalancer, int times) {
+        List<RouteItemInfoDto> chosen = new ArrayList<>();
+        for (int i = 0; i < times; i++) {
+            chosen.add(loadBalancer.choose(NAME, items, Collections.emptySet()));
+        }
+        return chosen;
+    }
+
+    private void fail(RouteItemLoadBalancer loadBalancer, RouteItemInfoDto item, int times) {
+        String address = RouteItemLoadBalancer.addressOf(item);
+        for (int i = 0; i < times; i++) {
+            loadBalancer.onRequestStarted(address);
+            loadBalancer.onRequestFinished(address, true);
+        }
+    }
+
+    private static RouteItemInfoDto routeItem(String host) {
+        RouteItemInfoDto item = new RouteItemInfoDto();
+        item.setName(NAME);
+        item.setSchema("http");
+        item.setHost(host);
+        item.setPort("20000");
+        return item;
+    }
+}